@@ -0,0 +1,98 @@
+package com.hammer.ecommerce.benchmark;
+
+import com.hammer.ecommerce.model.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Entidades em memória com valores realistas para os benchmarks de mapeamento
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("João Silva");
+        user.setEmail("joao@email.com");
+        user.setRole(Role.CUSTOMER);
+        return user;
+    }
+
+    static Category category(int productCount) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Eletrônicos");
+        category.setDescription("Produtos eletrônicos em geral");
+        for (int i = 0; i < productCount; i++) {
+            category.getProducts().add(product(i + 1L, category));
+        }
+        return category;
+    }
+
+    static Product product(Long id, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Notebook Dell " + id);
+        product.setDescription("Notebook Dell Inspiron 15, 16GB RAM, SSD 512GB");
+        product.setPrice(new BigDecimal("3500.00").add(BigDecimal.valueOf(id)));
+        product.setStockQuantity(100);
+        product.setSku("NOTE-" + id);
+        product.setImageUrl("https://cdn.exemplo.com/produtos/" + id + ".jpg");
+        product.setActive(true);
+        product.setCategory(category);
+        product.setCreatedAt(LocalDateTime.now());
+        product.setUpdatedAt(LocalDateTime.now());
+        return product;
+    }
+
+    static Cart cart(int itemCount) {
+        Category category = category(0);
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user());
+        cart.setUpdatedAt(LocalDateTime.now());
+        for (int i = 0; i < itemCount; i++) {
+            CartItem item = new CartItem();
+            item.setId(i + 1L);
+            item.setCart(cart);
+            item.setProduct(product(i + 1L, category));
+            item.setQuantity(1 + i % 3);
+            cart.getItems().add(item);
+        }
+        return cart;
+    }
+
+    static Order order(int itemCount) {
+        Category category = category(0);
+        Order order = new Order();
+        order.setId(1L);
+        order.setUser(user());
+        for (int i = 0; i < itemCount; i++) {
+            Product product = product(i + 1L, category);
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(1 + i % 3);
+            item.setPrice(product.getPrice());
+            item.calculateSubtotal();
+            order.addOrderItem(item);
+        }
+        return order;
+    }
+
+    static Address address() {
+        Address address = new Address();
+        address.setId(1L);
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setComplement("Apto 45");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setIsDefault(true);
+        address.setUser(user());
+        return address;
+    }
+}
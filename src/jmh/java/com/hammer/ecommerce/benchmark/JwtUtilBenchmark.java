@@ -0,0 +1,69 @@
+package com.hammer.ecommerce.benchmark;
+
+import com.hammer.ecommerce.model.Role;
+import com.hammer.ecommerce.security.AuthenticatedUser;
+import com.hammer.ecommerce.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Custo do JWT por requisição autenticada no JwtAuthenticationFilter
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "dGVzdHNlY3JldGtleWZvcnRlc3RpbmdwdXJwb3Nlc29ubHlub3Rmb3Jwcm9kdWN0aW9udXNl";
+
+    private JwtUtil jwtUtil;
+    private AuthenticatedUser principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3600000L);
+        principal = new AuthenticatedUser(1L, "joao@email.com", Role.CUSTOMER, null);
+        token = jwtUtil.generateToken(1L, "joao@email.com", Role.CUSTOMER.name());
+    }
+
+    // Antes: chave decodificada e parser montado a cada chamada, token verificado 3 vezes
+    // (extractUsername, depois validateToken -> extractUsername + extractExpiration)
+    @Benchmark
+    public void filterBefore(Blackhole blackhole) {
+        String username = legacyClaims(token).getSubject();
+        boolean valid = legacyClaims(token).getSubject().equals(principal.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+        blackhole.consume(username);
+        blackhole.consume(valid);
+    }
+
+    // Depois: uma única verificação com chave e parser montados na inicialização
+    @Benchmark
+    public void filterAfter(Blackhole blackhole) {
+        Claims claims = jwtUtil.parseClaims(token);
+        blackhole.consume(jwtUtil.extractUserId(claims));
+        blackhole.consume(jwtUtil.validateToken(claims, principal));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1L, "joao@email.com", Role.CUSTOMER.name());
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
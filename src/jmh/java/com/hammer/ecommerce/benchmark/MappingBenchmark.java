@@ -0,0 +1,132 @@
+package com.hammer.ecommerce.benchmark;
+
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import com.hammer.ecommerce.cart.CartStore;
+import com.hammer.ecommerce.config.AddressMapper;
+import com.hammer.ecommerce.config.CategoryMapper;
+import com.hammer.ecommerce.dto.address.AddressResponseDTO;
+import com.hammer.ecommerce.dto.cart.CartResponseDTO;
+import com.hammer.ecommerce.dto.category.CategoryResponseDTO;
+import com.hammer.ecommerce.dto.product.ProductResponseDTO;
+import com.hammer.ecommerce.model.Address;
+import com.hammer.ecommerce.model.Cart;
+import com.hammer.ecommerce.model.CartItem;
+import com.hammer.ecommerce.model.Category;
+import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.service.AddressService;
+import com.hammer.ecommerce.service.CartService;
+import com.hammer.ecommerce.service.CategoryService;
+import com.hammer.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Conversão entidade -> DTO nos serviços, pelo método público (repositórios em memória, sem banco).
+// O custo fixo do Proxy do repositório é de poucos ns e igual para todos os cenários.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private static final int CART_ITEMS = 10;
+
+    private ProductService productService;
+    private CartService cartService;
+    private AddressService addressService;
+    private CategoryService categoryService;
+
+    private Address address;
+    private Category category;
+    private ModelMapper modelMapper;
+    private AddressMapper addressMapper;
+    private CategoryMapper categoryMapper;
+
+    @Setup
+    public void setUp() {
+        address = Fixtures.address();
+        category = Fixtures.category(20);
+        modelMapper = new ModelMapper();
+        addressMapper = new AddressMapper();
+        categoryMapper = new CategoryMapper();
+
+        productService = new ProductService(
+                RepositoryStub.of(ProductRepository.class, Map.of("findById", Fixtures.product(1L, category))),
+                null,
+                new ProductCatalogCache(false, 1, 1, Duration.ofMinutes(1), new SimpleMeterRegistry()),
+                null,
+                null,
+                new SimpleMeterRegistry());
+
+        // Estado do carrinho vem do CartStore; os produtos, de um findAllById
+        Cart cart = Fixtures.cart(CART_ITEMS);
+        CartSnapshot snapshot = new CartSnapshot(cart.getId(), cart.getItems().stream()
+                .map(item -> new CartLine(item.getId(), item.getProduct().getId(), item.getQuantity()))
+                .toList(), cart.getUpdatedAt());
+        cartService = new CartService(
+                RepositoryStub.of(CartStore.class, Map.of("get", snapshot)),
+                RepositoryStub.of(ProductRepository.class, Map.of("findAllById",
+                        cart.getItems().stream().map(CartItem::getProduct).toList())),
+                new SimpleMeterRegistry());
+
+        addressService = new AddressService(
+                RepositoryStub.of(AddressRepository.class, Map.of("findByIdAndUserId", address)),
+                null,
+                addressMapper);
+
+        categoryService = new CategoryService(
+                RepositoryStub.of(CategoryRepository.class, Map.of("findById", category)),
+                categoryMapper);
+    }
+
+    @Benchmark
+    public ProductResponseDTO productConvertToDTO() {
+        return productService.findById(1L);
+    }
+
+    @Benchmark
+    public CartResponseDTO cartConvertToDTO() {
+        return cartService.getCart(1L);
+    }
+
+    @Benchmark
+    public AddressResponseDTO addressConvertToDTO() {
+        return addressService.findById(1L, 1L);
+    }
+
+    @Benchmark
+    public CategoryResponseDTO categoryConvertToDTO() {
+        return categoryService.findById(1L);
+    }
+
+    // Antes/depois da troca do ModelMapper (reflexão a cada map()) pelos mappers escritos à mão
+    @Benchmark
+    public AddressResponseDTO addressModelMapper() {
+        return modelMapper.map(address, AddressResponseDTO.class);
+    }
+
+    @Benchmark
+    public AddressResponseDTO addressMapper() {
+        return addressMapper.map(address);
+    }
+
+    @Benchmark
+    public CategoryResponseDTO categoryModelMapper() {
+        CategoryResponseDTO dto = modelMapper.map(category, CategoryResponseDTO.class);
+        dto.setProductCount(category.getProducts().size());
+        return dto;
+    }
+
+    @Benchmark
+    public CategoryResponseDTO categoryMapper() {
+        return categoryMapper.map(category, category.getProducts().size());
+    }
+}
@@ -0,0 +1,113 @@
+package com.hammer.ecommerce.benchmark;
+
+import com.hammer.ecommerce.ECommerceApplication;
+import com.hammer.ecommerce.dto.cart.AddToCartRequestDTO;
+import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.OrderResponseDTO;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.repositories.AddressRepository;
+import com.hammer.ecommerce.repositories.CategoryRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.repositories.UserRepository;
+import com.hammer.ecommerce.service.CartService;
+import com.hammer.ecommerce.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Checkout completo (OrderService.createOrder) com o contexto Spring do perfil "test" (H2 em memória)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5) // Hibernate leva dezenas de segundos para estabilizar no JIT
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderCheckoutBenchmark {
+
+    @Param({"1", "5"})
+    private int cartItems;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private CartService cartService;
+
+    private Long userId;
+    private Long[] productIds;
+    private CreateOrderRequestDTO orderRequest;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        // DevTools reinicia o contexto em outro classloader: desligado antes de subir a aplicação
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        context = new SpringApplicationBuilder(ECommerceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test", // substitui o perfil dev do application.properties
+                        "--spring.jpa.show-sql=false"); // SQL no stdout dominaria o tempo medido
+
+        orderService = context.getBean(OrderService.class);
+        cartService = context.getBean(CartService.class);
+
+        User user = new User();
+        user.setName("Comprador Benchmark");
+        user.setEmail("benchmark@email.com");
+        user.setPassword("senha123");
+        user = context.getBean(UserRepository.class).save(user);
+        userId = user.getId();
+
+        Address address = new Address();
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        address = context.getBean(AddressRepository.class).save(address);
+
+        orderRequest = new CreateOrderRequestDTO();
+        orderRequest.setShippingAddressId(address.getId());
+
+        Category category = new Category();
+        category.setName("Benchmark");
+        category = context.getBean(CategoryRepository.class).save(category);
+
+        // Estoque alto o bastante para todas as iterações
+        productIds = new Long[cartItems];
+        for (int i = 0; i < cartItems; i++) {
+            Product product = new Product();
+            product.setName("Produto Benchmark " + i);
+            product.setPrice(new BigDecimal("99.90"));
+            product.setStockQuantity(Integer.MAX_VALUE / 2);
+            product.setSku("BENCH-" + i);
+            product.setActive(true);
+            product.setCategory(category);
+            productIds[i] = context.getBean(ProductRepository.class).save(product).getId();
+        }
+    }
+
+    // O checkout esvazia o carrinho: preenche de novo antes de cada chamada (fora da medição)
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        for (Long productId : productIds) {
+            AddToCartRequestDTO request = new AddToCartRequestDTO();
+            request.setProductId(productId);
+            request.setQuantity(1);
+            cartService.addToCart(userId, request);
+        }
+    }
+
+    @Benchmark
+    public OrderResponseDTO createOrder() {
+        return orderService.createOrder(userId, orderRequest);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+}
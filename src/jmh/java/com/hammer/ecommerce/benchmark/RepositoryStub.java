@@ -0,0 +1,32 @@
+package com.hammer.ecommerce.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+
+// Repositório falso (Proxy) que devolve respostas fixas por nome de método.
+// Mais barato que um mock do Mockito, que distorceria tempo e alocação medidos.
+final class RepositoryStub {
+
+    private RepositoryStub() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T of(Class<T> type, Map<String, Object> responses) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+
+            Object response = responses.get(method.getName());
+            if (method.getReturnType() == Optional.class) {
+                return Optional.ofNullable(response);
+            }
+            return response;
+        });
+    }
+}
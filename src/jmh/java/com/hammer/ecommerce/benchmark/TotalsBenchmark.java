@@ -0,0 +1,40 @@
+package com.hammer.ecommerce.benchmark;
+
+import com.hammer.ecommerce.model.Cart;
+import com.hammer.ecommerce.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Soma de subtotais em BigDecimal (stream + reduce) de carrinho e pedido
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TotalsBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int items;
+
+    private Cart cart;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        cart = Fixtures.cart(items);
+        order = Fixtures.order(items);
+    }
+
+    @Benchmark
+    public BigDecimal cartTotalAmount() {
+        return cart.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal orderCalculateTotal() {
+        return order.calculateTotal();
+    }
+}
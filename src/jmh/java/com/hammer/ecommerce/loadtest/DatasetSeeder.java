@@ -0,0 +1,441 @@
+package com.hammer.ecommerce.loadtest;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+// Popula o banco com uma massa sintética para teste de carga: usuários (com um endereço cada),
+// categorias, produtos, avaliações, carrinhos e pedidos com itens e pagamentos.
+// Tudo por JDBC em lotes (um commit por lote), sem passar pelo Hibernate. Os IDs são reservados
+// em blocos contíguos por tabela e a identity/sequence é avançada para depois do bloco, então a
+// aplicação continua gerando IDs normalmente, inclusive se estiver rodando durante a carga.
+// Os dados são deterministas: o mesmo índice gera sempre o mesmo produto, usuário, pedido etc.
+public class DatasetSeeder {
+
+    static final String[] NOUNS = {"Mouse", "Teclado", "Monitor", "Headset", "Webcam", "Cabo",
+            "Notebook", "Cadeira", "Mesa", "Caixa de som", "Microfone", "Roteador", "Carregador", "Mochila"};
+    private static final String[] ADJECTIVES = {"Gamer", "Sem fio", "Compacto", "Profissional", "Ergonômico",
+            "Portátil", "Premium", "Básico", "Slim", "Pro"};
+    private static final String[] COMMENTS = {"Excelente, recomendo", "Chegou rápido", "Bom custo-benefício",
+            "Qualidade abaixo do esperado", "Funciona bem", "Não gostei"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Dialect dialect;
+    private final int batchSize;
+
+    public DatasetSeeder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         EntityManagerFactory entityManagerFactory, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.batchSize = batchSize;
+    }
+
+    // encodedPassword: hash já calculado, o mesmo para todos os usuários (BCrypt por linha levaria horas)
+    public Dataset seed(Volumes volumes, String encodedPassword) {
+        // Sufixo da carga nos campos únicos (e-mail, SKU, nome de categoria, número do pedido):
+        // permite popular de novo um banco que já tem uma carga anterior
+        String tag = Long.toString(System.currentTimeMillis(), 36);
+        long startNanos = System.nanoTime();
+
+        Dataset dataset = new Dataset(tag, volumes,
+                reserveIdentity("users", volumes.users()),
+                reserveSequence("addresses", volumes.users()),
+                reserveIdentity("categories", volumes.categories()),
+                reserveIdentity("products", volumes.products()),
+                reserveSequence("reviews", volumes.reviews()),
+                reserveIdentity("carts", volumes.carts()),
+                reserveSequence("cart_items", volumes.carts() * volumes.itemsPerCart()),
+                reserveSequence("orders", volumes.orders()),
+                reserveSequence("order_items", volumes.orders() * volumes.itemsPerOrder()),
+                reserveSequence("payments", volumes.orders()));
+
+        seedUsers(dataset, encodedPassword);
+        seedCategories(dataset);
+        seedProducts(dataset);
+        seedReviews(dataset);
+        seedCarts(dataset);
+        seedOrders(dataset);
+
+        System.out.printf("Massa %s: %,d linhas em %.1f s%n", tag, dataset.rows(), (System.nanoTime() - startNanos) / 1e9);
+        return dataset;
+    }
+
+    private void seedUsers(Dataset dataset, String encodedPassword) {
+        LocalDateTime now = LocalDateTime.now();
+        insert("users", "INSERT INTO users (id, name, email, password, role, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, 'CUSTOMER', ?, ?)",
+                dataset.volumes.users(), (ps, i) -> {
+                    Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(mix(i, 1) % 525_600));
+                    ps.setLong(1, dataset.userId(i));
+                    ps.setString(2, "Cliente Carga " + i);
+                    ps.setString(3, dataset.userEmail(i));
+                    ps.setString(4, encodedPassword);
+                    ps.setTimestamp(5, createdAt);
+                    ps.setTimestamp(6, createdAt);
+                });
+
+        insert("addresses", "INSERT INTO addresses (id, street, number, neighborhood, city, state, zip_code, is_default, user_id) " +
+                        "VALUES (?, 'Rua das Flores', ?, 'Centro', 'São Paulo', 'SP', '01234-567', TRUE, ?)",
+                dataset.volumes.users(), (ps, i) -> {
+                    ps.setLong(1, dataset.addressId(i));
+                    ps.setString(2, Integer.toString(i % 9999 + 1));
+                    ps.setLong(3, dataset.userId(i));
+                });
+    }
+
+    private void seedCategories(Dataset dataset) {
+        insert("categories", "INSERT INTO categories (id, name, description) VALUES (?, ?, ?)",
+                dataset.volumes.categories(), (ps, i) -> {
+                    ps.setLong(1, dataset.categoryId(i));
+                    ps.setString(2, "Categoria " + i + " " + dataset.tag);
+                    ps.setString(3, "Categoria gerada para teste de carga");
+                });
+    }
+
+    // A nota de cada avaliação é função do índice: soma e contagem por produto são calculadas
+    // antes e gravadas junto com o produto, como o ReviewService mantém
+    private void seedProducts(Dataset dataset) {
+        int products = dataset.volumes.products();
+        long[] ratingSum = new long[products];
+        int[] ratingCount = new int[products];
+        for (int k = 0; k < dataset.volumes.reviews(); k++) {
+            int product = dataset.reviewProduct(k);
+            ratingSum[product] += rating(k);
+            ratingCount[product]++;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        insert("products", "INSERT INTO products (id, name, description, price, stock_quantity, sku, active, " +
+                        "category_id, rating_sum, rating_count, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                products, (ps, i) -> {
+                    Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(mix(i, 2) % 525_600));
+                    ps.setLong(1, dataset.productId(i));
+                    ps.setString(2, dataset.productName(i));
+                    ps.setString(3, "Produto gerado para teste de carga, " + ADJECTIVES[i % ADJECTIVES.length].toLowerCase());
+                    ps.setBigDecimal(4, dataset.productPrice(i));
+                    ps.setInt(5, 1_000_000);
+                    ps.setString(6, "LOAD-" + dataset.tag + "-" + i);
+                    ps.setBoolean(7, true);
+                    ps.setLong(8, dataset.categoryId(i % dataset.volumes.categories()));
+                    ps.setLong(9, ratingSum[i]);
+                    ps.setInt(10, ratingCount[i]);
+                    ps.setTimestamp(11, createdAt);
+                    ps.setTimestamp(12, createdAt);
+                });
+    }
+
+    private void seedReviews(Dataset dataset) {
+        LocalDateTime now = LocalDateTime.now();
+        insert("reviews", "INSERT INTO reviews (id, product_id, user_id, rating, comment, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                dataset.volumes.reviews(), (ps, k) -> {
+                    ps.setLong(1, dataset.reviewIds + k);
+                    ps.setLong(2, dataset.productId(dataset.reviewProduct(k)));
+                    ps.setLong(3, dataset.userId(dataset.reviewUser(k)));
+                    ps.setInt(4, rating(k));
+                    ps.setString(5, COMMENTS[(int) (mix(k, 3) % COMMENTS.length)]);
+                    ps.setTimestamp(6, Timestamp.valueOf(now.minusMinutes(mix(k, 4) % 525_600)));
+                });
+    }
+
+    // Os primeiros usuários têm carrinho, com produtos distintos
+    private void seedCarts(Dataset dataset) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        insert("carts", "INSERT INTO carts (id, user_id, created_at, updated_at) VALUES (?, ?, ?, ?)",
+                dataset.volumes.carts(), (ps, i) -> {
+                    ps.setLong(1, dataset.cartIds + i);
+                    ps.setLong(2, dataset.userId(i));
+                    ps.setTimestamp(3, now);
+                    ps.setTimestamp(4, now);
+                });
+
+        int itemsPerCart = dataset.volumes.itemsPerCart();
+        insert("cart_items", "INSERT INTO cart_items (id, cart_id, product_id, quantity) VALUES (?, ?, ?, ?)",
+                dataset.volumes.carts() * itemsPerCart, (ps, k) -> {
+                    int cart = k / itemsPerCart;
+                    ps.setLong(1, dataset.cartItemIds + k);
+                    ps.setLong(2, dataset.cartIds + cart);
+                    ps.setLong(3, dataset.productId(dataset.lineProduct(cart, k % itemsPerCart, 5)));
+                    ps.setInt(4, 1);
+                });
+    }
+
+    private void seedOrders(Dataset dataset) {
+        LocalDateTime now = LocalDateTime.now();
+        int itemsPerOrder = dataset.volumes.itemsPerOrder();
+        insert("orders", "INSERT INTO orders (id, order_number, user_id, shipping_address_id, total_amount, status, " +
+                        "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                dataset.volumes.orders(), (ps, i) -> {
+                    BigDecimal total = BigDecimal.ZERO;
+                    for (int j = 0; j < itemsPerOrder; j++) {
+                        total = total.add(dataset.productPrice(dataset.lineProduct(i, j, 6))
+                                .multiply(BigDecimal.valueOf(dataset.orderQuantity(i, j))));
+                    }
+                    int user = dataset.orderUser(i);
+                    Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(mix(i, 7) % 525_600));
+                    ps.setLong(1, dataset.orderId(i));
+                    ps.setString(2, "LOAD-" + dataset.tag + "-" + i);
+                    ps.setLong(3, dataset.userId(user));
+                    ps.setLong(4, dataset.addressId(user));
+                    ps.setBigDecimal(5, total);
+                    ps.setString(6, dataset.orderStatus(i));
+                    ps.setTimestamp(7, createdAt);
+                    ps.setTimestamp(8, createdAt);
+                });
+
+        insert("order_items", "INSERT INTO order_items (id, order_id, product_id, quantity, price, subtotal) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                dataset.volumes.orders() * itemsPerOrder, (ps, k) -> {
+                    int order = k / itemsPerOrder;
+                    int line = k % itemsPerOrder;
+                    BigDecimal price = dataset.productPrice(dataset.lineProduct(order, line, 6));
+                    int quantity = dataset.orderQuantity(order, line);
+                    ps.setLong(1, dataset.orderItemIds + k);
+                    ps.setLong(2, dataset.orderId(order));
+                    ps.setLong(3, dataset.productId(dataset.lineProduct(order, line, 6)));
+                    ps.setInt(4, quantity);
+                    ps.setBigDecimal(5, price);
+                    ps.setBigDecimal(6, price.multiply(BigDecimal.valueOf(quantity)));
+                });
+
+        // Pagamento aprovado para os pedidos que já saíram de PENDING, exceto os cancelados
+        int[] paidOrders = dataset.paidOrders();
+        insert("payments", "INSERT INTO payments (id, order_id, payment_method, status, transaction_id, paid_at, created_at) " +
+                        "VALUES (?, ?, ?, 'APPROVED', ?, ?, ?)",
+                paidOrders.length, (ps, k) -> {
+                    int order = paidOrders[k];
+                    Timestamp paidAt = Timestamp.valueOf(now.minusMinutes(mix(order, 7) % 525_600));
+                    ps.setLong(1, dataset.paymentIds + k);
+                    ps.setLong(2, dataset.orderId(order));
+                    ps.setString(3, order % 2 == 0 ? "PIX" : "CREDIT_CARD");
+                    ps.setString(4, "LOAD-" + dataset.tag + "-" + order);
+                    ps.setTimestamp(5, paidAt);
+                    ps.setTimestamp(6, paidAt);
+                });
+    }
+
+    // Um commit por lote de batchSize linhas
+    private void insert(String table, String sql, int rows, RowWriter writer) {
+        long startNanos = System.nanoTime();
+        for (int offset = 0; offset < rows; offset += batchSize) {
+            int first = offset;
+            int size = Math.min(batchSize, rows - offset);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    writer.write(ps, first + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            }));
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("  %-12s %,12d linhas em %6.1f s (%,.0f linhas/s)%n", table, rows, seconds, rows / Math.max(seconds, 1e-3));
+    }
+
+    // Identity: o bloco começa depois do maior ID e a coluna passa a gerar a partir do fim do bloco
+    private long reserveIdentity(String table, long count) {
+        long first = maxId(table) + 1;
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (first + count));
+        return first;
+    }
+
+    // Sequence pooled-lo (blocos de 50): o próximo valor ainda não foi entregue a ninguém, então
+    // tudo a partir dele está livre; a sequence recomeça depois do bloco
+    private long reserveSequence(String table, long count) {
+        String sequence = table + "_seq";
+        Long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        long first = Math.max(next, maxId(table) + 1);
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (first + count));
+        return first;
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private static int rating(long review) {
+        return (int) (mix(review, 8) % 5) + 1;
+    }
+
+    // splitmix64: espalha (índice, campo) em um long não negativo
+    static long mix(long index, long salt) {
+        long z = index * 0x9E3779B97F4A7C15L + salt * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) >>> 1;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, int index) throws SQLException;
+    }
+
+    public record Volumes(int users, int categories, int products, int reviews, int carts, int itemsPerCart,
+                          int orders, int itemsPerOrder) {
+
+        public Volumes {
+            if (users < 1 || categories < 1 || products < 1) {
+                throw new IllegalArgumentException("A massa precisa de ao menos um usuário, uma categoria e um produto");
+            }
+            if (carts > users) {
+                throw new IllegalArgumentException("Cada usuário tem no máximo um carrinho: carts <= users");
+            }
+            if (itemsPerCart > products || itemsPerOrder > products) {
+                throw new IllegalArgumentException("Itens por carrinho/pedido não podem passar do número de produtos");
+            }
+            if (reviews > (long) users * products) {
+                throw new IllegalArgumentException("Cada usuário avalia um produto no máximo uma vez: reviews <= users * products");
+            }
+        }
+
+        // Valores de System.getProperty(prefixo + nome), com os padrões abaixo
+        public static Volumes fromSystemProperties(String prefix) {
+            return new Volumes(
+                    Integer.getInteger(prefix + "users", 10_000),
+                    Integer.getInteger(prefix + "categories", 50),
+                    Integer.getInteger(prefix + "products", 50_000),
+                    Integer.getInteger(prefix + "reviews", 200_000),
+                    Integer.getInteger(prefix + "carts", 2_000),
+                    Integer.getInteger(prefix + "items-per-cart", 3),
+                    Integer.getInteger(prefix + "orders", 100_000),
+                    Integer.getInteger(prefix + "items-per-order", 3));
+        }
+    }
+
+    // Massa gravada: IDs e atributos de cada linha a partir do índice, para o gerador de carga
+    public static class Dataset {
+
+        private final String tag;
+        private final Volumes volumes;
+        private final long userIds;
+        private final long addressIds;
+        private final long categoryIds;
+        private final long productIds;
+        private final long reviewIds;
+        private final long cartIds;
+        private final long cartItemIds;
+        private final long orderIds;
+        private final long orderItemIds;
+        private final long paymentIds;
+
+        Dataset(String tag, Volumes volumes, long userIds, long addressIds, long categoryIds, long productIds,
+                long reviewIds, long cartIds, long cartItemIds, long orderIds, long orderItemIds, long paymentIds) {
+            this.tag = tag;
+            this.volumes = volumes;
+            this.userIds = userIds;
+            this.addressIds = addressIds;
+            this.categoryIds = categoryIds;
+            this.productIds = productIds;
+            this.reviewIds = reviewIds;
+            this.cartIds = cartIds;
+            this.cartItemIds = cartItemIds;
+            this.orderIds = orderIds;
+            this.orderItemIds = orderItemIds;
+            this.paymentIds = paymentIds;
+        }
+
+        public Volumes volumes() {
+            return volumes;
+        }
+
+        public long rows() {
+            return 2L * volumes.users() + volumes.categories() + volumes.products() + volumes.reviews()
+                    + volumes.carts() * (1L + volumes.itemsPerCart())
+                    + volumes.orders() * (1L + volumes.itemsPerOrder())
+                    + paidOrders().length;
+        }
+
+        public long userId(int user) {
+            return userIds + user;
+        }
+
+        public String userEmail(int user) {
+            return "carga-" + tag + "-" + user + "@email.com";
+        }
+
+        public long addressId(int user) {
+            return addressIds + user;
+        }
+
+        public long categoryId(int category) {
+            return categoryIds + category;
+        }
+
+        public long productId(int product) {
+            return productIds + product;
+        }
+
+        public String productName(int product) {
+            return ADJECTIVES[(int) (mix(product, 9) % ADJECTIVES.length)] + " " + NOUNS[product % NOUNS.length]
+                    + " " + product;
+        }
+
+        public BigDecimal productPrice(int product) {
+            return BigDecimal.valueOf(990 + mix(product, 10) % 99_000, 2);
+        }
+
+        public long orderId(long order) {
+            return orderIds + order;
+        }
+
+        public int orderUser(long order) {
+            return (int) (mix(order, 11) % volumes.users());
+        }
+
+        // 20% PENDING, 10% CANCELLED, o resto já pago
+        public String orderStatus(long order) {
+            long bucket = mix(order, 12) % 10;
+            if (bucket < 2) {
+                return "PENDING";
+            }
+            if (bucket == 2) {
+                return "CANCELLED";
+            }
+            return bucket < 5 ? "PAID" : bucket < 6 ? "SHIPPED" : "DELIVERED";
+        }
+
+        int[] paidOrders() {
+            return IntStream.range(0, volumes.orders())
+                    .filter(order -> !orderStatus(order).equals("PENDING") && !orderStatus(order).equals("CANCELLED"))
+                    .toArray();
+        }
+
+        int orderQuantity(long order, int line) {
+            return (int) (mix(order * 31 + line, 13) % 3) + 1;
+        }
+
+        // Produtos distintos dentro do mesmo carrinho/pedido: passos consecutivos a partir de um início aleatório
+        int lineProduct(long owner, int line, long salt) {
+            return (int) ((mix(owner, salt) + line) % volumes.products());
+        }
+
+        // Avaliação k: produto k % products, usuário deslocado por produto; o par (produto, usuário)
+        // não se repete enquanto reviews <= users * products
+        int reviewProduct(long review) {
+            return (int) (review % volumes.products());
+        }
+
+        int reviewUser(long review) {
+            long product = review % volumes.products();
+            return (int) ((review / volumes.products() + product * 7) % volumes.users());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.hammer.ecommerce.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latência por endpoint em histogramas HDR (nanossegundos, 3 dígitos significativos).
+// Só conta requisições que começaram depois de start(): o aquecimento fica de fora.
+public class LatencyReport {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+    private volatile long startNanos = Long.MAX_VALUE;
+    private volatile long stopNanos;
+
+    public void start() {
+        endpoints.clear();
+        startNanos = System.nanoTime();
+    }
+
+    public void stop() {
+        stopNanos = System.nanoTime();
+    }
+
+    // requestStartNanos: quando a requisição deveria ter começado (no laço aberto, o horário
+    // agendado, não o de envio: atraso do próprio gerador também conta como latência)
+    public void record(String endpoint, long requestStartNanos, int status) {
+        if (requestStartNanos < startNanos) {
+            return;
+        }
+        endpoints.computeIfAbsent(endpoint, name -> new Endpoint())
+                .record(System.nanoTime() - requestStartNanos, status);
+    }
+
+    public double seconds() {
+        return (stopNanos - startNanos) / 1e9;
+    }
+
+    public void print(PrintStream out, String title) {
+        out.printf("%n%s (%.1f s)%n", title, seconds());
+        out.printf("%-34s %9s %9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "req", "req/s", "p50 (ms)", "p90 (ms)", "p99 (ms)", "p99.9", "max (ms)", "erros");
+        endpoints.forEach((endpoint, stats) -> {
+            Histogram histogram = stats.latency;
+            out.printf("%-34s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n",
+                    endpoint,
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / seconds(),
+                    histogram.getValueAtPercentile(50) / 1e6,
+                    histogram.getValueAtPercentile(90) / 1e6,
+                    histogram.getValueAtPercentile(99) / 1e6,
+                    histogram.getValueAtPercentile(99.9) / 1e6,
+                    histogram.getMaxValue() / 1e6,
+                    stats.errors.get());
+        });
+    }
+
+    // Um arquivo .hgrm por endpoint (distribuição completa em ms), para o HdrHistogram plotter
+    public void writeHistograms(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            String name = prefix + entry.getKey().replaceAll("[^A-Za-z0-9]+", "-").replaceAll("-$", "").toLowerCase() + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name)))) {
+                entry.getValue().latency.outputPercentileDistribution(out, 1e6);
+            }
+        }
+        System.out.println("Histogramas em " + directory.toAbsolutePath());
+    }
+
+    private static class Endpoint {
+
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos, int status) {
+            latency.recordValue(nanos);
+            if (status < 200 || status >= 300) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.hammer.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.ECommerceApplication;
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.search.InMemoryProductSearchEngine;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Carga mista em laço aberto sobre uma massa sintética (DatasetSeeder): navegação no catálogo,
+// alterações de carrinho, checkout e pagamento chegam como um processo de Poisson na taxa pedida,
+// independente de quanto a aplicação demora a responder. A latência é medida a partir do horário
+// agendado de cada chegada, então fila no servidor aparece no p99 em vez de reduzir a carga.
+//
+// Sem loadtest.datasource.url: perfil "test" com H2 em memória. Com a URL: perfil "dev" contra o
+// PostgreSQL indicado (a massa é acrescentada, com sufixo próprio nos campos únicos).
+//
+// mvn -Ploadtest-mix verify -DskipTests [-Dloadtest.rate=300 -Dloadtest.mix=browse=70,cart=20,checkout=7,payment=3 ...]
+public class MixedWorkloadLoadTest {
+
+    private static final String PASSWORD = "senha123";
+
+    private final String datasourceUrl = System.getProperty("loadtest.datasource.url", "");
+    private final String datasourceUsername = System.getProperty("loadtest.datasource.username", "postgres");
+    private final String datasourcePassword = System.getProperty("loadtest.datasource.password", "");
+    private final DatasetSeeder.Volumes volumes = DatasetSeeder.Volumes.fromSystemProperties("loadtest.seed.");
+    private final int seedBatchSize = Integer.getInteger("loadtest.seed.batch-size", 1000);
+
+    private final double rate = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+    private final Map<Scenario, Integer> mix = parseMix(System.getProperty("loadtest.mix", "browse=70,cart=20,checkout=7,payment=3"));
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+    private final int sessions = Integer.getInteger("loadtest.sessions", 100);
+    private final int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 5000);
+    private final boolean virtualThreads = Boolean.getBoolean("loadtest.virtual-threads");
+    private final boolean paymentAsync = Boolean.parseBoolean(System.getProperty("loadtest.payment-async", "true"));
+    private final String gatewayLatency = System.getProperty("loadtest.gateway-latency", "PT0.2S");
+    private final Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "target/loadtest"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, AtomicLong> dropped = new ConcurrentHashMap<>();
+    private final Queue<Session> idleSessions = new ConcurrentLinkedQueue<>();
+    private final Queue<PendingOrder> pendingOrders = new ConcurrentLinkedQueue<>();
+
+    private HttpClient client;
+    private String baseUrl;
+    private DatasetSeeder.Dataset dataset;
+
+    public static void main(String[] args) throws Exception {
+        // DevTools reinicia o contexto em outro classloader: desligado antes de subir a aplicação
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        new MixedWorkloadLoadTest().run();
+    }
+
+    private void run() throws Exception {
+        try (ConfigurableApplicationContext context = start()) {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            dataset = seed(context);
+
+            // Clientes em threads virtuais: o gerador de carga não pode ser o gargalo
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            openSessions();
+
+            System.out.printf("%nCarga: %.0f req/s %s, aquecimento %s, medição %s%n", rate, mix, warmup, duration);
+            LatencyReport report = new LatencyReport();
+            generate(warmup, report);
+            dropped.clear();
+            report.start();
+            generate(duration, report);
+
+            report.print(System.out, "Carga mista a %.0f req/s (%s)".formatted(rate, virtualThreads ? "threads virtuais" : "threads de plataforma"));
+            dropped.forEach((reason, count) -> System.out.printf("Chegadas descartadas (%s): %d%n", reason, count.get()));
+            report.writeHistograms(reportDir, "");
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--payment.pipeline.async=" + paymentAsync,
+                "--payment.gateway.simulated.latency=" + gatewayLatency,
+                "--spring.jpa.show-sql=false", // SQL no stdout dominaria o tempo medido
+                "--logging.level.com.hammer.ecommerce=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        if (datasourceUrl.isBlank()) {
+            args.add("--spring.profiles.active=test");
+        } else {
+            args.add("--spring.profiles.active=dev");
+            args.add("--spring.datasource.url=" + rewriteBatchedInserts(datasourceUrl));
+            args.add("--spring.datasource.username=" + datasourceUsername);
+            args.add("--spring.datasource.password=" + datasourcePassword);
+        }
+        return new SpringApplicationBuilder(ECommerceApplication.class).run(args.toArray(String[]::new));
+    }
+
+    // Sem reWriteBatchedInserts o driver do PostgreSQL manda os INSERTs do lote um a um
+    private static String rewriteBatchedInserts(String url) {
+        if (!url.startsWith("jdbc:postgresql:") || url.contains("reWriteBatchedInserts")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+    }
+
+    private DatasetSeeder.Dataset seed(ConfigurableApplicationContext context) {
+        DatasetSeeder seeder = new DatasetSeeder(context.getBean(JdbcTemplate.class),
+                context.getBean(PlatformTransactionManager.class), context.getBean(EntityManagerFactory.class), seedBatchSize);
+        DatasetSeeder.Dataset seeded = seeder.seed(volumes, context.getBean(PasswordEncoder.class).encode(PASSWORD));
+
+        // A massa entrou por JDBC: cache do catálogo e índice de busca em memória não a viram
+        context.getBeanProvider(ProductCatalogCache.class).ifAvailable(ProductCatalogCache::clear);
+        context.getBeanProvider(InMemoryProductSearchEngine.class).ifAvailable(InMemoryProductSearchEngine::rebuild);
+        return seeded;
+    }
+
+    // Login dos primeiros usuários da massa; os pedidos PENDING deles ficam na fila de pagamento
+    private void openSessions() throws Exception {
+        int count = Math.min(sessions, volumes.users());
+        Session[] opened = new Session[count];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                int user = i;
+                executor.submit(() -> {
+                    JsonNode login = objectMapper.readTree(client.send(json("/api/auth/login", null)
+                                    .POST(body(Map.of("email", dataset.userEmail(user), "password", PASSWORD))).build(),
+                            HttpResponse.BodyHandlers.ofString()).body());
+                    Session session = new Session(login.get("token").asText(), dataset.addressId(user));
+                    JsonNode cart = objectMapper.readTree(client.send(json("/api/cart", session.token).GET().build(),
+                            HttpResponse.BodyHandlers.ofString()).body());
+                    session.updateItems(cart);
+                    opened[user] = session;
+                    return null;
+                });
+            }
+        }
+
+        for (Session session : opened) {
+            if (session == null) {
+                throw new IllegalStateException("Falha no login dos usuários da massa");
+            }
+            idleSessions.add(session);
+        }
+        for (int order = 0; order < volumes.orders(); order++) {
+            int user = dataset.orderUser(order);
+            if (user < count && dataset.orderStatus(order).equals("PENDING")) {
+                pendingOrders.add(new PendingOrder(dataset.orderId(order), opened[user].token));
+            }
+        }
+        System.out.printf("Sessões: %d usuários logados, %d pedidos pendentes para pagar%n", count, pendingOrders.size());
+    }
+
+    // Chegadas de Poisson: intervalos exponenciais com média 1/rate. Se a aplicação atrasa, as
+    // chegadas não esperam; acima de maxInFlight requisições abertas elas são descartadas e contadas
+    private void generate(Duration length, LatencyReport report) {
+        double meanIntervalNanos = 1e9 / rate;
+        long end = System.nanoTime() + length.toNanos();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = System.nanoTime();
+            while (true) {
+                next += (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+                if (next >= end) {
+                    // Fim da janela; o close() do executor ainda espera as requisições em andamento
+                    report.stop();
+                    break;
+                }
+                long delay = next - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                if (inFlight.get() >= maxInFlight) {
+                    drop("max-in-flight");
+                    continue;
+                }
+
+                Scenario scenario = pick(random);
+                long scheduled = next;
+                inFlight.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        switch (scenario) {
+                            case BROWSE -> browse(scheduled, report);
+                            case CART -> withSession(session -> mutateCart(session, scheduled, report));
+                            case CHECKOUT -> withSession(session -> checkout(session, scheduled, report));
+                            case PAYMENT -> pay(scheduled, report);
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    // Páginas iniciais são muito mais visitadas que as do fim da listagem
+    private void browse(long scheduled, LatencyReport report) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pages = Math.max(volumes.products() / 20, 1);
+        int page = (int) (pages * Math.pow(random.nextDouble(), 3));
+        long productId = dataset.productId(random.nextInt(volumes.products()));
+        double choice = random.nextDouble();
+
+        if (choice < 0.35) {
+            send("GET /api/products", json("/api/products?size=20&page=" + page, null).GET(), scheduled, report);
+        } else if (choice < 0.50) {
+            long categoryId = dataset.categoryId(random.nextInt(volumes.categories()));
+            send("GET /api/products?categoryId", json("/api/products?size=20&categoryId=" + categoryId, null).GET(),
+                    scheduled, report);
+        } else if (choice < 0.60) {
+            String term = DatasetSeeder.NOUNS[random.nextInt(DatasetSeeder.NOUNS.length)].split(" ")[0].toLowerCase();
+            send("GET /api/products?search", json("/api/products?size=20&search=" + term, null).GET(), scheduled, report);
+        } else if (choice < 0.90) {
+            send("GET /api/products/{id}", json("/api/products/" + productId, null).GET(), scheduled, report);
+        } else {
+            send("GET /api/products/{id}/reviews", json("/api/products/" + productId + "/reviews?size=10", null).GET(),
+                    scheduled, report);
+        }
+    }
+
+    // Carrinho com até 3 itens: adiciona, troca a quantidade ou remove
+    private void mutateCart(Session session, long scheduled, LatencyReport report) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        JsonNode cart;
+        if (session.itemIds.size() >= 3 && random.nextBoolean()) {
+            Long itemId = session.itemIds.get(random.nextInt(session.itemIds.size()));
+            cart = send("DELETE /api/cart/items/{id}", json("/api/cart/items/" + itemId, session.token).DELETE(),
+                    scheduled, report);
+        } else if (!session.itemIds.isEmpty() && random.nextDouble() < 0.3) {
+            Long itemId = session.itemIds.get(random.nextInt(session.itemIds.size()));
+            cart = send("PUT /api/cart/items/{id}", json("/api/cart/items/" + itemId, session.token)
+                    .PUT(body(Map.of("quantity", random.nextInt(1, 4)))), scheduled, report);
+        } else {
+            cart = addToCart(session, scheduled, report);
+        }
+        session.updateItems(cart);
+    }
+
+    // Checkout do carrinho (com um item adicionado antes, se estiver vazio); o pedido vai para a fila de pagamento
+    private void checkout(Session session, long scheduled, LatencyReport report) {
+        long orderStart = scheduled;
+        if (session.itemIds.isEmpty()) {
+            session.updateItems(addToCart(session, scheduled, report));
+            orderStart = System.nanoTime();
+        }
+
+        JsonNode order = send("POST /api/orders", json("/api/orders", session.token)
+                .POST(body(Map.of("shippingAddressId", session.addressId))), orderStart, report);
+        if (order != null) {
+            session.itemIds.clear();
+            pendingOrders.add(new PendingOrder(order.get("id").asLong(), session.token));
+        }
+    }
+
+    private void pay(long scheduled, LatencyReport report) {
+        PendingOrder order = pendingOrders.poll();
+        if (order == null) {
+            drop("sem pedido pendente");
+            return;
+        }
+        send("POST /api/payments/process", json("/api/payments/process", order.token())
+                .POST(body(Map.of("orderId", order.id(), "paymentMethod", "PIX"))), scheduled, report);
+    }
+
+    private JsonNode addToCart(Session session, long scheduled, LatencyReport report) {
+        long productId = dataset.productId(ThreadLocalRandom.current().nextInt(volumes.products()));
+        return send("POST /api/cart/items", json("/api/cart/items", session.token)
+                .POST(body(Map.of("productId", productId, "quantity", 1))), scheduled, report);
+    }
+
+    // Uma sessão faz uma coisa de cada vez: sem sessão livre, a chegada é descartada
+    private void withSession(Consumer<Session> action) {
+        Session session = idleSessions.poll();
+        if (session == null) {
+            drop("sem sessão livre");
+            return;
+        }
+        try {
+            action.accept(session);
+        } finally {
+            idleSessions.add(session);
+        }
+    }
+
+    // Corpo da resposta em JSON, ou nulo se a requisição falhou
+    private JsonNode send(String endpoint, HttpRequest.Builder request, long scheduled, LatencyReport report) {
+        int status = -1;
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            return status >= 200 && status < 300 && !response.body().isEmpty() ? objectMapper.readTree(response.body()) : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        } finally {
+            report.record(endpoint, scheduled, status);
+        }
+    }
+
+    private HttpRequest.Builder json(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest.BodyPublisher body(Object value) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(value));
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private Scenario pick(ThreadLocalRandom random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int value = random.nextInt(total);
+        for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Mix vazio");
+    }
+
+    private void drop(String reason) {
+        dropped.computeIfAbsent(reason, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    // "browse=70,cart=20,checkout=7,payment=3": peso relativo de cada cenário
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            weights.put(Scenario.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("loadtest.mix sem nenhum peso positivo: " + value);
+        }
+        return weights;
+    }
+
+    private enum Scenario {
+        BROWSE, CART, CHECKOUT, PAYMENT
+    }
+
+    private record PendingOrder(long id, String token) {
+    }
+
+    private static class Session {
+
+        private final String token;
+        private final long addressId;
+        private final List<Long> itemIds = new ArrayList<>();
+
+        Session(String token, long addressId) {
+            this.token = token;
+            this.addressId = addressId;
+        }
+
+        void updateItems(JsonNode cart) {
+            if (cart == null) {
+                return;
+            }
+            itemIds.clear();
+            cart.get("items").forEach(item -> itemIds.add(item.get("id").asLong()));
+        }
+    }
+}
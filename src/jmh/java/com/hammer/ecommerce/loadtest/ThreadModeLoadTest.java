@@ -0,0 +1,225 @@
+package com.hammer.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.ECommerceApplication;
+import com.hammer.ecommerce.dto.order.BulkOrderItemDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderResponseDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderResultDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderSpecDTO;
+import com.hammer.ecommerce.model.Address;
+import com.hammer.ecommerce.model.Category;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.model.User;
+import com.hammer.ecommerce.repositories.AddressRepository;
+import com.hammer.ecommerce.repositories.CategoryRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.repositories.UserRepository;
+import com.hammer.ecommerce.service.BulkOrderService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compara o modo de threads de plataforma com o de threads virtuais (spring.threads.virtual.enabled)
+// sob a mesma carga: GET /api/products e POST /api/payments/process, com clientes em laço fechado.
+// Para cada modo sobe a aplicação do perfil "test" (H2 em memória) numa porta livre, popula
+// produtos e pedidos pendentes, aquece, mede e imprime p50/p99/throughput por endpoint.
+//
+// mvn -Ploadtest verify -DskipTests [-Dloadtest.concurrency=400 -Dloadtest.duration=PT30S ...]
+public class ThreadModeLoadTest {
+
+    private static final String PASSWORD = "senha123";
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 400);
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+    private final int products = Integer.getInteger("loadtest.products", 2000);
+    private final int orders = Integer.getInteger("loadtest.orders", 20000);
+    private final double paymentRatio = Double.parseDouble(System.getProperty("loadtest.payment-ratio", "0.2"));
+    private final int tomcatThreads = Integer.getInteger("loadtest.tomcat-threads", 200);
+    private final int poolSize = Integer.getInteger("loadtest.pool-size", 10);
+    private final boolean paymentAsync = Boolean.parseBoolean(System.getProperty("loadtest.payment-async", "true"));
+    private final String gatewayLatency = System.getProperty("loadtest.gateway-latency", "PT0.2S");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        // DevTools reinicia o contexto em outro classloader: desligado antes de subir a aplicação
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        ThreadModeLoadTest loadTest = new ThreadModeLoadTest();
+        Map<String, LatencyReport> results = new LinkedHashMap<>();
+        for (String mode : System.getProperty("loadtest.modes", "platform,virtual").split(",")) {
+            results.put(mode.trim(), loadTest.run(mode.trim()));
+        }
+        for (Map.Entry<String, LatencyReport> entry : results.entrySet()) {
+            entry.getValue().print(System.out, "Modo " + entry.getKey());
+            entry.getValue().writeHistograms(Path.of("target", "loadtest"), entry.getKey() + "-");
+        }
+    }
+
+    private LatencyReport run(String mode) throws Exception {
+        System.out.printf("%n=== Modo %s: %d clientes, aquecimento %s, medição %s ===%n", mode, concurrency, warmup, duration);
+
+        try (ConfigurableApplicationContext context = start(mode)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+
+            Queue<Long> pendingOrders = new ConcurrentLinkedQueue<>();
+            String token = seed(context, baseUrl, pendingOrders);
+
+            // Clientes em threads virtuais: o gerador de carga não pode ser o gargalo
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+
+            LatencyReport report = new LatencyReport();
+            drive(client, baseUrl, token, pendingOrders, warmup, report);
+            report.start();
+            drive(client, baseUrl, token, pendingOrders, duration, report);
+            report.stop();
+            return report;
+        }
+    }
+
+    private ConfigurableApplicationContext start(String mode) {
+        return new SpringApplicationBuilder(ECommerceApplication.class).run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--payment.pipeline.async=" + paymentAsync,
+                "--payment.gateway.simulated.latency=" + gatewayLatency,
+                "--spring.jpa.show-sql=false", // SQL no stdout dominaria o tempo medido
+                "--logging.level.com.hammer.ecommerce=WARN",
+                "--logging.level.org.hibernate.SQL=WARN");
+    }
+
+    // Produtos para a listagem, um cliente com endereço e pedidos PENDING para pagar (um por chamada)
+    private String seed(ConfigurableApplicationContext context, String baseUrl, Queue<Long> pendingOrders)
+            throws Exception {
+        User user = new User();
+        user.setName("Cliente Carga");
+        user.setEmail("carga@email.com");
+        user.setPassword(context.getBean(PasswordEncoder.class).encode(PASSWORD));
+        user = context.getBean(UserRepository.class).save(user);
+
+        Address address = new Address();
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        address = context.getBean(AddressRepository.class).save(address);
+
+        Category category = new Category();
+        category.setName("Carga");
+        category = context.getBean(CategoryRepository.class).save(category);
+
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName("Produto Carga " + i);
+            product.setDescription("Produto gerado para teste de carga " + i);
+            product.setPrice(new BigDecimal("99.90"));
+            product.setStockQuantity(Integer.MAX_VALUE / 2);
+            product.setSku("LOAD-" + i);
+            product.setActive(true);
+            product.setCategory(category);
+            catalog.add(product);
+        }
+        Long productId = context.getBean(ProductRepository.class).saveAll(catalog).get(0).getId();
+
+        BulkOrderService bulkOrderService = context.getBean(BulkOrderService.class);
+        for (int created = 0; created < orders; created += BulkOrderRequestDTO.MAX_ORDERS) {
+            List<BulkOrderSpecDTO> specs = new ArrayList<>();
+            for (int i = created; i < Math.min(orders, created + BulkOrderRequestDTO.MAX_ORDERS); i++) {
+                specs.add(new BulkOrderSpecDTO("carga-" + i, user.getId(), address.getId(),
+                        List.of(new BulkOrderItemDTO(productId, 1))));
+            }
+            BulkOrderResponseDTO response = bulkOrderService.createOrders(new BulkOrderRequestDTO(specs));
+            response.getResults().stream().map(BulkOrderResultDTO::getOrderId).forEach(pendingOrders::add);
+        }
+
+        HttpResponse<String> login = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                                Map.of("email", user.getEmail(), "password", PASSWORD))))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.printf("Dados: %d produtos, %d pedidos pendentes%n", products, pendingOrders.size());
+        return objectMapper.readTree(login.body()).get("token").asText();
+    }
+
+    // Cada cliente repete: paga um pedido (paymentRatio das vezes, enquanto houver pedidos) ou
+    // lista uma página aleatória de produtos. Antes de report.start() nada é registrado (aquecimento).
+    private void drive(HttpClient client, String baseUrl, String token, Queue<Long> pendingOrders,
+                       Duration length, LatencyReport report) throws InterruptedException {
+        long deadline = System.nanoTime() + length.toNanos();
+        int pages = Math.max(products / 20, 1);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Long orderId = random.nextDouble() < paymentRatio ? pendingOrders.poll() : null;
+                        String endpoint;
+                        HttpRequest request;
+                        if (orderId != null) {
+                            endpoint = "POST /api/payments/process";
+                            request = HttpRequest.newBuilder()
+                                    .uri(URI.create(baseUrl + "/api/payments/process"))
+                                    .header("Authorization", "Bearer " + token)
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            "{\"orderId\":" + orderId + ",\"paymentMethod\":\"PIX\"}"))
+                                    .build();
+                        } else {
+                            endpoint = "GET /api/products";
+                            request = HttpRequest.newBuilder()
+                                    .uri(URI.create(baseUrl + "/api/products?size=20&page=" + random.nextInt(pages)))
+                                    .build();
+                        }
+
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        report.record(endpoint, start, status);
+                    }
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(length.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+    }
+}
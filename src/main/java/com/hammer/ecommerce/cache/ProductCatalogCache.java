@@ -0,0 +1,233 @@
+package com.hammer.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.hammer.ecommerce.dto.product.ProductResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class ProductCatalogCache {
+
+    // Cache em memória do catálogo (detalhe por ID e páginas de listagem)
+
+    public static final String BY_ID_CACHE = "catalog.products.by-id";
+    public static final String PAGES_CACHE = "catalog.products.pages";
+
+    private static final String STOCK_SORT_PROPERTY = "stockQuantity";
+
+    private final boolean enabled;
+    private final Cache<Long, ProductResponseDTO> byId;
+    private final Cache<String, Page<ProductResponseDTO>> pages;
+
+    // Índice reverso: produto -> chaves das páginas em que ele aparece
+    private final Map<Long, Set<String>> pageKeysByProduct = new ConcurrentHashMap<>();
+
+    // Muda a cada invalidação de páginas: uma página carregada enquanto ela mudou pode ter
+    // lido os dados de antes do commit e não fica no cache
+    private final AtomicLong pageGeneration = new AtomicLong();
+
+    public ProductCatalogCache(
+            @Value("${catalog.cache.enabled:true}") boolean enabled,
+            @Value("${catalog.cache.max-size:10000}") long maxSize,
+            @Value("${catalog.cache.page-max-size:2000}") long pageMaxSize,
+            @Value("${catalog.cache.ttl:PT5M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(pageMaxSize)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .removalListener((String key, Page<ProductResponseDTO> page, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        unindex(key, page);
+                    }
+                })
+                .recordStats()
+                .build();
+
+        // Métricas de hit/miss/eviction expostas em /actuator/metrics/cache.*
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, BY_ID_CACHE);
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, PAGES_CACHE);
+    }
+
+    public ProductResponseDTO getById(Long id, Supplier<ProductResponseDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return byId.get(id, key -> loader.get());
+    }
+
+    public Page<ProductResponseDTO> getPage(String key, Supplier<Page<ProductResponseDTO>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Page<ProductResponseDTO> cached = pages.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Conferido depois do put: uma invalidação que começar depois da conferência já
+        // encontra a página no cache (e no índice reverso) e a remove
+        long generation = pageGeneration.get();
+        Page<ProductResponseDTO> page = loader.get();
+        index(key, page);
+        pages.put(key, page);
+        if (pageGeneration.get() != generation) {
+            pages.asMap().remove(key, page);
+        }
+        return page;
+    }
+
+    // Chave normalizada para filtros + paginação
+    public static String pageKey(Long categoryId, String search, BigDecimal minPrice,
+                                 BigDecimal maxPrice, Pageable pageable) {
+        StringBuilder key = new StringBuilder(64)
+                .append("c=").append(categoryId == null ? "" : categoryId)
+                .append("|s=").append(normalizeSearch(search))
+                .append("|min=").append(normalizePrice(minPrice))
+                .append("|max=").append(normalizePrice(maxPrice));
+
+        if (pageable.isPaged()) {
+            key.append("|p=").append(pageable.getPageNumber())
+                    .append("|n=").append(pageable.getPageSize());
+        } else {
+            key.append("|unpaged");
+        }
+
+        key.append("|o=");
+        for (Sort.Order order : pageable.getSort()) {
+            key.append(order.getProperty()).append(':').append(order.getDirection()).append(',');
+        }
+        return key.toString();
+    }
+
+    // Dados de um produto mudaram sem alterar quais produtos aparecem em cada página
+    public void evictProduct(Long productId) {
+        afterCommit(() -> {
+            byId.invalidate(productId);
+            evictPagesContaining(productId);
+        });
+    }
+
+    // Mesmo que evictProduct, para vários produtos de uma vez (importação do catálogo)
+    public void evictProducts(Collection<Long> productIds) {
+        afterCommit(() -> {
+            byId.invalidateAll(productIds);
+            productIds.forEach(this::evictPagesContaining);
+        });
+    }
+
+    // Estoque mudou: além das páginas que contêm o produto, as ordenadas por estoque podem mudar
+    public void evictStock(Collection<Long> productIds) {
+        afterCommit(() -> {
+            byId.invalidateAll(productIds);
+            productIds.forEach(this::evictPagesContaining);
+            pageGeneration.incrementAndGet();
+            pages.invalidateAll(pages.asMap().keySet().stream()
+                    .filter(key -> key.substring(key.indexOf("|o=")).contains(STOCK_SORT_PROPERTY))
+                    .toList());
+        });
+    }
+
+    // Criação, exclusão ou mudança de nome/preço/categoria altera a composição de qualquer listagem
+    public void evictProductAndListings(Long productId) {
+        afterCommit(() -> {
+            if (productId != null) {
+                byId.invalidate(productId);
+            }
+            pageGeneration.incrementAndGet();
+            pages.invalidateAll();
+        });
+    }
+
+    // Mesmo que evictProductAndListings, para vários produtos de uma vez (importação do catálogo)
+    public void evictProductsAndListings(Collection<Long> productIds) {
+        afterCommit(() -> {
+            byId.invalidateAll(productIds);
+            pageGeneration.incrementAndGet();
+            pages.invalidateAll();
+        });
+    }
+
+    public void clear() {
+        byId.invalidateAll();
+        pageGeneration.incrementAndGet();
+        pages.invalidateAll();
+    }
+
+    private void evictPagesContaining(Long productId) {
+        pageGeneration.incrementAndGet();
+        Set<String> keys = pageKeysByProduct.remove(productId);
+        if (keys != null) {
+            pages.invalidateAll(keys);
+        }
+    }
+
+    private void index(String key, Page<ProductResponseDTO> page) {
+        for (ProductResponseDTO product : page.getContent()) {
+            pageKeysByProduct.computeIfAbsent(product.getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unindex(String key, Page<ProductResponseDTO> page) {
+        if (page == null) {
+            return;
+        }
+        for (ProductResponseDTO product : page.getContent()) {
+            pageKeysByProduct.computeIfPresent(product.getId(), (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    // Invalida só depois do commit para não recarregar dados antigos de uma transação em andamento
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String normalizeSearch(String search) {
+        return search == null ? "" : search.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizePrice(BigDecimal price) {
+        return price == null ? "" : price.stripTrailingZeros().toPlainString();
+    }
+}
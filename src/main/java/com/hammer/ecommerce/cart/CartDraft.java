@@ -0,0 +1,67 @@
+package com.hammer.ecommerce.cart;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public class CartDraft {
+
+    // Cópia editável das linhas passada ao CartStore.update. O store só publica o resultado
+    // se a alteração terminar sem exceção (validações de estoque lançam BusinessException aqui dentro).
+
+    private final List<CartLine> lines;
+    private final Supplier<Long> newItemId;
+
+    // newItemId pode devolver null quando o ID é atribuído depois, pelo Hibernate
+    public CartDraft(List<CartLine> lines, Supplier<Long> newItemId) {
+        this.lines = new ArrayList<>(lines);
+        this.newItemId = newItemId;
+    }
+
+    public Optional<CartLine> findItem(Long itemId) {
+        return lines.stream().filter(line -> itemId.equals(line.getItemId())).findFirst();
+    }
+
+    public int quantityOf(Long productId) {
+        return lines.stream()
+                .filter(line -> line.getProductId().equals(productId))
+                .mapToInt(CartLine::getQuantity)
+                .sum();
+    }
+
+    // Produto que já está no carrinho soma na mesma linha
+    public void add(Long productId, int quantity) {
+        for (int i = 0; i < lines.size(); i++) {
+            CartLine line = lines.get(i);
+            if (line.getProductId().equals(productId)) {
+                lines.set(i, line.withQuantity(line.getQuantity() + quantity));
+                return;
+            }
+        }
+        lines.add(new CartLine(newItemId.get(), productId, quantity));
+    }
+
+    public void setQuantity(Long itemId, int quantity) {
+        lines.replaceAll(line -> itemId.equals(line.getItemId()) ? line.withQuantity(quantity) : line);
+    }
+
+    public void remove(Long itemId) {
+        lines.removeIf(line -> itemId.equals(line.getItemId()));
+    }
+
+    // Remove só as linhas que continuam iguais às informadas (mesmo item e mesma quantidade)
+    public void removeUnchanged(Collection<CartLine> expected) {
+        lines.removeIf(line -> expected.stream().anyMatch(other ->
+                other.getItemId().equals(line.getItemId()) && other.getQuantity() == line.getQuantity()));
+    }
+
+    public void clear() {
+        lines.clear();
+    }
+
+    public List<CartLine> getLines() {
+        return lines;
+    }
+}
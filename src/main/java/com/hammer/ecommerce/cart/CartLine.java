@@ -0,0 +1,18 @@
+package com.hammer.ecommerce.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Linha do carrinho (cart_items) sem entidades: só IDs e quantidade
+@Getter
+@AllArgsConstructor
+public class CartLine {
+
+    private final Long itemId;
+    private final Long productId;
+    private final int quantity;
+
+    public CartLine withQuantity(int quantity) {
+        return new CartLine(itemId, productId, quantity);
+    }
+}
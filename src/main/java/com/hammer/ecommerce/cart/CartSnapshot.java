@@ -0,0 +1,34 @@
+package com.hammer.ecommerce.cart;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Estado imutável do carrinho devolvido pelo CartStore
+@Getter
+public class CartSnapshot {
+
+    private final Long cartId;
+    private final List<CartLine> lines;
+    private final LocalDateTime updatedAt;
+
+    public CartSnapshot(Long cartId, List<CartLine> lines, LocalDateTime updatedAt) {
+        this.cartId = cartId;
+        this.lines = List.copyOf(lines);
+        this.updatedAt = updatedAt;
+    }
+
+    public Optional<CartLine> findItem(Long itemId) {
+        return lines.stream().filter(line -> itemId.equals(line.getItemId())).findFirst();
+    }
+
+    public List<Long> getProductIds() {
+        return lines.stream().map(CartLine::getProductId).distinct().toList();
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+}
@@ -0,0 +1,22 @@
+package com.hammer.ecommerce.cart;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface CartStore {
+
+    // Estado atual (autoritativo) do carrinho do usuário; cria um carrinho vazio se não existir
+    CartSnapshot get(Long userId);
+
+    // Aplica a alteração de forma atômica por usuário e devolve o novo estado.
+    // Exceção lançada dentro de change descarta a alteração inteira.
+    CartSnapshot update(Long userId, Consumer<CartDraft> change);
+
+    // Usuário cujo carrinho tem o item agora, contando alterações ainda não gravadas no banco
+    Optional<Long> findItemOwner(Long itemId);
+
+    // Remove as linhas que viraram pedido. Linha alterada depois da leitura (quantidade diferente
+    // da pedida) fica no carrinho. Dentro de uma transação só vale se ela fizer commit.
+    void removeItems(Long userId, Collection<CartLine> orderedLines);
+}
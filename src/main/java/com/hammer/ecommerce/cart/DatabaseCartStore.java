@@ -0,0 +1,102 @@
+package com.hammer.ecommerce.cart;
+
+import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
+import com.hammer.ecommerce.model.Cart;
+import com.hammer.ecommerce.model.CartItem;
+import com.hammer.ecommerce.model.User;
+import com.hammer.ecommerce.repositories.CartItemRepository;
+import com.hammer.ecommerce.repositories.CartRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "database")
+public class DatabaseCartStore implements CartStore {
+
+    // Cada operação lê e grava direto em carts/cart_items, na transação de quem chamou
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public CartSnapshot get(Long userId) {
+        return snapshot(getOrCreateCart(userId));
+    }
+
+    @Override
+    @Transactional
+    public CartSnapshot update(Long userId, Consumer<CartDraft> change) {
+        Cart cart = getOrCreateCart(userId);
+
+        // Linhas novas ficam sem ID até o persist
+        CartDraft draft = new CartDraft(snapshot(cart).getLines(), () -> null);
+        change.accept(draft);
+
+        Map<Long, CartLine> kept = draft.getLines().stream()
+                .filter(line -> line.getItemId() != null)
+                .collect(Collectors.toMap(CartLine::getItemId, Function.identity()));
+
+        // orphanRemoval apaga os itens retirados da coleção
+        cart.getItems().removeIf(item -> !kept.containsKey(item.getId()));
+        cart.getItems().forEach(item -> item.setQuantity(kept.get(item.getId()).getQuantity()));
+
+        for (CartLine line : draft.getLines()) {
+            if (line.getItemId() == null) {
+                CartItem cartItem = new CartItem();
+                cartItem.setProduct(productRepository.getReferenceById(line.getProductId()));
+                cartItem.setQuantity(line.getQuantity());
+                cart.addItem(cartItem);
+                cartItemRepository.save(cartItem);
+            }
+        }
+
+        return snapshot(cartRepository.save(cart));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findItemOwner(Long itemId) {
+        return cartRepository.findUserIdByItemId(itemId);
+    }
+
+    @Override
+    @Transactional
+    public void removeItems(Long userId, Collection<CartLine> orderedLines) {
+        update(userId, draft -> draft.removeUnchanged(orderedLines));
+    }
+
+    private Cart getOrCreateCart(Long userId) {
+        return cartRepository.findByUserIdWithItems(userId)
+                .orElseGet(() -> createCart(userId));
+    }
+
+    private Cart createCart(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        return cartRepository.save(cart);
+    }
+
+    private CartSnapshot snapshot(Cart cart) {
+        return new CartSnapshot(cart.getId(), cart.getItems().stream()
+                .map(item -> new CartLine(item.getId(), item.getProduct().getId(), item.getQuantity()))
+                .toList(), cart.getUpdatedAt());
+    }
+}
@@ -0,0 +1,339 @@
+package com.hammer.ecommerce.cart;
+
+import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
+import com.hammer.ecommerce.model.Cart;
+import com.hammer.ecommerce.model.User;
+import com.hammer.ecommerce.repositories.CartBulkRepository;
+import com.hammer.ecommerce.repositories.CartRepository;
+import com.hammer.ecommerce.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "memory", matchIfMissing = true)
+public class MemoryCartStore implements CartStore {
+
+    // Carrinhos em memória, com gravação write-behind em carts/cart_items.
+    // - Leitura e alteração não tocam no banco depois que o carrinho está carregado; o banco só
+    //   é lido na primeira vez (ou depois que o carrinho ocioso sai da memória).
+    // - Cada usuário é protegido por um lock de uma faixa (striping): alterações do mesmo
+    //   usuário são serializadas, usuários diferentes não disputam um lock global.
+    // - Carrinhos alterados entram em "dirty" e são gravados em lote pelo flush agendado;
+    //   o flush também roda no desligamento da aplicação (@PreDestroy).
+    // A memória é a fonte da verdade, então cada usuário precisa cair sempre na mesma instância.
+
+    private final CartRepository cartRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    // No afterCommit a transação do pedido ainda está ligada à thread e uma transação REQUIRED
+    // entraria nela; a recarga feita dali precisa de uma transação nova
+    private final TransactionTemplate newTransactionTemplate;
+    private final Duration idleTimeout;
+    private final int flushBatchSize;
+
+    private final Map<Long, StoredCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] locks;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter flushedCounter;
+    private final Counter flushFailuresCounter;
+
+    // Bloco de IDs de cart_items reservado na sequence. Lock em vez de synchronized: a reserva
+    // vai ao banco, e uma thread virtual bloqueada dentro de synchronized prende o carrier.
+    private final ReentrantLock itemIdLock = new ReentrantLock();
+    private long nextItemId;
+    private long itemIdLimit;
+
+    public MemoryCartStore(
+            CartRepository cartRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${cart.store.lock-stripes:64}") int lockStripes,
+            @Value("${cart.store.idle-timeout:PT30M}") Duration idleTimeout,
+            @Value("${cart.store.flush-batch-size:500}") int flushBatchSize,
+            MeterRegistry meterRegistry) {
+
+        this.cartRepository = cartRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.idleTimeout = idleTimeout;
+        this.flushBatchSize = flushBatchSize;
+
+        this.locks = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        Gauge.builder("cart.store.size", carts, Map::size)
+                .description("Carrinhos mantidos em memória")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.dirty", dirty, Set::size)
+                .description("Carrinhos alterados aguardando gravação")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("cart.store.flushed")
+                .description("Carrinhos gravados pelo write-behind")
+                .register(meterRegistry);
+        this.flushFailuresCounter = Counter.builder("cart.store.flush.failures")
+                .description("Carrinhos cuja gravação falhou (ficam para o próximo flush)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CartSnapshot get(Long userId) {
+        return withLock(userId, () -> load(userId, true).snapshot());
+    }
+
+    @Override
+    public CartSnapshot update(Long userId, Consumer<CartDraft> change) {
+        return withLock(userId, () -> apply(userId, load(userId, true), change));
+    }
+
+    // Caminho de erro (item fora do carrinho de quem pediu), então varrer a memória é aceitável.
+    // A memória vale para os carrinhos carregados: item novo ainda não gravado está só nela,
+    // e item já removido dela pode continuar no banco até o próximo flush.
+    @Override
+    public Optional<Long> findItemOwner(Long itemId) {
+        for (Map.Entry<Long, StoredCart> entry : carts.entrySet()) {
+            if (entry.getValue().lines.stream().anyMatch(line -> itemId.equals(line.getItemId()))) {
+                return Optional.of(entry.getKey());
+            }
+        }
+        return transactionTemplate.execute(status -> cartRepository.findUserIdByItemId(itemId))
+                .filter(userId -> !carts.containsKey(userId));
+    }
+
+    @Override
+    public void removeItems(Long userId, Collection<CartLine> orderedLines) {
+        Runnable remove = () -> withLock(userId, () ->
+                apply(userId, load(userId, false), draft -> draft.removeUnchanged(orderedLines)));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove.run();
+                }
+            });
+        } else {
+            remove.run();
+        }
+    }
+
+    private CartSnapshot apply(Long userId, StoredCart cart, Consumer<CartDraft> change) {
+        CartDraft draft = new CartDraft(cart.lines, this::nextItemId);
+        change.accept(draft);
+
+        cart.lines = List.copyOf(draft.getLines());
+        cart.updatedAt = LocalDateTime.now();
+        cart.version++;
+        dirty.add(userId);
+        return cart.snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Long> pending = new ArrayList<>(dirty);
+            for (int from = 0; from < pending.size(); from += flushBatchSize) {
+                write(pending.subList(from, Math.min(from + flushBatchSize, pending.size())));
+            }
+            evictIdle();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Desligamento gracioso: grava o que ainda estiver pendente antes de o pool fechar
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!dirty.isEmpty()) {
+            log.error("{} carrinho(s) não puderam ser gravados no desligamento", dirty.size());
+        }
+    }
+
+    private void write(List<Long> userIds) {
+        List<PendingWrite> writes = new ArrayList<>();
+        for (Long userId : userIds) {
+            withLock(userId, () -> {
+                // Sai de dirty antes da cópia: uma alteração depois daqui marca de novo
+                dirty.remove(userId);
+                StoredCart cart = carts.get(userId);
+                if (cart != null) {
+                    writes.add(new PendingWrite(userId, cart, cart.version, cart.snapshot()));
+                }
+                return null;
+            });
+        }
+
+        if (!tryWrite(writes) && writes.size() > 1) {
+            // Um carrinho com problema não pode travar o lote inteiro
+            writes.forEach(write -> tryWrite(List.of(write)));
+        }
+    }
+
+    private boolean tryWrite(List<PendingWrite> writes) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    cartRepository.writeAll(writes.stream().map(PendingWrite::snapshot).toList()));
+        } catch (RuntimeException e) {
+            if (writes.size() == 1) {
+                PendingWrite write = writes.get(0);
+                dirty.add(write.userId());
+                flushFailuresCounter.increment();
+                log.error("Falha ao gravar o carrinho do usuário {}", write.userId(), e);
+            }
+            return false;
+        }
+
+        for (PendingWrite write : writes) {
+            withLock(write.userId(), () -> {
+                write.cart().flushedVersion = Math.max(write.cart().flushedVersion, write.version());
+                return null;
+            });
+        }
+        flushedCounter.increment(writes.size());
+        return true;
+    }
+
+    // Carrinhos gravados e sem uso há mais de idle-timeout saem da memória
+    private void evictIdle() {
+        LocalDateTime limit = LocalDateTime.now().minus(idleTimeout);
+        for (Map.Entry<Long, StoredCart> entry : carts.entrySet()) {
+            StoredCart cart = entry.getValue();
+            if (!cart.lastAccess.isAfter(limit) && cart.version == cart.flushedVersion) {
+                withLock(entry.getKey(), () -> {
+                    if (!cart.lastAccess.isAfter(limit) && cart.version == cart.flushedVersion
+                            && !dirty.contains(entry.getKey())) {
+                        carts.remove(entry.getKey(), cart);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    // joinCaller = false: carrega numa transação própria (chamado de dentro de um afterCommit)
+    private StoredCart load(Long userId, boolean joinCaller) {
+        StoredCart cart = carts.get(userId);
+        if (cart == null) {
+            StoredCart loaded = (joinCaller ? transactionTemplate : newTransactionTemplate)
+                    .execute(status -> fetch(userId));
+            cart = loaded;
+            carts.put(userId, loaded);
+
+            // Carregado dentro de uma transação maior (ex.: pedido): se ela não fizer commit,
+            // o carrinho recém-criado no banco some e a cópia em memória também precisa sumir
+            if (joinCaller && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            carts.remove(userId, loaded);
+                        }
+                    }
+                });
+            }
+        }
+        cart.lastAccess = LocalDateTime.now();
+        return cart;
+    }
+
+    private StoredCart fetch(Long userId) {
+        Cart cart = cartRepository.findByUserIdWithItems(userId)
+                .orElseGet(() -> createCart(userId));
+
+        List<CartLine> lines = cart.getItems().stream()
+                .map(item -> new CartLine(item.getId(), item.getProduct().getId(), item.getQuantity()))
+                .toList();
+        return new StoredCart(cart.getId(), lines, cart.getUpdatedAt());
+    }
+
+    private Cart createCart(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        return cartRepository.saveAndFlush(cart);
+    }
+
+    private Long nextItemId() {
+        itemIdLock.lock();
+        try {
+            if (nextItemId == itemIdLimit) {
+                nextItemId = cartRepository.reserveItemIds();
+                itemIdLimit = nextItemId + CartBulkRepository.ITEM_ID_BLOCK_SIZE;
+            }
+            return nextItemId++;
+        } finally {
+            itemIdLock.unlock();
+        }
+    }
+
+    private <T> T withLock(Long userId, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(userId.hashCode(), locks.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class StoredCart {
+
+        private final Long cartId;
+        // volatile: findItemOwner lê sem o lock do usuário
+        private volatile List<CartLine> lines;
+        private LocalDateTime updatedAt;
+        private LocalDateTime lastAccess = LocalDateTime.now();
+
+        // version muda a cada alteração; flushedVersion é a última gravada no banco
+        private long version;
+        private long flushedVersion;
+
+        private StoredCart(Long cartId, List<CartLine> lines, LocalDateTime updatedAt) {
+            this.cartId = cartId;
+            this.lines = lines;
+            this.updatedAt = updatedAt;
+        }
+
+        private CartSnapshot snapshot() {
+            return new CartSnapshot(cartId, lines, updatedAt);
+        }
+    }
+
+    private record PendingWrite(Long userId, StoredCart cart, long version, CartSnapshot snapshot) {
+    }
+}
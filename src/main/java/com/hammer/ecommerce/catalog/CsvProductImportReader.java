@@ -0,0 +1,107 @@
+package com.hammer.ecommerce.catalog;
+
+import com.hammer.ecommerce.exceptions.BusinessException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CsvProductImportReader implements ProductImportReader {
+
+    // CSV RFC 4180: primeira linha com os nomes das colunas, campos entre aspas podem ter
+    // vírgula, aspas duplicadas e quebra de linha. Linhas em branco são ignoradas.
+
+    private static final int MAX_FIELD_LENGTH = 10_000;
+
+    private final Reader reader;
+    private final List<String> columns;
+    private long records;
+
+    public CsvProductImportReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readFields();
+        if (header == null) {
+            throw new BusinessException("Arquivo CSV vazio: a primeira linha deve ter os nomes das colunas");
+        }
+        // BOM do Excel no início do arquivo
+        if (header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        this.columns = header.stream().map(String::trim).toList();
+    }
+
+    @Override
+    public ProductImportRecord next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        records++;
+        if (fields.size() != columns.size()) {
+            return new ProductImportRecord(records, Map.of(),
+                    "Registro com " + fields.size() + " coluna(s); o cabeçalho tem " + columns.size());
+        }
+
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            values.put(columns.get(i), fields.get(i));
+        }
+        return new ProductImportRecord(records, values, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Campos da próxima linha lógica, ou null no fim do arquivo
+    private List<String> readFields() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new BusinessException("CSV inválido: aspas não fechadas no registro " + (records + 1));
+                }
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+
+            if (field.length() > MAX_FIELD_LENGTH) {
+                throw new BusinessException("CSV inválido: campo com mais de " + MAX_FIELD_LENGTH +
+                        " caracteres no registro " + (records + 1));
+            }
+            c = reader.read();
+        }
+    }
+}
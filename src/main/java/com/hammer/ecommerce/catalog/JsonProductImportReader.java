@@ -0,0 +1,48 @@
+package com.hammer.ecommerce.catalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+public class JsonProductImportReader implements ProductImportReader {
+
+    // Parser de streaming do Jackson: aceita um array de objetos ou objetos soltos (NDJSON)
+    // e materializa só o objeto atual
+
+    private final MappingIterator<JsonNode> iterator;
+    private long records;
+
+    public JsonProductImportReader(Reader reader, ObjectMapper objectMapper) throws IOException {
+        this.iterator = objectMapper.readerFor(JsonNode.class).readValues(reader);
+    }
+
+    @Override
+    public ProductImportRecord next() throws IOException {
+        if (!iterator.hasNextValue()) {
+            return null;
+        }
+
+        JsonNode node = iterator.nextValue();
+        records++;
+        if (!node.isObject()) {
+            return new ProductImportRecord(records, Map.of(), "Registro não é um objeto JSON");
+        }
+
+        Map<String, String> values = new HashMap<>();
+        node.fields().forEachRemaining(field -> {
+            JsonNode value = field.getValue();
+            values.put(field.getKey(), value.isNull() ? null : value.isValueNode() ? value.asText() : value.toString());
+        });
+        return new ProductImportRecord(records, values, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        iterator.close();
+    }
+}
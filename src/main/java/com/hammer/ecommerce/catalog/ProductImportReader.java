@@ -0,0 +1,12 @@
+package com.hammer.ecommerce.catalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Leitura em streaming do arquivo de importação: um registro por vez, sem carregar o arquivo
+public interface ProductImportReader extends Closeable {
+
+    // Próximo registro (numerados a partir de 1), ou null no fim do arquivo.
+    // Erros de sintaxe que impedem continuar a leitura saem como exceção.
+    ProductImportRecord next() throws IOException;
+}
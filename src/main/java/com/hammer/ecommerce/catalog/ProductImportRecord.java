@@ -0,0 +1,22 @@
+package com.hammer.ecommerce.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+// Registro lido do arquivo de importação, ainda sem conversão de tipos (coluna -> texto).
+// error vem preenchido quando o registro não pôde ser lido (ex.: número de colunas errado);
+// o registro conta para o checkpoint e vai para o arquivo de erros.
+@Getter
+@AllArgsConstructor
+public class ProductImportRecord {
+
+    private final long number;
+    private final Map<String, String> values;
+    private final String error;
+
+    public String get(String column) {
+        return values.get(column);
+    }
+}
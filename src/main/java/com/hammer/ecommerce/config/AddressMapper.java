@@ -0,0 +1,27 @@
+package com.hammer.ecommerce.config;
+
+import com.hammer.ecommerce.dto.address.AddressResponseDTO;
+import com.hammer.ecommerce.model.Address;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AddressMapper implements DtoMapper<Address, AddressResponseDTO> {
+
+    @Override
+    public AddressResponseDTO map(Address address) {
+        if (address == null) {
+            return null;
+        }
+        return new AddressResponseDTO(
+                address.getId(),
+                address.getStreet(),
+                address.getNumber(),
+                address.getComplement(),
+                address.getNeighborhood(),
+                address.getCity(),
+                address.getState(),
+                address.getZipCode(),
+                address.getIsDefault()
+        );
+    }
+}
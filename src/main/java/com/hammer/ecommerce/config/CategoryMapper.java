@@ -0,0 +1,19 @@
+package com.hammer.ecommerce.config;
+
+import com.hammer.ecommerce.dto.category.CategoryResponseDTO;
+import com.hammer.ecommerce.model.Category;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CategoryMapper {
+
+    // A quantidade vem de uma consulta de contagem: a coleção de produtos não é carregada
+    public CategoryResponseDTO map(Category category, int productCount) {
+        return new CategoryResponseDTO(
+                category.getId(),
+                category.getName(),
+                category.getDescription(),
+                productCount
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package com.hammer.ecommerce.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Conversão entidade -> DTO escrita à mão: sem reflexão nem objetos intermediários por chamada
+public interface DtoMapper<S, T> {
+
+    T map(S source);
+
+    default List<T> mapAll(Collection<? extends S> sources) {
+        List<T> result = new ArrayList<>(sources.size());
+        for (S source : sources) {
+            result.add(map(source));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package com.hammer.ecommerce.config;
+
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@Slf4j
+public class MethodTimingAspect {
+
+    // Tempo de cada método público de controllers e services em um Timer com histograma de
+    // percentis (app.method.latency{layer, class, method, outcome}). Os Timers ficam em cache por
+    // método: no caminho normal não há formatação nem alocação além da do próprio join point.
+    // Argumentos só são formatados com TRACE ligado; o tempo de cada chamada só com DEBUG.
+
+    public static final String LATENCY_METRIC = "app.method.latency";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    public MethodTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Pointcut("within(com.hammer.ecommerce.controllers..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public void controllers() {
+    }
+
+    @Pointcut("within(com.hammer.ecommerce.service..*)")
+    public void services() {
+    }
+
+    @Around("(controllers() || services()) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodTimers methodTimers = timers.computeIfAbsent(method, this::register);
+
+        if (log.isTraceEnabled()) {
+            log.trace("Executando: {}() com argumentos = {}", methodTimers.name, Arrays.toString(joinPoint.getArgs()));
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            long elapsed = System.nanoTime() - start;
+            methodTimers.success.record(elapsed, TimeUnit.NANOSECONDS);
+            if (log.isDebugEnabled()) {
+                log.debug("Tempo de execução: {}() = {}ms", methodTimers.name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+            return result;
+        } catch (Throwable e) {
+            methodTimers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Só na camada de controller, para a mesma exceção não aparecer uma vez por service atravessado.
+            // Erros de negócio viram 4xx no GlobalExceptionHandler e não são erro da aplicação
+            if (methodTimers.controller) {
+                if (isClientError(e)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Exceção em: {}() com causa = {}", methodTimers.name, e.getMessage());
+                    }
+                } else if (log.isErrorEnabled()) {
+                    log.error("Exceção em: {}() com causa = {}", methodTimers.name, e.getMessage());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof BusinessException || e instanceof ResourceNotFoundException
+                || e instanceof AuthenticationException || e instanceof AccessDeniedException;
+    }
+
+    private MethodTimers register(Method method) {
+        Class<?> type = method.getDeclaringClass();
+        boolean controller = type.isAnnotationPresent(RestController.class);
+        return new MethodTimers(type.getSimpleName() + "." + method.getName(), controller,
+                timer(type, method, controller, "success"),
+                timer(type, method, controller, "error"));
+    }
+
+    private Timer timer(Class<?> type, Method method, boolean controller, String outcome) {
+        return Timer.builder(LATENCY_METRIC)
+                .description("Tempo de execução dos métodos de controllers e services")
+                .tag("layer", controller ? "controller" : "service")
+                .tag("class", type.getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    private record MethodTimers(String name, boolean controller, Timer success, Timer error) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.hammer.ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Habilita os jobs agendados (@Scheduled)
+}
@@ -2,6 +2,7 @@ package com.hammer.ecommerce.config;
 
 import com.hammer.ecommerce.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -48,6 +49,11 @@ public class SecurityConfig {
                                 "/webjars/**"
                         ).permitAll()
 
+                        // Scrape do Prometheus e probes sem token; o actuator fica só na porta de
+                        // gerenciamento (management.server.port), que não é exposta publicamente.
+                        // metrics e info continuam exigindo autenticação
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+
                         // Endpoints protegidos
                         .requestMatchers("/api/addresses/**").authenticated()
                         .requestMatchers("/api/cart/**").authenticated()
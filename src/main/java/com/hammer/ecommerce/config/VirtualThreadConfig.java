@@ -0,0 +1,64 @@
+package com.hammer.ecommerce.config;
+
+import com.hammer.ecommerce.datasource.JdbcAdmissionDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
+
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // Modo de threads virtuais (spring.threads.virtual.enabled=true): o Spring Boot passa o
+    // Tomcat, o @Scheduled e os executores para threads virtuais. Aqui entra o que o Boot não
+    // faz: a porta de entrada do pool JDBC, que substitui o limite de threads do Tomcat.
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // static: BeanPostProcessor precisa existir antes dos beans que processa
+    @Bean
+    public static BeanPostProcessor jdbcAdmissionPostProcessor(Environment environment,
+                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !DATA_SOURCE_BEAN.equals(beanName)) {
+                    return bean;
+                }
+
+                int maxConnections = environment.getProperty("jdbc.admission.max-connections", Integer.class,
+                        defaultMaxConnections(environment));
+                int maxWaiting = environment.getProperty("jdbc.admission.max-waiting", Integer.class, 1000);
+                Duration timeout = environment.getProperty("jdbc.admission.timeout", Duration.class, Duration.ofSeconds(2));
+
+                log.info("Threads virtuais: até {} conexões JDBC simultâneas, fila de {} threads, espera máxima de {} ms",
+                        maxConnections, maxWaiting, timeout.toMillis());
+                return new JdbcAdmissionDataSource(dataSource, maxConnections, maxWaiting, timeout,
+                        meterRegistry.getObject());
+            }
+        };
+    }
+
+    // Padrão: a soma dos pools atrás do DataSource, o principal e os de cada réplica de leitura
+    // (ReadReplicaConfig). Só com o principal, leituras nas réplicas ficariam na fila à toa.
+    public static int defaultMaxConnections(Environment environment) {
+        int connections = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        if (environment.getProperty("datasource.replicas.enabled", Boolean.class, false)) {
+            long replicas = Arrays.stream(environment.getProperty("datasource.replicas.urls", String[].class, new String[0]))
+                    .filter(url -> !url.isBlank())
+                    .count();
+            connections += (int) replicas * environment.getProperty("datasource.replicas.pool-size", Integer.class, 10);
+        }
+        return connections;
+    }
+}
@@ -2,7 +2,7 @@ package com.hammer.ecommerce.controllers;
 
 import com.hammer.ecommerce.dto.address.AddressRequestDTO;
 import com.hammer.ecommerce.dto.address.AddressResponseDTO;
-import com.hammer.ecommerce.repositories.UserRepository;
+import com.hammer.ecommerce.security.AuthenticatedUser;
 import com.hammer.ecommerce.service.AddressService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,7 +17,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -30,7 +29,6 @@ import java.util.List;
 public class AddressController {
 
     private final AddressService addressService;
-    private final UserRepository userRepository;
 
     @Operation(summary = "Listar meus endereços",
             description = "Retorna todos os endereços cadastrado pelo usuário autenticado")
@@ -138,10 +136,6 @@ public class AddressController {
     }
 
     private Long getUserIdFromAuthentication(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String email = userDetails.getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"))
-                .getId();
+        return ((AuthenticatedUser) authentication.getPrincipal()).getId();
     }
 }
\ No newline at end of file
@@ -3,8 +3,9 @@ package com.hammer.ecommerce.controllers;
 import com.hammer.ecommerce.dto.cart.AddToCartRequestDTO;
 import com.hammer.ecommerce.dto.cart.CartResponseDTO;
 import com.hammer.ecommerce.dto.cart.UpdateCartItemRequestDTO;
-import com.hammer.ecommerce.repositories.UserRepository;
+import com.hammer.ecommerce.security.AuthenticatedUser;
 import com.hammer.ecommerce.service.CartService;
+import com.hammer.ecommerce.sql.StatementBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,7 +17,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -27,12 +27,12 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
 
     private final CartService cartService;
-    private final UserRepository userRepository;
 
     @Operation(summary = "Ver carrinho",
             description = "Retorna o carrinho do usuário autenticado com todos os itens")
     @ApiResponse(responseCode = "200", description = "Carrinho retornado com sucesso")
     @GetMapping
+    @StatementBudget(5)
     public ResponseEntity<CartResponseDTO> getCart(Authentication authentication) {
         Long userId = getUserIdFromAuthentication(authentication);
         CartResponseDTO cart = cartService.getCart(userId);
@@ -99,10 +99,6 @@ public class CartController {
     }
 
     private Long getUserIdFromAuthentication(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String email = userDetails.getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"))
-                .getId();
+        return ((AuthenticatedUser) authentication.getPrincipal()).getId();
     }
 }
@@ -3,6 +3,7 @@ package com.hammer.ecommerce.controllers;
 import com.hammer.ecommerce.dto.category.CategoryRequestDTO;
 import com.hammer.ecommerce.dto.category.CategoryResponseDTO;
 import com.hammer.ecommerce.service.CategoryService;
+import com.hammer.ecommerce.sql.StatementBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -31,6 +32,7 @@ public class CategoryController {
             description = "Retorna uma lista com todas as categorias cadastradas")
     @ApiResponse(responseCode = "200", description = "Lista de categorias retornada com sucesso")
     @GetMapping
+    @StatementBudget(3)
     public ResponseEntity<List<CategoryResponseDTO>> findAll() {
         List<CategoryResponseDTO> categories = categoryService.findAll();
         return ResponseEntity.ok(categories);
@@ -43,6 +45,7 @@ public class CategoryController {
             @ApiResponse(responseCode = "404", description = "Categoria não encontrada", content = @Content)
     })
     @GetMapping("/{id}")
+    @StatementBudget(3)
     public ResponseEntity<CategoryResponseDTO> findById(
             @Parameter(description = "ID da categoria") @PathVariable Long id) {
         CategoryResponseDTO category = categoryService.findById(id);
@@ -1,11 +1,21 @@
 package com.hammer.ecommerce.controllers;
 
+import com.hammer.ecommerce.dto.order.BulkOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderResponseDTO;
 import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.OrderExportFilter;
+import com.hammer.ecommerce.dto.order.OrderExportFormat;
 import com.hammer.ecommerce.dto.order.OrderResponseDTO;
 import com.hammer.ecommerce.dto.order.OrderSummaryDTO;
+import com.hammer.ecommerce.dto.order.StockReservationResponseDTO;
+import com.hammer.ecommerce.dto.pagination.CursorPageResponseDTO;
 import com.hammer.ecommerce.model.OrderStatus;
-import com.hammer.ecommerce.repositories.UserRepository;
+import com.hammer.ecommerce.security.AuthenticatedUser;
+import com.hammer.ecommerce.service.BulkOrderService;
+import com.hammer.ecommerce.service.InventoryReservationService;
+import com.hammer.ecommerce.service.OrderExportService;
 import com.hammer.ecommerce.service.OrderService;
+import com.hammer.ecommerce.sql.StatementBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,19 +24,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
@@ -35,7 +52,9 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
-    private final UserRepository userRepository;
+    private final BulkOrderService bulkOrderService;
+    private final InventoryReservationService inventoryReservationService;
+    private final OrderExportService orderExportService;
 
     @Operation(summary = "Criar pedido (Checkout)",
             description = "Cria um novo pedido a partir dos itens do carrinho. O carrinho é limpo e o estoque é reduzido automaticamente")
@@ -60,10 +79,36 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
+    @Operation(summary = "Reservar estoque do carrinho",
+            description = "Segura o estoque dos itens do carrinho por alguns minutos durante o checkout. " +
+                    "Reservar de novo renova o prazo; o pedido consome a reserva")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estoque reservado",
+                    content = @Content(schema = @Schema(implementation = StockReservationResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Carrinho vazio ou estoque insuficiente",
+                    content = @Content)
+    })
+    @PostMapping("/reservations")
+    public ResponseEntity<StockReservationResponseDTO> reserveStock(Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(inventoryReservationService.reserveCart(userId));
+    }
+
+    @Operation(summary = "Liberar reserva de estoque",
+            description = "Desiste do checkout e devolve o estoque reservado")
+    @ApiResponse(responseCode = "204", description = "Reserva liberada")
+    @DeleteMapping("/reservations")
+    public ResponseEntity<Void> releaseStock(Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        inventoryReservationService.release(userId);
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(summary = "Listar meus pedidos",
             description = "Retorna todos os pedidos do usuário autenticado com paginação")
     @ApiResponse(responseCode = "200", description = "Lista de pedidos retornada com sucesso")
     @GetMapping
+    @StatementBudget(5)
     public ResponseEntity<Page<OrderSummaryDTO>> findAllByUser(
             @Parameter(description = "Número da página (começa em 0)")
             @RequestParam(defaultValue = "0") int page,
@@ -85,6 +130,7 @@ public class OrderController {
             @ApiResponse(responseCode = "400", description = "Pedido não pertence ao usuário", content = @Content)
     })
     @GetMapping("/{id}")
+    @StatementBudget(5)
     public ResponseEntity<OrderResponseDTO> findById(
             @Parameter(description = "ID do pedido") @PathVariable Long id,
             Authentication authentication) {
@@ -121,6 +167,7 @@ public class OrderController {
     })
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
+    @StatementBudget(5)
     public ResponseEntity<Page<OrderSummaryDTO>> findAll(
             @Parameter(description = "Número da página (começa em 0)")
             @RequestParam(defaultValue = "0") int page,
@@ -131,6 +178,80 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @Operation(summary = "[ADMIN] Listar todos os pedidos por cursor",
+            description = "Retorna todos os pedidos do sistema, mais recentes primeiro, com paginação por cursor (keyset) " +
+                    "e sem contagem total. Use o nextCursor da resposta para buscar a próxima página (apenas ADMIN)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de pedidos retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor ou tamanho inválido", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Sem permissão de administrador", content = @Content)
+    })
+    @GetMapping("/admin/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @StatementBudget(5)
+    public ResponseEntity<CursorPageResponseDTO<OrderSummaryDTO>> findAllWithCursor(
+            @Parameter(description = "Cursor retornado pela página anterior (vazio na primeira página)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página")
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPageResponseDTO<OrderSummaryDTO> orders = orderService.findAllWithCursor(cursor, size);
+        return ResponseEntity.ok(orders);
+    }
+
+    @Operation(summary = "[ADMIN] Exportar pedidos",
+            description = "Exporta os pedidos, mais antigos primeiro, em CSV ou NDJSON (um objeto JSON por linha). " +
+                    "A resposta é escrita em streaming, sem paginação nem contagem, e pode ter qualquer tamanho. " +
+                    "Filtros opcionais por período de criação (datas inclusivas) e status (apenas ADMIN)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pedidos exportados"),
+            @ApiResponse(responseCode = "400", description = "Período ou parâmetro inválido", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Sem permissão de administrador", content = @Content)
+    })
+    @GetMapping("/admin/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void export(
+            @Parameter(description = "Formato do arquivo", schema = @Schema(allowableValues = {"CSV", "NDJSON"}))
+            @RequestParam(defaultValue = "CSV") OrderExportFormat format,
+            @Parameter(description = "Data inicial de criação (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Data final de criação, inclusiva (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Status aceitos (pode repetir o parâmetro); vazio = todos")
+            @RequestParam(required = false) List<OrderStatus> status,
+            HttpServletResponse response) throws IOException {
+        OrderExportFilter filter = OrderExportFilter.of(from, to, status);
+
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + format.getExtension() + "\"");
+        orderExportService.export(filter, format, response.getOutputStream());
+    }
+
+    @Operation(summary = "[ADMIN] Criar pedidos em lote",
+            description = "Cria vários pedidos de uma vez (integrações B2B e marketplace), sem usar o carrinho. " +
+                    "O estoque de todo o lote é validado e debitado de uma vez. Cada pedido é validado separadamente: " +
+                    "a resposta traz o resultado de cada um, na ordem da requisição, e um pedido inválido não impede os demais (apenas ADMIN)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; veja o resultado de cada pedido",
+                    content = @Content(schema = @Schema(implementation = BulkOrderResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do limite de " + BulkOrderRequestDTO.MAX_ORDERS + " pedidos",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Sem permissão de administrador", content = @Content)
+    })
+    @PostMapping("/admin/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkOrderResponseDTO> createOrders(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Pedidos do lote: usuário, endereço de entrega e itens (produto e quantidade) de cada um",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = BulkOrderRequestDTO.class))
+            )
+            @Valid @RequestBody BulkOrderRequestDTO request) {
+        BulkOrderResponseDTO response = bulkOrderService.createOrders(request);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "[ADMIN] Atualizar status do pedido",
             description = "Atualiza o status de um pedido. Validações: PENDING só pode ir para PAID ou CANCELLED, não pode alterar CANCELLED ou DELIVERED (apenas ADMIN)")
     @ApiResponses(value = {
@@ -153,10 +274,6 @@ public class OrderController {
     }
 
     private Long getUserIdFromAuthentication(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String email = userDetails.getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"))
-                .getId();
+        return ((AuthenticatedUser) authentication.getPrincipal()).getId();
     }
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package com.hammer.ecommerce.controllers;
 
 import com.hammer.ecommerce.dto.payment.PaymentResponseDTO;
 import com.hammer.ecommerce.dto.payment.ProcessPaymentRequestDTO;
-import com.hammer.ecommerce.repositories.UserRepository;
+import com.hammer.ecommerce.security.AuthenticatedUser;
 import com.hammer.ecommerce.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,12 +14,12 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/api/payments")
 @RequiredArgsConstructor
@@ -28,13 +28,14 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
 
     private final PaymentService paymentService;
-    private final UserRepository userRepository;
 
     @Operation(summary = "Processar pagamento",
-            description = "Processa o pagamento de um pedido. Aceita vários métodos: PIX, Cartão de Crédito, Cartão de Débito e Boleto. " +
-                    "O sistema simula a aprovação (90% de chance). Quando aprovado, o pedido é automaticamente atualizado para status PAID")
+            description = "Registra o pagamento de um pedido como PENDING e o envia ao gateway de forma assíncrona. " +
+                    "Aceita vários métodos: PIX, Cartão de Crédito, Cartão de Débito e Boleto. " +
+                    "Acompanhe o resultado pelo header Location (GET /api/payments/order/{orderId}). " +
+                    "Quando aprovado, o pedido é automaticamente atualizado para status PAID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Pagamento processado com sucesso",
+            @ApiResponse(responseCode = "202", description = "Pagamento recebido e em processamento",
                     content = @Content(schema = @Schema(implementation = PaymentResponseDTO.class))),
             @ApiResponse(responseCode = "400", description = "Pedido já possui pagamento, status inválido ou dados de pagamento inválidos",
                     content = @Content),
@@ -52,7 +53,9 @@ public class PaymentController {
             Authentication authentication) {
         Long userId = getUserIdFromAuthentication(authentication);
         PaymentResponseDTO payment = paymentService.processPayment(userId, request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(payment);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/payments/order/" + payment.getOrderId()))
+                .body(payment);
     }
 
     @Operation(summary = "Consultar pagamento do pedido",
@@ -73,12 +76,12 @@ public class PaymentController {
     }
 
     @Operation(summary = "Reembolsar pagamento",
-            description = "Processa o reembolso de um pagamento aprovado. O pedido é automaticamente cancelado e o status do pagamento atualizado para REFUNDED. " +
+            description = "Estorna no gateway um pagamento aprovado. Com o estorno aprovado, o pedido é cancelado e o status do pagamento atualizado para REFUNDED. " +
                     "Não é possível reembolsar pedidos já entregues")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Reembolso processado com sucesso",
                     content = @Content(schema = @Schema(implementation = PaymentResponseDTO.class))),
-            @ApiResponse(responseCode = "400", description = "Pagamento não está aprovado, pedido já entregue ou não pertence ao usuário",
+            @ApiResponse(responseCode = "400", description = "Pagamento não está aprovado, pedido já entregue ou não pertence ao usuário, ou estorno recusado pelo gateway",
                     content = @Content),
             @ApiResponse(responseCode = "404", description = "Pagamento não encontrado", content = @Content)
     })
@@ -92,10 +95,6 @@ public class PaymentController {
     }
 
     private Long getUserIdFromAuthentication(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String email = userDetails.getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"))
-                .getId();
+        return ((AuthenticatedUser) authentication.getPrincipal()).getId();
     }
 }
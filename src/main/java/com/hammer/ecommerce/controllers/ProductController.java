@@ -1,28 +1,42 @@
 package com.hammer.ecommerce.controllers;
 
+import com.hammer.ecommerce.dto.pagination.CursorPageResponseDTO;
+import com.hammer.ecommerce.dto.product.ProductImportFormat;
+import com.hammer.ecommerce.dto.product.ProductImportJobDTO;
 import com.hammer.ecommerce.dto.product.ProductRequestDTO;
 import com.hammer.ecommerce.dto.product.ProductResponseDTO;
 import com.hammer.ecommerce.dto.product.ProductUpdateDTO;
+import com.hammer.ecommerce.search.ProductSearchEngine;
+import com.hammer.ecommerce.service.ProductImportService;
 import com.hammer.ecommerce.service.ProductService;
+import com.hammer.ecommerce.sql.StatementBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @RestController
 @RequestMapping("/api/products")
@@ -31,14 +45,17 @@ import java.math.BigDecimal;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @Operation(summary = "Listar produtos",
-            description = "Lista todos os produtos com paginação e filtros opcionais")
+            description = "Lista todos os produtos com paginação e filtros opcionais. " +
+                    "A busca por texto ignora acentos e ordena por relevância por padrão")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de produtos retornada com sucesso"),
             @ApiResponse(responseCode = "400", description = "Parâmetros inválidos", content = @Content)
     })
     @GetMapping
+    @StatementBudget(4)
     public ResponseEntity<Page<ProductResponseDTO>> findAll(
             @Parameter(description = "ID da categoria para filtrar")
             @RequestParam(required = false) Long categoryId,
@@ -52,11 +69,15 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Tamanho da página")
             @RequestParam(defaultValue = "10") int size,
-            @Parameter(description = "Campo para ordenação")
-            @RequestParam(defaultValue = "id") String sortBy,
+            @Parameter(description = "Campo para ordenação (padrão: relevance quando há busca, id caso contrário)")
+            @RequestParam(required = false) String sortBy,
             @Parameter(description = "Direção da ordenação (ASC ou DESC)")
             @RequestParam(defaultValue = "ASC") String direction
     ) {
+        if (sortBy == null) {
+            sortBy = search != null && !search.isBlank() ? ProductSearchEngine.RELEVANCE : "id";
+        }
+
         Sort.Direction sortDirection = direction.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
 
@@ -71,12 +92,46 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @Operation(summary = "Listar produtos por cursor",
+            description = "Lista produtos com paginação por cursor (keyset), sem contagem total. " +
+                    "Use o nextCursor da resposta para buscar a próxima página")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de produtos retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor, ordenação ou tamanho inválido", content = @Content)
+    })
+    @GetMapping("/cursor")
+    @StatementBudget(3)
+    public ResponseEntity<CursorPageResponseDTO<ProductResponseDTO>> findAllWithCursor(
+            @Parameter(description = "ID da categoria para filtrar")
+            @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Texto para busca no nome ou descrição")
+            @RequestParam(required = false) String search,
+            @Parameter(description = "Preço mínimo")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Preço máximo")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Cursor retornado pela página anterior (vazio na primeira página)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página")
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Campo para ordenação (id ou price)")
+            @RequestParam(defaultValue = "id") String sortBy,
+            @Parameter(description = "Direção da ordenação (ASC ou DESC)")
+            @RequestParam(defaultValue = "ASC") String direction
+    ) {
+        Sort.Direction sortDirection = direction.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        CursorPageResponseDTO<ProductResponseDTO> products = productService.findWithCursor(
+                categoryId, search, minPrice, maxPrice, sortBy, sortDirection, cursor, size);
+        return ResponseEntity.ok(products);
+    }
+
     @Operation(summary = "Buscar produto por ID", description = "Retorna os detalhes de um produto específico")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Produto encontrado"),
             @ApiResponse(responseCode = "404", description = "Produto não encontrado", content = @Content)
     })
     @GetMapping("/{id}")
+    @StatementBudget(3)
     public ResponseEntity<ProductResponseDTO> findById(
             @Parameter(description = "ID do produto") @PathVariable Long id) {
         ProductResponseDTO product = productService.findById(id);
@@ -153,4 +208,70 @@ public class ProductController {
         productService.updateStock(id, quantity);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "[ADMIN] Importar produtos em lote",
+            description = "Cria ou atualiza produtos pelo SKU a partir do corpo da requisição, lido em streaming. " +
+                    "CSV: primeira linha com as colunas sku, name, description, price, stockQuantity, imageUrl, " +
+                    "categoryId ou category (nome), active. JSON: array de objetos com os mesmos campos, ou um objeto por linha. " +
+                    "Registros inválidos não interrompem a importação e vão para o arquivo de erros do job. " +
+                    "Se o job terminar com status FAILED, reenvie o mesmo arquivo com o jobId para continuar do último lote gravado " +
+                    "(requer permissão ADMIN)",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação processada; veja o status e os contadores do job"),
+            @ApiResponse(responseCode = "400", description = "Job já concluído, em andamento ou de outro formato", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Job não encontrado", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Não autenticado", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Sem permissão", content = @Content)
+    })
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJobDTO> importProducts(
+            @Parameter(description = "Formato do corpo", schema = @Schema(allowableValues = {"CSV", "JSON"}))
+            @RequestParam(defaultValue = "CSV") ProductImportFormat format,
+            @Parameter(description = "Job a retomar (vazio = nova importação)")
+            @RequestParam(required = false) Long jobId,
+            HttpServletRequest request) throws IOException {
+        ProductImportJobDTO job = productImportService.importProducts(format, jobId, request.getInputStream());
+        return ResponseEntity.ok(job);
+    }
+
+    @Operation(summary = "[ADMIN] Consultar importação de produtos",
+            description = "Retorna o status, o checkpoint e os contadores de um job de importação (requer permissão ADMIN)",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job encontrado"),
+            @ApiResponse(responseCode = "404", description = "Job não encontrado", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Não autenticado", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Sem permissão", content = @Content)
+    })
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJobDTO> findImport(
+            @Parameter(description = "ID do job de importação") @PathVariable Long jobId) {
+        return ResponseEntity.ok(productImportService.findJob(jobId));
+    }
+
+    @Operation(summary = "[ADMIN] Baixar erros da importação",
+            description = "Arquivo CSV (row, sku, error) com os registros rejeitados pela importação (requer permissão ADMIN)",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arquivo de erros"),
+            @ApiResponse(responseCode = "404", description = "Job ou arquivo não encontrado", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Não autenticado", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Sem permissão", content = @Content)
+    })
+    @GetMapping("/import/{jobId}/errors")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void downloadImportErrors(
+            @Parameter(description = "ID do job de importação") @PathVariable Long jobId,
+            HttpServletResponse response) throws IOException {
+        Path file = productImportService.resultFile(jobId);
+
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"product-import-" + jobId + "-errors.csv\"");
+        Files.copy(file, response.getOutputStream());
+    }
+}
@@ -4,7 +4,7 @@ import com.hammer.ecommerce.dto.review.CreateReviewRequestDTO;
 import com.hammer.ecommerce.dto.product.ProductRatingDTO;
 import com.hammer.ecommerce.dto.review.ReviewResponseDTO;
 import com.hammer.ecommerce.dto.review.UpdateReviewRequestDTO;
-import com.hammer.ecommerce.repositories.UserRepository;
+import com.hammer.ecommerce.security.AuthenticatedUser;
 import com.hammer.ecommerce.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,7 +23,6 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -36,7 +35,6 @@ public class ReviewController {
     // que já está liberado como público para leitura. Para criar/atualizar/deletar, é necessário autenticação.
 
     private final ReviewService reviewService;
-    private final UserRepository userRepository;
 
     @Operation(summary = "Criar avaliação",
             description = "Cria uma avaliação para um produto. Usuário deve ter comprado o produto (pedido com status PAID, SHIPPED ou DELIVERED). " +
@@ -136,10 +134,6 @@ public class ReviewController {
     }
 
     private Long getUserIdFromAuthentication(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String email = userDetails.getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"))
-                .getId();
+        return ((AuthenticatedUser) authentication.getPrincipal()).getId();
     }
 }
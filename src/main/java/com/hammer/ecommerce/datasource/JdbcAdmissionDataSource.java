@@ -0,0 +1,168 @@
+package com.hammer.ecommerce.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JdbcAdmissionDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    // Porta de entrada do pool JDBC para o modo de threads virtuais. Com threads de plataforma
+    // o pool do Tomcat limita quantas requisições esperam conexão; com threads virtuais não há
+    // esse limite e milhares de requisições ficariam paradas no Hikari até o connectionTimeout.
+    // Aqui só maxConnections conexões ficam abertas ao mesmo tempo (o tamanho do pool); as
+    // demais threads esperam em fila FIFO de até maxWaiting por no máximo timeout, e o que
+    // passar disso falha na hora (SQLTransientConnectionException, respondido com 503).
+
+    public static final String WAITING_METRIC = "jdbc.admission.waiting";
+    public static final String WAIT_METRIC = "jdbc.admission.wait";
+    public static final String REJECTED_METRIC = "jdbc.admission.rejected";
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int maxWaiting;
+    private final Duration timeout;
+
+    private final Timer waitTimer;
+    private final Counter queueFullCounter;
+    private final Counter timeoutCounter;
+
+    public JdbcAdmissionDataSource(DataSource target, int maxConnections, int maxWaiting, Duration timeout,
+                                   MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxWaiting = maxWaiting;
+        this.timeout = timeout;
+
+        Gauge.builder(WAITING_METRIC, waiting, AtomicInteger::get)
+                .description("Threads esperando vaga para abrir conexão JDBC")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder(WAIT_METRIC)
+                .description("Espera por vaga antes de pedir conexão ao pool")
+                .register(meterRegistry);
+        this.queueFullCounter = rejectedCounter("queue-full", meterRegistry);
+        this.timeoutCounter = rejectedCounter("timeout", meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // O bean substitui o DataSource do Spring Boot: fechar o contexto precisa fechar o pool
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            queueFullCounter.increment();
+            throw new SQLTransientConnectionException(
+                    "Fila por conexão JDBC cheia (" + maxWaiting + " threads esperando)");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                timeoutCounter.increment();
+                throw new SQLTransientConnectionException("Nenhuma conexão JDBC livre em " + timeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido esperando conexão JDBC", e);
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Devolve a vaga uma única vez, no close() da conexão (que a devolve ao pool)
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            try {
+                                connection.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        }
+                        case "getTargetConnection" -> {
+                            return connection;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "JdbcAdmission proxy for [" + connection + "]";
+                        }
+                        default -> {
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                        }
+                    }
+                });
+    }
+
+    private static Counter rejectedCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder(REJECTED_METRIC)
+                .description("Pedidos de conexão JDBC recusados pela porta de entrada do pool")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
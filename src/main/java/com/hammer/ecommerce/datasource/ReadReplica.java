@@ -0,0 +1,56 @@
+package com.hammer.ecommerce.datasource;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+@Slf4j
+@Getter
+public class ReadReplica {
+
+    // Uma réplica de leitura e o último atraso medido. Começa indisponível: só recebe
+    // leituras depois que a primeira medição confirmar que está no ar e em dia.
+
+    private final String name;
+    private final DataSource dataSource;
+
+    private volatile boolean available;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReadReplica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    // A consulta devolve o atraso em segundos; erro de conexão também tira a réplica da rota
+    public void checkLag(String lagQuery, Duration maxLag) {
+        boolean wasAvailable = available;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            resultSet.next();
+            lagSeconds = resultSet.getDouble(1);
+            available = lagSeconds * 1000 <= maxLag.toMillis();
+        } catch (SQLException e) {
+            lagSeconds = Double.NaN;
+            available = false;
+            if (wasAvailable) {
+                log.warn("Réplica {} inacessível, leituras seguem para o primário: {}", name, e.getMessage());
+            }
+            return;
+        }
+
+        if (wasAvailable && !available) {
+            log.warn("Réplica {} com atraso de {}s (máximo {}), leituras seguem para o primário",
+                    name, lagSeconds, maxLag.toSeconds());
+        } else if (!wasAvailable && available) {
+            log.info("Réplica {} disponível para leitura (atraso {}s)", name, lagSeconds);
+        }
+    }
+}
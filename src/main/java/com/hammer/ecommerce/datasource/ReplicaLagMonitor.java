@@ -0,0 +1,22 @@
+package com.hammer.ecommerce.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    // Mede o atraso das réplicas periodicamente; as que passam de max-lag (ou não respondem)
+    // deixam de receber leituras até voltarem a ficar em dia
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval:PT2S}")
+    public void check() {
+        routingDataSource.checkReplicas();
+    }
+}
@@ -0,0 +1,119 @@
+package com.hammer.ecommerce.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    // Transações @Transactional(readOnly = true) leem das réplicas (round-robin entre as
+    // disponíveis); todo o resto vai para o primário. Uma leitura chamada dentro de uma
+    // transação de escrita participa dela e continua no primário, vendo o que já gravou.
+    // Precisa ficar atrás de um LazyConnectionDataSourceProxy: o JpaTransactionManager pega
+    // a conexão antes de marcar a transação como readOnly, e o proxy adia a escolha da rota
+    // até o primeiro comando SQL.
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<ReadReplica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<String, Counter> routeCounters = new HashMap<>();
+    private final Counter fallbackCounter;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReadReplica> replicas, String lagQuery,
+                                    Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        routeCounters.put(PRIMARY, routeCounter(PRIMARY, meterRegistry));
+
+        for (ReadReplica replica : this.replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+            routeCounters.put(replica.getName(), routeCounter(replica.getName(), meterRegistry));
+
+            Gauge.builder("datasource.replica.lag", replica, ReadReplica::getLagSeconds)
+                    .tag("replica", replica.getName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+
+        this.fallbackCounter = Counter.builder("datasource.replica.fallbacks")
+                .description("Leituras readOnly enviadas ao primário por falta de réplica disponível")
+                .register(meterRegistry);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String route = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? replicaRoute() : PRIMARY;
+        routeCounters.get(route).increment();
+        return route;
+    }
+
+    private String replicaRoute() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReadReplica replica = replicas.get((start + i) % size);
+            if (replica.isAvailable()) {
+                return replica.getName();
+            }
+        }
+
+        fallbackCounter.increment();
+        return PRIMARY;
+    }
+
+    // Chamado pelo ReplicaLagMonitor
+    public void checkReplicas() {
+        replicas.forEach(replica -> replica.checkLag(lagQuery, maxLag));
+    }
+
+    public List<ReadReplica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (ReadReplica replica : replicas) {
+            closeIfPossible(replica.getDataSource());
+        }
+        closeIfPossible(primary);
+    }
+
+    private void closeIfPossible(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Counter routeCounter(String route, MeterRegistry meterRegistry) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Conexões entregues por rota (primário ou réplica)")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,14 @@
+package com.hammer.ecommerce.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderItemDTO {
+
+    private Long productId;
+    private Integer quantity;
+}
@@ -0,0 +1,22 @@
+package com.hammer.ecommerce.dto.order;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderRequestDTO {
+
+    public static final int MAX_ORDERS = 500;
+
+    // Cada pedido é validado separadamente: um pedido inválido não derruba o lote
+    @NotEmpty(message = "Informe ao menos um pedido")
+    @Size(max = MAX_ORDERS, message = "Máximo de " + MAX_ORDERS + " pedidos por lote")
+    private List<BulkOrderSpecDTO> orders;
+}
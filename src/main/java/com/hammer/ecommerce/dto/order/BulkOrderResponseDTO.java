@@ -0,0 +1,17 @@
+package com.hammer.ecommerce.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResponseDTO {
+
+    private int created;
+    private int failed;
+    private List<BulkOrderResultDTO> results;
+}
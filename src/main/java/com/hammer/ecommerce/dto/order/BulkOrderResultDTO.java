@@ -0,0 +1,30 @@
+package com.hammer.ecommerce.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResultDTO {
+
+    private int index; // posição do pedido na requisição
+    private String reference;
+    private boolean success;
+    private Long orderId;
+    private String orderNumber;
+    private BigDecimal totalAmount;
+    private String error;
+
+    public static BulkOrderResultDTO created(int index, String reference, Long orderId,
+                                             String orderNumber, BigDecimal totalAmount) {
+        return new BulkOrderResultDTO(index, reference, true, orderId, orderNumber, totalAmount, null);
+    }
+
+    public static BulkOrderResultDTO failed(int index, String reference, String error) {
+        return new BulkOrderResultDTO(index, reference, false, null, null, null, error);
+    }
+}
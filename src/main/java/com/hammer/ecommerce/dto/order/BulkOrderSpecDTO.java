@@ -0,0 +1,18 @@
+package com.hammer.ecommerce.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderSpecDTO {
+
+    private String reference; // identificador do pedido no sistema de origem (devolvido no resultado)
+    private Long userId;
+    private Long shippingAddressId;
+    private List<BulkOrderItemDTO> items;
+}
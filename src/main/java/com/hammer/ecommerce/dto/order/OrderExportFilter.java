@@ -0,0 +1,37 @@
+package com.hammer.ecommerce.dto.order;
+
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Filtros da exportação: período de criação [from, to) e status aceitos
+@Getter
+@AllArgsConstructor
+public class OrderExportFilter {
+
+    private static final LocalDateTime MIN_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Set<OrderStatus> statuses;
+
+    // Datas opcionais e inclusivas (to = até o fim do dia); sem status = todos
+    public static OrderExportFilter of(LocalDate from, LocalDate to, Collection<OrderStatus> statuses) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException("Data inicial deve ser anterior ou igual à data final");
+        }
+
+        return new OrderExportFilter(
+                from == null ? MIN_CREATED_AT : from.atStartOfDay(),
+                to == null ? MAX_CREATED_AT : to.plusDays(1).atStartOfDay(),
+                statuses == null || statuses.isEmpty() ? EnumSet.allOf(OrderStatus.class) : EnumSet.copyOf(statuses));
+    }
+}
@@ -0,0 +1,23 @@
+package com.hammer.ecommerce.dto.order;
+
+// Formatos da exportação de pedidos
+public enum OrderExportFormat {
+    CSV("text/csv", "csv"),                     // Cabeçalho + uma linha por pedido
+    NDJSON("application/x-ndjson", "ndjson");   // Um objeto JSON por linha
+
+    private final String contentType;
+    private final String extension;
+
+    OrderExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
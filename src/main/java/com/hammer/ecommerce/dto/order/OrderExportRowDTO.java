@@ -0,0 +1,39 @@
+package com.hammer.ecommerce.dto.order;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Uma linha da exportação de pedidos (mesma ordem de campos no CSV e no NDJSON)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "orderNumber", "createdAt", "status", "totalAmount", "userId", "customerEmail",
+        "paymentMethod", "paymentStatus", "paidAt", "shippingCity", "shippingState"})
+public class OrderExportRowDTO {
+
+    public static final String[] COLUMNS = {"id", "orderNumber", "createdAt", "status", "totalAmount", "userId",
+            "customerEmail", "paymentMethod", "paymentStatus", "paidAt", "shippingCity", "shippingState"};
+
+    private Long id;
+    private String orderNumber;
+    private LocalDateTime createdAt;
+    private String status;
+    private BigDecimal totalAmount;
+    private Long userId;
+    private String customerEmail;
+    private String paymentMethod; // nulo se o pedido ainda não tem pagamento
+    private String paymentStatus;
+    private LocalDateTime paidAt;
+    private String shippingCity;
+    private String shippingState;
+
+    public Object[] values() {
+        return new Object[]{id, orderNumber, createdAt, status, totalAmount, userId, customerEmail,
+                paymentMethod, paymentStatus, paidAt, shippingCity, shippingState};
+    }
+}
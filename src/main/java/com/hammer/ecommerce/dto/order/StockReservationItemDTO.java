@@ -0,0 +1,15 @@
+package com.hammer.ecommerce.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationItemDTO {
+
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+}
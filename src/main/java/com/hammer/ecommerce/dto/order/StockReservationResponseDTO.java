@@ -0,0 +1,18 @@
+package com.hammer.ecommerce.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResponseDTO {
+
+    private List<StockReservationItemDTO> items = new ArrayList<>();
+    private LocalDateTime expiresAt;
+}
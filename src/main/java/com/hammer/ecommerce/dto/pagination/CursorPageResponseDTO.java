@@ -0,0 +1,36 @@
+package com.hammer.ecommerce.dto.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponseDTO<T> {
+
+    private List<T> content = new ArrayList<>();
+    private Integer size;
+    private Boolean hasNext;
+    private String nextCursor; // Token opaco para buscar a próxima página (null na última)
+
+    // Monta a página a partir de uma consulta que buscou size + 1 linhas
+    public static <E, T> CursorPageResponseDTO<T> of(List<E> rows, int size,
+                                                     Function<E, T> mapper,
+                                                     Function<E, SeekCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+
+        List<T> content = new ArrayList<>(page.size());
+        for (E row : page) {
+            content.add(mapper.apply(row));
+        }
+
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPageResponseDTO<>(content, content.size(), hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,56 @@
+package com.hammer.ecommerce.dto.pagination;
+
+import com.hammer.ecommerce.exceptions.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Data
+@AllArgsConstructor
+public class SeekCursor {
+
+    // Posição de uma paginação por cursor: ordenação em que foi gerado (campo e direção),
+    // valor da chave de ordenação + ID do último item
+
+    private static final char SEPARATOR = '|';
+
+    private String sortBy;
+    private Sort.Direction direction;
+    private String sortKey;
+    private Long id;
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + direction + SEPARATOR + sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // O cursor só vale para a ordenação em que foi gerado: com outra, a chave seria
+    // comparada com a coluna errada e a página pularia ou repetiria itens
+    public static SeekCursor decode(String token, String sortBy, Sort.Direction direction) {
+        SeekCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // sortBy|direction|sortKey|id
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || second < 0 || last <= second) {
+                throw new BusinessException("Cursor inválido");
+            }
+            cursor = new SeekCursor(raw.substring(0, first), Sort.Direction.valueOf(raw.substring(first + 1, second)),
+                    raw.substring(second + 1, last), Long.valueOf(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Cursor inválido");
+        }
+
+        if (!cursor.getSortBy().equals(sortBy) || cursor.getDirection() != direction) {
+            throw new BusinessException("Cursor gerado para outra ordenação (" + cursor.getSortBy() + " " +
+                    cursor.getDirection() + "); use a mesma ordenação ou comece sem cursor");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,7 @@
+package com.hammer.ecommerce.dto.product;
+
+// Formatos aceitos pela importação de produtos
+public enum ProductImportFormat {
+    CSV,    // Cabeçalho com os nomes das colunas + um produto por linha (RFC 4180)
+    JSON    // Array de objetos ou um objeto por linha (NDJSON)
+}
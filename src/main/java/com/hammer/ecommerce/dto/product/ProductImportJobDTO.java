@@ -0,0 +1,25 @@
+package com.hammer.ecommerce.dto.product;
+
+import com.hammer.ecommerce.model.ProductImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJobDTO {
+
+    private Long id;
+    private ProductImportFormat format;
+    private ProductImportStatus status;
+    private long rowsProcessed;
+    private long productsCreated;
+    private long productsUpdated;
+    private long rowsFailed;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,31 @@
+package com.hammer.ecommerce.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductListingDTO {
+
+    // Projeção das listagens: produto + categoria + agregados de avaliação em um único SELECT
+
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private String imageUrl;
+    private String sku;
+    private Boolean active;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long categoryId;
+    private String categoryName;
+    private Long ratingSum;
+    private Integer ratingCount;
+}
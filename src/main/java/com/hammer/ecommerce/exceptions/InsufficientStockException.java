@@ -0,0 +1,9 @@
+package com.hammer.ecommerce.exceptions;
+
+// Falta de estoque: continua sendo 400 como qualquer BusinessException, mas separada
+// para as métricas distinguirem rejeições por estoque das demais regras de negócio
+public class InsufficientStockException extends BusinessException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
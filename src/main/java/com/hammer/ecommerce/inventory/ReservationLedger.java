@@ -0,0 +1,206 @@
+package com.hammer.ecommerce.inventory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class ReservationLedger {
+
+    // Reservas de estoque ativas, em memória, por produto (no máximo uma por usuário).
+    // Os produtos ficam distribuídos em faixas (shards), cada uma com seu lock: reservas do
+    // mesmo SKU disputam só esse lock, não a linha do produto no PostgreSQL.
+    // As reservas valem para esta instância; o UPDATE condicional do débito continua sendo
+    // a garantia final de estoque entre instâncias.
+
+    public static final String ACTIVE_HOLDS_METRIC = "inventory.holds.active";
+    public static final String HELD_UNITS_METRIC = "inventory.holds.units";
+
+    private final Shard[] shards;
+    private final MeterRegistry meterRegistry;
+
+    public ReservationLedger(
+            @Value("${inventory.reservation.shards:64}") int shardCount,
+            MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    // Executa action com os locks de todos os produtos, sempre em ordem crescente de shard
+    // (duas reservas com os mesmos produtos em ordens diferentes não entram em deadlock)
+    public <T> T withProducts(Collection<Long> productIds, Supplier<T> action) {
+        int[] indexes = productIds.stream().mapToInt(this::shardIndex).distinct().sorted().toArray();
+        for (int index : indexes) {
+            shards[index].lock.lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                shards[indexes[i]].lock.unlock();
+            }
+        }
+    }
+
+    // Os métodos abaixo exigem o lock do produto (withProducts)
+
+    // Reserva ativa do usuário para o produto, ou null
+    public StockHold find(Long productId, Long userId, LocalDateTime now) {
+        ProductHolds holds = holdsOf(productId, false);
+        StockHold hold = holds == null ? null : holds.byUser.get(userId);
+        return hold == null || hold.isExpired(now) ? null : hold;
+    }
+
+    // Unidades reservadas pelos outros usuários (reservas vencidas não contam, mesmo antes da limpeza)
+    public int heldByOthers(Long productId, Long userId, LocalDateTime now) {
+        ProductHolds holds = holdsOf(productId, false);
+        if (holds == null) {
+            return 0;
+        }
+        int held = 0;
+        for (StockHold hold : holds.byUser.values()) {
+            if (!hold.getUserId().equals(userId) && !hold.isExpired(now)) {
+                held += hold.getQuantity();
+            }
+        }
+        return held;
+    }
+
+    // Substitui a reserva anterior do usuário para o mesmo produto
+    public void put(StockHold hold) {
+        ProductHolds holds = holdsOf(hold.getProductId(), true);
+        holds.replace(hold.getUserId(), hold);
+    }
+
+    // Remove a reserva só se ela ainda for a atual (pode ter sido renovada nesse meio tempo)
+    public boolean remove(StockHold hold) {
+        ProductHolds holds = holdsOf(hold.getProductId(), false);
+        if (holds == null || holds.byUser.get(hold.getUserId()) != hold) {
+            return false;
+        }
+        holds.replace(hold.getUserId(), null);
+        release(hold.getProductId(), holds);
+        return true;
+    }
+
+    // Remove as reservas vencidas, uma faixa por vez; devolve quantas saíram
+    public int expire(LocalDateTime now) {
+        int expired = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                Iterator<Map.Entry<Long, ProductHolds>> products = shard.products.entrySet().iterator();
+                while (products.hasNext()) {
+                    ProductHolds holds = products.next().getValue();
+                    for (StockHold hold : List.copyOf(holds.byUser.values())) {
+                        if (hold.isExpired(now)) {
+                            holds.replace(hold.getUserId(), null);
+                            expired++;
+                        }
+                    }
+                    if (holds.byUser.isEmpty()) {
+                        holds.unregister(meterRegistry);
+                        products.remove();
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return expired;
+    }
+
+    // Unidades reservadas do produto, para consulta
+    public int heldUnits(Long productId) {
+        return withProducts(List.of(productId), () -> {
+            ProductHolds holds = holdsOf(productId, false);
+            return holds == null ? 0 : holds.units;
+        });
+    }
+
+    private ProductHolds holdsOf(Long productId, boolean create) {
+        Shard shard = shards[shardIndex(productId)];
+        if (!shard.lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Acesso ao produto " + productId + " sem o lock da faixa");
+        }
+
+        ProductHolds holds = shard.products.get(productId);
+        if (holds == null && create) {
+            holds = new ProductHolds(productId, meterRegistry);
+            shard.products.put(productId, holds);
+        }
+        return holds;
+    }
+
+    // Produto sem reservas sai do mapa e das métricas (o número de SKUs pode ser grande)
+    private void release(Long productId, ProductHolds holds) {
+        if (holds.byUser.isEmpty()) {
+            holds.unregister(meterRegistry);
+            shards[shardIndex(productId)].products.remove(productId);
+        }
+    }
+
+    private int shardIndex(Long productId) {
+        return Math.floorMod(productId.hashCode(), shards.length);
+    }
+
+    private static class Shard {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, ProductHolds> products = new HashMap<>();
+    }
+
+    private static class ProductHolds {
+
+        private final Map<Long, StockHold> byUser = new HashMap<>();
+
+        // Lidos pelos gauges fora do lock
+        private volatile int count;
+        private volatile int units;
+
+        private final Gauge activeGauge;
+        private final Gauge unitsGauge;
+
+        private ProductHolds(Long productId, MeterRegistry meterRegistry) {
+            String product = String.valueOf(productId);
+            this.activeGauge = Gauge.builder(ACTIVE_HOLDS_METRIC, this, holds -> holds.count)
+                    .description("Reservas de estoque ativas por produto")
+                    .tag("product", product)
+                    .register(meterRegistry);
+            this.unitsGauge = Gauge.builder(HELD_UNITS_METRIC, this, holds -> holds.units)
+                    .description("Unidades reservadas por produto")
+                    .tag("product", product)
+                    .register(meterRegistry);
+        }
+
+        private void replace(Long userId, StockHold hold) {
+            StockHold previous = hold == null ? byUser.remove(userId) : byUser.put(userId, hold);
+            if (previous != null) {
+                count--;
+                units -= previous.getQuantity();
+            }
+            if (hold != null) {
+                count++;
+                units += hold.getQuantity();
+            }
+        }
+
+        private void unregister(MeterRegistry meterRegistry) {
+            meterRegistry.remove(activeGauge);
+            meterRegistry.remove(unitsGauge);
+        }
+    }
+}
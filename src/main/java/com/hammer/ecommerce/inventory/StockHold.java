@@ -0,0 +1,21 @@
+package com.hammer.ecommerce.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Reserva de quantity unidades de um produto para um usuário até expiresAt
+@Getter
+@AllArgsConstructor
+public class StockHold {
+
+    private final Long productId;
+    private final Long userId;
+    private final int quantity;
+    private final LocalDateTime expiresAt;
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,22 @@
+package com.hammer.ecommerce.model;
+
+// Eventos de domínio gravados no outbox; cada tipo pertence a um agregado
+public enum DomainEventType {
+    ORDER_CREATED("ORDER"),           // Pedido criado
+    ORDER_STATUS_CHANGED("ORDER"),    // Pedido mudou de status (inclui cancelamento)
+    PAYMENT_REQUESTED("PAYMENT"),     // Pagamento criado, aguardando o gateway
+    PAYMENT_APPROVED("PAYMENT"),      // Aprovado pelo gateway
+    PAYMENT_REJECTED("PAYMENT"),      // Recusado pelo gateway
+    PAYMENT_REFUNDED("PAYMENT"),      // Reembolsado
+    STOCK_CHANGED("PRODUCT");         // Estoque do produto alterado (delta)
+
+    private final String aggregateType;
+
+    DomainEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
@@ -0,0 +1,42 @@
+package com.hammer.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Evento de domínio pendente de entrega (transactional outbox). Gravado na mesma transação
+// da mudança de estado e apagado pelo OutboxRelay depois de entregue aos sinks.
+// As linhas são inseridas por JDBC (OutboxAppendRepositoryImpl) com o ID tirado da sequence
+// no próprio INSERT: a ordem dos IDs é a ordem de entrega.
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false, length = 30)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private DomainEventType eventType;
+
+    // JSON com os dados do evento
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
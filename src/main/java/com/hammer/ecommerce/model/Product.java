@@ -1,9 +1,11 @@
 package com.hammer.ecommerce.model;
 
+import com.hammer.ecommerce.search.ProductSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,6 +16,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductSearchIndexListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,7 +58,24 @@ public class Product {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Agregados das avaliações (evita carregar todas as reviews).
+    // Só são alterados por UPDATE atômico no ProductRepository, nunca pelo dirty checking.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Long ratingSum = 0L;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer ratingCount = 0;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Review> reviews = new ArrayList<>();
 
+    // Método helper para calcular a média a partir dos agregados
+    public Double getAverageRating() {
+        if (ratingCount == null || ratingCount == 0) {
+            return 0.0;
+        }
+        return (double) ratingSum / ratingCount;
+    }
 }
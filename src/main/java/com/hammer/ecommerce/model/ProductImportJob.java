@@ -0,0 +1,63 @@
+package com.hammer.ecommerce.model;
+
+import com.hammer.ecommerce.dto.product.ProductImportFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Importação de produtos em lote e seu checkpoint. rowsProcessed é gravado na mesma
+// transação de cada lote: ao retomar, os registros até ele são pulados.
+@Entity
+@Table(name = "product_import_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_import_jobs_seq")
+    @SequenceGenerator(name = "product_import_jobs_seq", sequenceName = "product_import_jobs_seq", allocationSize = 1)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ProductImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProductImportStatus status;
+
+    // Registros do arquivo já aplicados (válidos ou não)
+    @Column(nullable = false)
+    private Long rowsProcessed = 0L;
+
+    @Column(nullable = false)
+    private Long productsCreated = 0L;
+
+    @Column(nullable = false)
+    private Long productsUpdated = 0L;
+
+    @Column(nullable = false)
+    private Long rowsFailed = 0L;
+
+    // Arquivo CSV com os erros por registro (row, sku, error)
+    @Column(nullable = false, length = 500)
+    private String resultFile;
+
+    @Column(length = 500)
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+}
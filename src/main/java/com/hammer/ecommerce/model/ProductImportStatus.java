@@ -0,0 +1,7 @@
+package com.hammer.ecommerce.model;
+
+public enum ProductImportStatus {
+    RUNNING,    // Em andamento (ou interrompida por queda da instância)
+    COMPLETED,  // Arquivo lido até o fim
+    FAILED      // Interrompida (arquivo malformado, conexão encerrada, erro de banco); pode ser retomada
+}
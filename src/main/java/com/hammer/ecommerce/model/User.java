@@ -1,5 +1,6 @@
 package com.hammer.ecommerce.model;
 
+import com.hammer.ecommerce.security.PrincipalCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,6 +14,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(PrincipalCacheListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,27 @@
+package com.hammer.ecommerce.outbox;
+
+import com.hammer.ecommerce.model.DomainEventType;
+import com.hammer.ecommerce.model.OutboxEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Evento entregue aos sinks. O id é o da linha do outbox: numa reentrega (at-least-once)
+// o mesmo evento chega com o mesmo id, e o sink pode usá-lo para descartar duplicatas.
+@Getter
+@AllArgsConstructor
+public class DomainEvent {
+
+    private final Long id;
+    private final String aggregateType;
+    private final Long aggregateId;
+    private final DomainEventType type;
+    private final String payload;
+    private final LocalDateTime occurredAt;
+
+    public static DomainEvent from(OutboxEvent row) {
+        return new DomainEvent(row.getId(), row.getAggregateType(), row.getAggregateId(), row.getEventType(),
+                row.getPayload(), row.getCreatedAt());
+    }
+}
@@ -0,0 +1,30 @@
+package com.hammer.ecommerce.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class DomainEventBus {
+
+    // Barramento em processo: repassa cada lote do outbox a todos os sinks registrados
+
+    private final List<DomainEventSink> sinks;
+
+    public DomainEventBus(List<DomainEventSink> sinks) {
+        this.sinks = sinks;
+    }
+
+    public void publish(List<DomainEvent> events) {
+        for (DomainEventSink sink : sinks) {
+            try {
+                sink.handle(events);
+            } catch (RuntimeException e) {
+                log.warn("Sink {} falhou ao receber {} evento(s)", sink.getClass().getSimpleName(), events.size());
+                throw e;
+            }
+        }
+    }
+}
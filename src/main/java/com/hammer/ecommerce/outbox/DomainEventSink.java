@@ -0,0 +1,14 @@
+package com.hammer.ecommerce.outbox;
+
+import java.util.List;
+
+// Destino dos eventos do outbox: todo bean que implementa esta interface recebe os lotes
+// entregues pelo DomainEventBus.
+// - os eventos chegam em ordem de gravação (a ordem por agregado é garantida)
+// - exceção no sink faz o lote inteiro ser reentregue depois, a todos os sinks:
+//   o tratamento precisa ser idempotente (DomainEvent.getId)
+// - roda dentro da transação do relay; trabalho demorado deve ser repassado a outra thread
+public interface DomainEventSink {
+
+    void handle(List<DomainEvent> events);
+}
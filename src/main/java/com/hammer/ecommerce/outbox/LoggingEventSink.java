@@ -0,0 +1,23 @@
+package com.hammer.ecommerce.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Sink padrão: registra os eventos em DEBUG (logging.level.com.hammer.ecommerce.outbox=DEBUG)
+@Component
+@Slf4j
+public class LoggingEventSink implements DomainEventSink {
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        for (DomainEvent event : events) {
+            log.debug("Evento {} #{} {} {}: {}", event.getType(), event.getId(), event.getAggregateType(),
+                    event.getAggregateId(), event.getPayload());
+        }
+    }
+}
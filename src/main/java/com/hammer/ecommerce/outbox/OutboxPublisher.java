@@ -0,0 +1,88 @@
+package com.hammer.ecommerce.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.model.DomainEventType;
+import com.hammer.ecommerce.model.OutboxEvent;
+import com.hammer.ecommerce.repositories.OutboxEventRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    // Grava eventos de domínio no outbox, na transação de quem chamou (rollback = sem evento).
+    // Os eventos da transação são inseridos juntos, em um batch, no beforeCommit e depois do
+    // flush do Hibernate: as linhas dos agregados alterados já estão com lock quando o ID do
+    // evento sai da sequence, então eventos do mesmo agregado ficam com IDs na ordem dos commits.
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    // Payload em ordem de inserção e aceitando nulos: payload("orderId", 1L, "status", "PAID")
+    public static Map<String, Object> payload(Object... keyValues) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            payload.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return payload;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(DomainEventType type, Long aggregateId, Map<String, Object> payload) {
+        pendingEvents().add(new OutboxEvent(null, type.getAggregateType(), aggregateId, type, toJson(payload),
+                LocalDateTime.now()));
+    }
+
+    // Um STOCK_CHANGED por produto (delta negativo = débito); orderId pode ser nulo
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishStockChanges(Map<Long, Integer> deltas, Long orderId) {
+        deltas.forEach((productId, delta) -> publish(DomainEventType.STOCK_CHANGED, productId,
+                payload("delta", delta, "orderId", orderId)));
+    }
+
+    // Um PendingEvents por transação (guardado entre as synchronizations, que são suspensas
+    // junto com a transação em REQUIRES_NEW)
+    private List<OutboxEvent> pendingEvents() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingEvents pending) {
+                return pending.events;
+            }
+        }
+        PendingEvents pending = new PendingEvents();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending.events;
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload de evento inválido", e);
+        }
+    }
+
+    private class PendingEvents implements TransactionSynchronization {
+
+        private final List<OutboxEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            outboxEventRepository.appendAll(events);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.hammer.ecommerce.outbox;
+
+import com.hammer.ecommerce.model.OutboxEvent;
+import com.hammer.ecommerce.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    // Drena o outbox em lotes de batchSize, em ordem de ID, para o DomainEventBus.
+    // Entrega e DELETE do lote na mesma transação: se algum sink falhar (ou a instância cair)
+    // o lote volta para a fila e é reentregue inteiro na próxima execução (at-least-once).
+    // Como o relay para no primeiro lote com falha, nenhum evento de um agregado passa na
+    // frente de um anterior do mesmo agregado.
+
+    public static final String PUBLISHED_METRIC = "outbox.relay.published";
+    public static final String FAILURES_METRIC = "outbox.relay.failures";
+    public static final String LAG_METRIC = "outbox.relay.lag";
+    public static final String OLDEST_AGE_METRIC = "outbox.relay.oldest-age";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final DomainEventBus eventBus;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+
+    private final Timer lag;
+
+    // Evento pendente mais antigo visto na última execução (null = outbox vazio)
+    private volatile LocalDateTime oldestPending;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            DomainEventBus eventBus,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.relay.batch-size:500}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventBus = eventBus;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+
+        this.lag = Timer.builder(LAG_METRIC)
+                .description("Tempo entre a gravação do evento e a entrega aos sinks")
+                .register(meterRegistry);
+        Gauge.builder(OLDEST_AGE_METRIC, this, OutboxRelay::oldestPendingAgeSeconds)
+                .description("Idade, em segundos, do evento pendente mais antigo do outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // Entrega lotes até o outbox esvaziar ou um lote falhar; devolve quantos eventos saíram
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:PT1S}")
+    public int relay() {
+        int delivered = 0;
+        try {
+            int batch;
+            do {
+                batch = relayBatch();
+                delivered += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException e) {
+            meterRegistry.counter(FAILURES_METRIC).increment();
+            log.error("Falha ao entregar eventos do outbox; o lote será reentregue", e);
+        }
+
+        oldestPending = outboxEventRepository.findOldestCreatedAt();
+        return delivered;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> rows = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(PageRequest.ofSize(batchSize));
+            if (!batch.isEmpty()) {
+                eventBus.publish(batch.stream().map(DomainEvent::from).toList());
+                outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+            }
+            return batch;
+        });
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+
+        // Métricas só depois do commit (lote entregue de fato)
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent row : rows) {
+            lag.record(Duration.between(row.getCreatedAt(), now));
+            meterRegistry.counter(PUBLISHED_METRIC, "type", row.getEventType().name()).increment();
+        }
+        return rows.size();
+    }
+
+    private double oldestPendingAgeSeconds() {
+        LocalDateTime oldest = oldestPending;
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+}
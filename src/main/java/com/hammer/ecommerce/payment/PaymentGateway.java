@@ -0,0 +1,17 @@
+package com.hammer.ecommerce.payment;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface PaymentGateway {
+
+    // Adaptador do gateway de pagamento (Stripe, PagSeguro, etc.). Chamado fora de
+    // qualquer transação do banco: pode demorar sem segurar conexão do pool.
+    PaymentGatewayResponse charge(PaymentGatewayRequest request);
+
+    // Estorna (ou cancela, se ainda não liquidada) uma cobrança aprovada
+    PaymentGatewayResponse refund(String transactionId, BigDecimal amount);
+
+    // Resultado de uma cobrança já recebida pelo gateway; vazio se ele não conhece a transação
+    Optional<PaymentGatewayResponse> findCharge(String transactionId);
+}
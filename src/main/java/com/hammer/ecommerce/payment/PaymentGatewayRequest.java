@@ -0,0 +1,30 @@
+package com.hammer.ecommerce.payment;
+
+import com.hammer.ecommerce.model.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentGatewayRequest {
+
+    private Long paymentId;
+    private String transactionId;
+    private BigDecimal amount;
+    private PaymentMethod paymentMethod;
+
+    // Dados do cartão só trafegam em memória até o gateway (nunca são persistidos nem logados)
+    @ToString.Exclude
+    private String cardNumber;
+    @ToString.Exclude
+    private String cardHolderName;
+    @ToString.Exclude
+    private String cardExpiryDate;
+    @ToString.Exclude
+    private String cardCvv;
+}
@@ -0,0 +1,22 @@
+package com.hammer.ecommerce.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentGatewayResponse {
+
+    private boolean approved;
+    private String message;
+
+    public static PaymentGatewayResponse approved() {
+        return new PaymentGatewayResponse(true, "Pagamento aprovado");
+    }
+
+    public static PaymentGatewayResponse rejected(String message) {
+        return new PaymentGatewayResponse(false, message);
+    }
+}
@@ -0,0 +1,304 @@
+package com.hammer.ecommerce.payment;
+
+import com.hammer.ecommerce.model.DomainEventType;
+import com.hammer.ecommerce.model.Order;
+import com.hammer.ecommerce.model.OrderStatus;
+import com.hammer.ecommerce.model.Payment;
+import com.hammer.ecommerce.model.PaymentStatus;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
+import com.hammer.ecommerce.repositories.OrderRepository;
+import com.hammer.ecommerce.repositories.PaymentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+public class PaymentProcessor {
+
+    // Pipeline assíncrono: a requisição só grava o pagamento PENDING; a chamada ao gateway
+    // roda em thread virtual, fora de transação, e o resultado é gravado numa transação curta.
+
+    public static final String QUEUE_DEPTH_METRIC = "payment.pipeline.queued";
+    public static final String IN_FLIGHT_METRIC = "payment.pipeline.in-flight";
+    public static final String GATEWAY_LATENCY_METRIC = "payment.gateway.latency";
+    // payments{status = requested|approved|rejected|refunded, method}; expirados à parte, sem método
+    public static final String PAYMENTS_METRIC = "payments";
+    public static final String EXPIRED_METRIC = "payments.expired";
+
+    // Pagamentos pendentes reconciliados com o gateway por execução do job
+    static final int EXPIRATION_BATCH_SIZE = 100;
+
+    private final PaymentGateway paymentGateway;
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Limita chamadas simultâneas ao gateway (threads virtuais são baratas, o gateway não)
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Pagamentos deste processo ainda no pipeline (na fila ou no gateway): a expiração não mexe neles
+    private final Set<Long> pipeline = ConcurrentHashMap.newKeySet();
+
+    private final Duration pendingTimeout;
+
+    // Sem modo assíncrono o gateway é chamado na própria requisição (testes @Transactional não fazem commit)
+    private boolean async;
+
+    public PaymentProcessor(
+            PaymentGateway paymentGateway,
+            PaymentRepository paymentRepository,
+            OrderRepository orderRepository,
+            OutboxPublisher outboxPublisher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${payment.pipeline.async:true}") boolean async,
+            @Value("${payment.pipeline.max-concurrency:50}") int maxConcurrency,
+            @Value("${payment.pipeline.pending-timeout:PT10M}") Duration pendingTimeout) {
+        this.paymentGateway = paymentGateway;
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.async = async;
+        this.permits = new Semaphore(maxConcurrency);
+        this.pendingTimeout = pendingTimeout;
+
+        Gauge.builder(QUEUE_DEPTH_METRIC, queued, AtomicInteger::get)
+                .description("Pagamentos aguardando vaga para chamar o gateway")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, AtomicInteger::get)
+                .description("Pagamentos em processamento no gateway")
+                .register(meterRegistry);
+    }
+
+    // Agenda o processamento para depois do commit: a thread do pipeline precisa enxergar o PENDING gravado
+    public void submit(PaymentGatewayRequest request) {
+        if (!async) {
+            process(request);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(request);
+                }
+            });
+        } else {
+            dispatch(request);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void dispatch(PaymentGatewayRequest request) {
+        pipeline.add(request.getPaymentId());
+        queued.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                queued.decrementAndGet();
+                pipeline.remove(request.getPaymentId());
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            queued.decrementAndGet();
+            inFlight.incrementAndGet();
+            try {
+                process(request);
+            } catch (RuntimeException e) {
+                // O pagamento fica PENDING e é encerrado por expireStalePayments
+                log.error("Falha ao finalizar pagamento {}", request.getPaymentId(), e);
+            } finally {
+                inFlight.decrementAndGet();
+                pipeline.remove(request.getPaymentId());
+                permits.release();
+            }
+        });
+    }
+
+    void process(PaymentGatewayRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        PaymentGatewayResponse response;
+        try {
+            response = paymentGateway.charge(request);
+        } catch (RuntimeException e) {
+            log.warn("Erro no gateway ao processar pagamento {}", request.getPaymentId(), e);
+            response = PaymentGatewayResponse.rejected("Falha na comunicação com o gateway");
+        }
+        sample.stop(Timer.builder(GATEWAY_LATENCY_METRIC)
+                .description("Tempo de resposta do gateway de pagamento")
+                .tag("method", request.getPaymentMethod().name())
+                .tag("outcome", response.isApproved() ? "approved" : "rejected")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+
+        PaymentGatewayResponse result = response;
+        PaymentStatus completed = transactionTemplate.execute(status -> complete(request.getPaymentId(), result));
+        count(completed, request.getPaymentMethod().name());
+    }
+
+    // Pagamento já finalizado por outro caminho (ex.: expirado) não é contado de novo
+    private void count(PaymentStatus completed, String method) {
+        if (completed != null) {
+            meterRegistry.counter(PAYMENTS_METRIC,
+                    "status", completed.name().toLowerCase(),
+                    "method", method).increment();
+        }
+    }
+
+    private PaymentStatus complete(Long paymentId, PaymentGatewayResponse response) {
+        Payment payment = paymentRepository.findById(paymentId).orElse(null);
+        if (payment == null) {
+            return null;
+        }
+
+        // Status do pedido relido com lock: o cancelamento trava a mesma linha, então ou o pagamento é
+        // aprovado antes (e o cancelamento vê PAID) ou o pedido já chega aqui CANCELLED
+        Order order = orderRepository.findByIdForUpdate(payment.getOrder().getId()).orElseThrow();
+
+        // Idempotente: pagamento já finalizado não é alterado. Exceção: cobrança aprovada de um
+        // pagamento que expirou sem o gateway conhecer a transação é estornada
+        if (payment.getStatus() != PaymentStatus.PENDING) {
+            return response.isApproved() && payment.getStatus() == PaymentStatus.REJECTED
+                    ? refund(payment, order)
+                    : null;
+        }
+
+        // Pedido cancelado enquanto o pagamento estava no pipeline: o estoque já voltou, a cobrança é estornada
+        if (response.isApproved() && order.getStatus() != OrderStatus.PENDING) {
+            return refund(payment, order);
+        }
+
+        if (response.isApproved()) {
+            payment.setStatus(PaymentStatus.APPROVED);
+            payment.setPaidAt(LocalDateTime.now());
+
+            // Atualizar status do pedido
+            order.setStatus(OrderStatus.PAID);
+            outboxPublisher.publish(DomainEventType.ORDER_STATUS_CHANGED, order.getId(), OutboxPublisher.payload(
+                    "orderNumber", order.getOrderNumber(),
+                    "userId", order.getUser().getId(),
+                    "from", OrderStatus.PENDING.name(),
+                    "to", OrderStatus.PAID.name()));
+        } else {
+            payment.setStatus(PaymentStatus.REJECTED);
+
+            // Manter pedido como PENDING para tentar novamente
+        }
+
+        paymentRepository.save(payment);
+
+        outboxPublisher.publish(response.isApproved() ? DomainEventType.PAYMENT_APPROVED : DomainEventType.PAYMENT_REJECTED,
+                paymentId, OutboxPublisher.payload(
+                        "orderId", order.getId(),
+                        "transactionId", payment.getTransactionId()));
+        return payment.getStatus();
+    }
+
+    // Chamada ao gateway dentro da transação, com o pedido travado: caminho raro, e se o estorno
+    // falhar o rollback mantém o pagamento como estava para a reconciliação tentar de novo
+    private PaymentStatus refund(Payment payment, Order order) {
+        PaymentGatewayResponse refund = paymentGateway.refund(payment.getTransactionId(), order.getTotalAmount());
+        if (!refund.isApproved()) {
+            throw new IllegalStateException("Estorno do pagamento " + payment.getId() + " recusado: " + refund.getMessage());
+        }
+
+        payment.setStatus(PaymentStatus.REFUNDED);
+        paymentRepository.save(payment);
+
+        outboxPublisher.publish(DomainEventType.PAYMENT_REFUNDED, payment.getId(), OutboxPublisher.payload(
+                "orderId", order.getId(),
+                "transactionId", payment.getTransactionId()));
+        log.warn("Cobrança do pagamento {} estornada: pedido {} está {}", payment.getId(), order.getId(), order.getStatus());
+        return PaymentStatus.REFUNDED;
+    }
+
+    // Pagamentos que ficaram PENDING (ex.: aplicação reiniciada com o pipeline cheio) são reconciliados
+    // com o gateway: cobrança que ele recebeu é gravada com o resultado dela (aprovada para pedido
+    // cancelado é estornada); sem registro no gateway, o pagamento expira como recusado.
+    // Um a um, pelo mesmo complete() do pipeline, para cada pagamento ter seu evento no outbox
+    @Scheduled(fixedDelayString = "${payment.pipeline.pending-check-interval:PT1M}")
+    public void expireStalePayments() {
+        List<Payment> stale = transactionTemplate.execute(status -> paymentRepository.findByStatusCreatedBefore(
+                PaymentStatus.PENDING, LocalDateTime.now().minus(pendingTimeout), PageRequest.ofSize(EXPIRATION_BATCH_SIZE)));
+
+        int expired = 0;
+        for (Payment payment : stale) {
+            if (pipeline.contains(payment.getId())) {
+                continue;
+            }
+
+            Optional<PaymentGatewayResponse> charge;
+            try {
+                charge = paymentGateway.findCharge(payment.getTransactionId());
+            } catch (RuntimeException e) {
+                // Continua PENDING: sem saber se houve cobrança, recusar poderia deixar o cliente cobrado
+                log.warn("Gateway indisponível para reconciliar o pagamento {}", payment.getId(), e);
+                continue;
+            }
+
+            PaymentGatewayResponse result = charge.orElseGet(() -> PaymentGatewayResponse.rejected("Pagamento expirado"));
+            try {
+                PaymentStatus completed = transactionTemplate.execute(status -> complete(payment.getId(), result));
+                if (charge.isPresent()) {
+                    count(completed, payment.getPaymentMethod().name());
+                } else if (completed != null) {
+                    expired++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Falha ao reconciliar pagamento {}", payment.getId(), e);
+            }
+        }
+
+        if (expired > 0) {
+            meterRegistry.counter(EXPIRED_METRIC).increment(expired);
+            log.warn("{} pagamento(s) pendente(s) expirado(s) e recusado(s)", expired);
+        }
+    }
+
+    // Espera os pagamentos em andamento terminarem antes de fechar o contexto
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+}
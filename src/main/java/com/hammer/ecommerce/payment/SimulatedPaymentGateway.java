@@ -0,0 +1,90 @@
+package com.hammer.ecommerce.payment;
+
+import com.hammer.ecommerce.model.PaymentMethod;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    // Gateway local para desenvolvimento: simula latência e taxa de aprovação
+
+    private final Duration latency;
+    private final int approvalRate;
+
+    // Resultado das cobranças por transactionId, para a reconciliação (só em memória: é um simulador)
+    private final Map<String, PaymentGatewayResponse> charges = new ConcurrentHashMap<>();
+
+    public SimulatedPaymentGateway(
+            @Value("${payment.gateway.simulated.latency:PT1S}") Duration latency,
+            @Value("${payment.gateway.simulated.approval-rate:90}") int approvalRate) {
+        this.latency = latency;
+        this.approvalRate = approvalRate;
+    }
+
+    @Override
+    public PaymentGatewayResponse charge(PaymentGatewayRequest request) {
+
+        // Simular delay de processamento (em thread virtual, não prende thread de plataforma)
+        if (!sleep()) {
+            return PaymentGatewayResponse.rejected("Processamento interrompido");
+        }
+
+        // Validações básicas para simulação
+        PaymentGatewayResponse response;
+        if ((request.getPaymentMethod() == PaymentMethod.CREDIT_CARD ||
+                request.getPaymentMethod() == PaymentMethod.DEBIT_CARD) &&
+                (request.getCardNumber() == null || request.getCardNumber().length() < 16)) {
+            response = PaymentGatewayResponse.rejected("Cartão inválido");
+        } else {
+            response = ThreadLocalRandom.current().nextInt(100) < approvalRate
+                    ? PaymentGatewayResponse.approved()
+                    : PaymentGatewayResponse.rejected("Pagamento recusado pelo emissor");
+        }
+
+        charges.put(request.getTransactionId(), response);
+        return response;
+    }
+
+    @Override
+    public PaymentGatewayResponse refund(String transactionId, BigDecimal amount) {
+        if (!sleep()) {
+            return PaymentGatewayResponse.rejected("Processamento interrompido");
+        }
+
+        PaymentGatewayResponse charge = charges.get(transactionId);
+        if (charge == null || !charge.isApproved()) {
+            return PaymentGatewayResponse.rejected("Cobrança não encontrada");
+        }
+
+        charges.put(transactionId, PaymentGatewayResponse.rejected("Cobrança estornada"));
+        return new PaymentGatewayResponse(true, "Estorno aprovado");
+    }
+
+    @Override
+    public Optional<PaymentGatewayResponse> findCharge(String transactionId) {
+        return Optional.ofNullable(charges.get(transactionId));
+    }
+
+    private boolean sleep() {
+        if (latency.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(latency);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.cart.CartSnapshot;
+
+import java.util.Collection;
+
+public interface CartBulkRepository {
+
+    // Tamanho do bloco reservado por chamada à cart_items_seq (allocationSize de CartItem)
+    int ITEM_ID_BLOCK_SIZE = 50;
+
+    // Grava o estado completo de vários carrinhos com batch JDBC: apaga os itens, reinsere
+    // as linhas atuais (com os IDs já atribuídos) e atualiza carts.updated_at.
+    // Três batches por chamada, independente do número de carrinhos.
+    void writeAll(Collection<CartSnapshot> carts);
+
+    // Reserva um bloco de ITEM_ID_BLOCK_SIZE IDs de cart_items e devolve o primeiro.
+    // Mesma semântica do otimizador pooled-lo do Hibernate, que usa a mesma sequence.
+    long reserveItemIds();
+}
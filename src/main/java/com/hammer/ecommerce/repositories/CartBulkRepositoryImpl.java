@@ -0,0 +1,61 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CartBulkRepositoryImpl implements CartBulkRepository {
+
+    private static final String ITEM_SEQUENCE = "cart_items_seq";
+
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_items WHERE cart_id = ?";
+
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO cart_items (id, cart_id, product_id, quantity) VALUES (?, ?, ?, ?)";
+
+    private static final String UPDATE_CART_SQL = "UPDATE carts SET updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public void writeAll(Collection<CartSnapshot> carts) {
+        if (carts.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> cartIds = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> timestamps = new ArrayList<>();
+        for (CartSnapshot cart : carts) {
+            cartIds.add(new Object[]{cart.getCartId()});
+            timestamps.add(new Object[]{Timestamp.valueOf(cart.getUpdatedAt()), cart.getCartId()});
+            for (CartLine line : cart.getLines()) {
+                items.add(new Object[]{line.getItemId(), cart.getCartId(), line.getProductId(), line.getQuantity()});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(DELETE_ITEMS_SQL, cartIds);
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items);
+        }
+        jdbcTemplate.batchUpdate(UPDATE_CART_SQL, timestamps);
+    }
+
+    @Override
+    public long reserveItemIds() {
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        return jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(ITEM_SEQUENCE), Long.class);
+    }
+}
@@ -9,7 +9,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface CartRepository extends JpaRepository<Cart, Long> {
+public interface CartRepository extends JpaRepository<Cart, Long>, CartBulkRepository {
 
     Optional<Cart> findByUserId(Long userId);
 
@@ -17,4 +17,7 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserIdWithItems(@Param("userId") Long userId);
 
     boolean existsByUserId(Long userId);
+
+    @Query("SELECT c.user.id FROM Cart c JOIN c.items ci WHERE ci.id = :itemId")
+    Optional<Long> findUserIdByItemId(@Param("itemId") Long itemId);
 }
\ No newline at end of file
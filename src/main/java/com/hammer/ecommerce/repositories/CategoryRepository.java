@@ -1,15 +1,33 @@
 package com.hammer.ecommerce.repositories;
 
+import com.hammer.ecommerce.dto.category.CategoryResponseDTO;
 import com.hammer.ecommerce.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    // Contagem de produtos como subconsulta no mesmo SELECT: getProducts().size() carregaria
+    // todos os produtos de cada categoria (uma consulta por categoria)
+    String WITH_PRODUCT_COUNT = "SELECT new com.hammer.ecommerce.dto.category.CategoryResponseDTO(" +
+            "c.id, c.name, c.description, SIZE(c.products)) FROM Category c ";
+
     Optional<Category> findByName(String name);
 
     boolean existsByName(String name);
-}
\ No newline at end of file
+
+    @Query(WITH_PRODUCT_COUNT + "ORDER BY c.id")
+    List<CategoryResponseDTO> findAllWithProductCount();
+
+    @Query(WITH_PRODUCT_COUNT + "WHERE c.id = :id")
+    Optional<CategoryResponseDTO> findByIdWithProductCount(@Param("id") Long id);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
+    long countProducts(@Param("categoryId") Long categoryId);
+}
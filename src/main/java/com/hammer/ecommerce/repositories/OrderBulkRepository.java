@@ -0,0 +1,13 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.model.Order;
+
+import java.util.List;
+
+public interface OrderBulkRepository {
+
+    // Insere pedidos novos e seus itens com batch JDBC (um batch para orders, outro para
+    // order_items), sem passar pelo persistence context. Preenche o ID de pedidos e itens.
+    // Usuário, endereço e produtos precisam ter apenas o ID preenchido.
+    void insertAll(List<Order> orders);
+}
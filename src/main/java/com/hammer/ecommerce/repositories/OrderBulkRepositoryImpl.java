@@ -0,0 +1,98 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.model.Order;
+import com.hammer.ecommerce.model.OrderItem;
+import jakarta.persistence.SequenceGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OrderBulkRepositoryImpl implements OrderBulkRepository {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (id, order_number, user_id, shipping_address_id, total_amount, status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO order_items (id, order_id, product_id, quantity, price, subtotal) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // PostgreSQL e H2 aceitam a mesma sintaxe
+    private static final String NEXTVAL_SQL = "SELECT nextval('%s')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderItem> items = new ArrayList<>();
+        for (Order order : orders) {
+            order.generateOrderNumber();
+            order.setCreatedAt(now);
+            order.setUpdatedAt(now);
+            items.addAll(order.getOrderItems());
+        }
+
+        long[] orderIds = allocateIds(Order.class, orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setId(orderIds[i]);
+        }
+        long[] itemIds = allocateIds(OrderItem.class, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(itemIds[i]);
+        }
+
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orders, orders.size(), (ps, order) -> {
+            ps.setLong(1, order.getId());
+            ps.setString(2, order.getOrderNumber());
+            ps.setLong(3, order.getUser().getId());
+            ps.setLong(4, order.getShippingAddress().getId());
+            ps.setBigDecimal(5, order.getTotalAmount());
+            ps.setString(6, order.getStatus().name());
+            ps.setTimestamp(7, timestamp);
+            ps.setTimestamp(8, timestamp);
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getId());
+            ps.setLong(2, item.getOrder().getId());
+            ps.setLong(3, item.getProduct().getId());
+            ps.setInt(4, item.getQuantity());
+            ps.setBigDecimal(5, item.getPrice());
+            ps.setBigDecimal(6, item.getSubtotal());
+        });
+    }
+
+    // IDs da sequence da entidade em blocos pooled-lo, como o Hibernate com
+    // hibernate.id.optimizer.pooled.preferred=pooled-lo: cada nextval reserva os allocationSize
+    // IDs a partir do valor devolvido. Os blocos não se sobrepõem aos reservados pelo Hibernate.
+    private long[] allocateIds(Class<?> entity, int count) {
+        SequenceGenerator sequence;
+        try {
+            sequence = entity.getDeclaredField("id").getAnnotation(SequenceGenerator.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(entity.getSimpleName() + " não tem o campo id", e);
+        }
+
+        String sql = NEXTVAL_SQL.formatted(sequence.sequenceName());
+        int blockSize = sequence.allocationSize();
+        long[] ids = new long[count];
+        long low = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % blockSize == 0) {
+                low = jdbcTemplate.queryForObject(sql, Long.class);
+            }
+            ids[i] = low + i % blockSize;
+        }
+        return ids;
+    }
+}
@@ -2,12 +2,36 @@ package com.hammer.ecommerce.repositories;
 
 import com.hammer.ecommerce.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByOrderId(Long orderId);
+
+    // Quantidade de itens de vários pedidos numa consulta (resumos das listagens)
+    @Query("SELECT oi.order.id AS orderId, COUNT(oi) AS items FROM OrderItem oi " +
+            "WHERE oi.order.id IN :orderIds GROUP BY oi.order.id")
+    List<ItemCount> countByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    default Map<Long, Integer> countItems(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        return countByOrderIds(orderIds).stream()
+                .collect(Collectors.toMap(ItemCount::getOrderId, count -> (int) count.getItems()));
+    }
+
+    interface ItemCount {
+        Long getOrderId();
+
+        long getItems();
+    }
 }
@@ -5,26 +5,86 @@ import com.hammer.ecommerce.model.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderBulkRepository {
+
+    // Linhas trazidas do banco por vez na exportação (cursor do driver)
+    int EXPORT_FETCH_SIZE = 500;
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
-    Page<Order> findByUserId(Long userId, Pageable pageable);
+    // Listagens: endereço (EAGER) e pagamento (lado inverso do @OneToOne, nunca lazy) vêm no mesmo
+    // SELECT; sem o JOIN FETCH o Hibernate faz duas consultas extras por pedido da página
+    String LISTING_SELECT = "SELECT o FROM Order o JOIN FETCH o.shippingAddress LEFT JOIN FETCH o.payment ";
+
+    @Query(value = LISTING_SELECT + "WHERE o.user.id = :userId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
+    Page<Order> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Override
+    @Query(value = LISTING_SELECT, countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Order> findAll(Pageable pageable);
 
     Page<Order> findByUserIdAndStatus(Long userId, OrderStatus status, Pageable pageable);
 
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.product WHERE o.id = :orderId")
     Optional<Order> findByIdWithItems(@Param("orderId") Long orderId);
 
+    // Lock na linha do pedido para mudar o status: cancelamento, mudança pelo admin e o resultado do
+    // pagamento (PaymentProcessor) ficam em série e nenhum deles decide com um status já alterado.
+    // Sem JOIN FETCH dos itens: o PostgreSQL não aceita FOR UPDATE no lado opcional de um outer join
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") Long orderId);
+
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.product WHERE o.id = :orderId AND o.user.id = :userId")
     Optional<Order> findByIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
 
     boolean existsByOrderNumber(String orderNumber);
+
+    // Compra do produto em pedido com um dos status, sem carregar pedidos nem itens
+    @Query("SELECT COUNT(o) > 0 FROM Order o JOIN o.orderItems oi " +
+            "WHERE o.user.id = :userId AND oi.product.id = :productId AND o.status IN :statuses")
+    boolean existsPurchase(@Param("userId") Long userId,
+                           @Param("productId") Long productId,
+                           @Param("statuses") Set<OrderStatus> statuses);
+
+    // Paginação por cursor (keyset) para a listagem administrativa: mais recentes primeiro
+    @Query(LISTING_SELECT + "WHERE o.createdAt < :lastCreatedAt OR " +
+            "(o.createdAt = :lastCreatedAt AND o.id < :lastId) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> seekByCreatedAtDesc(
+            @Param("lastCreatedAt") LocalDateTime lastCreatedAt,
+            @Param("lastId") Long lastId,
+            Pageable limit
+    );
+
+    // Exportação: cursor somente leitura (forward-only), lido do banco em blocos de EXPORT_FETCH_SIZE.
+    // Cliente, endereço e pagamento vêm no mesmo SELECT (sem consulta extra por pedido).
+    // Precisa de transação aberta enquanto o Stream é consumido.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.user JOIN FETCH o.shippingAddress LEFT JOIN FETCH o.payment " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to AND o.status IN :statuses ORDER BY o.createdAt, o.id")
+    Stream<Order> streamForExport(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("statuses") Set<OrderStatus> statuses
+    );
 }
@@ -0,0 +1,12 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.model.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxAppendRepository {
+
+    // Insere os eventos em um batch JDBC, na ordem da lista, com o ID tirado da
+    // outbox_events_seq no próprio INSERT (sem bloco pré-alocado por instância)
+    void appendAll(List<OutboxEvent> events);
+}
@@ -0,0 +1,38 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.model.OutboxEvent;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OutboxAppendRepositoryImpl implements OutboxAppendRepository {
+
+    private static final String EVENT_SEQUENCE = "outbox_events_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public void appendAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        String sql = "INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, created_at) " +
+                "VALUES (" + dialect.getSequenceSupport().getSelectSequenceNextValString(EVENT_SEQUENCE) +
+                ", ?, ?, ?, ?, ?)";
+
+        jdbcTemplate.batchUpdate(sql, events.stream()
+                .map(event -> new Object[]{event.getAggregateType(), event.getAggregateId(),
+                        event.getEventType().name(), event.getPayload(), Timestamp.valueOf(event.getCreatedAt())})
+                .toList());
+    }
+}
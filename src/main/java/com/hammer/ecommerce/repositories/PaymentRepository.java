@@ -2,9 +2,14 @@ package com.hammer.ecommerce.repositories;
 
 import com.hammer.ecommerce.model.Payment;
 import com.hammer.ecommerce.model.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +22,10 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     boolean existsByOrderId(Long orderId);
 
     Optional<Payment> findByOrderIdAndStatus(Long orderId, PaymentStatus status);
-}
\ No newline at end of file
+
+    // Pagamentos parados num status (ex.: PENDING além do timeout), mais antigos primeiro
+    @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.createdAt < :createdBefore ORDER BY p.createdAt, p.id")
+    List<Payment> findByStatusCreatedBefore(@Param("status") PaymentStatus status,
+                                            @Param("createdBefore") LocalDateTime createdBefore,
+                                            Pageable limit);
+}
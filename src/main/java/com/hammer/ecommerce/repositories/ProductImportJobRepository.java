@@ -0,0 +1,9 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.model.ProductImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, Long> {
+}
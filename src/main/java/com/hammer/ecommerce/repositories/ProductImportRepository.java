@@ -0,0 +1,21 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface ProductImportRepository {
+
+    // Produtos já cadastrados com os SKUs informados (sku -> produto com os campos editáveis
+    // preenchidos; a categoria só com o ID), travados com FOR UPDATE em ordem de ID até o fim
+    // da transação
+    Map<String, Product> lockBySku(Collection<String> skus);
+
+    // INSERT ... ON CONFLICT (sku) DO UPDATE de todos os campos editáveis (MERGE no H2), em
+    // comandos de várias linhas. Preenche o ID de cada produto e devolve os SKUs inseridos; os
+    // demais já existiam e foram atualizados. A categoria precisa ter apenas o ID preenchido.
+    Set<String> upsertAll(List<Product> products);
+}
@@ -0,0 +1,142 @@
+package com.hammer.ecommerce.repositories;
+
+import com.hammer.ecommerce.model.Category;
+import com.hammer.ecommerce.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class ProductImportRepositoryImpl implements ProductImportRepository {
+
+    // JDBC direto: a importação grava milhares de produtos por lote sem carregar entidades,
+    // sem o SELECT por SKU/categoria de cada item e sem o listener do índice de busca
+    // (o ProductImportService indexa depois do commit)
+
+    private static final String LOCK_SQL =
+            "SELECT id, sku, name, description, price, stock_quantity, image_url, active, category_id " +
+            "FROM products WHERE sku IN (%s) ORDER BY id FOR UPDATE";
+
+    // Um único comando por lote: SKU novo é inserido; SKU que já existe (inclusive um que outra
+    // importação acabou de inserir) é atualizado em vez de violar a unique. xmax = 0 só na linha
+    // inserida por este comando.
+    private static final String POSTGRES_UPSERT_SQL =
+            "INSERT INTO products (name, description, price, stock_quantity, image_url, sku, active, category_id, " +
+            "created_at, updated_at, rating_sum, rating_count) VALUES %s " +
+            "ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description, " +
+            "price = EXCLUDED.price, stock_quantity = EXCLUDED.stock_quantity, image_url = EXCLUDED.image_url, " +
+            "active = EXCLUDED.active, category_id = EXCLUDED.category_id, updated_at = EXCLUDED.updated_at " +
+            "RETURNING id, sku, (xmax = 0) AS inserted";
+
+    // H2 (testes) não tem ON CONFLICT ... DO UPDATE nem RETURNING: MERGE lido pelo FINAL TABLE.
+    // Na linha inserida created_at = updated_at; na atualizada created_at continua o de antes
+    private static final String H2_UPSERT_SQL =
+            "SELECT id, sku, created_at = updated_at AS inserted FROM FINAL TABLE (" +
+            "MERGE INTO products p USING (VALUES %s) AS v (name, description, price, stock_quantity, image_url, " +
+            "sku, active, category_id, created_at, updated_at) ON p.sku = v.sku " +
+            "WHEN MATCHED THEN UPDATE SET name = v.name, description = v.description, price = v.price, " +
+            "stock_quantity = v.stock_quantity, image_url = v.image_url, active = v.active, " +
+            "category_id = v.category_id, updated_at = v.updated_at " +
+            "WHEN NOT MATCHED THEN INSERT (name, description, price, stock_quantity, image_url, sku, active, " +
+            "category_id, created_at, updated_at, rating_sum, rating_count) VALUES (v.name, v.description, " +
+            "v.price, v.stock_quantity, v.image_url, v.sku, v.active, v.category_id, v.created_at, v.updated_at, 0, 0))";
+
+    private static final String POSTGRES_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0)";
+    private static final String H2_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // O PostgreSQL limita os parâmetros por comando: lotes maiores vão em partes
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Definido na primeira gravação, pelo banco da conexão
+    private volatile Boolean postgres;
+
+    @Override
+    public Map<String, Product> lockBySku(Collection<String> skus) {
+        if (skus.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Product> products = new HashMap<>();
+        jdbcTemplate.query(LOCK_SQL.formatted(placeholders(skus)), rs -> {
+            Product product = new Product();
+            product.setId(rs.getLong("id"));
+            product.setSku(rs.getString("sku"));
+            product.setName(rs.getString("name"));
+            product.setDescription(rs.getString("description"));
+            product.setPrice(rs.getBigDecimal("price"));
+            product.setStockQuantity(rs.getInt("stock_quantity"));
+            product.setImageUrl(rs.getString("image_url"));
+            product.setActive(rs.getBoolean("active"));
+            Category category = new Category();
+            category.setId(rs.getLong("category_id"));
+            product.setCategory(category);
+            products.put(product.getSku(), product);
+        }, skus.toArray());
+        return products;
+    }
+
+    @Override
+    public Set<String> upsertAll(List<Product> products) {
+        Set<String> inserted = new HashSet<>();
+        for (int from = 0; from < products.size(); from += MAX_ROWS_PER_STATEMENT) {
+            upsert(products.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, products.size())), inserted);
+        }
+        return inserted;
+    }
+
+    private void upsert(List<Product> products, Set<String> inserted) {
+        boolean postgres = isPostgres();
+        String rows = String.join(", ", Collections.nCopies(products.size(), postgres ? POSTGRES_ROW : H2_ROW));
+        String sql = (postgres ? POSTGRES_UPSERT_SQL : H2_UPSERT_SQL).formatted(rows);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> params = new ArrayList<>(products.size() * 10);
+        for (Product product : products) {
+            params.add(product.getName());
+            params.add(product.getDescription());
+            params.add(product.getPrice());
+            params.add(product.getStockQuantity());
+            params.add(product.getImageUrl());
+            params.add(product.getSku());
+            params.add(product.getActive());
+            params.add(product.getCategory().getId());
+            params.add(now);
+            params.add(now);
+        }
+
+        Map<String, Product> bySku = new HashMap<>();
+        products.forEach(product -> bySku.put(product.getSku(), product));
+        jdbcTemplate.query(sql, rs -> {
+            String sku = rs.getString("sku");
+            bySku.get(sku).setId(rs.getLong("id"));
+            if (rs.getBoolean("inserted")) {
+                inserted.add(sku);
+            }
+        }, params.toArray());
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(", ", Collections.nCopies(values.size(), "?"));
+    }
+}
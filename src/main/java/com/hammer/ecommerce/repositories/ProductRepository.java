@@ -1,18 +1,43 @@
 package com.hammer.ecommerce.repositories;
 
+import com.hammer.ecommerce.dto.product.ProductListingDTO;
 import com.hammer.ecommerce.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository,
+        ProductImportRepository {
+
+    // Filtros comuns da listagem pública (usados pelas consultas por cursor).
+    // CAST em :search: sem ele o null vai tipado como bytea e o PostgreSQL rejeita LOWER(bytea)
+    String ACTIVE_FILTERS = "p.active = true AND " +
+            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
+            "(CAST(:search AS String) IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', CAST(:search AS String), '%')) " +
+            "OR LOWER(p.description) LIKE LOWER(CONCAT('%', CAST(:search AS String), '%'))) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice)";
+
+    // Projeção das listagens: categoria e agregados vêm no mesmo SELECT (sem N+1)
+    String LISTING_SELECT = "SELECT new com.hammer.ecommerce.dto.product.ProductListingDTO(" +
+            "p.id, p.name, p.description, p.price, p.stockQuantity, p.imageUrl, p.sku, p.active, " +
+            "p.createdAt, p.updatedAt, c.id, c.name, p.ratingSum, p.ratingCount) " +
+            "FROM Product p JOIN p.category c ";
+
+    String LISTING_FILTERS = "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+            "p.active = true";
 
     Optional<Product> findBySku(String sku);
 
@@ -30,18 +55,118 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Buscar por faixa de preço
     Page<Product> findByPriceBetweenAndActiveTrue(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
-    // Query customizada para busca completa com filtros
-    @Query("SELECT p FROM Product p WHERE " +
-            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
-            "(:search IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
-            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-            "p.active = true")
-    Page<Product> findWithFilters(
+    // Query customizada para busca com filtros (o texto é tratado pelo ProductSearchEngine)
+    @Query(value = LISTING_SELECT + "WHERE " + LISTING_FILTERS,
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE " + LISTING_FILTERS)
+    Page<ProductListingDTO> findWithFilters(
             @Param("categoryId") Long categoryId,
-            @Param("search") String search,
             @Param("minPrice") BigDecimal minPrice,
             @Param("maxPrice") BigDecimal maxPrice,
             Pageable pageable
     );
+
+    // Mesmos filtros restritos aos IDs encontrados pelo motor de busca
+    @Query(value = LISTING_SELECT + "WHERE p.id IN :ids AND " + LISTING_FILTERS,
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.id IN :ids AND " + LISTING_FILTERS)
+    Page<ProductListingDTO> findWithFiltersByIdIn(
+            @Param("ids") Collection<Long> ids,
+            @Param("categoryId") Long categoryId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            Pageable pageable
+    );
+
+    // Apenas os IDs que passam nos filtros (a ordem por relevância é aplicada no serviço)
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND " + LISTING_FILTERS)
+    List<Long> findIdsWithFilters(
+            @Param("ids") Collection<Long> ids,
+            @Param("categoryId") Long categoryId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice
+    );
+
+    // Listagem pública sem filtros, já projetada
+    @Query(value = LISTING_SELECT + "WHERE p.active = true",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.active = true")
+    Page<ProductListingDTO> findActiveListing(Pageable pageable);
+
+    @Query(LISTING_SELECT + "WHERE p.id IN :ids")
+    List<ProductListingDTO> findListingByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Leitura em blocos para reconstruir o índice de busca em memória
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable limit);
+
+    // -------- Paginação por cursor (keyset), sem COUNT nem OFFSET --------
+
+    @Query("SELECT p FROM Product p WHERE " + ACTIVE_FILTERS +
+            " AND p.id > :lastId ORDER BY p.id ASC")
+    List<Product> seekByIdAsc(
+            @Param("categoryId") Long categoryId,
+            @Param("search") String search,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("lastId") Long lastId,
+            Pageable limit
+    );
+
+    @Query("SELECT p FROM Product p WHERE " + ACTIVE_FILTERS +
+            " AND p.id < :lastId ORDER BY p.id DESC")
+    List<Product> seekByIdDesc(
+            @Param("categoryId") Long categoryId,
+            @Param("search") String search,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("lastId") Long lastId,
+            Pageable limit
+    );
+
+    @Query("SELECT p FROM Product p WHERE " + ACTIVE_FILTERS +
+            " AND (p.price > :lastPrice OR (p.price = :lastPrice AND p.id > :lastId))" +
+            " ORDER BY p.price ASC, p.id ASC")
+    List<Product> seekByPriceAsc(
+            @Param("categoryId") Long categoryId,
+            @Param("search") String search,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("lastPrice") BigDecimal lastPrice,
+            @Param("lastId") Long lastId,
+            Pageable limit
+    );
+
+    @Query("SELECT p FROM Product p WHERE " + ACTIVE_FILTERS +
+            " AND (p.price < :lastPrice OR (p.price = :lastPrice AND p.id < :lastId))" +
+            " ORDER BY p.price DESC, p.id DESC")
+    List<Product> seekByPriceDesc(
+            @Param("categoryId") Long categoryId,
+            @Param("search") String search,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("lastPrice") BigDecimal lastPrice,
+            @Param("lastId") Long lastId,
+            Pageable limit
+    );
+
+    // Atualização atômica dos agregados de avaliação
+    @Modifying
+    @Query("UPDATE Product p SET p.ratingSum = p.ratingSum + :ratingDelta, " +
+            "p.ratingCount = p.ratingCount + :countDelta WHERE p.id = :productId")
+    int adjustRating(
+            @Param("productId") Long productId,
+            @Param("ratingDelta") long ratingDelta,
+            @Param("countDelta") int countDelta
+    );
+
+    @Query("SELECT MAX(p.id) FROM Product p")
+    Long findMaxId();
+
+    // Reconstrói os agregados de avaliação de uma faixa de produtos a partir da tabela reviews.
+    // Só reescreve as linhas que divergiram.
+    @Modifying
+    @Query("UPDATE Product p SET " +
+            "p.ratingCount = (SELECT COUNT(r) FROM Review r WHERE r.product.id = p.id), " +
+            "p.ratingSum = (SELECT COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.product.id = p.id) " +
+            "WHERE p.id BETWEEN :fromId AND :toId AND (" +
+            "p.ratingCount <> (SELECT COUNT(r) FROM Review r WHERE r.product.id = p.id) OR " +
+            "p.ratingSum <> (SELECT COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.product.id = p.id))")
+    int reconcileProductRatings(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.hammer.ecommerce.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+public interface ProductStockRepository {
+
+    // Débito condicional de estoque (produto -> quantidade) em um único batch JDBC.
+    // Os UPDATEs saem em ordem crescente de ID para que transações concorrentes travem
+    // as linhas na mesma ordem (sem deadlock). Retorna os IDs cujo UPDATE não afetou
+    // nenhuma linha: estoque insuficiente ou produto inativo.
+    List<Long> decrementStock(SortedMap<Long, Integer> quantities);
+
+    // Devolução de estoque (cancelamento), também em batch e em ordem de ID
+    void incrementStock(SortedMap<Long, Integer> quantities);
+
+    // Estoque atual (produto -> quantidade) lido direto do banco, sem passar pela sessão do
+    // Hibernate: uma entidade já carregada na transação guardaria o valor antigo
+    Map<Long, Integer> findStockQuantities(Collection<Long> productIds);
+
+    // Estoque atual dos produtos ativos com as linhas travadas (FOR UPDATE, em ordem de ID) até o
+    // fim da transação; produto inativo fica fora do mapa
+    Map<Long, Integer> lockStockQuantities(Collection<Long> productIds);
+}
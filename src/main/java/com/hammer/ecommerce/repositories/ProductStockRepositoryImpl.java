@@ -0,0 +1,92 @@
+package com.hammer.ecommerce.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    // JDBC direto: UPDATE de uma coluna só, sem carregar a entidade nem passar pelo dirty checking
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = ? " +
+            "WHERE id = ? AND active = true AND stock_quantity >= ?";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE id = ?";
+
+    private static final String STOCK_SQL = "SELECT id, stock_quantity FROM products WHERE id IN (%s)";
+
+    private static final String LOCK_STOCK_SQL =
+            "SELECT id, stock_quantity FROM products WHERE id IN (%s) AND active = true ORDER BY id FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> decrementStock(SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        List<Object[]> args = lines.stream()
+                .map(line -> new Object[]{line.getValue(), now, line.getKey(), line.getValue()})
+                .toList();
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(lines.get(i).getKey());
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public void incrementStock(SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, quantities.entrySet().stream()
+                .map(line -> new Object[]{line.getValue(), now, line.getKey()})
+                .toList());
+    }
+
+    @Override
+    public Map<Long, Integer> findStockQuantities(Collection<Long> productIds) {
+        return queryStock(STOCK_SQL, productIds);
+    }
+
+    @Override
+    public Map<Long, Integer> lockStockQuantities(Collection<Long> productIds) {
+        return queryStock(LOCK_STOCK_SQL, productIds);
+    }
+
+    private Map<Long, Integer> queryStock(String sql, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        Map<Long, Integer> stock = new HashMap<>();
+        jdbcTemplate.query(sql.formatted(placeholders), rs -> {
+            stock.put(rs.getLong("id"), rs.getInt("stock_quantity"));
+        }, productIds.toArray());
+        return stock;
+    }
+}
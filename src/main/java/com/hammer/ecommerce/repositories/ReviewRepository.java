@@ -13,7 +13,10 @@ import java.util.Optional;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
-    Page<Review> findByProductId(Long productId, Pageable pageable);
+    // Autor e produto vão no DTO de cada avaliação: sem o JOIN FETCH seria uma consulta de usuário por linha
+    @Query(value = "SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.product WHERE r.product.id = :productId",
+            countQuery = "SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId")
+    Page<Review> findByProductId(@Param("productId") Long productId, Pageable pageable);
 
     Optional<Review> findByProductIdAndUserId(Long productId, Long userId);
 
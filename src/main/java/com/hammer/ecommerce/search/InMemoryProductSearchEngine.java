@@ -0,0 +1,223 @@
+package com.hammer.ecommerce.search;
+
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "catalog.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProductSearchEngine implements ProductSearchEngine {
+
+    // Índice invertido em memória (usado com H2 e em instâncias sem PostgreSQL)
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    // termo -> (produto -> peso do termo no produto)
+    private final NavigableMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+
+    // produto -> termos indexados (para atualizar/remover sem varrer o índice)
+    private final Map<Long, Map<String, Float>> termsByProduct = new ConcurrentHashMap<>();
+
+    // produto -> campos dos filtros da listagem (aplicados antes do limite de resultados)
+    private final Map<Long, Facets> facetsByProduct = new ConcurrentHashMap<>();
+
+    // Serializa as escritas no índice (as buscas leem sem lock). Lock em vez de synchronized:
+    // com threads virtuais, esperar um monitor prende o carrier.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxResults;
+    private final int chunkSize;
+
+    public InMemoryProductSearchEngine(
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${catalog.search.max-results:1000}") int maxResults,
+            @Value("${catalog.search.rebuild-chunk-size:1000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.maxResults = maxResults;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public List<Long> search(String text, ProductSearchFilter filter) {
+        List<String> tokens = SearchText.tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        int totalProducts = Math.max(termsByProduct.size(), 1);
+        Map<Long, Double> scores = null;
+
+        // Todos os termos precisam casar (AND); cada termo casa por palavra inteira ou prefixo
+        for (String token : tokens) {
+            Map<Long, Double> matches = new HashMap<>();
+
+            for (Map.Entry<String, Map<Long, Float>> entry :
+                    postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+
+                Map<Long, Float> products = entry.getValue();
+                double idf = Math.log(1.0 + (double) totalProducts / Math.max(products.size(), 1));
+                double factor = entry.getKey().equals(token) ? 1.0 : PREFIX_MATCH_FACTOR;
+
+                products.forEach((productId, weight) ->
+                        matches.merge(productId, weight * idf * factor, Double::sum));
+            }
+
+            if (scores == null) {
+                scores = matches;
+            } else {
+                Map<Long, Double> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<Long, Double> match : matches.entrySet()) {
+                    Double score = previous.get(match.getKey());
+                    if (score != null) {
+                        scores.put(match.getKey(), score + match.getValue());
+                    }
+                }
+            }
+
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return scores.entrySet().stream()
+                .filter(entry -> matches(entry.getKey(), filter))
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(maxResults)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public void index(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+
+        Map<String, Float> terms = new HashMap<>();
+        SearchText.tokenize(product.getName()).forEach(term -> terms.merge(term, NAME_WEIGHT, Float::sum));
+        SearchText.tokenize(product.getDescription()).forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        Facets facets = new Facets(categoryId, product.getPrice(), product.getActive());
+
+        writeLock.lock();
+        try {
+            facetsByProduct.put(product.getId(), facets);
+
+            // Alterações que não mexem em nome/descrição (ex.: preço) não tocam nos termos
+            Map<String, Float> previous = termsByProduct.get(product.getId());
+            if (terms.equals(previous)) {
+                return;
+            }
+
+            if (previous != null) {
+                unindex(product.getId(), previous);
+            }
+
+            terms.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(product.getId(), weight));
+            termsByProduct.put(product.getId(), terms);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        writeLock.lock();
+        try {
+            facetsByProduct.remove(productId);
+            Map<String, Float> previous = termsByProduct.remove(productId);
+            if (previous != null) {
+                unindex(productId, previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Reconstrói o índice a partir do banco, em blocos de IDs. Corrige o que não passou pelo listener
+    // (escritas de outras instâncias, UPDATEs em massa) ou se perdeu entre o commit e o afterCommit.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${catalog.search.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        Set<Long> seen = new HashSet<>();
+        long lastId = 0L;
+
+        while (true) {
+            long after = lastId;
+            List<Product> chunk = transactionTemplate.execute(status ->
+                    productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(chunkSize)));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+
+            for (Product product : chunk) {
+                index(product);
+                seen.add(product.getId());
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+
+        // IDs acima do último lido podem ter sido criados durante a reconstrução
+        long maxScannedId = lastId;
+        List<Long> stale = new ArrayList<>();
+        for (Long productId : termsByProduct.keySet()) {
+            if (productId <= maxScannedId && !seen.contains(productId)) {
+                stale.add(productId);
+            }
+        }
+        stale.forEach(this::remove);
+
+        log.info("Índice de busca de produtos reconstruído: {} produto(s), {} termo(s)",
+                termsByProduct.size(), postings.size());
+    }
+
+    private boolean matches(Long productId, ProductSearchFilter filter) {
+        Facets facets = facetsByProduct.get(productId);
+        return facets != null && filter.matches(facets.categoryId(), facets.price(), facets.active());
+    }
+
+    private void unindex(Long productId, Map<String, Float> terms) {
+        for (String term : terms.keySet()) {
+            postings.computeIfPresent(term, (key, products) -> {
+                products.remove(productId);
+                return products.isEmpty() ? null : products;
+            });
+        }
+    }
+
+    private record Facets(Long categoryId, BigDecimal price, Boolean active) {
+    }
+}
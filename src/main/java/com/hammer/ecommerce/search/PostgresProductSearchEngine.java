@@ -0,0 +1,76 @@
+package com.hammer.ecommerce.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "catalog.search.engine", havingValue = "postgres")
+public class PostgresProductSearchEngine implements ProductSearchEngine {
+
+    // Busca full-text no PostgreSQL (tsvector + índice GIN). O índice é mantido pelo
+    // próprio banco a cada INSERT/UPDATE, então não há atualização incremental aqui.
+    // Extensão, função e índice vêm das migrações V8 e V9.
+
+    // Mesma expressão do índice (V9): o planner só usa o GIN se a consulta repetir a expressão
+    private static final String DOCUMENT =
+            "(setweight(to_tsvector('simple', product_search_unaccent(coalesce(name, ''))), 'A') || " +
+            "setweight(to_tsvector('simple', product_search_unaccent(coalesce(description, ''))), 'B'))";
+
+    private static final String SEARCH_SELECT =
+            "SELECT id FROM products " +
+            "WHERE " + DOCUMENT + " @@ to_tsquery('simple', :query) AND active = true";
+
+    private static final String SEARCH_ORDER =
+            " ORDER BY ts_rank(" + DOCUMENT + ", to_tsquery('simple', :query)) DESC, id " +
+            "LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxResults;
+
+    public PostgresProductSearchEngine(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${catalog.search.max-results:1000}") int maxResults) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public List<Long> search(String text, ProductSearchFilter filter) {
+        List<String> tokens = SearchText.tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        // Todos os termos (AND), cada um por prefixo: "note dell" -> note:* & dell:*
+        String query = tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+
+        // Filtros na mesma consulta, antes do LIMIT; só as condições informadas (sem "IS NULL OR")
+        StringBuilder sql = new StringBuilder(SEARCH_SELECT);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("limit", maxResults);
+        if (filter.categoryId() != null) {
+            sql.append(" AND category_id = :categoryId");
+            params.addValue("categoryId", filter.categoryId());
+        }
+        if (filter.minPrice() != null) {
+            sql.append(" AND price >= :minPrice");
+            params.addValue("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            sql.append(" AND price <= :maxPrice");
+            params.addValue("maxPrice", filter.maxPrice());
+        }
+        sql.append(SEARCH_ORDER);
+
+        return jdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+}
@@ -0,0 +1,22 @@
+package com.hammer.ecommerce.search;
+
+import com.hammer.ecommerce.model.Product;
+
+import java.util.List;
+
+public interface ProductSearchEngine {
+
+    // Propriedade de ordenação que pede os resultados por relevância
+    String RELEVANCE = "relevance";
+
+    // IDs dos produtos ativos que contêm todos os termos e passam nos filtros, do mais relevante
+    // para o menos relevante, até catalog.search.max-results
+    List<Long> search(String text, ProductSearchFilter filter);
+
+    // Atualização incremental do índice (motores mantidos pelo próprio banco ignoram)
+    default void index(Product product) {
+    }
+
+    default void remove(Long productId) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.hammer.ecommerce.search;
+
+import java.math.BigDecimal;
+
+// Filtros da listagem aplicados pelo próprio motor junto com o texto (sempre só produtos ativos).
+// Precisam estar no motor: o limite de catalog.search.max-results corta os resultados já filtrados,
+// e não os primeiros N do texto (que podiam não ter nenhum produto da categoria/faixa de preço)
+public record ProductSearchFilter(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+
+    public static final ProductSearchFilter NONE = new ProductSearchFilter(null, null, null);
+
+    public boolean matches(Long productCategoryId, BigDecimal price, Boolean active) {
+        if (!Boolean.TRUE.equals(active)) {
+            return false;
+        }
+        if (categoryId != null && !categoryId.equals(productCategoryId)) {
+            return false;
+        }
+        if (minPrice != null && (price == null || price.compareTo(minPrice) < 0)) {
+            return false;
+        }
+        return maxPrice == null || (price != null && price.compareTo(maxPrice) <= 0);
+    }
+}
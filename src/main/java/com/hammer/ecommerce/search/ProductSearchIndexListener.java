@@ -0,0 +1,50 @@
+package com.hammer.ecommerce.search;
+
+import com.hammer.ecommerce.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class ProductSearchIndexListener {
+
+    // Mantém o índice de busca em dia a cada escrita de Product (ProductService ou qualquer outro caminho).
+    // ObjectProvider: o listener é criado junto com o EntityManagerFactory, antes do motor de busca.
+    // O índice só muda depois do commit: escrita desfeita por rollback não deixa entrada fantasma.
+
+    private final ObjectProvider<ProductSearchEngine> productSearchEngine;
+
+    public ProductSearchIndexListener(ObjectProvider<ProductSearchEngine> productSearchEngine) {
+        this.productSearchEngine = productSearchEngine;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Product product) {
+        afterCommit(() -> productSearchEngine.ifAvailable(engine -> engine.index(product)));
+    }
+
+    @PostRemove
+    public void onRemove(Product product) {
+        Long productId = product.getId();
+        afterCommit(() -> productSearchEngine.ifAvailable(engine -> engine.remove(productId)));
+    }
+
+    // Sem transação ativa (não deveria acontecer com JPA) o índice é atualizado na hora
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
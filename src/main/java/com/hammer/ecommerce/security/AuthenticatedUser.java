@@ -0,0 +1,52 @@
+package com.hammer.ecommerce.security;
+
+import com.hammer.ecommerce.model.Role;
+import com.hammer.ecommerce.model.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+@Getter
+public class AuthenticatedUser implements UserDetails {
+
+    // Principal da aplicação: carrega o ID do usuário para os controllers não consultarem o banco de novo
+
+    private final Long id;
+    private final String email;
+    private final Role role;
+
+    // Hash da senha: só usado no login; o principal em cache não guarda a senha
+    private final String password;
+
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String email, Role role, String password) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.password = password;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.getPassword());
+    }
+
+    public AuthenticatedUser withoutPassword() {
+        return new AuthenticatedUser(id, email, role, null);
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -1,5 +1,6 @@
 package com.hammer.ecommerce.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,7 +8,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,6 +20,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -28,6 +29,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String userEmail;
 
         // Verificar se o header Authorization existe e começa com "Bearer "
@@ -36,20 +38,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Extrair o token JWT
+        // Extrair o token JWT e verificar a assinatura uma única vez por requisição
         jwt = authHeader.substring(7);
-        userEmail = jwtUtil.extractUsername(jwt);
+        claims = jwtUtil.parseClaims(jwt);
+        userEmail = claims.getSubject();
 
         // Se o email foi extraído e não há autenticação no contexto
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            // Principal em cache (TTL curto): sem SELECT em users na maioria das requisições
+            AuthenticatedUser principal = principalCache.get(userEmail, userDetailsService::loadPrincipal);
+
+            // Token de outro usuário com o mesmo email (conta recriada) ou cache desatualizado: recarrega uma vez
+            Long tokenUserId = jwtUtil.extractUserId(claims);
+            if (tokenUserId != null && !tokenUserId.equals(principal.getId())) {
+                principalCache.evict(userEmail);
+                principal = principalCache.get(userEmail, userDetailsService::loadPrincipal);
+            }
 
             // Validar o token
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (jwtUtil.validateToken(claims, principal) &&
+                    (tokenUserId == null || tokenUserId.equals(principal.getId()))) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities()
+                        principal.getAuthorities()
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
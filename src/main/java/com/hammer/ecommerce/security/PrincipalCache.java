@@ -0,0 +1,71 @@
+package com.hammer.ecommerce.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class PrincipalCache {
+
+    // Cache curto (email -> principal) usado pelo JwtAuthenticationFilter para não consultar
+    // a tabela users a cada requisição. O TTL limita por quanto tempo uma alteração de
+    // papel ou remoção de usuário feita fora da aplicação ainda é ignorada.
+
+    public static final String CACHE_NAME = "security.principals";
+
+    private final boolean enabled;
+    private final Cache<String, AuthenticatedUser> principals;
+
+    public PrincipalCache(
+            @Value("${security.principal-cache.enabled:true}") boolean enabled,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.principal-cache.ttl:PT1M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+
+        this.enabled = enabled;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, CACHE_NAME);
+    }
+
+    public AuthenticatedUser get(String email, Function<String, AuthenticatedUser> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+        return principals.get(email, loader);
+    }
+
+    public void evict(String email) {
+        principals.invalidate(email);
+    }
+
+    // Invalida só depois do commit para não recarregar dados antigos de uma transação em andamento
+    public void evictAfterCommit(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(email);
+                }
+            });
+        } else {
+            evict(email);
+        }
+    }
+
+    public void clear() {
+        principals.invalidateAll();
+    }
+}
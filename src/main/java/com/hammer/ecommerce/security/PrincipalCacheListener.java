@@ -0,0 +1,26 @@
+package com.hammer.ecommerce.security;
+
+import com.hammer.ecommerce.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PrincipalCacheListener {
+
+    // Remove o principal do cache quando o usuário é alterado (papel, senha) ou removido.
+    // ObjectProvider: o listener é criado junto com o EntityManagerFactory, antes do cache.
+
+    private final ObjectProvider<PrincipalCache> principalCache;
+
+    public PrincipalCacheListener(ObjectProvider<PrincipalCache> principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        principalCache.ifAvailable(cache -> cache.evictAfterCommit(user.getEmail()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.hammer.ecommerce.service;
 
+import com.hammer.ecommerce.config.AddressMapper;
 import com.hammer.ecommerce.dto.address.AddressRequestDTO;
 import com.hammer.ecommerce.dto.address.AddressResponseDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
@@ -9,12 +10,10 @@ import com.hammer.ecommerce.model.User;
 import com.hammer.ecommerce.repositories.AddressRepository;
 import com.hammer.ecommerce.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,20 +21,18 @@ public class AddressService {
 
     private final AddressRepository addressRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final AddressMapper addressMapper;
 
     @Transactional(readOnly = true)
     public List<AddressResponseDTO> findAllByUser(Long userId) {
-        return addressRepository.findByUserId(userId).stream()
-                .map(address -> modelMapper.map(address, AddressResponseDTO.class))
-                .collect(Collectors.toList());
+        return addressMapper.mapAll(addressRepository.findByUserId(userId));
     }
 
     @Transactional(readOnly = true)
     public AddressResponseDTO findById(Long id, Long userId) {
         Address address = addressRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Endereço não encontrado"));
-        return modelMapper.map(address, AddressResponseDTO.class);
+        return addressMapper.map(address);
     }
 
     @Transactional
@@ -66,7 +63,7 @@ public class AddressService {
         address.setUser(user);
 
         address = addressRepository.save(address);
-        return modelMapper.map(address, AddressResponseDTO.class);
+        return addressMapper.map(address);
     }
 
     @Transactional
@@ -89,7 +86,7 @@ public class AddressService {
         address.setIsDefault(request.getIsDefault());
 
         address = addressRepository.save(address);
-        return modelMapper.map(address, AddressResponseDTO.class);
+        return addressMapper.map(address);
     }
 
     @Transactional
@@ -123,7 +120,7 @@ public class AddressService {
         address.setIsDefault(true);
         address = addressRepository.save(address);
 
-        return modelMapper.map(address, AddressResponseDTO.class);
+        return addressMapper.map(address);
     }
 
     private void unsetDefaultAddress(Long userId) {
@@ -51,7 +51,7 @@ public class AuthService {
         user = userRepository.save(user);
 
         // Gerar token JWT
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name());
 
         return new AuthResponseDTO(
                 token,
@@ -77,7 +77,7 @@ public class AuthService {
                 .orElseThrow(() -> new BusinessException("Usuário não encontrado"));
 
         // Gerar token JWT
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name());
 
         return new AuthResponseDTO(
                 token,
@@ -0,0 +1,230 @@
+package com.hammer.ecommerce.service;
+
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.dto.order.*;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
+import com.hammer.ecommerce.repositories.AddressRepository;
+import com.hammer.ecommerce.repositories.OrderRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Criação de pedidos em lote (integrações B2B / marketplace), sem carrinho.
+// Custo fixo por lote, independente do número de pedidos:
+//   1 SELECT de produtos + 1 SELECT de endereços, 1 batch de débito de estoque,
+//   1 batch de INSERT em orders e 1 em order_items.
+@Service
+@RequiredArgsConstructor
+public class BulkOrderService {
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final AddressRepository addressRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final OutboxPublisher outboxPublisher;
+
+    @Transactional
+    public BulkOrderResponseDTO createOrders(BulkOrderRequestDTO request) {
+        List<BulkOrderSpecDTO> specs = request.getOrders();
+        BulkOrderResultDTO[] results = new BulkOrderResultDTO[specs.size()];
+
+        // Carregar de uma vez todos os produtos e endereços citados no lote
+        Map<Long, Product> products = productRepository.findAllById(specs.stream()
+                        .filter(spec -> spec.getItems() != null)
+                        .flatMap(spec -> spec.getItems().stream())
+                        .filter(Objects::nonNull)
+                        .map(BulkOrderItemDTO::getProductId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Long, Address> addresses = addressRepository.findAllById(specs.stream()
+                        .map(BulkOrderSpecDTO::getShippingAddressId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Address::getId, Function.identity()));
+
+        // Validar todos os pedidos em uma passada, reservando o estoque em memória
+        Map<Long, Integer> available = new HashMap<>();
+        products.values().forEach(product -> available.put(product.getId(), product.getStockQuantity()));
+
+        Map<Integer, Order> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < specs.size(); i++) {
+            BulkOrderSpecDTO spec = specs.get(i);
+            String error = validate(spec, products, addresses, available);
+            if (error != null) {
+                results[i] = BulkOrderResultDTO.failed(i, spec.getReference(), error);
+                continue;
+            }
+
+            quantitiesOf(spec).forEach((productId, quantity) -> available.merge(productId, -quantity, Integer::sum));
+            accepted.put(i, buildOrder(spec, products, addresses.get(spec.getShippingAddressId())));
+        }
+
+        // Débito de estoque de todo o lote em um batch, em ordem de ID
+        SortedMap<Long, Integer> stockDebits = new TreeMap<>();
+        accepted.keySet().forEach(i -> quantitiesOf(specs.get(i)).forEach((productId, quantity) ->
+                stockDebits.merge(productId, quantity, Integer::sum)));
+
+        List<Long> rejected = productRepository.decrementStock(stockDebits);
+        if (!rejected.isEmpty()) {
+            // Estoque consumido por outra transação depois da leitura: o que sobrou desses
+            // produtos é distribuído na ordem do lote, e só os pedidos que não cabem falham
+            allocateRemainingStock(specs, accepted, results, rejected, products);
+        }
+
+        List<Order> orders = new ArrayList<>(accepted.values());
+        orderRepository.insertAll(orders);
+
+        accepted.forEach((i, order) -> results[i] = BulkOrderResultDTO.created(i, specs.get(i).getReference(),
+                order.getId(), order.getOrderNumber(), order.getTotalAmount()));
+
+        productCatalogCache.evictStock(stockDebits.keySet());
+
+        // Eventos no outbox: um ORDER_CREATED por pedido e o débito líquido de estoque do lote
+        SortedMap<Long, Integer> stockDeltas = new TreeMap<>();
+        accepted.forEach((i, order) -> {
+            outboxPublisher.publish(DomainEventType.ORDER_CREATED, order.getId(), OutboxPublisher.payload(
+                    "orderNumber", order.getOrderNumber(),
+                    "userId", order.getUser().getId(),
+                    "status", order.getStatus().name(),
+                    "totalAmount", order.getTotalAmount()));
+            quantitiesOf(specs.get(i)).forEach((productId, quantity) ->
+                    stockDeltas.merge(productId, -quantity, Integer::sum));
+        });
+        outboxPublisher.publishStockChanges(stockDeltas, null);
+
+        return new BulkOrderResponseDTO(orders.size(), specs.size() - orders.size(), Arrays.asList(results));
+    }
+
+    private String validate(BulkOrderSpecDTO spec, Map<Long, Product> products,
+                            Map<Long, Address> addresses, Map<Long, Integer> available) {
+        if (spec == null || spec.getUserId() == null || spec.getShippingAddressId() == null) {
+            return "Usuário e endereço de entrega são obrigatórios";
+        }
+
+        if (spec.getItems() == null || spec.getItems().isEmpty()) {
+            return "Pedido sem itens";
+        }
+
+        for (BulkOrderItemDTO item : spec.getItems()) {
+            if (item == null || item.getProductId() == null || item.getQuantity() == null || item.getQuantity() < 1) {
+                return "Item inválido: produto e quantidade (mínimo 1) são obrigatórios";
+            }
+        }
+
+        // O endereço precisa pertencer ao usuário do pedido (o ID do usuário vem do proxy, sem consulta)
+        Address address = addresses.get(spec.getShippingAddressId());
+        if (address == null || !address.getUser().getId().equals(spec.getUserId())) {
+            return "Endereço de entrega não encontrado";
+        }
+
+        for (Map.Entry<Long, Integer> line : quantitiesOf(spec).entrySet()) {
+            Product product = products.get(line.getKey());
+            if (product == null) {
+                return "Produto não encontrado com ID: " + line.getKey();
+            }
+
+            if (!product.getActive()) {
+                return "Produto " + product.getName() + " não está mais disponível";
+            }
+
+            int stock = available.get(product.getId());
+            if (stock < line.getValue()) {
+                return "Estoque insuficiente para o produto: " + product.getName() + ". Disponível: " + stock;
+            }
+        }
+
+        return null;
+    }
+
+    private Order buildOrder(BulkOrderSpecDTO spec, Map<Long, Product> products, Address shippingAddress) {
+        Order order = new Order();
+        order.setUser(shippingAddress.getUser());
+        order.setShippingAddress(shippingAddress);
+        order.setStatus(OrderStatus.PENDING);
+
+        for (BulkOrderItemDTO line : spec.getItems()) {
+            Product product = products.get(line.getProductId());
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProduct(product);
+            orderItem.setQuantity(line.getQuantity());
+            orderItem.setPrice(product.getPrice());
+            orderItem.calculateSubtotal();
+
+            order.addOrderItem(orderItem);
+        }
+
+        order.setTotalAmount(order.calculateTotal());
+        return order;
+    }
+
+    private void allocateRemainingStock(List<BulkOrderSpecDTO> specs, Map<Integer, Order> accepted,
+                                        BulkOrderResultDTO[] results, List<Long> rejected,
+                                        Map<Long, Product> products) {
+        // O UPDATE dos produtos rejeitados não alterou nada; com as linhas travadas o saldo lido
+        // aqui não muda mais até o commit (produto desativado no meio tempo fica com zero)
+        Map<Long, Integer> remaining = new HashMap<>(productRepository.lockStockQuantities(rejected));
+        SortedMap<Long, Integer> allocated = new TreeMap<>();
+        SortedMap<Long, Integer> stockCredits = new TreeMap<>();
+
+        // accepted está na ordem do lote: quem veio antes leva o estoque primeiro
+        Iterator<Integer> indexes = accepted.keySet().iterator();
+        while (indexes.hasNext()) {
+            int i = indexes.next();
+            Map<Long, Integer> quantities = quantitiesOf(specs.get(i));
+
+            List<Long> exhausted = quantities.entrySet().stream()
+                    .filter(line -> rejected.contains(line.getKey()))
+                    .filter(line -> remaining.getOrDefault(line.getKey(), 0) < line.getValue())
+                    .map(Map.Entry::getKey)
+                    .toList();
+            if (exhausted.isEmpty()) {
+                quantities.forEach((productId, quantity) -> {
+                    if (rejected.contains(productId)) {
+                        remaining.merge(productId, -quantity, Integer::sum);
+                        allocated.merge(productId, quantity, Integer::sum);
+                    }
+                });
+                continue;
+            }
+
+            // Pedido não cabe no saldo: devolve o que já foi debitado dos outros produtos dele
+            quantities.forEach((productId, quantity) -> {
+                if (!rejected.contains(productId)) {
+                    stockCredits.merge(productId, quantity, Integer::sum);
+                }
+            });
+
+            String names = exhausted.stream()
+                    .map(productId -> products.get(productId).getName())
+                    .collect(Collectors.joining(", "));
+            results[i] = BulkOrderResultDTO.failed(i, specs.get(i).getReference(),
+                    "Estoque insuficiente para o produto: " + names);
+            indexes.remove();
+        }
+
+        if (!allocated.isEmpty() && !productRepository.decrementStock(allocated).isEmpty()) {
+            throw new IllegalStateException("Débito de estoque recusado com as linhas travadas: " + allocated.keySet());
+        }
+        productRepository.incrementStock(stockCredits);
+    }
+
+    // Quantidade total por produto do pedido (o mesmo produto pode aparecer em mais de uma linha)
+    private Map<Long, Integer> quantitiesOf(BulkOrderSpecDTO spec) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (BulkOrderItemDTO item : spec.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
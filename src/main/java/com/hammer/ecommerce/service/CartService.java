@@ -1,46 +1,78 @@
 package com.hammer.ecommerce.service;
 
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import com.hammer.ecommerce.cart.CartStore;
 import com.hammer.ecommerce.dto.cart.AddToCartRequestDTO;
 import com.hammer.ecommerce.dto.cart.CartItemResponseDTO;
 import com.hammer.ecommerce.dto.cart.CartResponseDTO;
 import com.hammer.ecommerce.dto.cart.UpdateCartItemRequestDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.exceptions.InsufficientStockException;
 import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
-import com.hammer.ecommerce.model.Cart;
-import com.hammer.ecommerce.model.CartItem;
 import com.hammer.ecommerce.model.Product;
-import com.hammer.ecommerce.model.User;
-import com.hammer.ecommerce.repositories.CartItemRepository;
-import com.hammer.ecommerce.repositories.CartRepository;
 import com.hammer.ecommerce.repositories.ProductRepository;
-import com.hammer.ecommerce.repositories.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CartService {
 
-    private final CartRepository cartRepository;
-    private final CartItemRepository cartItemRepository;
+    // O estado do carrinho vem do CartStore (memória com write-behind, ou banco no perfil de teste);
+    // aqui só se busca o catálogo, em uma consulta por operação.
+
+    private final CartStore cartStore;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    // cart.mutations{operation = add|update|remove|clear, outcome = success|out-of-stock|rejected|error}
+    // e cart.size: quantidade de itens (linhas) do carrinho depois de cada alteração
+    public static final String MUTATIONS_METRIC = "cart.mutations";
+    public static final String SIZE_METRIC = "cart.size";
 
-    @Transactional(readOnly = true)
     public CartResponseDTO getCart(Long userId) {
-        Cart cart = getOrCreateCart(userId);
-        return convertToDTO(cart);
+        CartSnapshot cart = cartStore.get(userId);
+        return convertToDTO(cart, findProducts(cart.getProductIds()));
     }
 
-    @Transactional
     public CartResponseDTO addToCart(Long userId, AddToCartRequestDTO request) {
-        Cart cart = getOrCreateCart(userId);
+        return counted("add", () -> add(userId, request));
+    }
+
+    public CartResponseDTO updateCartItem(Long userId, Long itemId, UpdateCartItemRequestDTO request) {
+        return counted("update", () -> update(userId, itemId, request));
+    }
+
+    public CartResponseDTO removeCartItem(Long userId, Long itemId) {
+        return counted("remove", () -> remove(userId, itemId));
+    }
+
+    public void clearCart(Long userId) {
+        counted("clear", () -> recordSize(cartStore.update(userId, draft -> draft.clear())));
+    }
 
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado"));
+    private CartResponseDTO add(Long userId, AddToCartRequestDTO request) {
+        CartSnapshot current = cartStore.get(userId);
+
+        List<Long> productIds = new ArrayList<>(current.getProductIds());
+        productIds.add(request.getProductId());
+        Map<Long, Product> products = findProducts(productIds);
+
+        Product product = products.get(request.getProductId());
+        if (product == null) {
+            throw new ResourceNotFoundException("Produto não encontrado");
+        }
 
         // Verifica se produto está ativo
         if (!product.getActive()) {
@@ -49,132 +81,135 @@ public class CartService {
 
         // Verifica estoque
         if (product.getStockQuantity() < request.getQuantity()) {
-            throw new BusinessException("Estoque insuficiente. Disponível: " + product.getStockQuantity());
+            throw new InsufficientStockException("Estoque insuficiente. Disponível: " + product.getStockQuantity());
         }
 
-        // Verifica se o item já existe no carrinho
-        CartItem existingItem = cartItemRepository
-                .findByCartIdAndProductId(cart.getId(), product.getId())
-                .orElse(null);
-
-        if (existingItem != null) {
-            // Atualizar quantidade
-            int newQuantity = existingItem.getQuantity() + request.getQuantity();
-
-            // Verifica estoque novamente
+        CartSnapshot cart = cartStore.update(userId, draft -> {
+            // Verifica estoque novamente somando o que já está no carrinho
+            int newQuantity = draft.quantityOf(product.getId()) + request.getQuantity();
             if (product.getStockQuantity() < newQuantity) {
-                throw new BusinessException("Estoque insuficiente. Disponível: " + product.getStockQuantity());
+                throw new InsufficientStockException("Estoque insuficiente. Disponível: " + product.getStockQuantity());
             }
+            draft.add(product.getId(), request.getQuantity());
+        });
 
-            existingItem.setQuantity(newQuantity);
-            cartItemRepository.save(existingItem);
-        } else {
-            // Criar novo item
-            CartItem cartItem = new CartItem();
-            cartItem.setCart(cart);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(request.getQuantity());
-
-            cart.addItem(cartItem);
-            cartItemRepository.save(cartItem);
-        }
-
-        cart = cartRepository.save(cart);
-        return convertToDTO(cart);
+        recordSize(cart);
+        return convertToDTO(cart, products);
     }
 
-    @Transactional
-    public CartResponseDTO updateCartItem(Long userId, Long itemId, UpdateCartItemRequestDTO request) {
-        Cart cart = getOrCreateCart(userId);
-
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Item não encontrado no carrinho"));
+    private CartResponseDTO update(Long userId, Long itemId, UpdateCartItemRequestDTO request) {
+        CartSnapshot current = cartStore.get(userId);
+        CartLine line = findOwnItem(current, itemId);
 
-        // Verifica se o item pertence ao carrinho do usuário
-        if (!cartItem.getCart().getId().equals(cart.getId())) {
-            throw new BusinessException("Item não pertence ao seu carrinho");
+        Map<Long, Product> products = findProducts(current.getProductIds());
+        Product product = products.get(line.getProductId());
+        if (product == null) {
+            throw new ResourceNotFoundException("Produto não encontrado");
         }
 
         // Verificar estoque
-        if (cartItem.getProduct().getStockQuantity() < request.getQuantity()) {
-            throw new BusinessException("Estoque insuficiente. Disponível: " +
-                    cartItem.getProduct().getStockQuantity());
+        if (product.getStockQuantity() < request.getQuantity()) {
+            throw new InsufficientStockException("Estoque insuficiente. Disponível: " + product.getStockQuantity());
         }
 
-        cartItem.setQuantity(request.getQuantity());
-        cartItemRepository.save(cartItem);
+        CartSnapshot cart = cartStore.update(userId, draft -> {
+            // O item pode ter saído do carrinho entre a leitura e a alteração
+            if (draft.findItem(itemId).isEmpty()) {
+                throw new ResourceNotFoundException("Item não encontrado no carrinho");
+            }
+            draft.setQuantity(itemId, request.getQuantity());
+        });
 
-        cart = cartRepository.save(cart);
-        return convertToDTO(cart);
+        recordSize(cart);
+        return convertToDTO(cart, products);
     }
 
-    @Transactional
-    public CartResponseDTO removeCartItem(Long userId, Long itemId) {
-        Cart cart = getOrCreateCart(userId);
+    private CartResponseDTO remove(Long userId, Long itemId) {
+        CartSnapshot current = cartStore.get(userId);
+        findOwnItem(current, itemId);
 
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Item não encontrado no carrinho"));
+        CartSnapshot cart = cartStore.update(userId, draft -> draft.remove(itemId));
+        recordSize(cart);
+        return convertToDTO(cart, findProducts(cart.getProductIds()));
+    }
 
-        // Verifica se o item pertence ao carrinho do usuário
-        if (!cartItem.getCart().getId().equals(cart.getId())) {
-            throw new BusinessException("Item não pertence ao seu carrinho");
+    private <T> T counted(String operation, Supplier<T> mutation) {
+        String outcome = "error";
+        try {
+            T result = mutation.get();
+            outcome = "success";
+            return result;
+        } catch (InsufficientStockException e) {
+            outcome = "out-of-stock";
+            throw e;
+        } catch (BusinessException | ResourceNotFoundException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            meterRegistry.counter(MUTATIONS_METRIC, "operation", operation, "outcome", outcome).increment();
         }
-
-        cart.removeItem(cartItem);
-        cartItemRepository.delete(cartItem);
-
-        cart = cartRepository.save(cart);
-        return convertToDTO(cart);
     }
 
-    @Transactional
-    public void clearCart(Long userId) {
-        Cart cart = getOrCreateCart(userId);
-        cart.getItems().clear();
-        cartRepository.save(cart);
+    private CartSnapshot recordSize(CartSnapshot cart) {
+        DistributionSummary.builder(SIZE_METRIC)
+                .description("Itens (linhas) no carrinho depois de cada alteração")
+                .baseUnit("items")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100.0)
+                .register(meterRegistry)
+                .record(cart.getLines().size());
+        return cart;
     }
 
-    private Cart getOrCreateCart(Long userId) {
-        return cartRepository.findByUserIdWithItems(userId)
-                .orElseGet(() -> createCart(userId));
+    private CartLine findOwnItem(CartSnapshot cart, Long itemId) {
+        return cart.findItem(itemId).orElseThrow(() -> {
+            // Item existe, mas é do carrinho de outro usuário (o store conhece até os ainda não gravados)
+            if (cartStore.findItemOwner(itemId).isPresent()) {
+                return new BusinessException("Item não pertence ao seu carrinho");
+            }
+            return new ResourceNotFoundException("Item não encontrado no carrinho");
+        });
     }
 
-    private Cart createCart(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-
-        Cart cart = new Cart();
-        cart.setUser(user);
-        return cartRepository.save(cart);
+    private Map<Long, Product> findProducts(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
     }
 
-    private CartResponseDTO convertToDTO(Cart cart) {
+    private CartResponseDTO convertToDTO(CartSnapshot cart, Map<Long, Product> products) {
         CartResponseDTO dto = new CartResponseDTO();
-        dto.setId(cart.getId());
+        dto.setId(cart.getCartId());
         dto.setUpdatedAt(cart.getUpdatedAt());
 
-        dto.setItems(cart.getItems().stream()
-                .map(this::convertItemToDTO)
+        // Produto removido do catálogo não aparece no carrinho
+        dto.setItems(cart.getLines().stream()
+                .filter(line -> products.containsKey(line.getProductId()))
+                .map(line -> convertItemToDTO(line, products.get(line.getProductId())))
                 .collect(Collectors.toList()));
 
-        dto.setTotalAmount(cart.getTotalAmount());
-        dto.setTotalItems(cart.getItems().stream()
-                .mapToInt(CartItem::getQuantity)
+        dto.setTotalAmount(dto.getItems().stream()
+                .map(CartItemResponseDTO::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        dto.setTotalItems(dto.getItems().stream()
+                .mapToInt(CartItemResponseDTO::getQuantity)
                 .sum());
 
         return dto;
     }
 
-    private CartItemResponseDTO convertItemToDTO(CartItem item) {
+    private CartItemResponseDTO convertItemToDTO(CartLine line, Product product) {
         CartItemResponseDTO dto = new CartItemResponseDTO();
-        dto.setId(item.getId());
-        dto.setProductId(item.getProduct().getId());
-        dto.setProductName(item.getProduct().getName());
-        dto.setProductImageUrl(item.getProduct().getImageUrl());
-        dto.setProductPrice(item.getProduct().getPrice());
-        dto.setQuantity(item.getQuantity());
-        dto.setSubtotal(item.getSubtotal());
-        dto.setAvailableStock(item.getProduct().getStockQuantity());
+        dto.setId(line.getItemId());
+        dto.setProductId(product.getId());
+        dto.setProductName(product.getName());
+        dto.setProductImageUrl(product.getImageUrl());
+        dto.setProductPrice(product.getPrice());
+        dto.setQuantity(line.getQuantity());
+        dto.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+        dto.setAvailableStock(product.getStockQuantity());
         return dto;
     }
-}
\ No newline at end of file
+}
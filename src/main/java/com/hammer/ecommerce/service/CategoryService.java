@@ -1,5 +1,6 @@
 package com.hammer.ecommerce.service;
 
+import com.hammer.ecommerce.config.CategoryMapper;
 import com.hammer.ecommerce.dto.category.CategoryRequestDTO;
 import com.hammer.ecommerce.dto.category.CategoryResponseDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
@@ -7,32 +8,27 @@ import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
 import com.hammer.ecommerce.model.Category;
 import com.hammer.ecommerce.repositories.CategoryRepository;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
-    private final ModelMapper modelMapper;
+    private final CategoryMapper categoryMapper;
 
     @Transactional(readOnly = true)
     public List<CategoryResponseDTO> findAll() {
-        return categoryRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return categoryRepository.findAllWithProductCount();
     }
 
     @Transactional(readOnly = true)
     public CategoryResponseDTO findById(Long id) {
-        Category category = categoryRepository.findById(id)
+        return categoryRepository.findByIdWithProductCount(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada com ID: " + id));
-        return convertToDTO(category);
     }
 
     @Transactional
@@ -48,7 +44,7 @@ public class CategoryService {
         category.setDescription(request.getDescription());
 
         category = categoryRepository.save(category);
-        return convertToDTO(category);
+        return convertToDTO(category, 0);
     }
 
     @Transactional
@@ -66,7 +62,7 @@ public class CategoryService {
         category.setDescription(request.getDescription());
 
         category = categoryRepository.save(category);
-        return convertToDTO(category);
+        return convertToDTO(category, categoryRepository.countProducts(id));
     }
 
     @Transactional
@@ -75,16 +71,15 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada com ID: " + id));
 
         // Verificar se existem produtos nesta categoria
-        if (!category.getProducts().isEmpty()) {
+        if (categoryRepository.countProducts(id) > 0) {
             throw new BusinessException("Não é possível deletar categoria com produtos associados");
         }
 
         categoryRepository.delete(category);
     }
 
-    private CategoryResponseDTO convertToDTO(Category category) {
-        CategoryResponseDTO dto = modelMapper.map(category, CategoryResponseDTO.class);
-        dto.setProductCount(category.getProducts().size());
-        return dto;
+    // Contagem vinda de consulta: getProducts().size() carregaria a coleção inteira
+    private CategoryResponseDTO convertToDTO(Category category, long productCount) {
+        return categoryMapper.map(category, (int) productCount);
     }
 }
\ No newline at end of file
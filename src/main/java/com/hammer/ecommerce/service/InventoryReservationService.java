@@ -0,0 +1,357 @@
+package com.hammer.ecommerce.service;
+
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import com.hammer.ecommerce.cart.CartStore;
+import com.hammer.ecommerce.dto.order.StockReservationItemDTO;
+import com.hammer.ecommerce.dto.order.StockReservationResponseDTO;
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.exceptions.InsufficientStockException;
+import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
+import com.hammer.ecommerce.inventory.ReservationLedger;
+import com.hammer.ecommerce.inventory.StockHold;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.model.StockReservation;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.repositories.StockReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class InventoryReservationService {
+
+    // Reservas de estoque com prazo (TTL) no checkout. A disputa por um SKU é resolvida no
+    // ReservationLedger, em memória: quem não tem estoque disponível (estoque menos o que os
+    // outros reservaram) é recusado antes de chegar ao UPDATE de estoque no banco.
+    // - reserveCart: início do checkout; segura o carrinho por ttl (chamar de novo renova)
+    // - acquireForOrder: createOrder usa as reservas do usuário e reserva na hora o que faltar
+    // - consumeForOrder: logo depois do débito, na mesma transação, as reservas saem (o débito
+    //   passa a valer no lugar delas); se o pedido não fizer commit, elas voltam
+    // - release / expireHolds: cliente desistiu, ou o prazo venceu
+
+    public static final String RESERVATIONS_METRIC = "inventory.reservations";
+
+    private final ReservationLedger ledger;
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductRepository productRepository;
+    private final CartStore cartStore;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+
+    // Lock e não synchronized: a limpeza faz JDBC e, com threads virtuais, prenderia a thread ao carrier
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private boolean sweeping = true;
+
+    public InventoryReservationService(
+            ReservationLedger ledger,
+            StockReservationRepository stockReservationRepository,
+            ProductRepository productRepository,
+            CartStore cartStore,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.reservation.ttl:PT10M}") Duration ttl) {
+        this.ledger = ledger;
+        this.stockReservationRepository = stockReservationRepository;
+        this.productRepository = productRepository;
+        this.cartStore = cartStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+    }
+
+    @Transactional
+    public StockReservationResponseDTO reserveCart(Long userId) {
+        CartSnapshot cart = cartStore.get(userId);
+        if (cart.isEmpty()) {
+            throw new BusinessException("Carrinho está vazio");
+        }
+
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CartLine line : cart.getLines()) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : quantities.keySet()) {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Produto não encontrado");
+            }
+            if (!product.getActive()) {
+                throw new BusinessException("Produto " + product.getName() + " não está mais disponível");
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+        List<StockHold> holds = ledger.withProducts(quantities.keySet(), () -> {
+            checkAvailability(userId, quantities, products, now);
+
+            List<StockHold> created = new ArrayList<>();
+            List<StockHold> replaced = new ArrayList<>();
+            quantities.forEach((productId, quantity) -> {
+                StockHold previous = ledger.find(productId, userId, now);
+                if (previous != null) {
+                    replaced.add(previous);
+                }
+                StockHold hold = new StockHold(productId, userId, quantity, expiresAt);
+                ledger.put(hold);
+                created.add(hold);
+            });
+            undoOnRollback(created, replaced);
+            return created;
+        });
+
+        // Reservas de produtos que saíram do carrinho deixam de valer
+        List<Long> dropped = stockReservationRepository.findByUserId(userId).stream()
+                .map(StockReservation::getProductId)
+                .filter(productId -> !quantities.containsKey(productId))
+                .toList();
+        removeAfterCommit(userId, dropped, "released");
+
+        // Cópia no banco só para recuperar as reservas depois de um restart
+        stockReservationRepository.deleteByUserId(userId);
+        stockReservationRepository.saveAll(holds.stream()
+                .map(hold -> new StockReservation(null, userId, hold.getProductId(), hold.getQuantity(),
+                        hold.getExpiresAt(), null))
+                .toList());
+
+        count("reserved", holds.size());
+        return convertToDTO(holds, products, expiresAt);
+    }
+
+    @Transactional
+    public void release(Long userId) {
+        List<Long> productIds = stockReservationRepository.findByUserId(userId).stream()
+                .map(StockReservation::getProductId)
+                .toList();
+        stockReservationRepository.deleteByUserId(userId);
+        removeAfterCommit(userId, productIds, "released");
+    }
+
+    // Chamado por OrderService.createOrder antes do débito de estoque, na transação do pedido
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquireForOrder(Long userId, SortedMap<Long, Integer> quantities, Map<Long, Product> products) {
+        LocalDateTime now = LocalDateTime.now();
+        ledger.withProducts(quantities.keySet(), () -> {
+            // Produtos sem reserva própria suficiente são reservados agora
+            SortedMap<Long, Integer> missing = new TreeMap<>();
+            quantities.forEach((productId, quantity) -> {
+                StockHold hold = ledger.find(productId, userId, now);
+                if (hold == null || hold.getQuantity() < quantity) {
+                    missing.put(productId, quantity);
+                }
+            });
+
+            checkAvailability(userId, missing, products, now);
+
+            List<StockHold> created = new ArrayList<>();
+            List<StockHold> replaced = new ArrayList<>();
+            missing.forEach((productId, quantity) -> {
+                StockHold previous = ledger.find(productId, userId, now);
+                if (previous != null) {
+                    replaced.add(previous);
+                }
+                StockHold hold = new StockHold(productId, userId, quantity, now.plus(ttl));
+                ledger.put(hold);
+                created.add(hold);
+            });
+            undoOnRollback(created, replaced);
+            return null;
+        });
+
+        stockReservationRepository.deleteByUserIdAndProductIdIn(userId, quantities.keySet());
+    }
+
+    // Chamado por OrderService.createOrder logo depois do débito de estoque, na transação do pedido.
+    // Liberar só no afterCommit contaria as unidades duas vezes (debitadas e ainda reservadas)
+    // até o callback rodar, recusando pedidos que cabem no estoque.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void consumeForOrder(Long userId, Collection<Long> productIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockHold> consumed = ledger.withProducts(productIds, () -> {
+            List<StockHold> removed = new ArrayList<>();
+            for (Long productId : productIds) {
+                StockHold hold = ledger.find(productId, userId, now);
+                if (hold != null && ledger.remove(hold)) {
+                    removed.add(hold);
+                }
+            }
+            return removed;
+        });
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Roda antes do undoOnRollback de acquireForOrder: as reservas voltam ao estado do
+            // acquire, e o undo então tira as criadas no pedido e devolve as substituídas
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    count("consumed", consumed.size());
+                    return;
+                }
+                ledger.withProducts(productIds, () -> {
+                    LocalDateTime rollbackAt = LocalDateTime.now();
+                    consumed.stream()
+                            .filter(hold -> ledger.find(hold.getProductId(), userId, rollbackAt) == null)
+                            .forEach(ledger::put);
+                    return null;
+                });
+            }
+        });
+    }
+
+    // O desligamento espera a limpeza em andamento terminar (sweepLock)
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval:PT30S}")
+    public void expireHolds() {
+        sweepLock.lock();
+        try {
+            if (!sweeping) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            int expired = ledger.expire(now);
+            transactionTemplate.executeWithoutResult(status -> stockReservationRepository.deleteExpired(now));
+            if (expired > 0) {
+                count("expired", expired);
+                log.debug("{} reserva(s) de estoque expirada(s)", expired);
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    // ContextClosedEvent sai antes de qualquer bean ser destruído: a limpeza para antes do
+    // DataSource fechar (e, nos testes, antes do Hibernate apagar as tabelas)
+    @EventListener(ContextClosedEvent.class)
+    public void stopSweeping() {
+        sweepLock.lock();
+        try {
+            sweeping = false;
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    // Recarrega as reservas ainda válidas gravadas antes do restart
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<StockReservation> rows = stockReservationRepository.findByExpiresAtAfter(LocalDateTime.now());
+        for (StockReservation row : rows) {
+            ledger.withProducts(List.of(row.getProductId()), () -> {
+                ledger.put(new StockHold(row.getProductId(), row.getUserId(), row.getQuantity(), row.getExpiresAt()));
+                return null;
+            });
+        }
+        if (!rows.isEmpty()) {
+            log.info("{} reserva(s) de estoque recuperada(s)", rows.size());
+        }
+    }
+
+    // Exige os locks dos produtos. Estoque lido do banco aqui dentro: o valor da entidade
+    // pode ser de antes de um pedido concorrente que já fez commit.
+    private void checkAvailability(Long userId, SortedMap<Long, Integer> quantities,
+                                   Map<Long, Product> products, LocalDateTime now) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> stock = productRepository.findStockQuantities(quantities.keySet());
+        quantities.forEach((productId, quantity) -> {
+            int available = stock.getOrDefault(productId, 0) - ledger.heldByOthers(productId, userId, now);
+            if (available < quantity) {
+                count("rejected", 1);
+                throw new InsufficientStockException("Estoque insuficiente para o produto: " +
+                        products.get(productId).getName() + ". Disponível: " + Math.max(available, 0));
+            }
+        });
+    }
+
+    // Se a transação não fizer commit, as reservas novas saem e as substituídas voltam
+    private void undoOnRollback(List<StockHold> created, List<StockHold> replaced) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<Long> productIds = created.stream().map(StockHold::getProductId).collect(Collectors.toSet());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                ledger.withProducts(productIds, () -> {
+                    created.forEach(ledger::remove);
+                    replaced.forEach(ledger::put);
+                    return null;
+                });
+            }
+        });
+    }
+
+    private void removeAfterCommit(Long userId, List<Long> productIds, String outcome) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                LocalDateTime now = LocalDateTime.now();
+                int removed = ledger.withProducts(productIds, () -> (int) productIds.stream()
+                        .map(productId -> ledger.find(productId, userId, now))
+                        .filter(hold -> hold != null && ledger.remove(hold))
+                        .count());
+                count(outcome, removed);
+            }
+        });
+    }
+
+    private void count(String outcome, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter(RESERVATIONS_METRIC, "outcome", outcome).increment(amount);
+        }
+    }
+
+    private StockReservationResponseDTO convertToDTO(List<StockHold> holds, Map<Long, Product> products,
+                                                     LocalDateTime expiresAt) {
+        StockReservationResponseDTO dto = new StockReservationResponseDTO();
+        dto.setExpiresAt(expiresAt);
+        dto.setItems(holds.stream()
+                .map(hold -> new StockReservationItemDTO(hold.getProductId(),
+                        products.get(hold.getProductId()).getName(), hold.getQuantity()))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+}
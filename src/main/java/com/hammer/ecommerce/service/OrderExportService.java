@@ -0,0 +1,132 @@
+package com.hammer.ecommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.dto.order.OrderExportFilter;
+import com.hammer.ecommerce.dto.order.OrderExportFormat;
+import com.hammer.ecommerce.dto.order.OrderExportRowDTO;
+import com.hammer.ecommerce.model.Address;
+import com.hammer.ecommerce.model.Order;
+import com.hammer.ecommerce.model.Payment;
+import com.hammer.ecommerce.repositories.OrderRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class OrderExportService {
+
+    // Exportação de pedidos em streaming: os pedidos são lidos por cursor e escritos direto na
+    // saída, um por vez. A memória usada não depende do tamanho da exportação: o buffer de
+    // escrita é fixo e o contexto de persistência é limpo a cada clearInterval pedidos.
+
+    private static final String FORMULA_PREFIXES = "=+-@";
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int clearInterval;
+
+    public OrderExportService(
+            OrderRepository orderRepository,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            @Value("${order.export.clear-interval:" + OrderRepository.EXPORT_FETCH_SIZE + "}") int clearInterval) {
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.clearInterval = clearInterval;
+    }
+
+    // Escreve os pedidos do filtro em out e devolve quantos foram exportados.
+    // out não é fechado (é a saída da resposta HTTP).
+    @Transactional(readOnly = true)
+    public long export(OrderExportFilter filter, OrderExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == OrderExportFormat.CSV) {
+            writer.write(String.join(",", OrderExportRowDTO.COLUMNS));
+            writer.write("\r\n");
+        }
+
+        long exported = 0;
+        try (Stream<Order> orders = orderRepository.streamForExport(filter.getFrom(), filter.getTo(),
+                filter.getStatuses())) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                OrderExportRowDTO row = toRow(iterator.next());
+                if (format == OrderExportFormat.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write("\n");
+                }
+
+                // Pedidos já escritos saem do contexto de persistência; o que está no buffer vai para o cliente
+                if (++exported % clearInterval == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        log.info("Exportação de pedidos ({}): {} pedido(s)", format, exported);
+        return exported;
+    }
+
+    private OrderExportRowDTO toRow(Order order) {
+        Payment payment = order.getPayment();
+        Address address = order.getShippingAddress();
+        return new OrderExportRowDTO(
+                order.getId(),
+                order.getOrderNumber(),
+                order.getCreatedAt(),
+                order.getStatus().name(),
+                order.getTotalAmount(),
+                order.getUser().getId(),
+                order.getUser().getEmail(),
+                payment == null ? null : payment.getPaymentMethod().name(),
+                payment == null ? null : payment.getStatus().name(),
+                payment == null ? null : payment.getPaidAt(),
+                address.getCity(),
+                address.getState());
+    }
+
+    // RFC 4180: campo com vírgula, aspas ou quebra de linha vai entre aspas (aspas duplicadas).
+    // Texto que começa com =, +, - ou @ ganha um apóstrofo na frente: a planilha mostraria o
+    // valor como fórmula (CSV injection). Números e datas não passam por aqui.
+    private void writeCsv(Writer writer, OrderExportRowDTO row) throws IOException {
+        Object[] values = row.values();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String value = values[i].toString();
+            if (values[i] instanceof String && !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
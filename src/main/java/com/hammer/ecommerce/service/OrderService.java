@@ -1,48 +1,146 @@
 package com.hammer.ecommerce.service;
 
-import com.hammer.ecommerce.dto.address.AddressResponseDTO;
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import com.hammer.ecommerce.cart.CartStore;
+import com.hammer.ecommerce.config.AddressMapper;
 import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
 import com.hammer.ecommerce.dto.order.OrderItemResponseDTO;
 import com.hammer.ecommerce.dto.order.OrderResponseDTO;
 import com.hammer.ecommerce.dto.order.OrderSummaryDTO;
+import com.hammer.ecommerce.dto.pagination.CursorPageResponseDTO;
+import com.hammer.ecommerce.dto.pagination.SeekCursor;
 import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.exceptions.InsufficientStockException;
 import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
 import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
 import com.hammer.ecommerce.repositories.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    // Métricas de negócio. Taxa de cancelamento = orders.cancelled / orders.created;
+    // o tempo do checkout é separado por desfecho (created, out-of-stock, rejected, error)
+    public static final String CREATED_METRIC = "orders.created";
+    public static final String CANCELLED_METRIC = "orders.cancelled";
+    public static final String ITEMS_METRIC = "orders.items";
+    public static final String CHECKOUT_LATENCY_METRIC = "orders.checkout.latency";
+
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    // Listagem por cursor: sempre createdAt decrescente (mais recentes primeiro)
+    private static final String CURSOR_SORT = "createdAt";
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final AddressRepository addressRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final AddressMapper addressMapper;
+    private final ProductCatalogCache productCatalogCache;
+    private final InventoryReservationService inventoryReservationService;
+    private final OutboxPublisher outboxPublisher;
+    private final MeterRegistry meterRegistry;
 
     @Transactional
     public OrderResponseDTO createOrder(Long userId, CreateOrderRequestDTO request) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        OrderResponseDTO order = null;
+        try {
+            order = placeOrder(userId, request);
+            return order;
+        } catch (InsufficientStockException e) {
+            outcome = "out-of-stock";
+            throw e;
+        } catch (BusinessException | ResourceNotFoundException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            recordCheckout(start, outcome, order);
+        }
+    }
+
+    // Registrado quando a transação termina: o tempo inclui o commit, e o pedido só conta
+    // como criado se o commit passar (falha no commit vira outcome "error")
+    private void recordCheckout(long start, String failure, OrderResponseDTO order) {
+        afterCompletion(committed -> {
+            String outcome = order == null ? failure : committed ? "created" : "error";
+            if ("created".equals(outcome)) {
+                meterRegistry.counter(CREATED_METRIC).increment();
+                DistributionSummary.builder(ITEMS_METRIC)
+                        .description("Itens (linhas) por pedido criado")
+                        .baseUnit("items")
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue(100.0)
+                        .register(meterRegistry)
+                        .record(order.getItems().size());
+            }
+            Timer.builder(CHECKOUT_LATENCY_METRIC)
+                    .description("Tempo de criação de pedidos a partir do carrinho")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    // Fora de transação (testes de unidade) roda na hora, como se tivesse feito commit
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private OrderResponseDTO placeOrder(Long userId, CreateOrderRequestDTO request) {
 
         // Buscar usuário
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
-        // Buscar carrinho do usuário
-        Cart cart = cartRepository.findByUserIdWithItems(userId)
-                .orElseThrow(() -> new BusinessException("Carrinho não encontrado"));
+        // Buscar carrinho do usuário (estado autoritativo do CartStore, inclusive o ainda não gravado)
+        CartSnapshot cart = cartStore.get(userId);
 
         // Validar carrinho não vazio
-        if (cart.getItems().isEmpty()) {
+        if (cart.isEmpty()) {
             throw new BusinessException("Carrinho está vazio");
         }
 
@@ -56,18 +154,27 @@ public class OrderService {
         order.setShippingAddress(shippingAddress);
         order.setStatus(OrderStatus.PENDING);
 
+        // Quantidade por produto em ordem de ID (ordem dos locks no débito de estoque)
+        SortedMap<Long, Integer> stockDebits = new TreeMap<>();
+
+        Map<Long, Product> products = productRepository.findAllById(cart.getProductIds()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         // Processar itens do carrinho
-        for (CartItem cartItem : cart.getItems()) {
-            Product product = cartItem.getProduct();
+        for (CartLine cartItem : cart.getLines()) {
+            Product product = products.get(cartItem.getProductId());
+            if (product == null) {
+                throw new ResourceNotFoundException("Produto não encontrado");
+            }
 
             // Validar produto ativo
             if (!product.getActive()) {
                 throw new BusinessException("Produto " + product.getName() + " não está mais disponível");
             }
 
-            // Validar estoque
+            // Validação antecipada (a garantia real é o UPDATE condicional abaixo)
             if (product.getStockQuantity() < cartItem.getQuantity()) {
-                throw new BusinessException("Estoque insuficiente para o produto: " + product.getName() +
+                throw new InsufficientStockException("Estoque insuficiente para o produto: " + product.getName() +
                         ". Disponível: " + product.getStockQuantity());
             }
 
@@ -80,28 +187,53 @@ public class OrderService {
 
             order.addOrderItem(orderItem);
 
-            // Diminuir estoque
-            product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
+            stockDebits.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
+        }
+
+        // Reservas do checkout: a disputa pelo estoque é resolvida em memória, e quem não
+        // tem estoque disponível é recusado aqui, sem esperar o lock da linha do produto
+        inventoryReservationService.acquireForOrder(userId, stockDebits, products);
+
+        // Diminuir estoque: UPDATE ... WHERE stock_quantity >= quantidade, atômico no banco.
+        // Se algum produto não tiver mais estoque, o rollback desfaz os débitos já feitos.
+        List<Long> rejected = productRepository.decrementStock(stockDebits);
+        if (!rejected.isEmpty()) {
+            String names = rejected.stream()
+                    .map(products::get)
+                    .map(Product::getName)
+                    .distinct()
+                    .collect(Collectors.joining(", "));
+            throw new InsufficientStockException("Estoque insuficiente para o produto: " + names);
         }
+        inventoryReservationService.consumeForOrder(userId, stockDebits.keySet());
 
         // Calcular total
         order.setTotalAmount(order.calculateTotal());
 
-        // Salvar pedido
-        order = orderRepository.save(order);
+        // Salvar pedido (flush: itens em batch e createdAt preenchido para a resposta)
+        order = orderRepository.saveAndFlush(order);
+
+        // Eventos no outbox, gravados no commit do pedido
+        outboxPublisher.publish(DomainEventType.ORDER_CREATED, order.getId(), OutboxPublisher.payload(
+                "orderNumber", order.getOrderNumber(),
+                "userId", userId,
+                "status", order.getStatus().name(),
+                "totalAmount", order.getTotalAmount()));
+        outboxPublisher.publishStockChanges(negate(stockDebits), order.getId());
 
-        // Limpar carrinho
-        cart.getItems().clear();
-        cartRepository.save(cart);
+        // Limpar carrinho: só os itens que viraram pedido (e não mudaram desde a leitura), depois do commit
+        cartStore.removeItems(userId, cart.getLines());
+
+        productCatalogCache.evictStock(order.getOrderItems().stream()
+                .map(item -> item.getProduct().getId())
+                .toList());
 
         return convertToDTO(order);
     }
 
     @Transactional(readOnly = true)
     public Page<OrderSummaryDTO> findAllByUser(Long userId, Pageable pageable) {
-        return orderRepository.findByUserId(userId, pageable)
-                .map(this::convertToSummaryDTO);
+        return convertToSummaryDTOs(orderRepository.findByUserId(userId, pageable));
     }
 
     @Transactional(readOnly = true)
@@ -113,7 +245,7 @@ public class OrderService {
 
     @Transactional
     public OrderResponseDTO cancelOrder(Long orderId, Long userId) {
-        Order order = orderRepository.findByIdWithItems(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado"));
 
         // Verificar se o pedido pertence ao usuário
@@ -134,17 +266,26 @@ public class OrderService {
             throw new BusinessException("Não é possível cancelar pedido já enviado");
         }
 
-        // Devolver estoque
+        // Devolver estoque (UPDATE atômico, em ordem de ID)
+        SortedMap<Long, Integer> stockCredits = new TreeMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
+            stockCredits.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        productRepository.incrementStock(stockCredits);
+
+        productCatalogCache.evictStock(order.getOrderItems().stream()
+                .map(item -> item.getProduct().getId())
+                .toList());
 
         // Cancelar pedido
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         order = orderRepository.save(order);
 
+        publishStatusChange(order, previousStatus);
+        outboxPublisher.publishStockChanges(stockCredits, order.getId());
+        meterRegistry.counter(CANCELLED_METRIC, "source", "customer").increment();
+
         return convertToDTO(order);
     }
 
@@ -152,21 +293,52 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public Page<OrderSummaryDTO> findAll(Pageable pageable) {
-        return orderRepository.findAll(pageable)
-                .map(this::convertToSummaryDTO);
+        return convertToSummaryDTOs(orderRepository.findAll(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<OrderSummaryDTO> findAllWithCursor(String cursor, int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException("Tamanho da página deve estar entre 1 e " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        LocalDateTime lastCreatedAt = MAX_CREATED_AT;
+        Long lastId = Long.MAX_VALUE;
+
+        if (cursor != null) {
+            SeekCursor position = SeekCursor.decode(cursor, CURSOR_SORT, Sort.Direction.DESC);
+            try {
+                lastCreatedAt = LocalDateTime.parse(position.getSortKey());
+            } catch (DateTimeParseException e) {
+                throw new BusinessException("Cursor inválido");
+            }
+            lastId = position.getId();
+        }
+
+        // Busca uma linha a mais para saber se existe próxima página
+        List<Order> rows = orderRepository.seekByCreatedAtDesc(lastCreatedAt, lastId, PageRequest.ofSize(size + 1));
+        Map<Long, Integer> itemCounts = orderItemRepository.countItems(rows.stream().map(Order::getId).toList());
+        return CursorPageResponseDTO.of(rows, size, order -> convertToSummaryDTO(order, itemCounts),
+                order -> new SeekCursor(CURSOR_SORT, Sort.Direction.DESC, order.getCreatedAt().toString(), order.getId()));
     }
 
     @Transactional
     public OrderResponseDTO updateOrderStatus(Long orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findByIdWithItems(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado"));
 
         // Validações de transição de status
         validateStatusTransition(order.getStatus(), newStatus);
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(newStatus);
         order = orderRepository.save(order);
 
+        publishStatusChange(order, previousStatus);
+        if (newStatus == OrderStatus.CANCELLED) {
+            meterRegistry.counter(CANCELLED_METRIC, "source", "admin").increment();
+        }
+
         return convertToDTO(order);
     }
 
@@ -189,6 +361,20 @@ public class OrderService {
         }
     }
 
+    private void publishStatusChange(Order order, OrderStatus previousStatus) {
+        outboxPublisher.publish(DomainEventType.ORDER_STATUS_CHANGED, order.getId(), OutboxPublisher.payload(
+                "orderNumber", order.getOrderNumber(),
+                "userId", order.getUser().getId(),
+                "from", previousStatus.name(),
+                "to", order.getStatus().name()));
+    }
+
+    private SortedMap<Long, Integer> negate(SortedMap<Long, Integer> quantities) {
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+        return deltas;
+    }
+
     private OrderResponseDTO convertToDTO(Order order) {
         OrderResponseDTO dto = new OrderResponseDTO();
         dto.setId(order.getId());
@@ -199,7 +385,7 @@ public class OrderService {
         dto.setUpdatedAt(order.getUpdatedAt());
 
         // Endereço
-        dto.setShippingAddress(modelMapper.map(order.getShippingAddress(), AddressResponseDTO.class));
+        dto.setShippingAddress(addressMapper.map(order.getShippingAddress()));
 
         // Itens
         dto.setItems(order.getOrderItems().stream()
@@ -209,13 +395,20 @@ public class OrderService {
         return dto;
     }
 
-    private OrderSummaryDTO convertToSummaryDTO(Order order) {
+    // Quantidade de itens da página inteira numa consulta: getOrderItems().size() carregaria
+    // a coleção de cada pedido (N+1)
+    private Page<OrderSummaryDTO> convertToSummaryDTOs(Page<Order> orders) {
+        Map<Long, Integer> itemCounts = orderItemRepository.countItems(orders.map(Order::getId).getContent());
+        return orders.map(order -> convertToSummaryDTO(order, itemCounts));
+    }
+
+    private OrderSummaryDTO convertToSummaryDTO(Order order, Map<Long, Integer> itemCounts) {
         OrderSummaryDTO dto = new OrderSummaryDTO();
         dto.setId(order.getId());
         dto.setOrderNumber(order.getOrderNumber());
         dto.setStatus(order.getStatus().name());
         dto.setTotalAmount(order.getTotalAmount());
-        dto.setItemCount(order.getOrderItems().size());
+        dto.setItemCount(itemCounts.getOrDefault(order.getId(), 0));
         dto.setCreatedAt(order.getCreatedAt());
         return dto;
     }
@@ -5,22 +5,28 @@ import com.hammer.ecommerce.dto.payment.ProcessPaymentRequestDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
 import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
 import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
+import com.hammer.ecommerce.payment.PaymentGateway;
+import com.hammer.ecommerce.payment.PaymentGatewayRequest;
+import com.hammer.ecommerce.payment.PaymentGatewayResponse;
+import com.hammer.ecommerce.payment.PaymentProcessor;
 import com.hammer.ecommerce.repositories.OrderRepository;
 import com.hammer.ecommerce.repositories.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.Random;
-
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-    private final Random random = new Random();
+    private final PaymentProcessor paymentProcessor;
+    private final PaymentGateway paymentGateway;
+    private final OutboxPublisher outboxPublisher;
+    private final MeterRegistry meterRegistry;
 
     @Transactional
     public PaymentResponseDTO processPayment(Long userId, ProcessPaymentRequestDTO request) {
@@ -44,29 +50,31 @@ public class PaymentService {
             throw new BusinessException("Apenas pedidos pendentes podem receber pagamento");
         }
 
-        // Criar pagamento
+        // Criar pagamento pendente; a cobrança no gateway é feita pelo pipeline assíncrono
         Payment payment = new Payment();
         payment.setOrder(order);
         payment.setPaymentMethod(request.getPaymentMethod());
         payment.setStatus(PaymentStatus.PENDING);
+        payment = paymentRepository.saveAndFlush(payment);
+
+        outboxPublisher.publish(DomainEventType.PAYMENT_REQUESTED, payment.getId(), OutboxPublisher.payload(
+                "orderId", order.getId(),
+                "paymentMethod", payment.getPaymentMethod().name(),
+                "amount", order.getTotalAmount()));
+
+        paymentProcessor.submit(new PaymentGatewayRequest(
+                payment.getId(),
+                payment.getTransactionId(),
+                order.getTotalAmount(),
+                request.getPaymentMethod(),
+                request.getCardNumber(),
+                request.getCardHolderName(),
+                request.getCardExpiryDate(),
+                request.getCardCvv()));
+
+        // Aprovados e recusados são contados pelo PaymentProcessor ao gravar o resultado
+        count("requested", payment);
 
-        // Simular processamento do pagamento
-        boolean paymentApproved = simulatePaymentProcessing(request);
-
-        if (paymentApproved) {
-            payment.setStatus(PaymentStatus.APPROVED);
-            payment.setPaidAt(LocalDateTime.now());
-
-            // Atualizar status do pedido
-            order.setStatus(OrderStatus.PAID);
-            orderRepository.save(order);
-        } else {
-            payment.setStatus(PaymentStatus.REJECTED);
-
-            // Manter pedido como PENDING para tentar novamente
-        }
-
-        payment = paymentRepository.save(payment);
         return convertToDTO(payment);
     }
 
@@ -88,7 +96,9 @@ public class PaymentService {
 
     @Transactional
     public PaymentResponseDTO refundPayment(Long orderId, Long userId) {
-        Order order = orderRepository.findById(orderId)
+        // Pedido travado, como no PaymentProcessor: dois reembolsos (ou reembolso e entrega/cancelamento)
+        // do mesmo pedido não passam juntos pelas validações abaixo
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado"));
 
         // Verificar se o pedido pertence ao usuário
@@ -108,39 +118,38 @@ public class PaymentService {
             throw new BusinessException("Não é possível reembolsar pedido já entregue");
         }
 
-        // Processar reembolso
+        // Estorno no gateway antes de qualquer mudança de status: se ele recusar ou falhar,
+        // o rollback mantém o pagamento aprovado e o pedido como estava
+        PaymentGatewayResponse refund = paymentGateway.refund(payment.getTransactionId(), order.getTotalAmount());
+        if (!refund.isApproved()) {
+            throw new BusinessException("Estorno recusado pelo gateway: " + refund.getMessage());
+        }
+
         payment.setStatus(PaymentStatus.REFUNDED);
         payment = paymentRepository.save(payment);
 
         // Cancelar pedido
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
 
+        outboxPublisher.publish(DomainEventType.PAYMENT_REFUNDED, payment.getId(), OutboxPublisher.payload(
+                "orderId", order.getId(),
+                "transactionId", payment.getTransactionId()));
+        outboxPublisher.publish(DomainEventType.ORDER_STATUS_CHANGED, order.getId(), OutboxPublisher.payload(
+                "orderNumber", order.getOrderNumber(),
+                "userId", userId,
+                "from", previousStatus.name(),
+                "to", order.getStatus().name()));
+        count("refunded", payment);
+
         return convertToDTO(payment);
     }
 
-    // Método para simular processamento de pagamento
-    // Em produção, aqui seria a integração com gateway real (Stripe, PagSeguro, etc...)
-    private boolean simulatePaymentProcessing(ProcessPaymentRequestDTO request) {
-
-        // Simular processamento com 90% de aprovação
-        try {
-            Thread.sleep(1000); // Simular delay de processamento
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        // Validações básicas para simulação
-        if (request.getPaymentMethod() == PaymentMethod.CREDIT_CARD ||
-                request.getPaymentMethod() == PaymentMethod.DEBIT_CARD) {
-
-            if (request.getCardNumber() == null || request.getCardNumber().length() < 16) {
-                return false;
-            }
-        }
-
-        // 90% de chance de aprovação
-        return random.nextInt(100) < 90;
+    private void count(String status, Payment payment) {
+        meterRegistry.counter(PaymentProcessor.PAYMENTS_METRIC,
+                "status", status,
+                "method", payment.getPaymentMethod().name()).increment();
     }
 
     private PaymentResponseDTO convertToDTO(Payment payment) {
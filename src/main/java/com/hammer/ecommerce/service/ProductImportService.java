@@ -0,0 +1,541 @@
+package com.hammer.ecommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.catalog.CsvProductImportReader;
+import com.hammer.ecommerce.catalog.JsonProductImportReader;
+import com.hammer.ecommerce.catalog.ProductImportReader;
+import com.hammer.ecommerce.catalog.ProductImportRecord;
+import com.hammer.ecommerce.dto.product.ProductImportFormat;
+import com.hammer.ecommerce.dto.product.ProductImportJobDTO;
+import com.hammer.ecommerce.dto.product.ProductRequestDTO;
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
+import com.hammer.ecommerce.model.Category;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.model.ProductImportJob;
+import com.hammer.ecommerce.model.ProductImportStatus;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
+import com.hammer.ecommerce.repositories.CategoryRepository;
+import com.hammer.ecommerce.repositories.ProductImportJobRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.search.ProductSearchEngine;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ProductImportService {
+
+    // Importação do catálogo em lote: o arquivo é lido em streaming e aplicado em lotes de
+    // batchSize registros, cada lote numa transação (um SELECT ... FOR UPDATE pelos SKUs e um
+    // INSERT ... ON CONFLICT de várias linhas). As categorias são resolvidas num mapa carregado
+    // uma vez por importação. Registros inválidos não param a importação: vão para o
+    // arquivo de erros do job, assim como os que o banco recusar. O checkpoint (rowsProcessed)
+    // é gravado com cada lote; reenviar o mesmo arquivo com o jobId continua do primeiro
+    // registro ainda não aplicado.
+
+    public static final String[] RESULT_COLUMNS = {"row", "sku", "error"};
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductImportJobRepository jobRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchEngine productSearchEngine;
+    private final OutboxPublisher outboxPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Path resultDir;
+
+    // Jobs sendo executados nesta instância (o mesmo job não pode rodar duas vezes ao mesmo tempo)
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public ProductImportService(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            ProductImportJobRepository jobRepository,
+            ProductCatalogCache productCatalogCache,
+            ProductSearchEngine productSearchEngine,
+            OutboxPublisher outboxPublisher,
+            Validator validator,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${catalog.import.batch-size:1000}") int batchSize,
+            @Value("${catalog.import.result-dir:${java.io.tmpdir}/product-imports}") String resultDir) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.jobRepository = jobRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchEngine = productSearchEngine;
+        this.outboxPublisher = outboxPublisher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.resultDir = Path.of(resultDir);
+    }
+
+    // Importa os produtos de in. Com jobId, retoma a importação interrompida daquele job
+    // (o arquivo enviado deve ser o mesmo). Erros que impedem continuar a leitura não saem
+    // como exceção: o job volta com status FAILED e a mensagem.
+    public ProductImportJobDTO importProducts(ProductImportFormat format, Long jobId, InputStream in) {
+        ProductImportJob job = jobId == null ? startJob(format) : resumeJob(jobId, format);
+        if (!running.add(job.getId())) {
+            throw new BusinessException("A importação " + job.getId() + " já está em andamento");
+        }
+
+        try {
+            CategoryLookup categories = new CategoryLookup(categoryRepository.findAll());
+            Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+            try (ProductImportReader records = open(format, reader);
+                 Writer errors = Files.newBufferedWriter(Path.of(job.getResultFile()), StandardCharsets.UTF_8,
+                         StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+                List<ProductImportRecord> batch = new ArrayList<>(batchSize);
+                ProductImportRecord record;
+                while ((record = records.next()) != null) {
+                    // Já aplicado numa execução anterior do job
+                    if (record.getNumber() <= job.getRowsProcessed()) {
+                        continue;
+                    }
+                    batch.add(record);
+                    if (batch.size() == batchSize) {
+                        job = applyBatch(job, batch, categories, errors);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    job = applyBatch(job, batch, categories, errors);
+                }
+            }
+
+            job = finish(job, ProductImportStatus.COMPLETED, null);
+        } catch (IOException | RuntimeException e) {
+            // Recarrega o checkpoint gravado: o lote que falhou pode ter alterado o job em memória
+            job = finish(findJobEntity(job.getId()), ProductImportStatus.FAILED, e.getMessage());
+            log.warn("Importação de produtos {} interrompida depois do registro {}: {}",
+                    job.getId(), job.getRowsProcessed(), e.getMessage());
+        } finally {
+            running.remove(job.getId());
+        }
+
+        log.info("Importação de produtos {} ({}): {} registro(s), {} criado(s), {} atualizado(s), {} com erro",
+                job.getId(), job.getStatus(), job.getRowsProcessed(), job.getProductsCreated(),
+                job.getProductsUpdated(), job.getRowsFailed());
+        return convertToDTO(job);
+    }
+
+    public ProductImportJobDTO findJob(Long jobId) {
+        return convertToDTO(findJobEntity(jobId));
+    }
+
+    // Arquivo CSV com os registros rejeitados (row, sku, error)
+    public Path resultFile(Long jobId) {
+        Path file = Path.of(findJobEntity(jobId).getResultFile());
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("Arquivo de resultado da importação " + jobId + " não está mais disponível");
+        }
+        return file;
+    }
+
+    private ProductImportJob startJob(ProductImportFormat format) {
+        ProductImportJob job = new ProductImportJob();
+        job.setFormat(format);
+        job.setStatus(ProductImportStatus.RUNNING);
+        job.setResultFile("");
+        job = jobRepository.save(job);
+
+        try {
+            Files.createDirectories(resultDir);
+            Path file = resultDir.resolve("product-import-" + job.getId() + "-errors.csv");
+            Files.writeString(file, String.join(",", RESULT_COLUMNS) + "\r\n", StandardCharsets.UTF_8);
+            job.setResultFile(file.toAbsolutePath().toString());
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível criar o arquivo de resultado em " + resultDir, e);
+        }
+        return jobRepository.save(job);
+    }
+
+    private ProductImportJob resumeJob(Long jobId, ProductImportFormat format) {
+        ProductImportJob job = findJobEntity(jobId);
+        if (job.getStatus() == ProductImportStatus.COMPLETED) {
+            throw new BusinessException("A importação " + jobId + " já foi concluída");
+        }
+        if (job.getFormat() != format) {
+            throw new BusinessException("A importação " + jobId + " foi iniciada no formato " + job.getFormat());
+        }
+        job.setStatus(ProductImportStatus.RUNNING);
+        job.setErrorMessage(null);
+        job.setFinishedAt(null);
+        return jobRepository.save(job);
+    }
+
+    private ProductImportJob findJobEntity(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Importação não encontrada com ID: " + jobId));
+    }
+
+    private ProductImportJob finish(ProductImportJob job, ProductImportStatus status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(errorMessage == null ? null : abbreviate(errorMessage, 500));
+        job.setFinishedAt(LocalDateTime.now());
+        return jobRepository.save(job);
+    }
+
+    private ProductImportReader open(ProductImportFormat format, Reader reader) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvProductImportReader(reader);
+            case JSON -> new JsonProductImportReader(reader, objectMapper);
+        };
+    }
+
+    // Aplica um lote numa transação junto com o checkpoint. Os erros só vão para o arquivo
+    // depois do commit: numa retomada o lote desfeito é relido e não duplica linhas.
+    private ProductImportJob applyBatch(ProductImportJob job, List<ProductImportRecord> batch,
+                                        CategoryLookup categories, Writer errors) throws IOException {
+
+        List<String[]> rejected = new ArrayList<>();
+        Map<String, Product> products = new LinkedHashMap<>();
+        Map<String, List<Long>> rowsBySku = new HashMap<>();
+
+        for (ProductImportRecord record : batch) {
+            String error = record.getError();
+            Product product = null;
+            if (error == null) {
+                try {
+                    product = toProduct(record, categories);
+                } catch (BusinessException e) {
+                    error = e.getMessage();
+                }
+            }
+
+            if (error != null) {
+                rejected.add(new String[]{String.valueOf(record.getNumber()), record.getValues().get("sku"), error});
+            } else {
+                // SKU repetido no mesmo lote: vale o último, como se os registros fossem aplicados em ordem
+                products.put(product.getSku(), product);
+                rowsBySku.computeIfAbsent(product.getSku(), sku -> new ArrayList<>()).add(record.getNumber());
+            }
+        }
+
+        long lastRow = batch.get(batch.size() - 1).getNumber();
+        List<Product> applied = new ArrayList<>(products.values());
+
+        ProductImportJob saved;
+        List<Product> written = applied;
+        try {
+            saved = transactionTemplate.execute(status ->
+                    checkpoint(job, lastRow, write(applied, rowsBySku), rejected.size()));
+        } catch (DataAccessException e) {
+            // Um registro recusado pelo banco (ex.: categoria excluída durante a importação) desfaz
+            // o lote todo, e a retomada cairia no mesmo lote de novo: os produtos são regravados um
+            // a um e os recusados vão para o arquivo de erros. Também o caminho do SKU novo que outra
+            // importação inseriu no meio do lote (ver write)
+            log.warn("Lote da importação {} recusado pelo banco, gravando produto a produto: {}",
+                    job.getId(), e.getMessage());
+            written = new ArrayList<>();
+            BatchWrite total = new BatchWrite(0, 0);
+            for (Product product : products.values()) {
+                try {
+                    BatchWrite write = transactionTemplate.execute(status -> write(List.of(product), rowsBySku));
+                    total = new BatchWrite(total.created() + write.created(), total.updated() + write.updated());
+                    written.add(product);
+                } catch (DataIntegrityViolationException rowError) {
+                    String error = abbreviate("Registro recusado pelo banco: " +
+                            rowError.getMostSpecificCause().getMessage(), 500);
+                    for (Long row : rowsBySku.get(product.getSku())) {
+                        rejected.add(new String[]{String.valueOf(row), product.getSku(), error});
+                    }
+                }
+            }
+            rejected.sort(Comparator.comparingLong(row -> Long.parseLong(row[0])));
+
+            // O job em memória pode ter sido alterado na transação desfeita
+            ProductImportJob current = findJobEntity(job.getId());
+            BatchWrite rowByRow = total;
+            saved = transactionTemplate.execute(status -> checkpoint(current, lastRow, rowByRow, rejected.size()));
+        }
+
+        for (String[] row : rejected) {
+            writeCsv(errors, row);
+        }
+        errors.flush();
+
+        // JDBC não passa pelo listener da entidade: o índice de busca é atualizado aqui
+        written.forEach(productSearchEngine::index);
+        return saved;
+    }
+
+    // Grava os produtos (um upsert por lote) e publica as mudanças de estoque. Exige transação:
+    // as entradas do cache afetadas são invalidadas no commit.
+    private BatchWrite write(List<Product> products, Map<String, List<Long>> rowsBySku) {
+        // Valores atuais dos que já existem, para os deltas de estoque e a invalidação do cache
+        Map<String, Product> existing = productRepository.lockBySku(products.stream().map(Product::getSku).toList());
+
+        List<Product> toUpdate = new ArrayList<>();
+        List<Product> toInsert = new ArrayList<>();
+        long created = 0;
+        long updated = 0;
+        for (Product product : products) {
+            int count = rowsBySku.get(product.getSku()).size();
+            if (existing.containsKey(product.getSku())) {
+                toUpdate.add(product);
+                updated += count;
+            } else {
+                toInsert.add(product);
+                created++;
+                updated += count - 1;
+            }
+        }
+
+        // Em ordem de SKU: duas importações com os mesmos SKUs novos esperam uma pela outra na
+        // mesma ordem, sem deadlock (os existentes já estão travados pelo lockBySku)
+        Set<String> inserted = productRepository.upsertAll(products.stream()
+                .sorted(Comparator.comparing(Product::getSku))
+                .toList());
+
+        // SKU novo que outra importação inseriu e confirmou depois do lockBySku: o upsert o atualizou,
+        // mas o estoque anterior (para o delta) não foi lido. O lote é desfeito e regravado produto
+        // a produto, e aí o lockBySku já encontra o produto
+        for (Product product : toInsert) {
+            if (!inserted.contains(product.getSku())) {
+                throw new ConcurrencyFailureException("Produto " + product.getSku() +
+                        " cadastrado por outra transação durante o lote");
+            }
+        }
+
+        Map<Long, Integer> stockDeltas = new TreeMap<>();
+        List<Long> listingChanges = new ArrayList<>();
+        List<Long> stockChanges = new ArrayList<>();
+        List<Long> detailChanges = new ArrayList<>();
+        for (Product product : toUpdate) {
+            Product current = existing.get(product.getSku());
+            int delta = product.getStockQuantity() - current.getStockQuantity();
+            if (delta != 0) {
+                stockDeltas.put(product.getId(), delta);
+            }
+
+            if (listingChanged(current, product)) {
+                listingChanges.add(product.getId());
+            } else if (delta != 0) {
+                stockChanges.add(product.getId());
+            } else if (!Objects.equals(current.getDescription(), product.getDescription())
+                    || !Objects.equals(current.getImageUrl(), product.getImageUrl())) {
+                detailChanges.add(product.getId());
+            }
+        }
+        for (Product product : toInsert) {
+            if (product.getStockQuantity() != 0) {
+                stockDeltas.put(product.getId(), product.getStockQuantity());
+            }
+        }
+        if (!stockDeltas.isEmpty()) {
+            outboxPublisher.publishStockChanges(stockDeltas, null);
+        }
+
+        // Só as entradas afetadas: produto novo ou com nome, preço, categoria ou status diferente
+        // muda a composição das listagens; estoque, as páginas ordenadas por estoque
+        if (!toInsert.isEmpty() || !listingChanges.isEmpty()) {
+            productCatalogCache.evictProductsAndListings(listingChanges);
+        }
+        if (!stockChanges.isEmpty()) {
+            productCatalogCache.evictStock(stockChanges);
+        }
+        if (!detailChanges.isEmpty()) {
+            productCatalogCache.evictProducts(detailChanges);
+        }
+        return new BatchWrite(created, updated);
+    }
+
+    private ProductImportJob checkpoint(ProductImportJob job, long lastRow, BatchWrite write, int rowsFailed) {
+        job.setRowsProcessed(lastRow);
+        job.setProductsCreated(job.getProductsCreated() + write.created());
+        job.setProductsUpdated(job.getProductsUpdated() + write.updated());
+        job.setRowsFailed(job.getRowsFailed() + rowsFailed);
+        return jobRepository.save(job);
+    }
+
+    private static boolean listingChanged(Product current, Product product) {
+        return !Objects.equals(current.getName(), product.getName())
+                || current.getPrice().compareTo(product.getPrice()) != 0
+                || !Objects.equals(current.getActive(), product.getActive())
+                || !Objects.equals(current.getCategory().getId(), product.getCategory().getId());
+    }
+
+    // Converte e valida um registro com as mesmas regras do cadastro unitário (ProductRequestDTO)
+    private Product toProduct(ProductImportRecord record, CategoryLookup categories) {
+        ProductRequestDTO request = new ProductRequestDTO();
+        request.setSku(text(record, "sku"));
+        request.setName(text(record, "name"));
+        request.setDescription(text(record, "description"));
+        request.setImageUrl(text(record, "imageUrl"));
+        request.setPrice(parse(record, "price", "Preço inválido", BigDecimal::new));
+        request.setStockQuantity(parse(record, "stockQuantity", "Quantidade em estoque inválida", Integer::valueOf));
+        Boolean active = parse(record, "active", "Valor de active inválido (use true ou false)", value -> {
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException(value);
+            }
+            return Boolean.valueOf(value);
+        });
+        request.setActive(active == null ? Boolean.TRUE : active);
+
+        Category category = categories.resolve(
+                parse(record, "categoryId", "ID de categoria inválido", Long::valueOf), text(record, "category"));
+        request.setCategoryId(category == null ? null : category.getId());
+
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new BusinessException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        Product product = new Product();
+        product.setSku(request.getSku());
+        product.setName(request.getName());
+        product.setDescription(request.getDescription());
+        product.setPrice(request.getPrice());
+        product.setStockQuantity(request.getStockQuantity());
+        product.setImageUrl(request.getImageUrl());
+        product.setActive(request.getActive());
+        product.setCategory(category);
+        return product;
+    }
+
+    private static String text(ProductImportRecord record, String column) {
+        String value = record.get(column);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static <T> T parse(ProductImportRecord record, String column, String message,
+                               Function<String, T> parser) {
+        String value = text(record, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(message + ": " + value);
+        }
+    }
+
+    // RFC 4180, como na exportação de pedidos
+    private static void writeCsv(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String abbreviate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private ProductImportJobDTO convertToDTO(ProductImportJob job) {
+        return new ProductImportJobDTO(
+                job.getId(),
+                job.getFormat(),
+                job.getStatus(),
+                job.getRowsProcessed(),
+                job.getProductsCreated(),
+                job.getProductsUpdated(),
+                job.getRowsFailed(),
+                job.getErrorMessage(),
+                job.getStartedAt(),
+                job.getFinishedAt());
+    }
+
+    // Produtos criados e atualizados por uma gravação
+    private record BatchWrite(long created, long updated) {
+    }
+
+    // Categorias da importação, carregadas uma vez: por ID (categoryId) ou por nome (category,
+    // sem diferenciar maiúsculas)
+    private static class CategoryLookup {
+
+        private final Map<Long, Category> byId = new HashMap<>();
+        private final Map<String, Category> byName = new HashMap<>();
+
+        CategoryLookup(List<Category> categories) {
+            for (Category category : categories) {
+                byId.put(category.getId(), category);
+                byName.put(category.getName().toLowerCase(Locale.ROOT), category);
+            }
+        }
+
+        // null quando o registro não informa categoria (a validação acusa "Categoria é obrigatória")
+        Category resolve(Long id, String name) {
+            if (id != null) {
+                Category category = byId.get(id);
+                if (category == null) {
+                    throw new BusinessException("Categoria não encontrada com ID: " + id);
+                }
+                return category;
+            }
+            if (name != null) {
+                Category category = byName.get(name.toLowerCase(Locale.ROOT));
+                if (category == null) {
+                    throw new BusinessException("Categoria não encontrada: " + name);
+                }
+                return category;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.hammer.ecommerce.service;
+
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@Slf4j
+public class ProductRatingReconciliationService {
+
+    private final ProductRepository productRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ProductRatingReconciliationService(
+            ProductRepository productRepository,
+            ProductCatalogCache productCatalogCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${catalog.rating-reconciliation.chunk-size:5000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // Recalcula ratingSum/ratingCount a partir da tabela reviews, em faixas de IDs
+    // (uma transação curta por faixa para não segurar lock na tabela inteira)
+    @Scheduled(cron = "${catalog.rating-reconciliation.cron:0 0 3 * * *}")
+    public int reconcileAll() {
+        Long maxId = productRepository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+
+        int fixed = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += chunkSize) {
+            long from = fromId;
+            long to = fromId + chunkSize - 1;
+            Integer updated = transactionTemplate.execute(status ->
+                    productRepository.reconcileProductRatings(from, to));
+            fixed += updated != null ? updated : 0;
+        }
+
+        if (fixed > 0) {
+            log.warn("Agregados de avaliação corrigidos em {} produto(s)", fixed);
+            productCatalogCache.clear();
+        }
+
+        return fixed;
+    }
+}
@@ -1,23 +1,46 @@
 package com.hammer.ecommerce.service;
 
+import com.hammer.ecommerce.cache.ProductCatalogCache;
 import com.hammer.ecommerce.dto.category.CategorySummaryDTO;
+import com.hammer.ecommerce.dto.pagination.CursorPageResponseDTO;
+import com.hammer.ecommerce.dto.pagination.SeekCursor;
+import com.hammer.ecommerce.dto.product.ProductListingDTO;
 import com.hammer.ecommerce.dto.product.ProductRequestDTO;
 import com.hammer.ecommerce.dto.product.ProductResponseDTO;
 import com.hammer.ecommerce.dto.product.ProductUpdateDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.exceptions.InsufficientStockException;
 import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
 import com.hammer.ecommerce.model.Category;
 import com.hammer.ecommerce.model.Product;
-import com.hammer.ecommerce.model.Review;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
 import com.hammer.ecommerce.repositories.CategoryRepository;
 import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.search.ProductSearchEngine;
+import com.hammer.ecommerce.search.ProductSearchFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,11 +48,26 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchEngine productSearchEngine;
+    private final OutboxPublisher outboxPublisher;
+    private final MeterRegistry meterRegistry;
+
+    // Tempo das listagens (com cache) por combinação de filtros usados, não pelos valores:
+    // filters = none, category, search, price ou combinações como category+price (8 no máximo)
+    public static final String LISTING_LATENCY_METRIC = "catalog.listing.latency";
+
+    // Limites usados como posição inicial quando não há cursor
+    private static final BigDecimal MIN_PRICE_SENTINEL = new BigDecimal("-1");
+    private static final BigDecimal MAX_PRICE_SENTINEL = new BigDecimal("1E12");
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
 
     @Transactional(readOnly = true)
     public Page<ProductResponseDTO> findAll(Pageable pageable) {
-        return productRepository.findByActiveTrue(pageable)
-                .map(this::convertToDTO);
+        String key = ProductCatalogCache.pageKey(null, null, null, null, pageable);
+        return timedListing("offset", null, null, null, null, () ->
+                productCatalogCache.getPage(key, () -> productRepository.findActiveListing(withoutRelevanceSort(pageable))
+                        .map(this::convertToDTO)));
     }
 
     @Transactional(readOnly = true)
@@ -40,15 +78,84 @@ public class ProductService {
             BigDecimal maxPrice,
             Pageable pageable) {
 
-        return productRepository.findWithFilters(categoryId, search, minPrice, maxPrice, pageable)
-                .map(this::convertToDTO);
+        String key = ProductCatalogCache.pageKey(categoryId, search, minPrice, maxPrice, pageable);
+        return timedListing("offset", categoryId, search, minPrice, maxPrice, () -> productCatalogCache.getPage(key, () -> {
+            if (search == null || search.isBlank()) {
+                return productRepository.findWithFilters(categoryId, minPrice, maxPrice, withoutRelevanceSort(pageable))
+                        .map(this::convertToDTO);
+            }
+            return searchWithFilters(categoryId, search, minPrice, maxPrice, pageable)
+                    .map(this::convertToDTO);
+        }));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<ProductResponseDTO> findWithCursor(
+            Long categoryId,
+            String search,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String sortBy,
+            Sort.Direction direction,
+            String cursor,
+            int size) {
+
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException("Tamanho da página deve estar entre 1 e " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        return timedListing("cursor", categoryId, search, minPrice, maxPrice, () ->
+                seek(categoryId, search, minPrice, maxPrice, sortBy, direction, cursor, size));
+    }
+
+    private CursorPageResponseDTO<ProductResponseDTO> seek(
+            Long categoryId,
+            String search,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String sortBy,
+            Sort.Direction direction,
+            String cursor,
+            int size) {
+
+        SeekCursor position = cursor != null ? SeekCursor.decode(cursor, sortBy, direction) : null;
+        boolean ascending = direction == Sort.Direction.ASC;
+
+        // Busca uma linha a mais para saber se existe próxima página
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<Product> rows;
+
+        switch (sortBy) {
+            case "id" -> {
+                Long lastId = position != null ? position.getId() : (ascending ? 0L : Long.MAX_VALUE);
+                rows = ascending
+                        ? productRepository.seekByIdAsc(categoryId, search, minPrice, maxPrice, lastId, limit)
+                        : productRepository.seekByIdDesc(categoryId, search, minPrice, maxPrice, lastId, limit);
+                return CursorPageResponseDTO.of(rows, size, this::convertToDTO,
+                        p -> new SeekCursor(sortBy, direction, p.getId().toString(), p.getId()));
+            }
+            case "price" -> {
+                BigDecimal lastPrice = position != null
+                        ? parsePrice(position.getSortKey())
+                        : (ascending ? MIN_PRICE_SENTINEL : MAX_PRICE_SENTINEL);
+                Long lastId = position != null ? position.getId() : (ascending ? 0L : Long.MAX_VALUE);
+                rows = ascending
+                        ? productRepository.seekByPriceAsc(categoryId, search, minPrice, maxPrice, lastPrice, lastId, limit)
+                        : productRepository.seekByPriceDesc(categoryId, search, minPrice, maxPrice, lastPrice, lastId, limit);
+                return CursorPageResponseDTO.of(rows, size, this::convertToDTO,
+                        p -> new SeekCursor(sortBy, direction, p.getPrice().toPlainString(), p.getId()));
+            }
+            default -> throw new BusinessException("Ordenação por cursor suporta apenas os campos: id, price");
+        }
     }
 
     @Transactional(readOnly = true)
     public ProductResponseDTO findById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com ID: " + id));
-        return convertToDTO(product);
+        return productCatalogCache.getById(id, () -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com ID: " + id));
+            return convertToDTO(product);
+        });
     }
 
     @Transactional
@@ -75,6 +182,7 @@ public class ProductService {
         product.setCategory(category);
 
         product = productRepository.save(product);
+        productCatalogCache.evictProductAndListings(null);
         return convertToDTO(product);
     }
 
@@ -97,6 +205,7 @@ public class ProductService {
         product.setCategory(category);
 
         product = productRepository.save(product);
+        productCatalogCache.evictProductAndListings(product.getId());
         return convertToDTO(product);
     }
 
@@ -108,6 +217,7 @@ public class ProductService {
         // Soft delete - apenas marca como inativo
         product.setActive(false);
         productRepository.save(product);
+        productCatalogCache.evictProductAndListings(id);
     }
 
     @Transactional
@@ -116,11 +226,45 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com ID: " + id));
 
         if (product.getStockQuantity() + quantity < 0) {
-            throw new BusinessException("Estoque insuficiente");
+            throw new InsufficientStockException("Estoque insuficiente");
         }
 
         product.setStockQuantity(product.getStockQuantity() + quantity);
         productRepository.save(product);
+        productCatalogCache.evictStock(List.of(id));
+        outboxPublisher.publishStockChanges(Map.of(id, quantity), null);
+    }
+
+    private <T> T timedListing(String pagination, Long categoryId, String search,
+                               BigDecimal minPrice, BigDecimal maxPrice, Supplier<T> listing) {
+        long start = System.nanoTime();
+        try {
+            return listing.get();
+        } finally {
+            Timer.builder(LISTING_LATENCY_METRIC)
+                    .description("Tempo das listagens de produtos por combinação de filtros")
+                    .tag("filters", filterCombination(categoryId, search, minPrice, maxPrice))
+                    .tag("pagination", pagination)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String filterCombination(Long categoryId, String search, BigDecimal minPrice, BigDecimal maxPrice) {
+        StringJoiner filters = new StringJoiner("+").setEmptyValue("none");
+        if (categoryId != null) {
+            filters.add("category");
+        }
+        if (search != null && !search.isBlank()) {
+            filters.add("search");
+        }
+        if (minPrice != null || maxPrice != null) {
+            filters.add("price");
+        }
+        return filters.toString();
     }
 
     private ProductResponseDTO convertToDTO(Product product) {
@@ -142,21 +286,92 @@ public class ProductService {
         categoryDTO.setName(product.getCategory().getName());
         dto.setCategory(categoryDTO);
 
-        // Reviews
-        dto.setReviewCount(product.getReviews().size());
-        dto.setAverageRating(calculateAverageRating(product));
+        // Reviews (colunas agregadas, sem carregar a coleção)
+        dto.setReviewCount(product.getRatingCount());
+        dto.setAverageRating(product.getAverageRating());
 
         return dto;
     }
 
-    private Double calculateAverageRating(Product product) {
-        if (product.getReviews().isEmpty()) {
-            return 0.0;
+    // Texto e filtros resolvidos pelo motor de busca (o limite de resultados vale depois dos filtros);
+    // o banco confere os filtros de novo sobre os IDs, pois o índice em memória pode estar atrasado
+    private Page<ProductListingDTO> searchWithFilters(
+            Long categoryId,
+            String search,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Pageable pageable) {
+
+        List<Long> rankedIds = productSearchEngine.search(search, new ProductSearchFilter(categoryId, minPrice, maxPrice));
+        if (rankedIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        if (pageable.getSort().getOrderFor(ProductSearchEngine.RELEVANCE) == null) {
+            return productRepository.findWithFiltersByIdIn(rankedIds, categoryId, minPrice, maxPrice, pageable);
+        }
+
+        // Ordem por relevância: mantém a ordem do motor e carrega só os produtos da página
+        Set<Long> filtered = new HashSet<>(productRepository.findIdsWithFilters(rankedIds, categoryId, minPrice, maxPrice));
+        List<Long> orderedIds = rankedIds.stream().filter(filtered::contains).toList();
+
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), orderedIds.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), orderedIds.size()) : orderedIds.size();
+        List<Long> pageIds = orderedIds.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, orderedIds.size());
+        }
+
+        Map<Long, ProductListingDTO> productsById = productRepository.findListingByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(ProductListingDTO::getId, Function.identity()));
+        List<ProductListingDTO> content = pageIds.stream().map(productsById::get).filter(Objects::nonNull).toList();
+
+        return new PageImpl<>(content, pageable, orderedIds.size());
+    }
+
+    // "relevance" só existe com texto de busca; sem ele volta para a ordenação por ID
+    private Pageable withoutRelevanceSort(Pageable pageable) {
+        if (pageable.getSort().getOrderFor(ProductSearchEngine.RELEVANCE) == null) {
+            return pageable;
         }
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .filter(order -> !order.getProperty().equals(ProductSearchEngine.RELEVANCE))
+                .toList());
+        sort = sort.isSorted() ? sort : Sort.by("id");
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort) : Pageable.unpaged(sort);
+    }
+
+    // Mesmo DTO de convertToDTO, montado a partir da projeção (sem tocar em entidades/proxies)
+    private ProductResponseDTO convertToDTO(ProductListingDTO listing) {
+        ProductResponseDTO dto = new ProductResponseDTO();
+        dto.setId(listing.getId());
+        dto.setName(listing.getName());
+        dto.setDescription(listing.getDescription());
+        dto.setPrice(listing.getPrice());
+        dto.setStockQuantity(listing.getStockQuantity());
+        dto.setImageUrl(listing.getImageUrl());
+        dto.setSku(listing.getSku());
+        dto.setActive(listing.getActive());
+        dto.setCreatedAt(listing.getCreatedAt());
+        dto.setUpdatedAt(listing.getUpdatedAt());
 
-        return product.getReviews().stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        CategorySummaryDTO categoryDTO = new CategorySummaryDTO();
+        categoryDTO.setId(listing.getCategoryId());
+        categoryDTO.setName(listing.getCategoryName());
+        dto.setCategory(categoryDTO);
+
+        int ratingCount = listing.getRatingCount() != null ? listing.getRatingCount() : 0;
+        dto.setReviewCount(ratingCount);
+        dto.setAverageRating(ratingCount == 0 ? 0.0 : (double) listing.getRatingSum() / ratingCount);
+
+        return dto;
+    }
+
+    private BigDecimal parsePrice(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Cursor inválido");
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.hammer.ecommerce.service;
 
+import com.hammer.ecommerce.cache.ProductCatalogCache;
 import com.hammer.ecommerce.dto.review.CreateReviewRequestDTO;
 import com.hammer.ecommerce.dto.product.ProductRatingDTO;
 import com.hammer.ecommerce.dto.review.ReviewResponseDTO;
@@ -20,6 +21,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 public class ReviewService {
@@ -28,6 +32,11 @@ public class ReviewService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
+    private final ProductCatalogCache productCatalogCache;
+
+    // Pedidos que contam como compra para poder avaliar o produto
+    private static final Set<OrderStatus> PURCHASED_STATUSES =
+            EnumSet.of(OrderStatus.PAID, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
 
     @Transactional
     public ReviewResponseDTO createReview(Long productId, Long userId, CreateReviewRequestDTO request) {
@@ -58,7 +67,9 @@ public class ReviewService {
         review.setRating(request.getRating());
         review.setComment(request.getComment());
 
-        review = reviewRepository.save(review);
+        review = reviewRepository.saveAndFlush(review);
+        productRepository.adjustRating(productId, request.getRating(), 1);
+        productCatalogCache.evictProduct(productId);
         return convertToDTO(review);
     }
 
@@ -93,33 +104,35 @@ public class ReviewService {
         Review review = reviewRepository.findByProductIdAndUserId(productId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Avaliação não encontrada"));
 
+        int ratingDelta = request.getRating() - review.getRating();
+
         review.setRating(request.getRating());
         review.setComment(request.getComment());
 
         review = reviewRepository.save(review);
+
+        if (ratingDelta != 0) {
+            productRepository.adjustRating(productId, ratingDelta, 0);
+            productCatalogCache.evictProduct(productId);
+        }
         return convertToDTO(review);
     }
 
     @Transactional
     public void deleteReview(Long productId, Long userId) {
-        if (!reviewRepository.existsByProductIdAndUserId(productId, userId)) {
-            throw new ResourceNotFoundException("Avaliação não encontrada");
-        }
+        Review review = reviewRepository.findByProductIdAndUserId(productId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Avaliação não encontrada"));
 
-        reviewRepository.deleteByProductIdAndUserId(productId, userId);
+        reviewRepository.delete(review);
+        productRepository.adjustRating(productId, -review.getRating(), -1);
+        productCatalogCache.evictProduct(productId);
     }
 
     // Método auxiliar para verificar se usuário comprou o produto
     private boolean hasUserPurchasedProduct(Long userId, Long productId) {
 
-        // Buscar pedidos do usuário com status DELIVERED ou PAID
-        return orderRepository.findByUserId(userId, Pageable.unpaged())
-                .stream()
-                .filter(order -> order.getStatus() == OrderStatus.DELIVERED ||
-                        order.getStatus() == OrderStatus.PAID ||
-                        order.getStatus() == OrderStatus.SHIPPED)
-                .flatMap(order -> order.getOrderItems().stream())
-                .anyMatch(item -> item.getProduct().getId().equals(productId));
+        // Pedido pago, enviado ou entregue com o produto, numa consulta só
+        return orderRepository.existsPurchase(userId, productId, PURCHASED_STATUSES);
     }
 
     private ReviewResponseDTO convertToDTO(Review review) {
@@ -0,0 +1,66 @@
+package com.hammer.ecommerce.sql;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Comandos SQL executados pela requisição em andamento, agrupados por formato: o mesmo comando
+// com outros parâmetros (ou outra quantidade de itens num IN) conta como repetição do anterior.
+// Fica numa ThreadLocal aberta pelo StatementBudgetFilter; fora de requisição (jobs, pipeline
+// de pagamentos) não há registro e nada é contado.
+public final class RequestStatements {
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int total;
+
+    private RequestStatements() {
+    }
+
+    static RequestStatements begin() {
+        RequestStatements statements = new RequestStatements();
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    void record(String sql) {
+        total++;
+        shapes.merge(shape(sql), 1, Integer::sum);
+    }
+
+    public int total() {
+        return total;
+    }
+
+    // Formatos executados pelo menos threshold vezes (suspeita de N+1), do mais repetido ao menos
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
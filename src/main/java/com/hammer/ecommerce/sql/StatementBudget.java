@@ -0,0 +1,17 @@
+package com.hammer.ecommerce.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Máximo de comandos SQL (gerados pelo Hibernate) que uma requisição ao endpoint pode executar.
+// Conferido pelo StatementBudgetFilter; sem a anotação vale sql.statements.default-budget
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    int value();
+}
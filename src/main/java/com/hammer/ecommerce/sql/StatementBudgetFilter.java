@@ -0,0 +1,117 @@
+package com.hammer.ecommerce.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    // Conta os comandos SQL de cada requisição (inclusive os da cadeia de segurança) e publica por
+    // endpoint: http.sql.statements{method, uri}, http.sql.repeated (requisições com o mesmo formato
+    // de comando repetido, o sintoma de N+1) e http.sql.budget.exceeded (acima do @StatementBudget).
+    // Com sql.statements.fail-on-budget-exceeded (perfil de teste) estourar o orçamento é erro.
+
+    public static final String STATEMENTS_METRIC = "http.sql.statements";
+    public static final String REPEATED_METRIC = "http.sql.repeated";
+    public static final String BUDGET_EXCEEDED_METRIC = "http.sql.budget.exceeded";
+
+    // Atributo da requisição com o RequestStatements dela, para os testes conferirem
+    public static final String STATEMENTS_ATTRIBUTE = RequestStatements.class.getName();
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final int repeatedThreshold;
+    private final boolean failOnBudgetExceeded;
+
+    public StatementBudgetFilter(
+            MeterRegistry meterRegistry,
+            @Value("${sql.statements.default-budget:30}") int defaultBudget,
+            @Value("${sql.statements.repeated-threshold:5}") int repeatedThreshold,
+            @Value("${sql.statements.fail-on-budget-exceeded:false}") boolean failOnBudgetExceeded) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.repeatedThreshold = repeatedThreshold;
+        this.failOnBudgetExceeded = failOnBudgetExceeded;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        RequestStatements statements = RequestStatements.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatements.end();
+        }
+
+        request.setAttribute(STATEMENTS_ATTRIBUTE, statements);
+        check(request, statements);
+    }
+
+    private void check(HttpServletRequest request, RequestStatements statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+        // Requisição que não chegou a um endpoint (recurso estático, 401 na segurança) e não tocou no banco
+        if (pattern == null && statements.total() == 0) {
+            return;
+        }
+
+        String method = request.getMethod();
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        int total = statements.total();
+
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .description("Comandos SQL executados por requisição")
+                .baseUnit("statements")
+                .tags("method", method, "uri", uri)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(200.0)
+                .register(meterRegistry)
+                .record(total);
+
+        Map<String, Integer> repeated = statements.repeated(repeatedThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter(REPEATED_METRIC, "method", method, "uri", uri).increment();
+            log.warn("Possível N+1 em {} {}: comandos repetidos {}", method, uri, repeated);
+        }
+
+        int budget = budget(request);
+        if (total > budget) {
+            meterRegistry.counter(BUDGET_EXCEEDED_METRIC, "method", method, "uri", uri).increment();
+            String message = "%s %s executou %d comandos SQL (orçamento: %d)".formatted(method, uri, total, budget);
+            if (failOnBudgetExceeded) {
+                throw new IllegalStateException(message + "; repetidos: " + statements.repeated(2));
+            }
+            log.warn(message);
+        }
+    }
+
+    private int budget(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            StatementBudget declared = handler.getMethodAnnotation(StatementBudget.class);
+            if (declared != null) {
+                return declared.value();
+            }
+        }
+        return defaultBudget;
+    }
+}
@@ -0,0 +1,17 @@
+package com.hammer.ecommerce.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registrado em hibernate.session_factory.statement_inspector: vê cada comando que o Hibernate
+// prepara (consultas, carga de coleções lazy, flush). Comandos do JdbcTemplate não passam aqui.
+public class StatementCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatements statements = RequestStatements.current();
+        if (statements != null) {
+            statements.record(sql);
+        }
+        return sql;
+    }
+}
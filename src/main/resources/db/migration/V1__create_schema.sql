@@ -0,0 +1,103 @@
+-- Esquema inicial, igual ao que o Hibernate gerava com ddl-auto antes das migrações.
+-- Bancos que já existiam são marcados nesta versão (spring.flyway.baseline-on-migrate)
+-- e seguem a partir da V2: toda mudança posterior de esquema vai numa migração nova.
+
+CREATE TABLE users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL,
+    email       VARCHAR(100) NOT NULL UNIQUE,
+    password    VARCHAR(255) NOT NULL,
+    cpf         VARCHAR(11) UNIQUE,
+    phone       VARCHAR(15),
+    role        VARCHAR(255) NOT NULL CHECK (role IN ('CUSTOMER', 'ADMIN')),
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL UNIQUE,
+    description VARCHAR(500)
+);
+
+CREATE TABLE products (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(200) NOT NULL,
+    description    VARCHAR(2000),
+    price          NUMERIC(10, 2) NOT NULL,
+    stock_quantity INTEGER NOT NULL,
+    image_url      VARCHAR(500),
+    sku            VARCHAR(50) UNIQUE,
+    active         BOOLEAN NOT NULL,
+    category_id    BIGINT NOT NULL REFERENCES categories (id),
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6)
+);
+
+CREATE TABLE addresses (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    street       VARCHAR(200) NOT NULL,
+    number       VARCHAR(20) NOT NULL,
+    complement   VARCHAR(100),
+    neighborhood VARCHAR(100) NOT NULL,
+    city         VARCHAR(100) NOT NULL,
+    state        VARCHAR(2) NOT NULL,
+    zip_code     VARCHAR(9) NOT NULL,
+    is_default   BOOLEAN NOT NULL,
+    user_id      BIGINT NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE carts (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT NOT NULL UNIQUE REFERENCES users (id),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE cart_items (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cart_id    BIGINT NOT NULL REFERENCES carts (id),
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    quantity   INTEGER NOT NULL
+);
+
+CREATE TABLE orders (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_number        VARCHAR(50) NOT NULL UNIQUE,
+    user_id             BIGINT NOT NULL REFERENCES users (id),
+    total_amount        NUMERIC(10, 2) NOT NULL,
+    status              VARCHAR(255) NOT NULL
+        CHECK (status IN ('PENDING', 'PAID', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    shipping_address_id BIGINT NOT NULL REFERENCES addresses (id),
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6)
+);
+
+CREATE TABLE order_items (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id   BIGINT NOT NULL REFERENCES orders (id),
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    quantity   INTEGER NOT NULL,
+    price      NUMERIC(10, 2) NOT NULL,
+    subtotal   NUMERIC(10, 2) NOT NULL
+);
+
+CREATE TABLE payments (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id       BIGINT NOT NULL UNIQUE REFERENCES orders (id),
+    payment_method VARCHAR(255) NOT NULL CHECK (payment_method IN ('CREDIT_CARD', 'DEBIT_CARD', 'PIX', 'BOLETO')),
+    status         VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED', 'REFUNDED')),
+    transaction_id VARCHAR(100) UNIQUE,
+    paid_at        TIMESTAMP(6),
+    created_at     TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE reviews (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    user_id    BIGINT NOT NULL REFERENCES users (id),
+    rating     INTEGER NOT NULL,
+    comment    VARCHAR(1000),
+    created_at TIMESTAMP(6) NOT NULL,
+    UNIQUE (product_id, user_id)
+);
@@ -0,0 +1,14 @@
+-- Sequences dos IDs gerados pelo Hibernate com pooled-lo (blocos de 50).
+-- Na V1 (e nos bancos criados pelo ddl-auto) essas colunas são IDENTITY: a identity é
+-- removida e cada sequence começa depois do maior ID existente.
+
+DO $$
+DECLARE
+    t TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['addresses', 'cart_items', 'orders', 'order_items', 'payments', 'reviews'] LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', t || '_seq');
+        EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 1, false)', t || '_seq', t);
+    END LOOP;
+END $$;
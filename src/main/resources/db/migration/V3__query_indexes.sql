@@ -0,0 +1,35 @@
+-- Índices para as consultas dos repositórios. O PostgreSQL não indexa chaves estrangeiras
+-- sozinho; sem eles cada listagem por usuário, produto ou carrinho lia a tabela inteira.
+
+-- OrderRepository: "meus pedidos" (findByUserId / findByUserIdAndStatus, mais recentes primeiro)
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at DESC, id DESC);
+-- Listagem administrativa: findAll por createdAt e paginação por cursor (seekByCreatedAtDesc)
+CREATE INDEX idx_orders_created ON orders (created_at DESC, id DESC);
+CREATE INDEX idx_orders_shipping_address ON orders (shipping_address_id);
+
+-- findByIdWithItems / findByOrderId
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+CREATE INDEX idx_order_items_product ON order_items (product_id);
+
+-- ProductRepository: vitrine só lista produtos ativos (índices parciais)
+-- filtro por categoria ordenado por ID e verificação de categoria com produtos
+CREATE INDEX idx_products_category ON products (category_id, id);
+-- filtro por categoria + faixa de preço e cursor por preço dentro da categoria
+CREATE INDEX idx_products_active_category_price ON products (category_id, price, id) WHERE active;
+-- faixa de preço / cursor por preço sem categoria
+CREATE INDEX idx_products_active_price ON products (price, id) WHERE active;
+
+-- CartItemRepository.findByCartIdAndProductId e CartRepository.findByUserIdWithItems
+CREATE INDEX idx_cart_items_cart_product ON cart_items (cart_id, product_id);
+CREATE INDEX idx_cart_items_product ON cart_items (product_id);
+
+-- ReviewRepository.findByProductId (mais recentes primeiro); rating incluído para a média
+-- por produto sair só do índice. (product_id, user_id) já tem a constraint UNIQUE.
+CREATE INDEX idx_reviews_product_created ON reviews (product_id, created_at DESC) INCLUDE (rating);
+CREATE INDEX idx_reviews_user ON reviews (user_id);
+
+-- AddressRepository: findByUserId, findByUserIdAndIsDefaultTrue, findByIdAndUserId
+CREATE INDEX idx_addresses_user_default ON addresses (user_id, is_default);
+
+-- PaymentRepository.findByStatusCreatedBefore: só os pagamentos pendentes interessam ao job
+CREATE INDEX idx_payments_pending_created ON payments (created_at) WHERE status = 'PENDING';
@@ -0,0 +1,18 @@
+-- Reservas de estoque do checkout (ReservationLedger). A tabela só serve para recuperar
+-- as reservas em memória depois de um restart; apagar usuário ou produto apaga as reservas.
+
+CREATE SEQUENCE stock_reservations_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE stock_reservations (
+    id         BIGINT NOT NULL PRIMARY KEY,
+    user_id    BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    product_id BIGINT NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    quantity   INTEGER NOT NULL CHECK (quantity > 0),
+    expires_at TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    UNIQUE (user_id, product_id)
+);
+
+-- Recuperação na subida (expires_at > agora) e limpeza das vencidas
+CREATE INDEX idx_stock_reservations_expires ON stock_reservations (expires_at);
+CREATE INDEX idx_stock_reservations_product ON stock_reservations (product_id);
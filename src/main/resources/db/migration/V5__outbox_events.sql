@@ -0,0 +1,13 @@
+-- Outbox de eventos de domínio (pedido, pagamento, estoque). Gravado na mesma transação da
+-- mudança de estado; o OutboxRelay entrega em ordem de ID e apaga as linhas entregues.
+
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE outbox_events (
+    id             BIGINT NOT NULL PRIMARY KEY,
+    aggregate_type VARCHAR(30) NOT NULL,
+    aggregate_id   BIGINT NOT NULL,
+    event_type     VARCHAR(40) NOT NULL,
+    payload        VARCHAR(4000) NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,19 @@
+-- Importações de produtos em lote (POST /api/products/import). rows_processed é o
+-- checkpoint: gravado junto com cada lote, permite retomar o mesmo arquivo.
+
+CREATE SEQUENCE product_import_jobs_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE product_import_jobs (
+    id               BIGINT NOT NULL PRIMARY KEY,
+    format           VARCHAR(10) NOT NULL,
+    status           VARCHAR(20) NOT NULL,
+    rows_processed   BIGINT NOT NULL,
+    products_created BIGINT NOT NULL,
+    products_updated BIGINT NOT NULL,
+    rows_failed      BIGINT NOT NULL,
+    result_file      VARCHAR(500) NOT NULL,
+    error_message    VARCHAR(500),
+    started_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6),
+    finished_at      TIMESTAMP(6)
+);
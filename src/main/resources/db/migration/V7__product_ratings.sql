@@ -0,0 +1,14 @@
+-- Agregados de avaliação no produto (média = rating_sum / rating_count), mantidos pelo
+-- ReviewService a cada avaliação. Bancos em que o ddl-auto já criou as colunas só recebem
+-- o recálculo a partir das avaliações existentes.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_sum BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE products p
+SET rating_sum   = r.rating_sum,
+    rating_count = r.rating_count
+FROM (SELECT product_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count
+      FROM reviews
+      GROUP BY product_id) r
+WHERE r.product_id = p.id;
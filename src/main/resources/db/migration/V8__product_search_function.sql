@@ -0,0 +1,9 @@
+-- Busca full-text de produtos (PostgresProductSearchEngine): sem acento em nome e descrição.
+-- A extensão exige permissão de criação no banco; sem ela a migração falha em vez de a busca
+-- rodar sem índice.
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() não é IMMUTABLE; o wrapper permite usá-la na expressão do índice
+CREATE OR REPLACE FUNCTION product_search_unaccent(text) RETURNS text AS
+$$ SELECT public.unaccent('public.unaccent', $1) $$
+LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;
@@ -0,0 +1,12 @@
+-- Índice GIN da busca full-text. A expressão tem que ser a mesma de
+-- PostgresProductSearchEngine.DOCUMENT, senão o planner não usa o índice.
+-- CONCURRENTLY não bloqueia escritas em products durante a criação e não roda dentro de
+-- transação (executeInTransaction=false no .conf). Um build interrompido deixa o índice
+-- INVALID: o DROP antes garante que a nova tentativa o recrie. Bancos em que a aplicação
+-- já tinha criado o índice na subida também passam por essa recriação.
+DROP INDEX CONCURRENTLY IF EXISTS idx_products_search;
+
+CREATE INDEX CONCURRENTLY idx_products_search ON products USING GIN (
+    (setweight(to_tsvector('simple', product_search_unaccent(coalesce(name, ''))), 'A') ||
+     setweight(to_tsvector('simple', product_search_unaccent(coalesce(description, ''))), 'B'))
+);
@@ -1,5 +1,6 @@
 package com.hammer.ecommerce;
 
+import com.hammer.ecommerce.config.AddressMapper;
 import com.hammer.ecommerce.dto.address.AddressRequestDTO;
 import com.hammer.ecommerce.dto.address.AddressResponseDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
@@ -15,8 +16,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 
 import java.util.Arrays;
 import java.util.List;
@@ -35,8 +36,8 @@ class AddressServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private AddressMapper addressMapper = new AddressMapper();
 
     @InjectMocks
     private AddressService addressService;
@@ -44,7 +45,6 @@ class AddressServiceTest {
     private User user;
     private Address address;
     private AddressRequestDTO addressRequest;
-    private AddressResponseDTO addressResponse;
 
     @BeforeEach
     void setUp() {
@@ -75,12 +75,6 @@ class AddressServiceTest {
         addressRequest.setState("SP");
         addressRequest.setZipCode("01234567");
         addressRequest.setIsDefault(true);
-
-        addressResponse = new AddressResponseDTO();
-        addressResponse.setId(1L);
-        addressResponse.setStreet("Rua das Flores");
-        addressResponse.setNumber("123");
-        addressResponse.setIsDefault(true);
     }
 
     @Test
@@ -90,7 +84,6 @@ class AddressServiceTest {
         // Arrange
         List<Address> addresses = Arrays.asList(address);
         when(addressRepository.findByUserId(1L)).thenReturn(addresses);
-        when(modelMapper.map(address, AddressResponseDTO.class)).thenReturn(addressResponse);
 
         // Act
         List<AddressResponseDTO> result = addressService.findAllByUser(1L);
@@ -108,7 +101,6 @@ class AddressServiceTest {
 
         // Arrange
         when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
-        when(modelMapper.map(address, AddressResponseDTO.class)).thenReturn(addressResponse);
 
         // Act
         AddressResponseDTO result = addressService.findById(1L, 1L);
@@ -141,7 +133,6 @@ class AddressServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(addressRepository.findByUserId(1L)).thenReturn(Arrays.asList());
         when(addressRepository.save(any(Address.class))).thenReturn(address);
-        when(modelMapper.map(address, AddressResponseDTO.class)).thenReturn(addressResponse);
 
         // Act
         AddressResponseDTO result = addressService.create(addressRequest, 1L);
@@ -162,7 +153,6 @@ class AddressServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(addressRepository.findByUserId(1L)).thenReturn(Arrays.asList());
         when(addressRepository.save(any(Address.class))).thenReturn(address);
-        when(modelMapper.map(address, AddressResponseDTO.class)).thenReturn(addressResponse);
 
         // Act
         AddressResponseDTO result = addressService.create(addressRequest, 1L);
@@ -186,7 +176,6 @@ class AddressServiceTest {
         when(addressRepository.findByUserId(1L)).thenReturn(Arrays.asList(oldDefault));
         when(addressRepository.findByUserIdAndIsDefaultTrue(1L)).thenReturn(Optional.of(oldDefault));
         when(addressRepository.save(any(Address.class))).thenReturn(address);
-        when(modelMapper.map(address, AddressResponseDTO.class)).thenReturn(addressResponse);
 
         // Act
         AddressResponseDTO result = addressService.create(addressRequest, 1L);
@@ -219,7 +208,6 @@ class AddressServiceTest {
         // Arrange
         when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
         when(addressRepository.save(any(Address.class))).thenReturn(address);
-        when(modelMapper.map(address, AddressResponseDTO.class)).thenReturn(addressResponse);
 
         // Act
         AddressResponseDTO result = addressService.update(1L, addressRequest, 1L);
@@ -243,7 +231,6 @@ class AddressServiceTest {
             assertEquals("01234-567", saved.getZipCode());
             return saved;
         });
-        when(modelMapper.map(any(Address.class), eq(AddressResponseDTO.class))).thenReturn(addressResponse);
 
         // Act
         AddressResponseDTO result = addressService.create(addressRequest, 1L);
@@ -320,7 +307,6 @@ class AddressServiceTest {
         when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
         when(addressRepository.findByUserIdAndIsDefaultTrue(1L)).thenReturn(Optional.of(oldDefault));
         when(addressRepository.save(any(Address.class))).thenReturn(address);
-        when(modelMapper.map(address, AddressResponseDTO.class)).thenReturn(addressResponse);
 
         // Act
         AddressResponseDTO result = addressService.setAsDefault(1L, 1L);
@@ -83,7 +83,7 @@ class AuthServiceTest {
         when(userRepository.existsByCpf(registerRequest.getCpf())).thenReturn(false);
         when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("$2a$10$encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
-        when(jwtUtil.generateToken(user.getEmail(), user.getRole().name())).thenReturn("mock-jwt-token");
+        when(jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name())).thenReturn("mock-jwt-token");
 
         // Act
         AuthResponseDTO response = authService.register(registerRequest);
@@ -98,7 +98,7 @@ class AuthServiceTest {
         verify(userRepository, times(1)).existsByCpf(registerRequest.getCpf());
         verify(passwordEncoder, times(1)).encode(registerRequest.getPassword());
         verify(userRepository, times(1)).save(any(User.class));
-        verify(jwtUtil, times(1)).generateToken(user.getEmail(), user.getRole().name());
+        verify(jwtUtil, times(1)).generateToken(user.getId(), user.getEmail(), user.getRole().name());
     }
 
     @Test
@@ -147,7 +147,7 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(user));
-        when(jwtUtil.generateToken(user.getEmail(), user.getRole().name())).thenReturn("mock-jwt-token");
+        when(jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name())).thenReturn("mock-jwt-token");
 
         // Act
         AuthResponseDTO response = authService.login(loginRequest);
@@ -160,7 +160,7 @@ class AuthServiceTest {
         assertEquals("CUSTOMER", response.getRole());
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository, times(1)).findByEmail(loginRequest.getEmail());
-        verify(jwtUtil, times(1)).generateToken(user.getEmail(), user.getRole().name());
+        verify(jwtUtil, times(1)).generateToken(user.getId(), user.getEmail(), user.getRole().name());
     }
 
     @Test
@@ -0,0 +1,217 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.dto.order.BulkOrderItemDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderResponseDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderSpecDTO;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
+import com.hammer.ecommerce.repositories.AddressRepository;
+import com.hammer.ecommerce.repositories.OrderRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.service.BulkOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkOrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @InjectMocks
+    private BulkOrderService bulkOrderService;
+
+    private Product mouse;
+    private Product keyboard;
+
+    @BeforeEach
+    void setUp() {
+
+        User user = new User();
+        user.setId(1L);
+
+        Address address = new Address();
+        address.setId(10L);
+        address.setUser(user);
+
+        mouse = product(1L, "Mouse Gamer", "150.00", 10);
+        keyboard = product(2L, "Teclado Mecânico", "350.00", 5);
+
+        lenient().when(productRepository.findAllById(any())).thenReturn(List.of(mouse, keyboard));
+        lenient().when(addressRepository.findAllById(any())).thenReturn(List.of(address));
+        lenient().when(productRepository.decrementStock(any())).thenReturn(List.of());
+
+        // Simula os IDs gerados pelo INSERT em batch
+        lenient().doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setId(100L + i);
+                orders.get(i).generateOrderNumber();
+            }
+            return null;
+        }).when(orderRepository).insertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Deve criar todos os pedidos do lote com um único débito de estoque")
+    void testCreateOrders_Success() {
+
+        // Arrange
+        BulkOrderRequestDTO request = new BulkOrderRequestDTO(List.of(
+                spec("A", 1L, 10L, item(2L, 1), item(1L, 2)),
+                spec("B", 1L, 10L, item(1L, 3))
+        ));
+
+        // Act
+        BulkOrderResponseDTO response = bulkOrderService.createOrders(request);
+
+        // Assert
+        assertEquals(2, response.getCreated());
+        assertEquals(0, response.getFailed());
+        assertEquals(new BigDecimal("650.00"), response.getResults().get(0).getTotalAmount());
+        assertEquals(101L, response.getResults().get(1).getOrderId());
+
+        ArgumentCaptor<SortedMap<Long, Integer>> debits = ArgumentCaptor.forClass(SortedMap.class);
+        verify(productRepository, times(1)).decrementStock(debits.capture());
+        assertEquals(Map.of(1L, 5, 2L, 1), debits.getValue());
+        verify(orderRepository, times(1)).insertAll(anyList());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("Deve reportar falha por pedido sem derrubar o lote")
+    void testCreateOrders_PartialFailure() {
+
+        // Arrange: o segundo pedido esgotaria o estoque já reservado pelo primeiro
+        keyboard.setActive(false);
+        BulkOrderRequestDTO request = new BulkOrderRequestDTO(List.of(
+                spec("A", 1L, 10L, item(1L, 8)),
+                spec("B", 1L, 10L, item(1L, 3)),
+                spec("C", 2L, 10L, item(1L, 1)),
+                spec("D", 1L, 10L, item(2L, 1)),
+                spec("E", 1L, 10L, item(99L, 1)),
+                spec("F", 1L, 10L)
+        ));
+
+        // Act
+        BulkOrderResponseDTO response = bulkOrderService.createOrders(request);
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals(5, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertEquals("Estoque insuficiente para o produto: Mouse Gamer. Disponível: 2",
+                response.getResults().get(1).getError());
+        assertEquals("Endereço de entrega não encontrado", response.getResults().get(2).getError());
+        assertEquals("Produto Teclado Mecânico não está mais disponível", response.getResults().get(3).getError());
+        assertEquals("Produto não encontrado com ID: 99", response.getResults().get(4).getError());
+        assertEquals("Pedido sem itens", response.getResults().get(5).getError());
+        assertEquals("F", response.getResults().get(5).getReference());
+    }
+
+    @Test
+    @DisplayName("Deve devolver o estoque dos pedidos cujo produto foi esgotado por outra transação")
+    void testCreateOrders_ConcurrentStockExhausted() {
+
+        // Arrange: o UPDATE condicional do teclado não afeta nenhuma linha e o saldo acabou
+        when(productRepository.decrementStock(any())).thenReturn(List.of(2L));
+        when(productRepository.lockStockQuantities(List.of(2L))).thenReturn(Map.of(2L, 0));
+        BulkOrderRequestDTO request = new BulkOrderRequestDTO(List.of(
+                spec("A", 1L, 10L, item(1L, 2), item(2L, 1)),
+                spec("B", 1L, 10L, item(1L, 1))
+        ));
+
+        // Act
+        BulkOrderResponseDTO response = bulkOrderService.createOrders(request);
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals("Estoque insuficiente para o produto: Teclado Mecânico",
+                response.getResults().get(0).getError());
+        assertTrue(response.getResults().get(1).isSuccess());
+
+        SortedMap<Long, Integer> credits = new TreeMap<>(Map.of(1L, 2));
+        verify(productRepository, times(1)).incrementStock(credits);
+
+        ArgumentCaptor<List<Order>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository).insertAll(inserted.capture());
+        assertEquals(1, inserted.getValue().size());
+    }
+
+    @Test
+    @DisplayName("Deve distribuir o saldo restante na ordem do lote e recusar só o pedido que não cabe")
+    void testCreateOrders_AllocatesRemainingStockInOrder() {
+
+        // Arrange: lidos 5 teclados, mas outra transação vendeu 2; A pede 2 e B pede 3
+        when(productRepository.decrementStock(any())).thenReturn(List.of(2L), List.of());
+        when(productRepository.lockStockQuantities(List.of(2L))).thenReturn(Map.of(2L, 3));
+        BulkOrderRequestDTO request = new BulkOrderRequestDTO(List.of(
+                spec("A", 1L, 10L, item(2L, 2)),
+                spec("B", 1L, 10L, item(2L, 2), item(1L, 1), item(2L, 1))
+        ));
+
+        // Act
+        BulkOrderResponseDTO response = bulkOrderService.createOrders(request);
+
+        // Assert: o primeiro leva o saldo; o segundo falha e devolve o mouse já debitado
+        assertEquals(1, response.getCreated());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertEquals("Estoque insuficiente para o produto: Teclado Mecânico",
+                response.getResults().get(1).getError());
+
+        ArgumentCaptor<SortedMap<Long, Integer>> debits = ArgumentCaptor.forClass(SortedMap.class);
+        verify(productRepository, times(2)).decrementStock(debits.capture());
+        assertEquals(Map.of(1L, 1, 2L, 5), debits.getAllValues().get(0));
+        assertEquals(Map.of(2L, 2), debits.getAllValues().get(1));
+        verify(productRepository, times(1)).incrementStock(new TreeMap<>(Map.of(1L, 1)));
+    }
+
+    private Product product(Long id, String name, String price, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(stock);
+        product.setActive(true);
+        return product;
+    }
+
+    private BulkOrderSpecDTO spec(String reference, Long userId, Long addressId, BulkOrderItemDTO... items) {
+        return new BulkOrderSpecDTO(reference, userId, addressId, List.of(items));
+    }
+
+    private BulkOrderItemDTO item(Long productId, int quantity) {
+        return new BulkOrderItemDTO(productId, quantity);
+    }
+}
@@ -1,5 +1,10 @@
 package com.hammer.ecommerce;
 
+import com.hammer.ecommerce.cart.CartDraft;
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import com.hammer.ecommerce.cart.CartStore;
+import com.hammer.ecommerce.cart.MemoryCartStore;
 import com.hammer.ecommerce.dto.cart.AddToCartRequestDTO;
 import com.hammer.ecommerce.dto.cart.CartResponseDTO;
 import com.hammer.ecommerce.dto.cart.UpdateCartItemRequestDTO;
@@ -8,57 +13,68 @@ import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
 import com.hammer.ecommerce.model.*;
 import com.hammer.ecommerce.repositories.*;
 import com.hammer.ecommerce.service.CartService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.transaction.PlatformTransactionManager;
+
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CartServiceTest {
 
     @Mock
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Mock
-    private CartItemRepository cartItemRepository;
+    private ProductRepository productRepository;
 
     @Mock
-    private ProductRepository productRepository;
+    private CartRepository cartRepository;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private CartService cartService;
 
-    private User user;
-    private Cart cart;
     private Product product;
-    private CartItem cartItem;
+    private CartSnapshot emptyCart;
+    private CartSnapshot cartWithItem;
     private AddToCartRequestDTO addToCartRequest;
     private UpdateCartItemRequestDTO updateCartItemRequest;
 
+    // Último estado publicado pelo store simulado
+    private CartSnapshot stored;
+
     @BeforeEach
     void setUp() {
 
-        user = new User();
-        user.setId(1L);
-        user.setName("João Silva");
-
-        cart = new Cart();
-        cart.setId(1L);
-        cart.setUser(user);
-
         Category category = new Category();
         category.setId(1L);
         category.setName("Eletrônicos");
@@ -71,11 +87,8 @@ class CartServiceTest {
         product.setActive(true);
         product.setCategory(category);
 
-        cartItem = new CartItem();
-        cartItem.setId(1L);
-        cartItem.setCart(cart);
-        cartItem.setProduct(product);
-        cartItem.setQuantity(2);
+        emptyCart = new CartSnapshot(1L, List.of(), LocalDateTime.now());
+        cartWithItem = new CartSnapshot(1L, List.of(new CartLine(1L, 1L, 2)), LocalDateTime.now());
 
         addToCartRequest = new AddToCartRequestDTO();
         addToCartRequest.setProductId(1L);
@@ -85,12 +98,27 @@ class CartServiceTest {
         updateCartItemRequest.setQuantity(3);
     }
 
+    // Faz o mock do store aplicar a alteração em um CartDraft de verdade
+    private void storeHolds(CartSnapshot cart) {
+        stored = cart;
+        AtomicLong ids = new AtomicLong(100);
+        lenient().when(cartStore.get(1L)).thenAnswer(invocation -> stored);
+        lenient().when(cartStore.update(eq(1L), any())).thenAnswer(invocation -> {
+            Consumer<CartDraft> change = invocation.getArgument(1);
+            CartDraft draft = new CartDraft(stored.getLines(), ids::getAndIncrement);
+            change.accept(draft);
+            stored = new CartSnapshot(stored.getCartId(), draft.getLines(), LocalDateTime.now());
+            return stored;
+        });
+    }
+
     @Test
     @DisplayName("Deve buscar carrinho existente")
     void testGetCart_ExistingCart() {
 
         // Arrange
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        storeHolds(cartWithItem);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
         // Act
         CartResponseDTO result = cartService.getCart(1L);
@@ -98,26 +126,27 @@ class CartServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1L, result.getId());
-        verify(cartRepository, times(1)).findByUserIdWithItems(1L);
+        assertEquals(1, result.getItems().size());
+        assertEquals(2, result.getTotalItems());
+        assertEquals(new BigDecimal("300.00"), result.getTotalAmount());
+        verify(cartStore, times(1)).get(1L);
     }
 
     @Test
-    @DisplayName("Deve criar carrinho se não existir")
-    void testGetCart_CreateNewCart() {
+    @DisplayName("Deve buscar carrinho vazio sem consultar produtos")
+    void testGetCart_EmptyCart() {
 
         // Arrange
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        storeHolds(emptyCart);
 
         // Act
         CartResponseDTO result = cartService.getCart(1L);
 
         // Assert
         assertNotNull(result);
-        verify(cartRepository, times(1)).findByUserIdWithItems(1L);
-        verify(userRepository, times(1)).findById(1L);
-        verify(cartRepository, times(1)).save(any(Cart.class));
+        assertTrue(result.getItems().isEmpty());
+        assertEquals(BigDecimal.ZERO, result.getTotalAmount());
+        verify(productRepository, never()).findAllById(anyList());
     }
 
     @Test
@@ -125,20 +154,21 @@ class CartServiceTest {
     void testAddToCart_Success() {
 
         // Arrange
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        storeHolds(emptyCart);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
         // Act
         CartResponseDTO result = cartService.addToCart(1L, addToCartRequest);
 
         // Assert
         assertNotNull(result);
-        verify(productRepository, times(1)).findById(1L);
-        verify(cartItemRepository, times(1)).save(any(CartItem.class));
-        verify(cartRepository, times(1)).save(any(Cart.class));
+        assertEquals(1, result.getItems().size());
+        assertEquals(2, result.getItems().get(0).getQuantity());
+        verify(productRepository, times(1)).findAllById(List.of(1L));
+        verify(cartStore, times(1)).update(eq(1L), any());
+        assertEquals(1, meterRegistry.get(CartService.MUTATIONS_METRIC)
+                .tags("operation", "add", "outcome", "success").counter().count());
+        assertEquals(1, meterRegistry.get(CartService.SIZE_METRIC).summary().totalAmount());
     }
 
     @Test
@@ -146,20 +176,17 @@ class CartServiceTest {
     void testAddToCart_IncrementExisting() {
 
         // Arrange
-        cart.getItems().add(cartItem);
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.of(cartItem));
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        storeHolds(cartWithItem);
+        when(productRepository.findAllById(List.of(1L, 1L))).thenReturn(List.of(product));
 
         // Act
         CartResponseDTO result = cartService.addToCart(1L, addToCartRequest);
 
         // Assert
         assertNotNull(result);
-        assertEquals(4, cartItem.getQuantity());
-        verify(cartItemRepository, times(1)).save(cartItem);
+        assertEquals(1, stored.getLines().size());
+        assertEquals(4, stored.getLines().get(0).getQuantity());
+        assertEquals(1L, stored.getLines().get(0).getItemId());
     }
 
     @Test
@@ -168,8 +195,8 @@ class CartServiceTest {
 
         // Arrange
         product.setActive(false);
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        storeHolds(emptyCart);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -177,7 +204,7 @@ class CartServiceTest {
         });
 
         assertEquals("Produto não está disponível", exception.getMessage());
-        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(cartStore, never()).update(any(), any());
     }
 
     @Test
@@ -186,12 +213,28 @@ class CartServiceTest {
 
         // Arrange
         addToCartRequest.setQuantity(25);
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        storeHolds(emptyCart);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
-        // Stub leniente — não gera UnnecessaryStubbingException mesmo se não for usado
-        lenient().when(cartItemRepository.findByCartIdAndProductId(1L, 1L))
-                .thenReturn(Optional.empty());
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            cartService.addToCart(1L, addToCartRequest);
+        });
+
+        assertTrue(exception.getMessage().contains("Estoque insuficiente"));
+        verify(cartStore, never()).update(any(), any());
+        assertEquals(1, meterRegistry.get(CartService.MUTATIONS_METRIC)
+                .tags("operation", "add", "outcome", "out-of-stock").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando a soma com o carrinho passa do estoque")
+    void testAddToCart_InsufficientStockWithExisting() {
+
+        // Arrange
+        addToCartRequest.setQuantity(19);
+        storeHolds(cartWithItem);
+        when(productRepository.findAllById(List.of(1L, 1L))).thenReturn(List.of(product));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -199,7 +242,7 @@ class CartServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Estoque insuficiente"));
-        verify(cartItemRepository, never()).save(any(CartItem.class));
+        assertSame(cartWithItem, stored);
     }
 
     @Test
@@ -207,8 +250,8 @@ class CartServiceTest {
     void testAddToCart_ProductNotFound() {
 
         // Arrange
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        storeHolds(emptyCart);
+        when(productRepository.findAllById(List.of(999L))).thenReturn(List.of());
 
         addToCartRequest.setProductId(999L);
 
@@ -216,7 +259,7 @@ class CartServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> {
             cartService.addToCart(1L, addToCartRequest);
         });
-        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(cartStore, never()).update(any(), any());
     }
 
     @Test
@@ -224,19 +267,16 @@ class CartServiceTest {
     void testUpdateCartItem_Success() {
 
         // Arrange
-        cart.getItems().add(cartItem);
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        storeHolds(cartWithItem);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
         // Act
         CartResponseDTO result = cartService.updateCartItem(1L, 1L, updateCartItemRequest);
 
         // Assert
         assertNotNull(result);
-        assertEquals(3, cartItem.getQuantity());
-        verify(cartItemRepository, times(1)).save(cartItem);
+        assertEquals(3, stored.getLines().get(0).getQuantity());
+        assertEquals(3, result.getTotalItems());
     }
 
     @Test
@@ -244,20 +284,16 @@ class CartServiceTest {
     void testUpdateCartItem_WrongCart() {
 
         // Arrange
-        Cart otherCart = new Cart();
-        otherCart.setId(2L);
-        cartItem.setCart(otherCart);
-
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
+        storeHolds(cartWithItem);
+        when(cartStore.findItemOwner(2L)).thenReturn(Optional.of(2L));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
-            cartService.updateCartItem(1L, 1L, updateCartItemRequest);
+            cartService.updateCartItem(1L, 2L, updateCartItemRequest);
         });
 
         assertEquals("Item não pertence ao seu carrinho", exception.getMessage());
-        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(cartStore, never()).update(any(), any());
     }
 
     @Test
@@ -266,9 +302,8 @@ class CartServiceTest {
 
         // Arrange
         updateCartItemRequest.setQuantity(25);
-        cart.getItems().add(cartItem);
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
+        storeHolds(cartWithItem);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -276,7 +311,7 @@ class CartServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Estoque insuficiente"));
-        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(cartStore, never()).update(any(), any());
     }
 
     @Test
@@ -284,18 +319,15 @@ class CartServiceTest {
     void testRemoveCartItem_Success() {
 
         // Arrange
-        cart.getItems().add(cartItem);
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        storeHolds(cartWithItem);
 
         // Act
         CartResponseDTO result = cartService.removeCartItem(1L, 1L);
 
         // Assert
         assertNotNull(result);
-        verify(cartItemRepository, times(1)).delete(cartItem);
-        verify(cartRepository, times(1)).save(cart);
+        assertTrue(stored.isEmpty());
+        verify(cartStore, times(1)).update(eq(1L), any());
     }
 
     @Test
@@ -303,14 +335,14 @@ class CartServiceTest {
     void testRemoveCartItem_NotFound() {
 
         // Arrange
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(999L)).thenReturn(Optional.empty());
+        storeHolds(cartWithItem);
+        when(cartStore.findItemOwner(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
             cartService.removeCartItem(1L, 999L);
         });
-        verify(cartItemRepository, never()).delete(any(CartItem.class));
+        verify(cartStore, never()).update(any(), any());
     }
 
     @Test
@@ -318,15 +350,88 @@ class CartServiceTest {
     void testClearCart_Success() {
 
         // Arrange
-        cart.getItems().add(cartItem);
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        storeHolds(cartWithItem);
 
         // Act
         cartService.clearCart(1L);
 
         // Assert
-        assertTrue(cart.getItems().isEmpty());
-        verify(cartRepository, times(1)).save(cart);
+        assertTrue(stored.isEmpty());
+    }
+
+    // CartService com o store em memória de verdade (repositórios simulados)
+    private CartService withMemoryStore() {
+        MemoryCartStore memoryStore = new MemoryCartStore(cartRepository, userRepository, transactionManager,
+                4, Duration.ofMinutes(30), 500, meterRegistry);
+        return new CartService(memoryStore, productRepository, meterRegistry);
+    }
+
+    private Cart cartOf(Long userId, CartItem... items) {
+        User user = new User();
+        user.setId(userId);
+
+        Cart cart = new Cart();
+        cart.setId(userId);
+        cart.setUser(user);
+        for (CartItem item : items) {
+            cart.addItem(item);
+        }
+        return cart;
+    }
+
+    @Test
+    @DisplayName("Deve recusar item de outro usuário ainda não gravado no banco (carrinho em memória)")
+    void testUpdateCartItem_OtherUsersUnflushedItem() {
+
+        // Arrange: o item 100 do usuário 2 só existe em memória
+        CartService service = withMemoryStore();
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L)));
+        when(cartRepository.findByUserIdWithItems(2L)).thenReturn(Optional.of(cartOf(2L)));
+        when(cartRepository.reserveItemIds()).thenReturn(100L);
+        when(productRepository.findAllById(anyList())).thenReturn(List.of(product));
+        service.addToCart(2L, addToCartRequest);
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> service.updateCartItem(1L, 100L, updateCartItemRequest));
+
+        assertEquals("Item não pertence ao seu carrinho", exception.getMessage());
+        verify(cartRepository, never()).findUserIdByItemId(any());
+    }
+
+    @Test
+    @DisplayName("Deve tratar como inexistente item já removido em memória e ainda presente no banco")
+    void testRemoveCartItem_RemovedButNotFlushed() {
+
+        // Arrange: o usuário 2 remove o item 20; o banco só fica sabendo no próximo flush
+        CartItem item = new CartItem();
+        item.setId(20L);
+        item.setProduct(product);
+        item.setQuantity(1);
+
+        CartService service = withMemoryStore();
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L)));
+        when(cartRepository.findByUserIdWithItems(2L)).thenReturn(Optional.of(cartOf(2L, item)));
+        when(cartRepository.findUserIdByItemId(20L)).thenReturn(Optional.of(2L));
+        service.removeCartItem(2L, 20L);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> service.removeCartItem(1L, 20L));
+    }
+
+    @Test
+    @DisplayName("Deve recusar item de outro usuário que só está no banco")
+    void testRemoveCartItem_OtherUsersFlushedItem() {
+
+        // Arrange: carrinho do usuário 3 não está em memória
+        CartService service = withMemoryStore();
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L)));
+        when(cartRepository.findUserIdByItemId(30L)).thenReturn(Optional.of(3L));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> service.removeCartItem(1L, 30L));
+
+        assertEquals("Item não pertence ao seu carrinho", exception.getMessage());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.hammer.ecommerce;
 
+import com.hammer.ecommerce.config.CategoryMapper;
 import com.hammer.ecommerce.dto.category.CategoryRequestDTO;
 import com.hammer.ecommerce.dto.category.CategoryResponseDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
@@ -13,8 +14,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 
 import java.util.Arrays;
 import java.util.List;
@@ -30,15 +31,14 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private CategoryMapper categoryMapper = new CategoryMapper();
 
     @InjectMocks
     private CategoryService categoryService;
 
     private Category category;
     private CategoryRequestDTO categoryRequest;
-    private CategoryResponseDTO categoryResponse;
 
     @BeforeEach
     void setUp() {
@@ -51,22 +51,15 @@ class CategoryServiceTest {
         categoryRequest = new CategoryRequestDTO();
         categoryRequest.setName("Eletrônicos");
         categoryRequest.setDescription("Produtos eletrônicos");
-
-        categoryResponse = new CategoryResponseDTO();
-        categoryResponse.setId(1L);
-        categoryResponse.setName("Eletrônicos");
-        categoryResponse.setDescription("Produtos eletrônicos");
-        categoryResponse.setProductCount(0);
     }
 
     @Test
     @DisplayName("Deve listar todas as categorias")
     void testFindAll_Success() {
 
-        // Arrange
-        List<Category> categories = Arrays.asList(category);
-        when(categoryRepository.findAll()).thenReturn(categories);
-        when(modelMapper.map(category, CategoryResponseDTO.class)).thenReturn(categoryResponse);
+        // Arrange: contagem de produtos já vem da consulta
+        List<CategoryResponseDTO> categories = Arrays.asList(new CategoryResponseDTO(1L, "Eletrônicos", null, 3));
+        when(categoryRepository.findAllWithProductCount()).thenReturn(categories);
 
         // Act
         List<CategoryResponseDTO> result = categoryService.findAll();
@@ -75,7 +68,9 @@ class CategoryServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Eletrônicos", result.get(0).getName());
-        verify(categoryRepository, times(1)).findAll();
+        assertEquals(3, result.get(0).getProductCount());
+        verify(categoryRepository, times(1)).findAllWithProductCount();
+        verify(categoryRepository, never()).findAll();
     }
 
     @Test
@@ -83,8 +78,8 @@ class CategoryServiceTest {
     void testFindById_Success() {
 
         // Arrange
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(modelMapper.map(category, CategoryResponseDTO.class)).thenReturn(categoryResponse);
+        when(categoryRepository.findByIdWithProductCount(1L))
+                .thenReturn(Optional.of(new CategoryResponseDTO(1L, "Eletrônicos", null, 0)));
 
         // Act
         CategoryResponseDTO result = categoryService.findById(1L);
@@ -92,7 +87,7 @@ class CategoryServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Eletrônicos", result.getName());
-        verify(categoryRepository, times(1)).findById(1L);
+        verify(categoryRepository, times(1)).findByIdWithProductCount(1L);
     }
 
     @Test
@@ -100,7 +95,7 @@ class CategoryServiceTest {
     void testFindById_NotFound() {
 
         // Arrange
-        when(categoryRepository.findById(999L)).thenReturn(Optional.empty());
+        when(categoryRepository.findByIdWithProductCount(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
@@ -108,7 +103,7 @@ class CategoryServiceTest {
         });
 
         assertEquals("Categoria não encontrada com ID: 999", exception.getMessage());
-        verify(categoryRepository, times(1)).findById(999L);
+        verify(categoryRepository, times(1)).findByIdWithProductCount(999L);
     }
 
     @Test
@@ -118,7 +113,6 @@ class CategoryServiceTest {
         // Arrange
         when(categoryRepository.existsByName(categoryRequest.getName())).thenReturn(false);
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
-        when(modelMapper.map(category, CategoryResponseDTO.class)).thenReturn(categoryResponse);
 
         // Act
         CategoryResponseDTO result = categoryService.create(categoryRequest);
@@ -159,7 +153,6 @@ class CategoryServiceTest {
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
         when(categoryRepository.existsByName(updateRequest.getName())).thenReturn(false);
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
-        when(modelMapper.map(category, CategoryResponseDTO.class)).thenReturn(categoryResponse);
 
         // Act
         CategoryResponseDTO result = categoryService.update(1L, updateRequest);
@@ -212,8 +205,8 @@ class CategoryServiceTest {
     void testDelete_WithProducts() {
 
         // Arrange
-        category.getProducts().add(new com.hammer.ecommerce.model.Product());
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryRepository.countProducts(1L)).thenReturn(1L);
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -0,0 +1,70 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.catalog.CsvProductImportReader;
+import com.hammer.ecommerce.catalog.ProductImportRecord;
+import com.hammer.ecommerce.exceptions.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvProductImportReaderTest {
+
+    @Test
+    @DisplayName("Deve ler campos entre aspas com vírgula, aspas duplicadas e quebra de linha")
+    void testNext_QuotedFields() throws IOException {
+
+        // Arrange
+        String csv = "\uFEFFsku,name,description\r\n" +
+                "SKU-1,Mouse,\"Sem fio, 3 botões\"\r\n" +
+                "\r\n" +
+                "SKU-2,\"Teclado \"\"ABNT2\"\"\",\"Linha 1\nLinha 2\"\n";
+        CsvProductImportReader reader = new CsvProductImportReader(new StringReader(csv));
+
+        // Act
+        ProductImportRecord first = reader.next();
+        ProductImportRecord second = reader.next();
+        ProductImportRecord end = reader.next();
+
+        // Assert: BOM removido do cabeçalho, linha em branco não conta como registro
+        assertEquals(1, first.getNumber());
+        assertEquals("SKU-1", first.get("sku"));
+        assertEquals("Sem fio, 3 botões", first.get("description"));
+        assertEquals(2, second.getNumber());
+        assertEquals("Teclado \"ABNT2\"", second.get("name"));
+        assertEquals("Linha 1\nLinha 2", second.get("description"));
+        assertNull(end);
+    }
+
+    @Test
+    @DisplayName("Deve marcar como erro o registro com número de colunas diferente do cabeçalho")
+    void testNext_WrongColumnCount() throws IOException {
+
+        // Arrange
+        CsvProductImportReader reader = new CsvProductImportReader(new StringReader("sku,name\nSKU-1\nSKU-2,Mouse\n"));
+
+        // Act
+        ProductImportRecord invalid = reader.next();
+        ProductImportRecord valid = reader.next();
+
+        // Assert: o registro inválido não interrompe a leitura
+        assertEquals("Registro com 1 coluna(s); o cabeçalho tem 2", invalid.getError());
+        assertNull(valid.getError());
+        assertEquals(2, valid.getNumber());
+    }
+
+    @Test
+    @DisplayName("Deve interromper a leitura em aspas não fechadas")
+    void testNext_UnterminatedQuote() throws IOException {
+
+        // Arrange
+        CsvProductImportReader reader = new CsvProductImportReader(new StringReader("sku,name\nSKU-1,\"Mouse\n"));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, reader::next);
+        assertEquals("CSV inválido: aspas não fechadas no registro 1", exception.getMessage());
+    }
+}
@@ -0,0 +1,65 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.config.AddressMapper;
+import com.hammer.ecommerce.config.CategoryMapper;
+import com.hammer.ecommerce.dto.address.AddressResponseDTO;
+import com.hammer.ecommerce.dto.category.CategoryResponseDTO;
+import com.hammer.ecommerce.model.Address;
+import com.hammer.ecommerce.model.Category;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoMapperTest {
+
+    private final AddressMapper addressMapper = new AddressMapper();
+    private final CategoryMapper categoryMapper = new CategoryMapper();
+
+    @Test
+    @DisplayName("Deve copiar todos os campos do endereço")
+    void testAddressMapper() {
+
+        // Arrange
+        Address address = new Address();
+        address.setId(1L);
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setComplement("Apto 45");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setIsDefault(true);
+
+        // Act
+        AddressResponseDTO result = addressMapper.map(address);
+
+        // Assert
+        assertEquals(new AddressResponseDTO(1L, "Rua das Flores", "123", "Apto 45", "Centro",
+                "São Paulo", "SP", "01234-567", true), result);
+    }
+
+    @Test
+    @DisplayName("Deve mapear categoria com a quantidade de produtos")
+    void testCategoryMapper() {
+
+        // Arrange
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Eletrônicos");
+        category.setDescription("Produtos eletrônicos");
+
+        // Act
+        CategoryResponseDTO result = categoryMapper.map(category, 2);
+
+        // Assert
+        assertEquals(new CategoryResponseDTO(1L, "Eletrônicos", "Produtos eletrônicos", 2), result);
+    }
+
+    @Test
+    @DisplayName("Deve retornar nulo para origem nula")
+    void testMapNull() {
+        assertNull(addressMapper.map(null));
+    }
+}
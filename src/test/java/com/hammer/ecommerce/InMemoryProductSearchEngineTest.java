@@ -0,0 +1,137 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.model.Category;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.search.InMemoryProductSearchEngine;
+import com.hammer.ecommerce.search.ProductSearchFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryProductSearchEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryProductSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        searchEngine = new InMemoryProductSearchEngine(productRepository, transactionManager, 100, 100);
+
+        searchEngine.index(product(1L, "Café Torrado", "Café especial de Minas"));
+        searchEngine.index(product(2L, "Caneca", "Caneca para café"));
+        searchEngine.index(product(3L, "Açúcar Mascavo", "Açúcar orgânico"));
+    }
+
+    @Test
+    @DisplayName("Deve ignorar acentos na busca")
+    void testSearch_AccentInsensitive() {
+
+        // Act & Assert
+        assertEquals(List.of(3L), searchEngine.search("acucar", ProductSearchFilter.NONE));
+        assertEquals(List.of(3L), searchEngine.search("AÇÚCAR", ProductSearchFilter.NONE));
+    }
+
+    @Test
+    @DisplayName("Deve ordenar por relevância (nome pesa mais que descrição)")
+    void testSearch_RelevanceOrder() {
+
+        // Act
+        List<Long> result = searchEngine.search("cafe", ProductSearchFilter.NONE);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), result);
+    }
+
+    @Test
+    @DisplayName("Deve exigir todos os termos e aceitar prefixo")
+    void testSearch_AllTermsWithPrefix() {
+
+        // Act & Assert
+        assertEquals(List.of(1L), searchEngine.search("caf torr", ProductSearchFilter.NONE));
+        assertTrue(searchEngine.search("cafe mascavo", ProductSearchFilter.NONE).isEmpty());
+        assertTrue(searchEngine.search("   ", ProductSearchFilter.NONE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar e remover produtos do índice")
+    void testIndex_UpdateAndRemove() {
+
+        // Act
+        searchEngine.index(product(2L, "Xícara", "Xícara de porcelana"));
+        searchEngine.remove(3L);
+
+        // Assert
+        assertEquals(List.of(1L), searchEngine.search("cafe", ProductSearchFilter.NONE));
+        assertEquals(List.of(2L), searchEngine.search("xicara", ProductSearchFilter.NONE));
+        assertTrue(searchEngine.search("acucar", ProductSearchFilter.NONE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve aplicar os filtros antes do limite de resultados")
+    void testSearch_FiltersBeforeLimit() {
+
+        // Arrange: limite de 3 resultados e 5 produtos que casam pelo nome em outra categoria;
+        // o único da categoria 2 casa só pela descrição e fica por último na relevância
+        InMemoryProductSearchEngine engine = new InMemoryProductSearchEngine(productRepository, transactionManager, 3, 100);
+        for (long id = 10; id < 15; id++) {
+            engine.index(product(id, "Café " + id, "Café", 1L, new BigDecimal("20.00")));
+        }
+        engine.index(product(20L, "Moedor", "Para café em grão", 2L, new BigDecimal("150.00")));
+
+        // Act & Assert
+        assertEquals(3, engine.search("cafe", ProductSearchFilter.NONE).size());
+        assertFalse(engine.search("cafe", ProductSearchFilter.NONE).contains(20L));
+        assertEquals(List.of(20L), engine.search("cafe", new ProductSearchFilter(2L, null, null)));
+        assertEquals(List.of(20L), engine.search("cafe", new ProductSearchFilter(null, new BigDecimal("100"), null)));
+        assertTrue(engine.search("cafe", new ProductSearchFilter(2L, null, new BigDecimal("100"))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar produtos inativos e atualizar filtros sem mudança de texto")
+    void testSearch_InactiveAndFacetUpdate() {
+
+        // Arrange
+        Product inactive = product(1L, "Café Torrado", "Café especial de Minas");
+        inactive.setActive(false);
+
+        // Act
+        searchEngine.index(inactive);
+
+        // Assert
+        assertEquals(List.of(2L), searchEngine.search("cafe", ProductSearchFilter.NONE));
+    }
+
+    private Product product(Long id, String name, String description) {
+        return product(id, name, description, 1L, new BigDecimal("10.00"));
+    }
+
+    private Product product(Long id, String name, String description, Long categoryId, BigDecimal price) {
+        Category category = new Category();
+        category.setId(categoryId);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategory(category);
+        product.setPrice(price);
+        product.setActive(true);
+        return product;
+    }
+}
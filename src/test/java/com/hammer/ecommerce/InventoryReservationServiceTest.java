@@ -0,0 +1,310 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import com.hammer.ecommerce.cart.CartStore;
+import com.hammer.ecommerce.dto.order.StockReservationResponseDTO;
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.inventory.ReservationLedger;
+import com.hammer.ecommerce.inventory.StockHold;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.model.StockReservation;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.repositories.StockReservationRepository;
+import com.hammer.ecommerce.service.InventoryReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReservationLedger ledger;
+    private InventoryReservationService reservationService;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledger = new ReservationLedger(4, meterRegistry);
+        reservationService = new InventoryReservationService(ledger, stockReservationRepository, productRepository,
+                cartStore, transactionManager, meterRegistry, Duration.ofMinutes(10));
+
+        product = new Product();
+        product.setId(1L);
+        product.setName("Console Edição Limitada");
+        product.setPrice(new BigDecimal("2500.00"));
+        product.setStockQuantity(5);
+        product.setActive(true);
+
+        // Simula a transação do chamador: os callbacks são disparados à mão (commit/rollback)
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private void rollback() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private void reserveCart(Long userId, int quantity) {
+        when(cartStore.get(userId)).thenReturn(
+                new CartSnapshot(userId, List.of(new CartLine(userId * 10, 1L, quantity)), LocalDateTime.now()));
+        reservationService.reserveCart(userId);
+        commit();
+    }
+
+    private double counter(String outcome) {
+        var counter = meterRegistry.find(InventoryReservationService.RESERVATIONS_METRIC)
+                .tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    @DisplayName("Deve reservar o carrinho e persistir a reserva")
+    void testReserveCart_Success() {
+
+        // Arrange
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(productRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(1L, 5));
+        when(cartStore.get(1L)).thenReturn(
+                new CartSnapshot(1L, List.of(new CartLine(10L, 1L, 3)), LocalDateTime.now()));
+
+        // Act
+        StockReservationResponseDTO result = reservationService.reserveCart(1L);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        assertEquals(3, result.getItems().get(0).getQuantity());
+        assertNotNull(result.getExpiresAt());
+        assertEquals(3, ledger.heldUnits(1L));
+        assertEquals(3, meterRegistry.get(ReservationLedger.HELD_UNITS_METRIC).tag("product", "1").gauge().value());
+        verify(stockReservationRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar em memória quando o estoque livre está reservado por outros")
+    void testAcquireForOrder_RejectedByOtherHolds() {
+
+        // Arrange: usuário 1 segura 4 das 5 unidades
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(productRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(1L, 5));
+        reserveCart(1L, 4);
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                reservationService.acquireForOrder(2L, new TreeMap<>(Map.of(1L, 2)), Map.of(1L, product)));
+
+        assertEquals("Estoque insuficiente para o produto: Console Edição Limitada. Disponível: 1",
+                exception.getMessage());
+        assertEquals(1, counter("rejected"));
+        verify(productRepository, never()).decrementStock(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao reservar carrinho vazio")
+    void testReserveCart_EmptyCart() {
+
+        // Arrange
+        when(cartStore.get(1L)).thenReturn(new CartSnapshot(1L, List.of(), LocalDateTime.now()));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> reservationService.reserveCart(1L));
+        assertEquals("Carrinho está vazio", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Deve usar a reserva do próprio usuário e consumi-la na transação do débito")
+    void testAcquireForOrder_ConsumesOwnHold() {
+
+        // Arrange
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(productRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(1L, 5));
+        reserveCart(1L, 5);
+        clearInvocations(productRepository);
+
+        // Act
+        reservationService.acquireForOrder(1L, new TreeMap<>(Map.of(1L, 5)), Map.of(1L, product));
+
+        // Assert: a reserva cobre o pedido, nem precisa ler o estoque
+        verify(productRepository, never()).findStockQuantities(anyCollection());
+        assertEquals(5, ledger.heldUnits(1L));
+
+        // Débito feito: a reserva sai antes do commit, sem contar as unidades duas vezes
+        reservationService.consumeForOrder(1L, Set.of(1L));
+        assertEquals(0, ledger.heldUnits(1L));
+
+        commit();
+        assertEquals(0, ledger.heldUnits(1L));
+        assertEquals(1, counter("consumed"));
+        verify(stockReservationRepository).deleteByUserIdAndProductIdIn(1L, Set.of(1L));
+    }
+
+    @Test
+    @DisplayName("Deve desfazer a reserva feita no pedido quando a transação não faz commit")
+    void testAcquireForOrder_RollbackRestoresPreviousHold() {
+
+        // Arrange: reserva anterior de 2 unidades, pedido com 4
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(productRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(1L, 5));
+        reserveCart(1L, 2);
+
+        // Act
+        reservationService.acquireForOrder(1L, new TreeMap<>(Map.of(1L, 4)), Map.of(1L, product));
+        assertEquals(4, ledger.heldUnits(1L));
+        rollback();
+
+        // Assert
+        assertEquals(2, ledger.heldUnits(1L));
+    }
+
+    @Test
+    @DisplayName("Deve devolver as reservas consumidas quando o pedido não faz commit")
+    void testConsumeForOrder_RollbackRestoresHolds() {
+
+        // Arrange: reserva anterior de 2 unidades, pedido com 4 (reservadas na hora)
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(productRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(1L, 5));
+        reserveCart(1L, 2);
+        reservationService.acquireForOrder(1L, new TreeMap<>(Map.of(1L, 4)), Map.of(1L, product));
+
+        // Act
+        reservationService.consumeForOrder(1L, Set.of(1L));
+        assertEquals(0, ledger.heldUnits(1L));
+        rollback();
+
+        // Assert: volta a reserva de antes do pedido, não a criada nele
+        assertEquals(2, ledger.heldUnits(1L));
+        assertEquals(0, counter("consumed"));
+    }
+
+    @Test
+    @DisplayName("Não deve limpar reservas depois que o contexto começa a fechar")
+    void testExpireHolds_StoppedOnShutdown() {
+
+        // Arrange
+        ledger.withProducts(List.of(1L), () -> {
+            ledger.put(new StockHold(1L, 1L, 5, LocalDateTime.now().minusSeconds(1)));
+            return null;
+        });
+        reservationService.stopSweeping();
+
+        // Act
+        reservationService.expireHolds();
+
+        // Assert
+        assertEquals(5, ledger.heldUnits(1L));
+        verify(stockReservationRepository, never()).deleteExpired(any());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar e limpar reservas vencidas")
+    void testExpireHolds() {
+
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        ledger.withProducts(List.of(1L), () -> {
+            ledger.put(new StockHold(1L, 1L, 5, now.minusSeconds(1)));
+            return null;
+        });
+        when(productRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(1L, 5));
+
+        // Act: reserva vencida não bloqueia ninguém, mesmo antes da limpeza
+        reservationService.acquireForOrder(2L, new TreeMap<>(Map.of(1L, 5)), Map.of(1L, product));
+        rollback();
+        reservationService.expireHolds();
+
+        // Assert
+        assertEquals(0, ledger.heldUnits(1L));
+        assertEquals(1, counter("expired"));
+        assertTrue(meterRegistry.find(ReservationLedger.ACTIVE_HOLDS_METRIC).gauges().isEmpty());
+        verify(stockReservationRepository, times(1)).deleteExpired(any());
+    }
+
+    @Test
+    @DisplayName("Deve recuperar as reservas gravadas antes do restart")
+    void testRecover() {
+
+        // Arrange
+        when(stockReservationRepository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new StockReservation(1L, 1L, 1L, 3, LocalDateTime.now().plusMinutes(5), LocalDateTime.now())));
+
+        // Act
+        reservationService.recover();
+
+        // Assert
+        assertEquals(3, ledger.heldUnits(1L));
+    }
+
+    @Test
+    @DisplayName("Deve liberar a reserva do usuário depois do commit")
+    void testRelease() {
+
+        // Arrange
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(productRepository.findStockQuantities(anyCollection())).thenReturn(Map.of(1L, 5));
+        reserveCart(1L, 3);
+        when(stockReservationRepository.findByUserId(1L)).thenReturn(List.of(
+                new StockReservation(1L, 1L, 1L, 3, LocalDateTime.now().plusMinutes(5), LocalDateTime.now())));
+
+        clearInvocations(stockReservationRepository);
+
+        // Act
+        reservationService.release(1L);
+        assertEquals(3, ledger.heldUnits(1L));
+        commit();
+
+        // Assert
+        assertEquals(0, ledger.heldUnits(1L));
+        assertEquals(1, counter("released"));
+        verify(stockReservationRepository, times(1)).deleteByUserId(1L);
+    }
+}
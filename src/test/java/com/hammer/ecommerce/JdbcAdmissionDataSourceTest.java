@@ -0,0 +1,121 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.config.VirtualThreadConfig;
+import com.hammer.ecommerce.datasource.JdbcAdmissionDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcAdmissionDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private JdbcAdmissionDataSource admission(int maxWaiting) {
+        return new JdbcAdmissionDataSource(target, 1, maxWaiting, Duration.ofMillis(50), meterRegistry);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get(JdbcAdmissionDataSource.REJECTED_METRIC).tag("reason", reason).counter().count();
+    }
+
+    @Test
+    @DisplayName("Deve devolver a vaga uma única vez quando a conexão é fechada")
+    void testGetConnection_ReleasesOnClose() throws SQLException {
+
+        // Arrange
+        when(target.getConnection()).thenReturn(connection);
+        JdbcAdmissionDataSource dataSource = admission(10);
+
+        // Act: fechar duas vezes não pode liberar duas vagas
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        // Assert: a única vaga está com a segunda conexão; a terceira espera e desiste
+        assertNotNull(second);
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1, rejected("timeout"));
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("Deve recusar na hora quando a fila de espera está cheia")
+    void testGetConnection_QueueFull() throws SQLException {
+
+        // Arrange
+        when(target.getConnection()).thenReturn(connection);
+        JdbcAdmissionDataSource dataSource = admission(0);
+        dataSource.getConnection();
+
+        // Act & Assert
+        SQLTransientConnectionException exception =
+                assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals("Fila por conexão JDBC cheia (0 threads esperando)", exception.getMessage());
+        assertEquals(1, rejected("queue-full"));
+        assertEquals(0, rejected("timeout"));
+        assertEquals(0, dataSource.getWaiting());
+    }
+
+    @Test
+    @DisplayName("Deve devolver a vaga quando o pool não entrega a conexão")
+    void testGetConnection_TargetFailureReleasesPermit() throws SQLException {
+
+        // Arrange
+        when(target.getConnection())
+                .thenThrow(new SQLException("Pool esgotado"))
+                .thenReturn(connection);
+        JdbcAdmissionDataSource dataSource = admission(0);
+
+        // Act
+        assertThrows(SQLException.class, dataSource::getConnection);
+        Connection retry = dataSource.getConnection();
+
+        // Assert
+        assertNotNull(retry);
+        assertEquals(0, rejected("queue-full"));
+    }
+
+    @Test
+    @DisplayName("Deve usar a soma do pool principal e dos pools das réplicas como limite padrão")
+    void testDefaultMaxConnections() {
+
+        // Arrange
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "20")
+                .withProperty("datasource.replicas.urls", "jdbc:postgresql://r1/db, jdbc:postgresql://r2/db")
+                .withProperty("datasource.replicas.pool-size", "15");
+
+        // Act & Assert: réplicas desligadas não contam
+        assertEquals(20, VirtualThreadConfig.defaultMaxConnections(environment));
+        environment.setProperty("datasource.replicas.enabled", "true");
+        assertEquals(50, VirtualThreadConfig.defaultMaxConnections(environment));
+        assertEquals(10, VirtualThreadConfig.defaultMaxConnections(new MockEnvironment()));
+    }
+}
@@ -0,0 +1,135 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.model.Role;
+import com.hammer.ecommerce.security.AuthenticatedUser;
+import com.hammer.ecommerce.security.CustomUserDetailsService;
+import com.hammer.ecommerce.security.JwtAuthenticationFilter;
+import com.hammer.ecommerce.security.JwtUtil;
+import com.hammer.ecommerce.security.PrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "dGVzdHNlY3JldGtleWZvcnRlc3RpbmdwdXJwb3Nlc29ubHlub3Rmb3Jwcm9kdWN0aW9udXNl";
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private PrincipalCache principalCache;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(true, 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 3600000L);
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, principalCache);
+        token = jwtUtil.generateToken(1L, "joao@email.com", Role.CUSTOMER.name());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deve autenticar com o ID do usuário e consultar o banco só na primeira requisição")
+    void testFilter_CachesPrincipal() throws Exception {
+
+        // Arrange
+        when(userDetailsService.loadPrincipal("joao@email.com"))
+                .thenReturn(new AuthenticatedUser(1L, "joao@email.com", Role.CUSTOMER, null));
+
+        // Act
+        authenticate();
+        SecurityContextHolder.clearContext();
+        Authentication authentication = authenticate();
+
+        // Assert
+        assertNotNull(authentication);
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        assertEquals(1L, principal.getId());
+        assertTrue(authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_CUSTOMER")));
+        verify(userDetailsService, times(1)).loadPrincipal("joao@email.com");
+    }
+
+    @Test
+    @DisplayName("Deve recarregar o principal quando o ID do token não confere com o cache")
+    void testFilter_ReloadsOnUserIdMismatch() throws Exception {
+
+        // Arrange: cache com a conta antiga (ID 99) do mesmo email
+        principalCache.get("joao@email.com", email -> new AuthenticatedUser(99L, email, Role.CUSTOMER, null));
+        when(userDetailsService.loadPrincipal("joao@email.com"))
+                .thenReturn(new AuthenticatedUser(1L, "joao@email.com", Role.CUSTOMER, null));
+
+        // Act
+        Authentication authentication = authenticate();
+
+        // Assert
+        assertNotNull(authentication);
+        assertEquals(1L, ((AuthenticatedUser) authentication.getPrincipal()).getId());
+        verify(userDetailsService, times(1)).loadPrincipal("joao@email.com");
+    }
+
+    @Test
+    @DisplayName("Não deve autenticar token de usuário que não corresponde ao cadastro atual")
+    void testFilter_RejectsStaleToken() throws Exception {
+
+        // Arrange: conta removida e recriada com outro ID
+        when(userDetailsService.loadPrincipal("joao@email.com"))
+                .thenReturn(new AuthenticatedUser(2L, "joao@email.com", Role.CUSTOMER, null));
+
+        // Act
+        Authentication authentication = authenticate();
+
+        // Assert
+        assertNull(authentication);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco novamente após invalidar o principal")
+    void testFilter_Evict() throws Exception {
+
+        // Arrange
+        when(userDetailsService.loadPrincipal("joao@email.com"))
+                .thenReturn(new AuthenticatedUser(1L, "joao@email.com", Role.CUSTOMER, null))
+                .thenReturn(new AuthenticatedUser(1L, "joao@email.com", Role.ADMIN, null));
+
+        // Act
+        authenticate();
+        principalCache.evict("joao@email.com");
+        SecurityContextHolder.clearContext();
+        Authentication authentication = authenticate();
+
+        // Assert
+        assertTrue(authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN")));
+        verify(userDetailsService, times(2)).loadPrincipal("joao@email.com");
+    }
+
+    private Authentication authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,77 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.model.Role;
+import com.hammer.ecommerce.security.AuthenticatedUser;
+import com.hammer.ecommerce.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "dGVzdHNlY3JldGtleWZvcnRlc3RpbmdwdXJwb3Nlc29ubHlub3Rmb3Jwcm9kdWN0aW9udXNl";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3600000L);
+    }
+
+    @Test
+    @DisplayName("Deve gerar token com email, ID e papel do usuário")
+    void testGenerateToken_Claims() {
+
+        // Act
+        String token = jwtUtil.generateToken(1L, "joao@email.com", Role.CUSTOMER.name());
+        Claims claims = jwtUtil.parseClaims(token);
+
+        // Assert
+        assertEquals("joao@email.com", claims.getSubject());
+        assertEquals(1L, jwtUtil.extractUserId(claims));
+        assertEquals("CUSTOMER", claims.get(JwtUtil.ROLE_CLAIM, String.class));
+        assertTrue(jwtUtil.validateToken(claims,
+                new AuthenticatedUser(1L, "joao@email.com", Role.CUSTOMER, null)));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token de outro usuário")
+    void testValidateToken_OtherUser() {
+
+        // Arrange
+        String token = jwtUtil.generateToken(1L, "joao@email.com", Role.CUSTOMER.name());
+
+        // Act & Assert
+        assertFalse(jwtUtil.validateToken(token,
+                new AuthenticatedUser(2L, "maria@email.com", Role.CUSTOMER, null)));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token assinado com outra chave")
+    void testParseClaims_InvalidSignature() {
+
+        // Arrange
+        JwtUtil otherKey = new JwtUtil("b3V0cmFjaGF2ZXNlY3JldGFwYXJhdGVzdGVzZGVhc3NpbmF0dXJhaW52YWxpZGE=", 3600000L);
+        String token = otherKey.generateToken(1L, "joao@email.com", Role.CUSTOMER.name());
+
+        // Act & Assert
+        assertThrows(SignatureException.class, () -> jwtUtil.parseClaims(token));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token expirado")
+    void testParseClaims_Expired() {
+
+        // Arrange
+        JwtUtil expired = new JwtUtil(SECRET, -1000L);
+        String token = expired.generateToken(1L, "joao@email.com", Role.CUSTOMER.name());
+
+        // Act & Assert
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseClaims(token));
+    }
+}
@@ -0,0 +1,320 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import com.hammer.ecommerce.cart.MemoryCartStore;
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.model.Cart;
+import com.hammer.ecommerce.model.CartItem;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.model.User;
+import com.hammer.ecommerce.repositories.CartRepository;
+import com.hammer.ecommerce.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemoryCartStoreTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MemoryCartStore cartStore;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cartStore = newStore(Duration.ofMinutes(30));
+    }
+
+    private MemoryCartStore newStore(Duration idleTimeout) {
+        return new MemoryCartStore(cartRepository, userRepository, transactionManager,
+                4, idleTimeout, 500, meterRegistry);
+    }
+
+    private Cart cartOf(Long cartId, Long userId, int... quantities) {
+        User user = new User();
+        user.setId(userId);
+
+        Cart cart = new Cart();
+        cart.setId(cartId);
+        cart.setUser(user);
+        cart.setUpdatedAt(LocalDateTime.now());
+        for (int i = 0; i < quantities.length; i++) {
+            Product product = new Product();
+            product.setId(i + 1L);
+
+            CartItem item = new CartItem();
+            item.setId(cartId * 10 + i);
+            item.setProduct(product);
+            item.setQuantity(quantities[i]);
+            cart.addItem(item);
+        }
+        return cart;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<CartSnapshot>> capturedWrites(int times) {
+        ArgumentCaptor<Collection<CartSnapshot>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(cartRepository, times(times)).writeAll(captor.capture());
+        return captor.getAllValues().stream().map(writes -> (List<CartSnapshot>) new ArrayList<>(writes)).toList();
+    }
+
+    private double dirtyCarts() {
+        return meterRegistry.get("cart.store.dirty").gauge().value();
+    }
+
+    @Test
+    @DisplayName("Deve carregar o carrinho do banco uma única vez")
+    void testGet_LoadsOnce() {
+
+        // Arrange
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L, 1L, 2)));
+
+        // Act
+        cartStore.get(1L);
+        CartSnapshot result = cartStore.get(1L);
+
+        // Assert
+        assertEquals(1L, result.getCartId());
+        assertEquals(2, result.getLines().get(0).getQuantity());
+        verify(cartRepository, times(1)).findByUserIdWithItems(1L);
+    }
+
+    @Test
+    @DisplayName("Deve criar o carrinho no banco quando o usuário ainda não tem")
+    void testGet_CreatesCart() {
+
+        // Arrange
+        Cart created = cartOf(5L, 1L);
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.empty());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(created.getUser()));
+        when(cartRepository.saveAndFlush(any(Cart.class))).thenReturn(created);
+
+        // Act
+        CartSnapshot result = cartStore.get(1L);
+
+        // Assert
+        assertEquals(5L, result.getCartId());
+        assertTrue(result.isEmpty());
+        verify(cartRepository, times(1)).saveAndFlush(any(Cart.class));
+    }
+
+    @Test
+    @DisplayName("Deve alterar em memória e gravar só no flush")
+    void testUpdate_WriteBehind() {
+
+        // Arrange
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L, 1L)));
+        when(cartRepository.reserveItemIds()).thenReturn(100L);
+
+        // Act
+        cartStore.update(1L, draft -> draft.add(7L, 2));
+        cartStore.update(1L, draft -> draft.add(8L, 1));
+
+        // Assert: nada gravado ainda
+        verify(cartRepository, never()).writeAll(anyCollection());
+        assertEquals(1, dirtyCarts());
+
+        cartStore.flush();
+
+        List<List<CartSnapshot>> writes = capturedWrites(1);
+        CartSnapshot written = writes.get(0).get(0);
+        assertEquals(List.of(100L, 101L), written.getLines().stream().map(line -> line.getItemId()).toList());
+        assertEquals(0, dirtyCarts());
+
+        // Sem alterações novas, o próximo flush não grava
+        cartStore.flush();
+        verify(cartRepository, times(1)).writeAll(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve gravar vários carrinhos em um único lote")
+    void testFlush_Batches() {
+
+        // Arrange
+        when(cartRepository.findByUserIdWithItems(any()))
+                .thenAnswer(invocation -> Optional.of(cartOf(invocation.getArgument(0), invocation.getArgument(0), 1)));
+
+        // Act
+        for (long userId = 1; userId <= 3; userId++) {
+            cartStore.update(userId, draft -> draft.clear());
+        }
+        cartStore.flush();
+
+        // Assert
+        assertEquals(3, capturedWrites(1).get(0).size());
+        assertEquals(3, meterRegistry.get("cart.store.flushed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve descartar a alteração quando a validação lança exceção")
+    void testUpdate_ExceptionDiscardsChange() {
+
+        // Arrange
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L, 1L, 2)));
+
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> cartStore.update(1L, draft -> {
+            draft.clear();
+            throw new BusinessException("Estoque insuficiente");
+        }));
+
+        assertEquals(1, cartStore.get(1L).getLines().size());
+        assertEquals(0, dirtyCarts());
+    }
+
+    @Test
+    @DisplayName("Deve manter pendente só o carrinho cuja gravação falhou")
+    void testFlush_FailedCartStaysDirty() {
+
+        // Arrange
+        when(cartRepository.findByUserIdWithItems(any()))
+                .thenAnswer(invocation -> Optional.of(cartOf(invocation.getArgument(0), invocation.getArgument(0))));
+        doAnswer(invocation -> {
+            Collection<CartSnapshot> carts = invocation.getArgument(0);
+            if (carts.stream().anyMatch(cart -> cart.getCartId() == 2L)) {
+                throw new IllegalStateException("falha simulada");
+            }
+            return null;
+        }).when(cartRepository).writeAll(anyCollection());
+
+        cartStore.update(1L, draft -> draft.clear());
+        cartStore.update(2L, draft -> draft.clear());
+
+        // Act
+        cartStore.flush();
+
+        // Assert: lote falhou, cada carrinho foi tentado sozinho e só o 2 ficou pendente
+        assertEquals(1, dirtyCarts());
+        assertEquals(1, meterRegistry.get("cart.store.flush.failures").counter().count());
+
+        doNothing().when(cartRepository).writeAll(anyCollection());
+        cartStore.flush();
+        assertEquals(0, dirtyCarts());
+    }
+
+    @Test
+    @DisplayName("Deve gravar os carrinhos pendentes no desligamento")
+    void testShutdown_Flushes() {
+
+        // Arrange
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L, 1L, 2)));
+        cartStore.update(1L, draft -> draft.clear());
+
+        // Act
+        cartStore.shutdown();
+
+        // Assert
+        assertTrue(capturedWrites(1).get(0).get(0).isEmpty());
+        assertEquals(0, dirtyCarts());
+    }
+
+    @Test
+    @DisplayName("Deve tirar da memória o carrinho ocioso já gravado")
+    void testFlush_EvictsIdle() {
+
+        // Arrange
+        cartStore = newStore(Duration.ZERO);
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L, 1L, 2)));
+        cartStore.update(1L, draft -> draft.clear());
+
+        // Act
+        cartStore.flush();
+        cartStore.get(1L);
+
+        // Assert: gravado antes de sair, e recarregado do banco depois
+        verify(cartRepository, times(1)).writeAll(anyCollection());
+        verify(cartRepository, times(2)).findByUserIdWithItems(1L);
+    }
+
+    @Test
+    @DisplayName("Deve remover os itens do pedido fora de transação na hora")
+    void testRemoveItems_WithoutTransaction() {
+
+        // Arrange
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L, 1L, 2, 3)));
+
+        // Act
+        cartStore.removeItems(1L, List.of(cartStore.get(1L).getLines().get(0)));
+
+        // Assert
+        CartSnapshot result = cartStore.get(1L);
+        assertEquals(1, result.getLines().size());
+        assertEquals(11L, result.getLines().get(0).getItemId());
+    }
+
+    @Test
+    @DisplayName("Deve manter no carrinho a linha alterada depois da leitura do pedido")
+    void testRemoveItems_KeepsChangedLine() {
+
+        // Arrange: pedido lido com 2 e 3 unidades; a segunda linha muda para 5 antes do commit
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L, 1L, 2, 3)));
+        List<CartLine> ordered = cartStore.get(1L).getLines();
+        cartStore.update(1L, draft -> draft.setQuantity(11L, 5));
+
+        // Act
+        cartStore.removeItems(1L, ordered);
+
+        // Assert
+        CartSnapshot result = cartStore.get(1L);
+        assertEquals(1, result.getLines().size());
+        assertEquals(11L, result.getLines().get(0).getItemId());
+        assertEquals(5, result.getLines().get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Deve recarregar o carrinho numa transação nova quando a remoção roda no afterCommit")
+    void testRemoveItems_AfterCommitUsesNewTransaction() {
+
+        // Arrange: carrinho ainda não está em memória quando a transação do pedido faz commit
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cartOf(1L, 1L, 2)));
+        List<CartLine> ordered = List.of(new CartLine(10L, 1L, 2));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cartStore.removeItems(1L, ordered);
+            verify(cartRepository, never()).findByUserIdWithItems(any());
+
+            // Act
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        assertTrue(cartStore.get(1L).isEmpty());
+    }
+}
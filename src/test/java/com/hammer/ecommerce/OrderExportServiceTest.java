@@ -0,0 +1,163 @@
+package com.hammer.ecommerce;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hammer.ecommerce.dto.order.OrderExportFilter;
+import com.hammer.ecommerce.dto.order.OrderExportFormat;
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.repositories.OrderRepository;
+import com.hammer.ecommerce.service.OrderExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private OrderExportService orderExportService;
+    private ObjectMapper objectMapper;
+    private OrderExportFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        orderExportService = new OrderExportService(orderRepository, entityManager, objectMapper, 2);
+        filter = OrderExportFilter.of(null, null, null);
+    }
+
+    private Order order(Long id, String city) {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("cliente@email.com");
+
+        Address address = new Address();
+        address.setCity(city);
+        address.setState("SP");
+
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNumber("ORD-" + id);
+        order.setUser(user);
+        order.setShippingAddress(address);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(new BigDecimal("99.90"));
+        order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 0));
+        return order;
+    }
+
+    private String export(OrderExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.export(filter, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Deve exportar CSV limpando o contexto de persistência a cada bloco")
+    void testExport_CsvClearsPersistenceContext() throws Exception {
+
+        // Arrange
+        when(orderRepository.streamForExport(any(), any(), any()))
+                .thenReturn(Stream.of(order(1L, "Campinas"), order(2L, "São Paulo, Capital"), order(3L, "Santos")));
+
+        // Act
+        String csv = export(OrderExportFormat.CSV);
+
+        // Assert
+        String[] lines = csv.split("\r\n");
+        assertEquals(4, lines.length);
+        assertEquals("1,ORD-1,2024-05-01T10:00,PENDING,99.90,7,cliente@email.com,,,,Campinas,SP", lines[1]);
+        assertTrue(lines[2].endsWith(",\"São Paulo, Capital\",SP"));
+        verify(entityManager, times(1)).clear();
+    }
+
+    @Test
+    @DisplayName("Deve neutralizar no CSV textos que a planilha trataria como fórmula")
+    void testExport_CsvEscapesFormulas() throws Exception {
+
+        // Arrange: e-mail e cidade vêm do cadastro do cliente
+        Order order = order(1L, "=HYPERLINK(\"http://x\",\"y\")");
+        order.getUser().setEmail("@SUM(1+1)");
+        order.getShippingAddress().setState("-2+3");
+        when(orderRepository.streamForExport(any(), any(), any()))
+                .thenReturn(Stream.of(order, order(2L, "+Santos")));
+
+        // Act
+        String csv = export(OrderExportFormat.CSV);
+
+        // Assert
+        String[] lines = csv.split("\r\n");
+        assertEquals("1,ORD-1,2024-05-01T10:00,PENDING,99.90,7,'@SUM(1+1),,,,"
+                + "\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",'-2+3", lines[1]);
+        assertTrue(lines[2].endsWith(",'+Santos,SP"));
+    }
+
+    @Test
+    @DisplayName("Deve exportar um objeto JSON por linha com os dados do pagamento")
+    void testExport_Ndjson() throws Exception {
+
+        // Arrange
+        Order order = order(1L, "Campinas");
+        Payment payment = new Payment();
+        payment.setPaymentMethod(PaymentMethod.PIX);
+        payment.setStatus(PaymentStatus.APPROVED);
+        order.setPayment(payment);
+        when(orderRepository.streamForExport(any(), any(), any())).thenReturn(Stream.of(order));
+
+        // Act
+        String ndjson = export(OrderExportFormat.NDJSON);
+
+        // Assert
+        List<String> lines = ndjson.lines().toList();
+        assertEquals(1, lines.size());
+        var row = objectMapper.readTree(lines.get(0));
+        assertEquals("ORD-1", row.get("orderNumber").asText());
+        assertEquals("PIX", row.get("paymentMethod").asText());
+        assertEquals("APPROVED", row.get("paymentStatus").asText());
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    @DisplayName("Deve montar o filtro com datas inclusivas e todos os status por padrão")
+    void testFilter() {
+
+        // Act
+        OrderExportFilter result = OrderExportFilter.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31),
+                List.of(OrderStatus.PAID));
+
+        // Assert
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), result.getFrom());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 0, 0), result.getTo());
+        assertEquals(EnumSet.of(OrderStatus.PAID), result.getStatuses());
+        assertEquals(EnumSet.allOf(OrderStatus.class), filter.getStatuses());
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> OrderExportFilter.of(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null));
+        assertEquals("Data inicial deve ser anterior ou igual à data final", exception.getMessage());
+    }
+}
@@ -1,31 +1,51 @@
 package com.hammer.ecommerce;
 
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.cart.CartLine;
+import com.hammer.ecommerce.cart.CartSnapshot;
+import com.hammer.ecommerce.cart.CartStore;
+import com.hammer.ecommerce.config.AddressMapper;
 import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
 import com.hammer.ecommerce.dto.order.OrderResponseDTO;
 import com.hammer.ecommerce.dto.order.OrderSummaryDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
 import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
 import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
 import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.service.InventoryReservationService;
 import com.hammer.ecommerce.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,7 +58,7 @@ class OrderServiceTest {
     private OrderItemRepository orderItemRepository;
 
     @Mock
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Mock
     private AddressRepository addressRepository;
@@ -49,15 +69,26 @@ class OrderServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private AddressMapper addressMapper = new AddressMapper();
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
     @Mock
-    private ModelMapper modelMapper;
+    private InventoryReservationService inventoryReservationService;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private OrderService orderService;
 
     private User user;
-    private Cart cart;
-    private CartItem cartItem;
+    private CartSnapshot cart;
     private Product product;
     private Address address;
     private Order order;
@@ -81,17 +112,7 @@ class OrderServiceTest {
         product.setActive(true);
         product.setCategory(category);
 
-        cart = new Cart();
-        cart.setId(1L);
-        cart.setUser(user);
-
-        cartItem = new CartItem();
-        cartItem.setId(1L);
-        cartItem.setCart(cart);
-        cartItem.setProduct(product);
-        cartItem.setQuantity(2);
-
-        cart.getItems().add(cartItem);
+        cart = new CartSnapshot(1L, List.of(new CartLine(1L, 1L, 2)), LocalDateTime.now());
 
         address = new Address();
         address.setId(1L);
@@ -118,55 +139,154 @@ class OrderServiceTest {
 
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        when(cartStore.get(1L)).thenReturn(cart);
         when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
-        when(productRepository.save(any(Product.class))).thenReturn(product);
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(order);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+        when(productRepository.decrementStock(any())).thenReturn(List.of());
 
         // Act
         OrderResponseDTO result = orderService.createOrder(1L, createOrderRequest);
 
         // Assert
         assertNotNull(result);
-        assertEquals(18, product.getStockQuantity()); // 20 - 2
-        assertTrue(cart.getItems().isEmpty());
-        verify(orderRepository, times(1)).save(any(Order.class));
-        verify(productRepository, times(1)).save(product);
-        verify(cartRepository, times(1)).save(cart);
+        verify(orderRepository, times(1)).saveAndFlush(any(Order.class));
+        verify(productRepository, times(1)).decrementStock(new TreeMap<>(Map.of(1L, 2)));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(inventoryReservationService, times(1)).acquireForOrder(eq(1L), eq(new TreeMap<>(Map.of(1L, 2))), any());
+        verify(inventoryReservationService, times(1)).consumeForOrder(1L, Set.of(1L));
+        verify(cartStore, times(1)).removeItems(1L, cart.getLines());
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.ORDER_CREATED), eq(order.getId()), any());
+        verify(outboxPublisher, times(1)).publishStockChanges(new TreeMap<>(Map.of(1L, -2)), order.getId());
+        assertEquals(1, meterRegistry.get(OrderService.CREATED_METRIC).counter().count());
+        assertEquals(1, meterRegistry.get(OrderService.ITEMS_METRIC).summary().count());
+        assertEquals(1, meterRegistry.get(OrderService.CHECKOUT_LATENCY_METRIC).tag("outcome", "created").timer().count());
     }
 
     @Test
-    @DisplayName("Deve lançar exceção ao criar pedido com carrinho vazio")
-    void testCreateOrder_EmptyCart() {
+    @DisplayName("Deve registrar as métricas do pedido só quando a transação termina")
+    void testCreateOrder_MetricsAfterCompletion() {
+
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(cartStore.get(1L)).thenReturn(cart);
+        when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(order);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+        when(productRepository.decrementStock(any())).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderService.createOrder(1L, createOrderRequest);
+
+            // Assert: nada antes do fim da transação
+            assertNull(meterRegistry.find(OrderService.CREATED_METRIC).counter());
+            assertNull(meterRegistry.find(OrderService.CHECKOUT_LATENCY_METRIC).timer());
+
+            // Act: o commit falhou e a transação foi desfeita
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertNull(meterRegistry.find(OrderService.CREATED_METRIC).counter());
+        assertEquals(1, meterRegistry.get(OrderService.CHECKOUT_LATENCY_METRIC).tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve debitar estoque em ordem de ID somando itens do mesmo produto")
+    void testCreateOrder_StockDebitsOrderedById() {
 
         // Arrange
-        cart.getItems().clear();
+        Product other = new Product();
+        other.setId(0L);
+        other.setName("Teclado");
+        other.setPrice(new BigDecimal("100.00"));
+        other.setStockQuantity(5);
+        other.setActive(true);
+
+        cart = new CartSnapshot(1L, List.of(
+                new CartLine(1L, 1L, 2),
+                new CartLine(2L, 0L, 1),
+                new CartLine(3L, 1L, 3)), LocalDateTime.now());
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(cartStore.get(1L)).thenReturn(cart);
+        when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
+        when(productRepository.findAllById(List.of(1L, 0L))).thenReturn(List.of(product, other));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(order);
+        when(productRepository.decrementStock(any())).thenReturn(List.of());
+
+        // Act
+        orderService.createOrder(1L, createOrderRequest);
+
+        // Assert
+        ArgumentCaptor<SortedMap<Long, Integer>> debits = ArgumentCaptor.forClass(SortedMap.class);
+        verify(productRepository).decrementStock(debits.capture());
+        assertEquals(List.of(0L, 1L), List.copyOf(debits.getValue().keySet()));
+        assertEquals(5, debits.getValue().get(1L)); // 2 + 3
+    }
+
+    @Test
+    @DisplayName("Deve falhar quando o débito atômico de estoque não afeta nenhuma linha")
+    void testCreateOrder_ConcurrentStockExhausted() {
+
+        // Arrange: estoque lido parece suficiente, mas outro pedido levou antes
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        when(cartStore.get(1L)).thenReturn(cart);
+        when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+        when(productRepository.decrementStock(any())).thenReturn(List.of(1L));
+
+        // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
             orderService.createOrder(1L, createOrderRequest);
         });
 
-        assertEquals("Carrinho está vazio", exception.getMessage());
-        verify(orderRepository, never()).save(any(Order.class));
+        assertEquals("Estoque insuficiente para o produto: Mouse Gamer", exception.getMessage());
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+        verify(cartStore, never()).removeItems(any(), any());
+        assertEquals(1, meterRegistry.get(OrderService.CHECKOUT_LATENCY_METRIC).tag("outcome", "out-of-stock").timer().count());
+        assertNull(meterRegistry.find(OrderService.CREATED_METRIC).counter());
     }
 
     @Test
-    @DisplayName("Deve lançar exceção ao criar pedido sem carrinho")
-    void testCreateOrder_NoCart() {
+    @DisplayName("Deve recusar o pedido sem tocar no estoque quando a reserva é negada")
+    void testCreateOrder_ReservationRejected() {
 
-        // Arrange
+        // Arrange: outros clientes já reservaram o estoque disponível
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.empty());
+        when(cartStore.get(1L)).thenReturn(cart);
+        when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+        doThrow(new BusinessException("Estoque insuficiente para o produto: Mouse Gamer. Disponível: 0"))
+                .when(inventoryReservationService).acquireForOrder(eq(1L), any(), any());
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
             orderService.createOrder(1L, createOrderRequest);
         });
 
-        assertEquals("Carrinho não encontrado", exception.getMessage());
-        verify(orderRepository, never()).save(any(Order.class));
+        assertTrue(exception.getMessage().contains("Disponível: 0"));
+        verify(productRepository, never()).decrementStock(any());
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao criar pedido com carrinho vazio")
+    void testCreateOrder_EmptyCart() {
+
+        // Arrange
+        cart = new CartSnapshot(1L, List.of(), LocalDateTime.now());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(cartStore.get(1L)).thenReturn(cart);
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            orderService.createOrder(1L, createOrderRequest);
+        });
+
+        assertEquals("Carrinho está vazio", exception.getMessage());
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -175,7 +295,7 @@ class OrderServiceTest {
 
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        when(cartStore.get(1L)).thenReturn(cart);
         when(addressRepository.findByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
 
         createOrderRequest.setShippingAddressId(999L);
@@ -184,7 +304,7 @@ class OrderServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> {
             orderService.createOrder(1L, createOrderRequest);
         });
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -194,8 +314,9 @@ class OrderServiceTest {
         // Arrange
         product.setActive(false);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        when(cartStore.get(1L)).thenReturn(cart);
         when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -203,7 +324,7 @@ class OrderServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("não está mais disponível"));
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -213,8 +334,9 @@ class OrderServiceTest {
         // Arrange
         product.setStockQuantity(1);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        when(cartStore.get(1L)).thenReturn(cart);
         when(addressRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(address));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -222,7 +344,7 @@ class OrderServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Estoque insuficiente"));
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -281,8 +403,7 @@ class OrderServiceTest {
         orderItem.setQuantity(2);
         order.getOrderItems().add(orderItem);
 
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         // Act
@@ -291,9 +412,13 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(OrderStatus.CANCELLED, order.getStatus());
-        assertEquals(22, product.getStockQuantity()); // 20 + 2
         verify(orderRepository, times(1)).save(order);
-        verify(productRepository, times(1)).save(product);
+        verify(productRepository, times(1)).incrementStock(new TreeMap<>(Map.of(1L, 2)));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.ORDER_STATUS_CHANGED), eq(order.getId()),
+                argThat(payload -> "CANCELLED".equals(payload.get("to"))));
+        verify(outboxPublisher, times(1)).publishStockChanges(new TreeMap<>(Map.of(1L, 2)), order.getId());
+        assertEquals(1, meterRegistry.get(OrderService.CANCELLED_METRIC).tag("source", "customer").counter().count());
     }
 
     @Test
@@ -305,7 +430,7 @@ class OrderServiceTest {
         otherUser.setId(2L);
         order.setUser(otherUser);
 
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -322,7 +447,7 @@ class OrderServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.CANCELLED);
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -339,7 +464,7 @@ class OrderServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.DELIVERED);
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -356,7 +481,7 @@ class OrderServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.SHIPPED);
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -389,7 +514,7 @@ class OrderServiceTest {
     void testUpdateOrderStatus_Success() {
 
         // Arrange
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         // Act
@@ -399,6 +524,8 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(OrderStatus.PAID, order.getStatus());
         verify(orderRepository, times(1)).save(order);
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.ORDER_STATUS_CHANGED), eq(order.getId()),
+                argThat(payload -> "PENDING".equals(payload.get("from")) && "PAID".equals(payload.get("to"))));
     }
 
     @Test
@@ -407,7 +534,7 @@ class OrderServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.CANCELLED);
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -416,6 +543,7 @@ class OrderServiceTest {
 
         assertEquals("Não é possível alterar status de pedido cancelado", exception.getMessage());
         verify(orderRepository, never()).save(any(Order.class));
+        verify(outboxPublisher, never()).publish(any(), any(), any());
     }
 
     @Test
@@ -424,7 +552,7 @@ class OrderServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.DELIVERED);
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -441,7 +569,7 @@ class OrderServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.PENDING);
-        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
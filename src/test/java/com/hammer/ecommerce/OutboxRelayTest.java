@@ -0,0 +1,100 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.model.DomainEventType;
+import com.hammer.ecommerce.model.OutboxEvent;
+import com.hammer.ecommerce.outbox.DomainEvent;
+import com.hammer.ecommerce.outbox.DomainEventBus;
+import com.hammer.ecommerce.outbox.DomainEventSink;
+import com.hammer.ecommerce.outbox.OutboxRelay;
+import com.hammer.ecommerce.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private DomainEventSink sink;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, new DomainEventBus(List.of(sink)), transactionManager,
+                meterRegistry, 2);
+    }
+
+    private OutboxEvent event(Long id, Long orderId) {
+        return new OutboxEvent(id, "ORDER", orderId, DomainEventType.ORDER_STATUS_CHANGED, "{}",
+                LocalDateTime.now().minusSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Deve entregar lotes em ordem até esvaziar o outbox e apagar os entregues")
+    @SuppressWarnings("unchecked")
+    void testRelay_DrainsInBatches() {
+
+        // Arrange: lote cheio (2) e depois um lote parcial, que encerra a execução
+        when(outboxEventRepository.lockNextBatch(any()))
+                .thenReturn(List.of(event(1L, 10L), event(2L, 10L)))
+                .thenReturn(List.of(event(3L, 11L)));
+
+        // Act
+        int delivered = relay.relay();
+
+        // Assert
+        assertEquals(3, delivered);
+        ArgumentCaptor<List<DomainEvent>> batches = ArgumentCaptor.forClass(List.class);
+        verify(sink, times(2)).handle(batches.capture());
+        assertEquals(List.of(1L, 2L), batches.getAllValues().get(0).stream().map(DomainEvent::getId).toList());
+        assertEquals(List.of(3L), batches.getAllValues().get(1).stream().map(DomainEvent::getId).toList());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        assertEquals(3, meterRegistry.get(OutboxRelay.PUBLISHED_METRIC).tag("type", "ORDER_STATUS_CHANGED")
+                .counter().count());
+        assertEquals(3, meterRegistry.get(OutboxRelay.LAG_METRIC).timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve manter o lote no outbox quando um sink falha")
+    void testRelay_SinkFailureKeepsBatch() {
+
+        // Arrange
+        when(outboxEventRepository.lockNextBatch(any())).thenReturn(List.of(event(1L, 10L)));
+        doThrow(new IllegalStateException("sink fora do ar")).when(sink).handle(anyList());
+        when(outboxEventRepository.findOldestCreatedAt()).thenReturn(LocalDateTime.now().minusMinutes(1));
+
+        // Act
+        int delivered = relay.relay();
+
+        // Assert: nada apagado (reentrega na próxima execução) e o atraso aparece no gauge
+        assertEquals(0, delivered);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(1, meterRegistry.get(OutboxRelay.FAILURES_METRIC).counter().count());
+        assertTrue(meterRegistry.get(OutboxRelay.OLDEST_AGE_METRIC).gauge().value() >= 60);
+        assertNull(meterRegistry.find(OutboxRelay.PUBLISHED_METRIC).counter());
+    }
+}
@@ -0,0 +1,338 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
+import com.hammer.ecommerce.payment.PaymentGateway;
+import com.hammer.ecommerce.payment.PaymentGatewayRequest;
+import com.hammer.ecommerce.payment.PaymentGatewayResponse;
+import com.hammer.ecommerce.payment.PaymentProcessor;
+import com.hammer.ecommerce.repositories.OrderRepository;
+import com.hammer.ecommerce.repositories.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentProcessorTest {
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Order order;
+    private Payment payment;
+    private PaymentGatewayRequest request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        User user = new User();
+        user.setId(1L);
+
+        order = new Order();
+        order.setId(1L);
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(new BigDecimal("300.00"));
+
+        payment = new Payment();
+        payment.setId(1L);
+        payment.setOrder(order);
+        payment.setPaymentMethod(PaymentMethod.PIX);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setTransactionId("TXN-123456");
+
+        request = new PaymentGatewayRequest(1L, "TXN-123456", new BigDecimal("300.00"),
+                PaymentMethod.PIX, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Deve aprovar pagamento e marcar pedido como pago")
+    void testSubmit_Approved() {
+
+        // Arrange
+        PaymentProcessor processor = processor(false, 10);
+        when(paymentGateway.charge(request)).thenReturn(PaymentGatewayResponse.approved());
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+
+        // Act
+        processor.submit(request);
+
+        // Assert
+        assertEquals(PaymentStatus.APPROVED, payment.getStatus());
+        assertNotNull(payment.getPaidAt());
+        assertEquals(OrderStatus.PAID, order.getStatus());
+        verify(paymentRepository, times(1)).save(payment);
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.ORDER_STATUS_CHANGED), eq(1L), any());
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.PAYMENT_APPROVED), eq(1L), any());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.GATEWAY_LATENCY_METRIC)
+                .tag("outcome", "approved").timer().count());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.PAYMENTS_METRIC)
+                .tags("status", "approved", "method", "PIX").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve recusar pagamento e manter pedido pendente")
+    void testSubmit_Rejected() {
+
+        // Arrange
+        PaymentProcessor processor = processor(false, 10);
+        when(paymentGateway.charge(request)).thenReturn(PaymentGatewayResponse.rejected("Cartão inválido"));
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+
+        // Act
+        processor.submit(request);
+
+        // Assert
+        assertEquals(PaymentStatus.REJECTED, payment.getStatus());
+        assertNull(payment.getPaidAt());
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        verify(paymentRepository, times(1)).save(payment);
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.PAYMENT_REJECTED), eq(1L), any());
+        verify(outboxPublisher, never()).publish(eq(DomainEventType.ORDER_STATUS_CHANGED), any(), any());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.PAYMENTS_METRIC)
+                .tags("status", "rejected", "method", "PIX").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve recusar pagamento quando o gateway falhar")
+    void testSubmit_GatewayError() {
+
+        // Arrange
+        PaymentProcessor processor = processor(false, 10);
+        when(paymentGateway.charge(request)).thenThrow(new IllegalStateException("timeout"));
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+
+        // Act
+        processor.submit(request);
+
+        // Assert
+        assertEquals(PaymentStatus.REJECTED, payment.getStatus());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.GATEWAY_LATENCY_METRIC)
+                .tag("outcome", "rejected").timer().count());
+    }
+
+    @Test
+    @DisplayName("Não deve alterar pagamento que já foi finalizado")
+    void testSubmit_AlreadyFinalized() {
+
+        // Arrange: resultado repetido para um pagamento já aprovado
+        PaymentProcessor processor = processor(false, 10);
+        payment.setStatus(PaymentStatus.APPROVED);
+        order.setStatus(OrderStatus.PAID);
+        when(paymentGateway.charge(request)).thenReturn(PaymentGatewayResponse.approved());
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+
+        // Act
+        processor.submit(request);
+
+        // Assert
+        assertEquals(PaymentStatus.APPROVED, payment.getStatus());
+        assertEquals(OrderStatus.PAID, order.getStatus());
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentGateway, never()).refund(any(), any());
+        assertNull(meterRegistry.find(PaymentProcessor.PAYMENTS_METRIC).counter());
+    }
+
+    @Test
+    @DisplayName("Deve estornar a cobrança quando o pedido é cancelado durante o processamento")
+    void testSubmit_OrderCancelledWhileCharging() {
+
+        // Arrange: o cliente cancela o pedido (e o estoque volta) enquanto o gateway cobra
+        PaymentProcessor processor = processor(false, 10);
+        when(paymentGateway.charge(request)).thenAnswer(invocation -> {
+            order.setStatus(OrderStatus.CANCELLED);
+            return PaymentGatewayResponse.approved();
+        });
+        when(paymentGateway.refund("TXN-123456", new BigDecimal("300.00")))
+                .thenReturn(new PaymentGatewayResponse(true, "Estorno aprovado"));
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+
+        // Act
+        processor.submit(request);
+
+        // Assert
+        assertEquals(PaymentStatus.REFUNDED, payment.getStatus());
+        assertNull(payment.getPaidAt());
+        assertEquals(OrderStatus.CANCELLED, order.getStatus());
+        verify(paymentGateway, times(1)).refund("TXN-123456", new BigDecimal("300.00"));
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.PAYMENT_REFUNDED), eq(1L), any());
+        verify(outboxPublisher, never()).publish(eq(DomainEventType.PAYMENT_APPROVED), any(), any());
+        verify(outboxPublisher, never()).publish(eq(DomainEventType.ORDER_STATUS_CHANGED), any(), any());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.PAYMENTS_METRIC)
+                .tags("status", "refunded", "method", "PIX").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve manter o pagamento pendente quando o estorno é recusado")
+    void testSubmit_RefundDeclined() {
+
+        // Arrange
+        PaymentProcessor processor = processor(false, 10);
+        order.setStatus(OrderStatus.CANCELLED);
+        when(paymentGateway.charge(request)).thenReturn(PaymentGatewayResponse.approved());
+        when(paymentGateway.refund(any(), any())).thenReturn(PaymentGatewayResponse.rejected("Indisponível"));
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+
+        // Act & Assert: a exceção desfaz a transação e a reconciliação tenta de novo depois
+        assertThrows(IllegalStateException.class, () -> processor.submit(request));
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    @DisplayName("Deve reconciliar pagamentos pendentes com o gateway antes de expirá-los")
+    void testExpireStalePayments() {
+
+        // Arrange: um cobrado pelo gateway, um que o gateway não conhece e um sem resposta do gateway
+        PaymentProcessor processor = processor(false, 10);
+        Order unknownOrder = order(2L);
+        Order unavailableOrder = order(3L);
+        Payment unknown = payment(2L, unknownOrder, "TXN-2");
+        Payment unavailable = payment(3L, unavailableOrder, "TXN-3");
+
+        when(paymentRepository.findByStatusCreatedBefore(eq(PaymentStatus.PENDING), any(), any()))
+                .thenReturn(List.of(payment, unknown, unavailable));
+        when(paymentGateway.findCharge("TXN-123456")).thenReturn(Optional.of(PaymentGatewayResponse.approved()));
+        when(paymentGateway.findCharge("TXN-2")).thenReturn(Optional.empty());
+        when(paymentGateway.findCharge("TXN-3")).thenThrow(new IllegalStateException("timeout"));
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.findById(2L)).thenReturn(Optional.of(unknown));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(unknownOrder));
+
+        // Act
+        processor.expireStalePayments();
+
+        // Assert
+        assertEquals(PaymentStatus.APPROVED, payment.getStatus());
+        assertEquals(OrderStatus.PAID, order.getStatus());
+        assertEquals(PaymentStatus.REJECTED, unknown.getStatus());
+        assertEquals(OrderStatus.PENDING, unknownOrder.getStatus());
+        assertEquals(PaymentStatus.PENDING, unavailable.getStatus());
+
+        // Cada pagamento finalizado tem o seu evento
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.PAYMENT_APPROVED), eq(1L), any());
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.PAYMENT_REJECTED), eq(2L), any());
+        verify(outboxPublisher, never()).publish(any(), eq(3L), any());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.EXPIRED_METRIC).counter().count());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.PAYMENTS_METRIC)
+                .tags("status", "approved", "method", "PIX").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve estornar cobrança que chega depois de o pagamento expirar")
+    void testSubmit_ChargedAfterExpiration() {
+
+        // Arrange
+        PaymentProcessor processor = processor(false, 10);
+        payment.setStatus(PaymentStatus.REJECTED);
+        when(paymentGateway.charge(request)).thenReturn(PaymentGatewayResponse.approved());
+        when(paymentGateway.refund("TXN-123456", new BigDecimal("300.00")))
+                .thenReturn(new PaymentGatewayResponse(true, "Estorno aprovado"));
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+
+        // Act
+        processor.submit(request);
+
+        // Assert
+        assertEquals(PaymentStatus.REFUNDED, payment.getStatus());
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.PAYMENT_REFUNDED), eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("Deve processar em segundo plano respeitando o limite de chamadas ao gateway")
+    void testSubmit_Async_QueueDepth() throws Exception {
+
+        // Arrange
+        PaymentProcessor processor = processor(true, 1);
+        CountDownLatch charging = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentGateway.charge(any(PaymentGatewayRequest.class))).thenAnswer(invocation -> {
+            charging.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return PaymentGatewayResponse.approved();
+        });
+        when(paymentRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        // Act
+        for (long id = 1; id <= 3; id++) {
+            processor.submit(new PaymentGatewayRequest(id, "TXN-" + id, new BigDecimal("10.00"),
+                    PaymentMethod.PIX, null, null, null, null));
+        }
+
+        // Assert: um pagamento no gateway, dois aguardando vaga
+        assertTrue(charging.await(5, TimeUnit.SECONDS));
+        assertEquals(1, processor.getInFlight());
+        assertEquals(2, meterRegistry.get(PaymentProcessor.QUEUE_DEPTH_METRIC).gauge().value());
+
+        release.countDown();
+        processor.shutdown(); // aguarda as tarefas em andamento
+
+        assertEquals(0, processor.getQueueDepth());
+        assertEquals(0, processor.getInFlight());
+        verify(paymentGateway, times(3)).charge(any(PaymentGatewayRequest.class));
+    }
+
+    private PaymentProcessor processor(boolean async, int maxConcurrency) {
+        return new PaymentProcessor(paymentGateway, paymentRepository, orderRepository, outboxPublisher, transactionManager,
+                meterRegistry, async, maxConcurrency, Duration.ofMinutes(10));
+    }
+
+    private Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(this.order.getUser());
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(new BigDecimal("10.00"));
+        return order;
+    }
+
+    private Payment payment(Long id, Order order, String transactionId) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setOrder(order);
+        payment.setPaymentMethod(PaymentMethod.PIX);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setTransactionId(transactionId);
+        return payment;
+    }
+}
@@ -5,15 +5,23 @@ import com.hammer.ecommerce.dto.payment.ProcessPaymentRequestDTO;
 import com.hammer.ecommerce.exceptions.BusinessException;
 import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
 import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
+import com.hammer.ecommerce.payment.PaymentGateway;
+import com.hammer.ecommerce.payment.PaymentGatewayRequest;
+import com.hammer.ecommerce.payment.PaymentGatewayResponse;
+import com.hammer.ecommerce.payment.PaymentProcessor;
 import com.hammer.ecommerce.repositories.OrderRepository;
 import com.hammer.ecommerce.repositories.PaymentRepository;
 import com.hammer.ecommerce.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -21,6 +29,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +41,18 @@ class PaymentServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private PaymentProcessor paymentProcessor;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -67,14 +88,14 @@ class PaymentServiceTest {
     }
 
     @Test
-    @DisplayName("Deve processar pagamento PIX com sucesso")
+    @DisplayName("Deve registrar pagamento PIX como pendente e enviar ao gateway")
     void testProcessPayment_PIX_Success() {
 
         // Arrange
+        payment.setStatus(PaymentStatus.PENDING);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenReturn(payment);
 
         // Act
         PaymentResponseDTO result = paymentService.processPayment(1L, paymentRequest);
@@ -82,13 +103,18 @@ class PaymentServiceTest {
         // Assert
         assertNotNull(result);
         assertNotNull(result.getTransactionId());
-        assertEquals(OrderStatus.PAID, order.getStatus());
-        verify(paymentRepository, times(1)).save(any(Payment.class));
-        verify(orderRepository, times(1)).save(order);
+        assertEquals("PENDING", result.getStatus());
+        assertEquals(OrderStatus.PENDING, order.getStatus()); // só muda quando o gateway aprovar
+        verify(paymentRepository, times(1)).saveAndFlush(any(Payment.class));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(paymentProcessor, times(1)).submit(any(PaymentGatewayRequest.class));
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.PAYMENT_REQUESTED), eq(payment.getId()), any());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.PAYMENTS_METRIC)
+                .tags("status", "requested", "method", "PIX").counter().count());
     }
 
     @Test
-    @DisplayName("Deve processar pagamento com cartão de crédito")
+    @DisplayName("Deve enviar dados do cartão ao gateway sem persisti-los")
     void testProcessPayment_CreditCard_Success() {
 
         // Arrange
@@ -98,17 +124,25 @@ class PaymentServiceTest {
         paymentRequest.setCardExpiryDate("12/2026");
         paymentRequest.setCardCvv("123");
 
+        payment.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        payment.setStatus(PaymentStatus.PENDING);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenReturn(payment);
 
         // Act
         PaymentResponseDTO result = paymentService.processPayment(1L, paymentRequest);
 
         // Assert
         assertNotNull(result);
-        verify(paymentRepository, times(1)).save(any(Payment.class));
+        verify(paymentRepository, times(1)).saveAndFlush(any(Payment.class));
+
+        ArgumentCaptor<PaymentGatewayRequest> captor = ArgumentCaptor.forClass(PaymentGatewayRequest.class);
+        verify(paymentProcessor).submit(captor.capture());
+        assertEquals(1L, captor.getValue().getPaymentId());
+        assertEquals(new BigDecimal("300.00"), captor.getValue().getAmount());
+        assertEquals("1234567890123456", captor.getValue().getCardNumber());
+        assertFalse(captor.getValue().toString().contains("1234567890123456"));
     }
 
     @Test
@@ -123,7 +157,8 @@ class PaymentServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> {
             paymentService.processPayment(1L, paymentRequest);
         });
-        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentRepository, never()).saveAndFlush(any(Payment.class));
+        verify(paymentProcessor, never()).submit(any(PaymentGatewayRequest.class));
     }
 
     @Test
@@ -143,7 +178,8 @@ class PaymentServiceTest {
         });
 
         assertEquals("Pedido não pertence ao usuário", exception.getMessage());
-        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentRepository, never()).saveAndFlush(any(Payment.class));
+        verify(paymentProcessor, never()).submit(any(PaymentGatewayRequest.class));
     }
 
     @Test
@@ -161,7 +197,8 @@ class PaymentServiceTest {
 
         assertEquals("Pedido já possui pagamento processado", exception.getMessage());
         verify(paymentRepository, times(1)).existsByOrderId(1L);
-        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentRepository, never()).saveAndFlush(any(Payment.class));
+        verify(paymentProcessor, never()).submit(any(PaymentGatewayRequest.class));
     }
 
     @Test
@@ -179,7 +216,8 @@ class PaymentServiceTest {
         });
 
         assertEquals("Apenas pedidos pendentes podem receber pagamento", exception.getMessage());
-        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentRepository, never()).saveAndFlush(any(Payment.class));
+        verify(paymentProcessor, never()).submit(any(PaymentGatewayRequest.class));
     }
 
     @Test
@@ -222,8 +260,10 @@ class PaymentServiceTest {
         order.setStatus(OrderStatus.PAID);
         payment.setStatus(PaymentStatus.APPROVED);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
         when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.of(payment));
+        when(paymentGateway.refund("TXN-123456", new BigDecimal("300.00")))
+                .thenReturn(new PaymentGatewayResponse(true, "Estorno aprovado"));
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
@@ -234,8 +274,12 @@ class PaymentServiceTest {
         assertNotNull(result);
         assertEquals(PaymentStatus.REFUNDED, payment.getStatus());
         assertEquals(OrderStatus.CANCELLED, order.getStatus());
+        verify(paymentGateway, times(1)).refund("TXN-123456", new BigDecimal("300.00"));
         verify(paymentRepository, times(1)).save(payment);
         verify(orderRepository, times(1)).save(order);
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.PAYMENT_REFUNDED), eq(payment.getId()), any());
+        verify(outboxPublisher, times(1)).publish(eq(DomainEventType.ORDER_STATUS_CHANGED), eq(order.getId()), any());
+        assertEquals(1, meterRegistry.get(PaymentProcessor.PAYMENTS_METRIC).tag("status", "refunded").counter().count());
     }
 
     @Test
@@ -244,7 +288,7 @@ class PaymentServiceTest {
 
         // Arrange
         payment.setStatus(PaymentStatus.PENDING);
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
         when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.of(payment));
 
         // Act & Assert
@@ -253,6 +297,7 @@ class PaymentServiceTest {
         });
 
         assertEquals("Apenas pagamentos aprovados podem ser reembolsados", exception.getMessage());
+        verify(paymentGateway, never()).refund(any(), any());
         verify(paymentRepository, never()).save(any(Payment.class));
     }
 
@@ -264,7 +309,7 @@ class PaymentServiceTest {
         order.setStatus(OrderStatus.DELIVERED);
         payment.setStatus(PaymentStatus.APPROVED);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
         when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.of(payment));
 
         // Act & Assert
@@ -273,7 +318,33 @@ class PaymentServiceTest {
         });
 
         assertEquals("Não é possível reembolsar pedido já entregue", exception.getMessage());
+        verify(paymentGateway, never()).refund(any(), any());
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    @DisplayName("Deve manter pagamento aprovado e pedido ativo quando o gateway recusa o estorno")
+    void testRefundPayment_GatewayDeclined() {
+
+        // Arrange
+        order.setStatus(OrderStatus.PAID);
+        payment.setStatus(PaymentStatus.APPROVED);
+
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+        when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.of(payment));
+        when(paymentGateway.refund(any(), any())).thenReturn(PaymentGatewayResponse.rejected("Cobrança não encontrada"));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            paymentService.refundPayment(1L, 1L);
+        });
+
+        assertEquals("Estorno recusado pelo gateway: Cobrança não encontrada", exception.getMessage());
+        assertEquals(PaymentStatus.APPROVED, payment.getStatus());
+        assertEquals(OrderStatus.PAID, order.getStatus());
         verify(paymentRepository, never()).save(any(Payment.class));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(outboxPublisher, never()).publish(any(), any(), any());
     }
 
     @Test
@@ -285,7 +356,7 @@ class PaymentServiceTest {
         otherUser.setId(2L);
         order.setUser(otherUser);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
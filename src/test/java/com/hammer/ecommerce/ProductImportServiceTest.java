@@ -0,0 +1,224 @@
+package com.hammer.ecommerce;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.dto.product.ProductImportFormat;
+import com.hammer.ecommerce.dto.product.ProductImportJobDTO;
+import com.hammer.ecommerce.model.Category;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.model.ProductImportJob;
+import com.hammer.ecommerce.model.ProductImportStatus;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
+import com.hammer.ecommerce.repositories.CategoryRepository;
+import com.hammer.ecommerce.repositories.ProductImportJobRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.search.ProductSearchEngine;
+import com.hammer.ecommerce.service.ProductImportService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    private static final String HEADER = "sku,name,description,price,stockQuantity,imageUrl,categoryId,category,active\n";
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductImportJobRepository jobRepository;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path resultDir;
+
+    private ValidatorFactory validatorFactory;
+    private ProductImportService productImportService;
+    private ProductImportJob stored;
+    private Product existing;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        productImportService = new ProductImportService(productRepository, categoryRepository, jobRepository,
+                productCatalogCache, productSearchEngine, outboxPublisher, validatorFactory.getValidator(),
+                new ObjectMapper(), transactionManager, 10, resultDir.toString());
+
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Periféricos");
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+
+        // SKU-1 já cadastrado: a importação só muda o estoque
+        existing = new Product();
+        existing.setId(1L);
+        existing.setSku("SKU-1");
+        existing.setName("Mouse sem fio");
+        existing.setPrice(new BigDecimal("59.90"));
+        existing.setStockQuantity(5);
+        existing.setActive(true);
+        existing.setCategory(category);
+
+        when(jobRepository.save(any(ProductImportJob.class))).thenAnswer(invocation -> {
+            ProductImportJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(1L);
+            }
+            stored = job;
+            return job;
+        });
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Deve gravar produto a produto quando o banco recusa o lote e registrar o recusado como erro")
+    void testImport_BatchRejectedFallsBackToRows() throws Exception {
+
+        // Arrange: o INSERT do SKU-3 viola uma constraint (o lote inteiro é desfeito)
+        when(jobRepository.findById(1L)).thenAnswer(invocation -> Optional.of(stored));
+        when(productRepository.lockBySku(anyCollection())).thenAnswer(invocation -> {
+            List<String> skus = List.copyOf(invocation.getArgument(0));
+            return skus.contains("SKU-1") ? Map.of("SKU-1", existing) : Map.of();
+        });
+        when(productRepository.upsertAll(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            if (products.stream().anyMatch(product -> product.getSku().equals("SKU-3"))) {
+                throw new DataIntegrityViolationException("violates foreign key constraint");
+            }
+            products.forEach(product -> product.setId(product.getSku().equals("SKU-1") ? 1L : 2L));
+            return products.stream().map(Product::getSku).filter(sku -> !sku.equals("SKU-1")).collect(Collectors.toSet());
+        });
+
+        String csv = HEADER +
+                "SKU-1,Mouse sem fio,,59.90,20,,1,,true\n" +
+                "SKU-2,Teclado mecânico,,199.00,7,,1,,true\n" +
+                "SKU-3,Monitor,,899.00,1,,1,,true\n";
+
+        // Act
+        ProductImportJobDTO result = productImportService.importProducts(ProductImportFormat.CSV, null,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert: o job não falha, e uma retomada não cairia no mesmo lote de novo
+        assertEquals(ProductImportStatus.COMPLETED, result.getStatus());
+        assertEquals(3, result.getRowsProcessed());
+        assertEquals(1, result.getProductsCreated());
+        assertEquals(1, result.getProductsUpdated());
+        assertEquals(1, result.getRowsFailed());
+
+        List<String> errors = Files.readAllLines(Path.of(stored.getResultFile()));
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(1).startsWith("3,SKU-3,Registro recusado pelo banco: violates foreign key constraint"));
+
+        verify(productSearchEngine, times(2)).index(any(Product.class));
+        verify(productSearchEngine, never()).index(argThat(product -> product.getSku().equals("SKU-3")));
+    }
+
+    @Test
+    @DisplayName("Deve invalidar só as entradas do cache afetadas pela importação")
+    void testImport_EvictsOnlyAffectedCacheEntries() {
+
+        // Arrange: SKU-1 muda só o estoque
+        when(productRepository.lockBySku(anyCollection())).thenReturn(Map.of("SKU-1", existing));
+        when(productRepository.upsertAll(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            products.forEach(product -> product.setId(1L));
+            return Set.of();
+        });
+        String csv = HEADER + "SKU-1,Mouse sem fio,,59.90,20,,1,,true\n";
+
+        // Act
+        productImportService.importProducts(ProductImportFormat.CSV, null,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert: as listagens só caem quando a composição delas pode mudar
+        verify(productCatalogCache).evictStock(List.of(1L));
+        verify(productCatalogCache, never()).evictProductsAndListings(anyCollection());
+        verify(productCatalogCache, never()).clear();
+        verify(outboxPublisher).publishStockChanges(Map.of(1L, 15), null);
+    }
+
+    @Test
+    @DisplayName("Deve regravar o lote quando outra importação insere o mesmo SKU novo no meio dele")
+    void testImport_ConcurrentInsertOfNewSku() {
+
+        // Arrange: SKU-2 não existia no lockBySku, mas outra importação o inseriu (estoque 3)
+        // antes do upsert, que então o atualizou em vez de inserir
+        Product concurrent = new Product();
+        concurrent.setId(2L);
+        concurrent.setSku("SKU-2");
+        concurrent.setName("Teclado mecânico");
+        concurrent.setPrice(new BigDecimal("199.00"));
+        concurrent.setStockQuantity(3);
+        concurrent.setActive(true);
+        concurrent.setCategory(existing.getCategory());
+
+        when(jobRepository.findById(1L)).thenAnswer(invocation -> Optional.of(stored));
+        when(productRepository.lockBySku(anyCollection()))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of("SKU-2", concurrent));
+        when(productRepository.upsertAll(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            products.forEach(product -> product.setId(2L));
+            return Set.of();
+        });
+        String csv = HEADER + "SKU-2,Teclado mecânico,,199.00,7,,1,,true\n";
+
+        // Act
+        ProductImportJobDTO result = productImportService.importProducts(ProductImportFormat.CSV, null,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert: regravado como atualização, com o delta sobre o estoque que a outra importação gravou
+        assertEquals(ProductImportStatus.COMPLETED, result.getStatus());
+        assertEquals(0, result.getProductsCreated());
+        assertEquals(1, result.getProductsUpdated());
+        assertEquals(0, result.getRowsFailed());
+        verify(productRepository, times(2)).upsertAll(anyList());
+        verify(outboxPublisher).publishStockChanges(Map.of(2L, 4), null);
+        verify(outboxPublisher, never()).publishStockChanges(Map.of(2L, 7), null);
+    }
+}
@@ -1,5 +1,9 @@
 package com.hammer.ecommerce;
 
+import com.hammer.ecommerce.cache.ProductCatalogCache;
+import com.hammer.ecommerce.dto.pagination.CursorPageResponseDTO;
+import com.hammer.ecommerce.dto.pagination.SeekCursor;
+import com.hammer.ecommerce.dto.product.ProductListingDTO;
 import com.hammer.ecommerce.dto.product.ProductRequestDTO;
 import com.hammer.ecommerce.dto.product.ProductResponseDTO;
 import com.hammer.ecommerce.dto.product.ProductUpdateDTO;
@@ -7,26 +11,37 @@ import com.hammer.ecommerce.exceptions.BusinessException;
 import com.hammer.ecommerce.exceptions.ResourceNotFoundException;
 import com.hammer.ecommerce.model.Category;
 import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.outbox.OutboxPublisher;
 import com.hammer.ecommerce.repositories.CategoryRepository;
 import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.search.ProductSearchEngine;
+import com.hammer.ecommerce.search.ProductSearchFilter;
 import com.hammer.ecommerce.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +53,19 @@ class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+
+    @Spy
+    private ProductCatalogCache productCatalogCache =
+            new ProductCatalogCache(true, 100, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ProductService productService;
 
@@ -91,8 +119,8 @@ class ProductServiceTest {
     void testFindAll_Success() {
 
         // Arrange
-        Page<Product> productPage = new PageImpl<>(Arrays.asList(product));
-        when(productRepository.findByActiveTrue(any(Pageable.class))).thenReturn(productPage);
+        Page<ProductListingDTO> productPage = new PageImpl<>(Arrays.asList(listing(product)));
+        when(productRepository.findActiveListing(any(Pageable.class))).thenReturn(productPage);
 
         // Act
         Page<ProductResponseDTO> result = productService.findAll(Pageable.unpaged());
@@ -101,7 +129,7 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals("Notebook", result.getContent().get(0).getName());
-        verify(productRepository, times(1)).findByActiveTrue(any(Pageable.class));
+        verify(productRepository, times(1)).findActiveListing(any(Pageable.class));
     }
 
     @Test
@@ -109,8 +137,11 @@ class ProductServiceTest {
     void testFindWithFilters_Success() {
 
         // Arrange
-        Page<Product> productPage = new PageImpl<>(Arrays.asList(product));
-        when(productRepository.findWithFilters(any(), any(), any(), any(), any(Pageable.class)))
+        Page<ProductListingDTO> productPage = new PageImpl<>(Arrays.asList(listing(product)));
+        // Filtros vão para o motor junto com o texto
+        when(productSearchEngine.search("notebook",
+                new ProductSearchFilter(1L, new BigDecimal("1000"), new BigDecimal("5000")))).thenReturn(List.of(1L));
+        when(productRepository.findWithFiltersByIdIn(eq(List.of(1L)), any(), any(), any(), any(Pageable.class)))
                 .thenReturn(productPage);
 
         // Act
@@ -120,7 +151,78 @@ class ProductServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(productRepository, times(1)).findWithFilters(any(), any(), any(), any(), any(Pageable.class));
+        verify(productRepository, times(1)).findWithFiltersByIdIn(any(), any(), any(), any(), any(Pageable.class));
+        verify(productRepository, never()).findWithFilters(any(), any(), any(), any(Pageable.class));
+        assertEquals(1, meterRegistry.get(ProductService.LISTING_LATENCY_METRIC)
+                .tags("filters", "category+search+price", "pagination", "offset").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve filtrar sem motor de busca quando não há texto")
+    void testFindWithFilters_WithoutSearchText() {
+
+        // Arrange
+        Page<ProductListingDTO> productPage = new PageImpl<>(Arrays.asList(listing(product)));
+        when(productRepository.findWithFilters(any(), any(), any(), any(Pageable.class)))
+                .thenReturn(productPage);
+
+        // Act
+        Page<ProductResponseDTO> result = productService.findWithFilters(
+                1L, null, new BigDecimal("1000"), new BigDecimal("5000"), Pageable.unpaged());
+
+        // Assert
+        assertEquals(1, result.getTotalElements());
+        verifyNoInteractions(productSearchEngine);
+        assertEquals(1, meterRegistry.get(ProductService.LISTING_LATENCY_METRIC)
+                .tag("filters", "category+price").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve ordenar resultados da busca por relevância")
+    void testFindWithFilters_RelevanceOrder() {
+
+        // Arrange
+        Product mouse = new Product();
+        mouse.setId(2L);
+        mouse.setName("Mouse");
+        mouse.setPrice(new BigDecimal("100.00"));
+        mouse.setCategory(category);
+        Product keyboard = new Product();
+        keyboard.setId(3L);
+        keyboard.setName("Teclado");
+        keyboard.setPrice(new BigDecimal("200.00"));
+        keyboard.setCategory(category);
+
+        when(productSearchEngine.search("gamer", ProductSearchFilter.NONE)).thenReturn(List.of(3L, 1L, 2L));
+        // Produto 1 não passa nos filtros de categoria/preço
+        when(productRepository.findIdsWithFilters(any(), any(), any(), any())).thenReturn(List.of(2L, 3L));
+        when(productRepository.findListingByIdIn(List.of(3L))).thenReturn(List.of(listing(keyboard)));
+
+        // Act
+        Page<ProductResponseDTO> result = productService.findWithFilters(
+                null, "gamer", null, null, PageRequest.of(0, 1, Sort.by(ProductSearchEngine.RELEVANCE)));
+
+        // Assert
+        assertEquals(2, result.getTotalElements());
+        assertEquals(1, result.getContent().size());
+        assertEquals("Teclado", result.getContent().get(0).getName());
+        verify(productRepository, never()).findWithFiltersByIdIn(any(), any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve retornar página vazia quando a busca não encontra nada")
+    void testFindWithFilters_NoSearchMatches() {
+
+        // Arrange
+        when(productSearchEngine.search("inexistente", ProductSearchFilter.NONE)).thenReturn(List.of());
+
+        // Act
+        Page<ProductResponseDTO> result = productService.findWithFilters(
+                null, "inexistente", null, null, Pageable.ofSize(10));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -304,4 +406,213 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(999L);
         verify(productRepository, never()).save(any(Product.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve servir produto do cache na segunda consulta")
+    void testFindById_CacheHit() {
+
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        // Act
+        productService.findById(1L);
+        ProductResponseDTO result = productService.findById(1L);
+
+        // Assert
+        assertEquals("Notebook", result.getName());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve servir página do cache para filtros equivalentes")
+    void testFindWithFilters_CacheHitWithNormalizedKey() {
+
+        // Arrange
+        Page<ProductListingDTO> productPage = new PageImpl<>(Arrays.asList(listing(product)));
+        when(productSearchEngine.search(any(), any())).thenReturn(List.of(1L));
+        when(productRepository.findWithFiltersByIdIn(any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(productPage);
+
+        // Act
+        productService.findWithFilters(1L, "Notebook ", new BigDecimal("1000.00"), null, Pageable.ofSize(10));
+        productService.findWithFilters(1L, "notebook", new BigDecimal("1000"), null, Pageable.ofSize(10));
+
+        // Assert
+        verify(productSearchEngine, times(1)).search(any(), any());
+        verify(productRepository, times(1)).findWithFiltersByIdIn(any(), any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve invalidar cache do produto ao atualizar estoque")
+    void testUpdateStock_EvictsCache() {
+
+        // Arrange
+        Page<ProductListingDTO> productPage = new PageImpl<>(Arrays.asList(listing(product)));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findActiveListing(any(Pageable.class))).thenReturn(productPage);
+        productService.findById(1L);
+        productService.findAll(Pageable.ofSize(10));
+
+        // Act
+        productService.updateStock(1L, 5);
+        ProductResponseDTO result = productService.findById(1L);
+        productService.findAll(Pageable.ofSize(10));
+
+        // Assert
+        assertEquals(15, result.getStockQuantity());
+        verify(productRepository, times(3)).findById(1L);
+        verify(productRepository, times(2)).findActiveListing(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Não deve guardar página carregada enquanto o cache era invalidado")
+    void testFindAll_EvictionDuringLoadDiscardsPage() {
+
+        // Arrange: um pedido faz commit enquanto a primeira listagem ainda está lendo
+        Page<ProductListingDTO> productPage = new PageImpl<>(Arrays.asList(listing(product)));
+        when(productRepository.findActiveListing(any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    productCatalogCache.evictStock(List.of(1L));
+                    return productPage;
+                })
+                .thenReturn(productPage);
+
+        // Act
+        productService.findAll(Pageable.ofSize(10));
+        productService.findAll(Pageable.ofSize(10));
+        productService.findAll(Pageable.ofSize(10));
+
+        // Assert: a página lida antes da invalidação é descartada; a seguinte fica no cache
+        verify(productRepository, times(2)).findActiveListing(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve manter páginas sem o produto ao atualizar estoque")
+    void testUpdateStock_KeepsUnrelatedPages() {
+
+        // Arrange
+        Product other = new Product();
+        other.setId(2L);
+        other.setName("Mouse");
+        other.setPrice(new BigDecimal("50.00"));
+        other.setStockQuantity(5);
+        other.setActive(true);
+        other.setCategory(category);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findWithFilters(eq(2L), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(listing(other))));
+        productService.findWithFilters(2L, null, null, null, Pageable.ofSize(10));
+
+        // Act
+        productService.updateStock(1L, 5);
+        productService.findWithFilters(2L, null, null, null, Pageable.ofSize(10));
+
+        // Assert
+        verify(productRepository, times(1)).findWithFilters(eq(2L), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve invalidar listagens ao criar produto")
+    void testCreate_EvictsListings() {
+
+        // Arrange
+        Page<ProductListingDTO> productPage = new PageImpl<>(Arrays.asList(listing(product)));
+        when(productRepository.findActiveListing(any(Pageable.class))).thenReturn(productPage);
+        when(productRepository.existsBySku(productRequest.getSku())).thenReturn(false);
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        productService.findAll(Pageable.ofSize(10));
+
+        // Act
+        productService.create(productRequest);
+        productService.findAll(Pageable.ofSize(10));
+
+        // Assert
+        verify(productRepository, times(2)).findActiveListing(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor e retornar o token da próxima página")
+    void testFindWithCursor_HasNext() {
+
+        // Arrange
+        Product second = new Product();
+        second.setId(2L);
+        second.setName("Mouse");
+        second.setPrice(new BigDecimal("3000.00"));
+        second.setCategory(category);
+        when(productRepository.seekByPriceAsc(any(), any(), any(), any(), any(), anyLong(), any(Pageable.class)))
+                .thenReturn(Arrays.asList(product, second));
+
+        // Act
+        CursorPageResponseDTO<ProductResponseDTO> result = productService.findWithCursor(
+                null, null, null, null, "price", Sort.Direction.ASC, null, 1);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.getHasNext());
+        SeekCursor next = SeekCursor.decode(result.getNextCursor(), "price", Sort.Direction.ASC);
+        assertEquals("3000.00", next.getSortKey());
+        assertEquals(1L, next.getId());
+        verify(productRepository).seekByPriceAsc(any(), any(), any(), any(), any(), eq(0L), eq(PageRequest.ofSize(2)));
+    }
+
+    @Test
+    @DisplayName("Deve continuar a partir da posição do cursor")
+    void testFindWithCursor_ContinuesFromCursor() {
+
+        // Arrange
+        String cursor = new SeekCursor("price", Sort.Direction.DESC, "3000.00", 1L).encode();
+        when(productRepository.seekByPriceDesc(any(), any(), any(), any(), any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        CursorPageResponseDTO<ProductResponseDTO> result = productService.findWithCursor(
+                null, null, null, null, "price", Sort.Direction.DESC, cursor, 10);
+
+        // Assert
+        assertTrue(result.getContent().isEmpty());
+        assertFalse(result.getHasNext());
+        assertNull(result.getNextCursor());
+        verify(productRepository).seekByPriceDesc(any(), any(), any(), any(),
+                eq(new BigDecimal("3000.00")), eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve recusar cursor gerado para outra ordenação")
+    void testFindWithCursor_SortMismatch() {
+
+        // Arrange: cursor de price DESC reenviado com price ASC e com id DESC
+        String cursor = new SeekCursor("price", Sort.Direction.DESC, "3000.00", 1L).encode();
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> productService.findWithCursor(
+                null, null, null, null, "price", Sort.Direction.ASC, cursor, 10));
+        assertTrue(exception.getMessage().startsWith("Cursor gerado para outra ordenação (price DESC)"));
+        assertThrows(BusinessException.class, () -> productService.findWithCursor(
+                null, null, null, null, "id", Sort.Direction.DESC, cursor, 10));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção para cursor inválido ou ordenação não suportada")
+    void testFindWithCursor_InvalidInput() {
+
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> productService.findWithCursor(
+                null, null, null, null, "id", Sort.Direction.ASC, "???", 10));
+        assertThrows(BusinessException.class, () -> productService.findWithCursor(
+                null, null, null, null, "name", Sort.Direction.ASC, null, 10));
+        assertThrows(BusinessException.class, () -> productService.findWithCursor(
+                null, null, null, null, "id", Sort.Direction.ASC, null, 0));
+        verifyNoInteractions(productRepository);
+    }
+
+    private ProductListingDTO listing(Product p) {
+        return new ProductListingDTO(p.getId(), p.getName(), p.getDescription(), p.getPrice(),
+                p.getStockQuantity(), p.getImageUrl(), p.getSku(), p.getActive(), p.getCreatedAt(),
+                p.getUpdatedAt(), p.getCategory().getId(), p.getCategory().getName(),
+                p.getRatingSum(), p.getRatingCount());
+    }
+}
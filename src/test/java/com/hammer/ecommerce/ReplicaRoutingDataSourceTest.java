@@ -0,0 +1,176 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.datasource.ReadReplica;
+import com.hammer.ecommerce.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Roteamento com três bancos H2 embarcados (primário e duas réplicas); cada banco
+// responde com o próprio nome, e a réplica informa o atraso numa tabela
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT lag_seconds FROM replication_status";
+
+    private MeterRegistry meterRegistry;
+    private JdbcTemplate replicaOneAdmin;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        DataSource primary = database("primary");
+        DataSource replicaOne = database("replica-1");
+        DataSource replicaTwo = database("replica-2");
+        replicaOneAdmin = new JdbcTemplate(replicaOne);
+
+        routingDataSource = new ReplicaRoutingDataSource(primary,
+                List.of(new ReadReplica("replica-1", replicaOne), new ReadReplica("replica-2", replicaTwo)),
+                LAG_QUERY, Duration.ofSeconds(5), meterRegistry);
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("Deve ler das réplicas em transações readOnly e escrever no primário")
+    void testRouting_ReadOnlyToReplicas() {
+
+        // Arrange
+        routingDataSource.checkReplicas();
+
+        // Act
+        Set<String> readNodes = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            readNodes.add(readOnly.execute(status -> node()));
+        }
+        double primaryBefore = connections("primary");
+        String writeNode = readWrite.execute(status -> node());
+
+        // Assert
+        assertEquals(Set.of("replica-1", "replica-2"), readNodes);
+        assertEquals("primary", writeNode);
+        assertEquals(2.0, connections("replica-1"));
+        assertEquals(2.0, connections("replica-2"));
+        assertEquals(primaryBefore + 1, connections("primary"));
+    }
+
+    @Test
+    @DisplayName("Leitura dentro de transação de escrita deve continuar no primário")
+    void testRouting_ReadInsideWriteTransaction() {
+
+        // Arrange
+        routingDataSource.checkReplicas();
+
+        // Act
+        String node = readWrite.execute(outer -> readOnly.execute(inner -> node()));
+
+        // Assert
+        assertEquals("primary", node);
+    }
+
+    @Test
+    @DisplayName("Deve mandar leituras ao primário antes da primeira medição de atraso")
+    void testRouting_NoCheckYet() {
+
+        // Act
+        String node = readOnly.execute(status -> node());
+
+        // Assert
+        assertEquals("primary", node);
+        assertEquals(1.0, meterRegistry.get("datasource.replica.fallbacks").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve tirar da rota a réplica atrasada e devolvê-la quando voltar a ficar em dia")
+    void testRouting_LagAware() {
+
+        // Arrange
+        replicaOneAdmin.update("UPDATE replication_status SET lag_seconds = 30");
+        routingDataSource.checkReplicas();
+
+        // Act
+        Set<String> lagging = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            lagging.add(readOnly.execute(status -> node()));
+        }
+        double measuredLag = meterRegistry.get("datasource.replica.lag").tag("replica", "replica-1").gauge().value();
+
+        replicaOneAdmin.update("UPDATE replication_status SET lag_seconds = 0.5");
+        routingDataSource.checkReplicas();
+        Set<String> caughtUp = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            caughtUp.add(readOnly.execute(status -> node()));
+        }
+
+        // Assert
+        assertEquals(Set.of("replica-2"), lagging);
+        assertEquals(30.0, measuredLag);
+        assertEquals(Set.of("replica-1", "replica-2"), caughtUp);
+    }
+
+    @Test
+    @DisplayName("Deve voltar ao primário quando nenhuma réplica responder")
+    void testRouting_AllReplicasDown() {
+
+        // Arrange: a consulta de atraso falha nas duas réplicas
+        routingDataSource.checkReplicas();
+        replicaOneAdmin.execute("DROP TABLE replication_status");
+        new JdbcTemplate(routingDataSource.getReplicas().get(1).getDataSource())
+                .execute("DROP TABLE replication_status");
+        routingDataSource.checkReplicas();
+
+        // Act
+        String node = readOnly.execute(status -> node());
+
+        // Assert
+        assertEquals("primary", node);
+        assertFalse(routingDataSource.getReplicas().get(0).isAvailable());
+        assertEquals(0.0, meterRegistry.get("datasource.replica.available").tag("replica", "replica-1").gauge().value());
+    }
+
+    private double connections(String route) {
+        return meterRegistry.get("datasource.routing.connections").tag("route", route).counter().count();
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate admin = new JdbcTemplate(dataSource);
+        admin.execute("DROP ALL OBJECTS");
+        admin.execute("CREATE TABLE node (name VARCHAR(20))");
+        admin.update("INSERT INTO node VALUES (?)", name);
+        admin.execute("CREATE TABLE replication_status (lag_seconds DOUBLE PRECISION)");
+        admin.update("INSERT INTO replication_status VALUES (0)");
+        return dataSource;
+    }
+}
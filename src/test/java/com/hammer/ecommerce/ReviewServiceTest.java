@@ -1,5 +1,6 @@
 package com.hammer.ecommerce;
 
+import com.hammer.ecommerce.cache.ProductCatalogCache;
 import com.hammer.ecommerce.dto.review.CreateReviewRequestDTO;
 import com.hammer.ecommerce.dto.product.ProductRatingDTO;
 import com.hammer.ecommerce.dto.review.ReviewResponseDTO;
@@ -23,9 +24,13 @@ import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +48,9 @@ class ReviewServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
     @InjectMocks
     private ReviewService reviewService;
 
@@ -104,12 +112,11 @@ class ReviewServiceTest {
     void testCreateReview_Success() {
 
         // Arrange
-        Page<Order> orderPage = new PageImpl<>(Arrays.asList(order));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(reviewRepository.existsByProductIdAndUserId(1L, 1L)).thenReturn(false);
-        when(orderRepository.findByUserId(1L, Pageable.unpaged())).thenReturn(orderPage);
-        when(reviewRepository.save(any(Review.class))).thenReturn(review);
+        stubPurchaseCheck();
+        when(reviewRepository.saveAndFlush(any(Review.class))).thenReturn(review);
 
         // Act
         ReviewResponseDTO result = reviewService.createReview(1L, 1L, createReviewRequest);
@@ -118,7 +125,8 @@ class ReviewServiceTest {
         assertNotNull(result);
         assertEquals(5, result.getRating());
         assertEquals("Excelente produto!", result.getComment());
-        verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(reviewRepository, times(1)).saveAndFlush(any(Review.class));
+        verify(productRepository, times(1)).adjustRating(1L, 5, 1);
     }
 
     @Test
@@ -136,7 +144,7 @@ class ReviewServiceTest {
         });
 
         assertEquals("Você já avaliou este produto", exception.getMessage());
-        verify(reviewRepository, never()).save(any(Review.class));
+        verify(reviewRepository, never()).saveAndFlush(any(Review.class));
     }
 
     @Test
@@ -144,11 +152,10 @@ class ReviewServiceTest {
     void testCreateReview_NotPurchased() {
 
         // Arrange
-        Page<Order> emptyOrderPage = new PageImpl<>(Arrays.asList());
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(reviewRepository.existsByProductIdAndUserId(1L, 1L)).thenReturn(false);
-        when(orderRepository.findByUserId(1L, Pageable.unpaged())).thenReturn(emptyOrderPage);
+        when(orderRepository.existsPurchase(eq(1L), eq(1L), any())).thenReturn(false);
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -156,7 +163,7 @@ class ReviewServiceTest {
         });
 
         assertEquals("Você só pode avaliar produtos que comprou", exception.getMessage());
-        verify(reviewRepository, never()).save(any(Review.class));
+        verify(reviewRepository, never()).saveAndFlush(any(Review.class));
     }
 
     @Test
@@ -170,7 +177,7 @@ class ReviewServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> {
             reviewService.createReview(999L, 1L, createReviewRequest);
         });
-        verify(reviewRepository, never()).save(any(Review.class));
+        verify(reviewRepository, never()).saveAndFlush(any(Review.class));
     }
 
     @Test
@@ -185,7 +192,7 @@ class ReviewServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> {
             reviewService.createReview(1L, 999L, createReviewRequest);
         });
-        verify(reviewRepository, never()).save(any(Review.class));
+        verify(reviewRepository, never()).saveAndFlush(any(Review.class));
     }
 
     @Test
@@ -275,6 +282,7 @@ class ReviewServiceTest {
         assertEquals(4, review.getRating());
         assertEquals("Bom produto!", review.getComment());
         verify(reviewRepository, times(1)).save(review);
+        verify(productRepository, times(1)).adjustRating(1L, -1, 0);
     }
 
     @Test
@@ -296,14 +304,15 @@ class ReviewServiceTest {
     void testDeleteReview_Success() {
 
         // Arrange
-        when(reviewRepository.existsByProductIdAndUserId(1L, 1L)).thenReturn(true);
+        when(reviewRepository.findByProductIdAndUserId(1L, 1L)).thenReturn(Optional.of(review));
 
         // Act
         reviewService.deleteReview(1L, 1L);
 
         // Assert
-        verify(reviewRepository, times(1)).existsByProductIdAndUserId(1L, 1L);
-        verify(reviewRepository, times(1)).deleteByProductIdAndUserId(1L, 1L);
+        verify(reviewRepository, times(1)).findByProductIdAndUserId(1L, 1L);
+        verify(reviewRepository, times(1)).delete(review);
+        verify(productRepository, times(1)).adjustRating(1L, -review.getRating(), -1);
     }
 
     @Test
@@ -311,13 +320,14 @@ class ReviewServiceTest {
     void testDeleteReview_NotFound() {
 
         // Arrange
-        when(reviewRepository.existsByProductIdAndUserId(999L, 1L)).thenReturn(false);
+        when(reviewRepository.findByProductIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
             reviewService.deleteReview(999L, 1L);
         });
-        verify(reviewRepository, never()).deleteByProductIdAndUserId(any(), any());
+        verify(reviewRepository, never()).delete(any(Review.class));
+        verify(productRepository, never()).adjustRating(any(), anyLong(), anyInt());
     }
 
     @Test
@@ -326,20 +336,18 @@ class ReviewServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.PAID);
-        Page<Order> orderPage = new PageImpl<>(Arrays.asList(order));
-
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(reviewRepository.existsByProductIdAndUserId(1L, 1L)).thenReturn(false);
-        when(orderRepository.findByUserId(1L, Pageable.unpaged())).thenReturn(orderPage);
-        when(reviewRepository.save(any(Review.class))).thenReturn(review);
+        stubPurchaseCheck();
+        when(reviewRepository.saveAndFlush(any(Review.class))).thenReturn(review);
 
         // Act
         ReviewResponseDTO result = reviewService.createReview(1L, 1L, createReviewRequest);
 
         // Assert
         assertNotNull(result);
-        verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(reviewRepository, times(1)).saveAndFlush(any(Review.class));
     }
 
     @Test
@@ -348,20 +356,18 @@ class ReviewServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.SHIPPED);
-        Page<Order> orderPage = new PageImpl<>(Arrays.asList(order));
-
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(reviewRepository.existsByProductIdAndUserId(1L, 1L)).thenReturn(false);
-        when(orderRepository.findByUserId(1L, Pageable.unpaged())).thenReturn(orderPage);
-        when(reviewRepository.save(any(Review.class))).thenReturn(review);
+        stubPurchaseCheck();
+        when(reviewRepository.saveAndFlush(any(Review.class))).thenReturn(review);
 
         // Act
         ReviewResponseDTO result = reviewService.createReview(1L, 1L, createReviewRequest);
 
         // Assert
         assertNotNull(result);
-        verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(reviewRepository, times(1)).saveAndFlush(any(Review.class));
     }
 
     @Test
@@ -370,12 +376,10 @@ class ReviewServiceTest {
 
         // Arrange
         order.setStatus(OrderStatus.PENDING);
-        Page<Order> orderPage = new PageImpl<>(Arrays.asList(order));
-
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(reviewRepository.existsByProductIdAndUserId(1L, 1L)).thenReturn(false);
-        when(orderRepository.findByUserId(1L, Pageable.unpaged())).thenReturn(orderPage);
+        stubPurchaseCheck();
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -383,6 +387,12 @@ class ReviewServiceTest {
         });
 
         assertEquals("Você só pode avaliar produtos que comprou", exception.getMessage());
-        verify(reviewRepository, never()).save(any(Review.class));
+        verify(reviewRepository, never()).saveAndFlush(any(Review.class));
+    }
+
+    // Simula a consulta: o pedido do setUp tem o produto e conta como compra conforme o status
+    private void stubPurchaseCheck() {
+        when(orderRepository.existsPurchase(eq(1L), eq(1L), any())).thenAnswer(invocation ->
+                invocation.<Set<OrderStatus>>getArgument(2).contains(order.getStatus()));
     }
 }
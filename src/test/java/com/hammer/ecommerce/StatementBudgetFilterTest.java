@@ -0,0 +1,158 @@
+package com.hammer.ecommerce;
+
+import com.hammer.ecommerce.sql.RequestStatements;
+import com.hammer.ecommerce.sql.StatementBudget;
+import com.hammer.ecommerce.sql.StatementBudgetFilter;
+import com.hammer.ecommerce.sql.StatementCountingInspector;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementBudgetFilterTest {
+
+    private final StatementCountingInspector inspector = new StatementCountingInspector();
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+
+        request = request("budgeted");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Deve contar os comandos da requisição e apontar o mesmo formato repetido como N+1")
+    void testRepeatedShapes() throws Exception {
+
+        // Arrange: uma listagem e uma consulta de itens por pedido, com IN de tamanhos diferentes
+        MockHttpServletRequest request = request("unbudgeted");
+        StatementBudgetFilter filter = new StatementBudgetFilter(meterRegistry, 30, 3, true);
+        FilterChain chain = (req, res) -> {
+            inspector.inspect("select o.id from orders o where o.user_id=?");
+            inspector.inspect("select i.* from order_items i where i.order_id = 1");
+            inspector.inspect("select i.* from order_items i where i.order_id = 2");
+            inspector.inspect("select i.*  from order_items i\n where i.order_id = 3");
+            inspector.inspect("select p.* from products p where p.id in (?, ?)");
+            inspector.inspect("select p.* from products p where p.id in (?,?,?)");
+        };
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        RequestStatements statements = (RequestStatements) request.getAttribute(StatementBudgetFilter.STATEMENTS_ATTRIBUTE);
+        assertEquals(6, statements.total());
+        assertEquals(Map.of("select i.* from order_items i where i.order_id = ?", 3), statements.repeated(3));
+        assertEquals(2, statements.repeated(2).size());
+
+        assertEquals(1.0, meterRegistry.get(StatementBudgetFilter.REPEATED_METRIC)
+                .tags("method", "GET", "uri", "/api/orders").counter().count());
+        DistributionSummary summary = meterRegistry.get(StatementBudgetFilter.STATEMENTS_METRIC)
+                .tags("method", "GET", "uri", "/api/orders").summary();
+        assertEquals(1, summary.count());
+        assertEquals(6.0, summary.totalAmount());
+    }
+
+    @Test
+    @DisplayName("Deve falhar a requisição acima do @StatementBudget quando configurado para falhar")
+    void testBudgetExceededFails() {
+
+        // Arrange: orçamento do endpoint é 2
+        StatementBudgetFilter filter = new StatementBudgetFilter(meterRegistry, 30, 5, true);
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request, response, statements(3)));
+
+        assertTrue(exception.getMessage().contains("GET /api/orders executou 3 comandos SQL (orçamento: 2)"));
+        assertEquals(1.0, meterRegistry.get(StatementBudgetFilter.BUDGET_EXCEEDED_METRIC).counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve só registrar o estouro de orçamento quando não configurado para falhar")
+    void testBudgetExceededWarns() throws Exception {
+
+        // Arrange
+        StatementBudgetFilter filter = new StatementBudgetFilter(meterRegistry, 30, 5, false);
+
+        // Act
+        filter.doFilter(request, response, statements(3));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get(StatementBudgetFilter.BUDGET_EXCEEDED_METRIC).counter().count());
+        assertNull(meterRegistry.find(StatementBudgetFilter.REPEATED_METRIC).counter());
+    }
+
+    @Test
+    @DisplayName("Deve usar o orçamento padrão para endpoint sem @StatementBudget")
+    void testDefaultBudget() throws Exception {
+
+        // Arrange: orçamento padrão é 4
+        StatementBudgetFilter filter = new StatementBudgetFilter(meterRegistry, 4, 5, true);
+
+        // Act
+        filter.doFilter(request("unbudgeted"), response, statements(4));
+
+        // Assert
+        assertNull(meterRegistry.find(StatementBudgetFilter.BUDGET_EXCEEDED_METRIC).counter());
+        assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request("unbudgeted"), new MockHttpServletResponse(), statements(5)));
+    }
+
+    @Test
+    @DisplayName("Não deve contar comandos executados fora de uma requisição")
+    void testOutsideRequest() throws Exception {
+
+        // Arrange
+        StatementBudgetFilter filter = new StatementBudgetFilter(meterRegistry, 30, 5, true);
+        filter.doFilter(request, response, statements(1));
+
+        // Act: depois da requisição a ThreadLocal foi limpa
+        inspector.inspect("select 1");
+
+        // Assert
+        RequestStatements statements = (RequestStatements) request.getAttribute(StatementBudgetFilter.STATEMENTS_ATTRIBUTE);
+        assertEquals(1, statements.total());
+    }
+
+    private MockHttpServletRequest request(String handler) throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/orders");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(handler)));
+        return request;
+    }
+
+    private FilterChain statements(int count) {
+        return (req, res) -> {
+            for (int i = 0; i < count; i++) {
+                inspector.inspect("select * from products where id = " + i);
+            }
+        };
+    }
+
+    static class Endpoints {
+
+        @StatementBudget(2)
+        public void budgeted() {
+        }
+
+        public void unbudgeted() {
+        }
+    }
+}
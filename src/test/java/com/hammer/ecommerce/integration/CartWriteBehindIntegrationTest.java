@@ -0,0 +1,186 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.cart.MemoryCartStore;
+import com.hammer.ecommerce.dto.cart.AddToCartRequestDTO;
+import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.OrderResponseDTO;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.service.CartService;
+import com.hammer.ecommerce.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Carrinho em memória com write-behind. Sem @Transactional: o flush grava em transação própria.
+// flush-interval alto para o agendador não gravar no meio do teste; o flush é chamado à mão.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "cart.store.type=memory",
+        "cart.store.flush-interval=PT1H"
+})
+class CartWriteBehindIntegrationTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MemoryCartStore cartStore;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Product product;
+    private Address address;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        Category category = new Category();
+        category.setName("Write-behind");
+        category = categoryRepository.save(category);
+
+        product = new Product();
+        product.setName("Fone Bluetooth");
+        product.setPrice(new BigDecimal("200.00"));
+        product.setStockQuantity(10);
+        product.setSku("WB-001");
+        product.setActive(true);
+        product.setCategory(category);
+        product = productRepository.save(product);
+
+        user = new User();
+        user.setName("Cliente Carrinho");
+        user.setEmail("carrinho@email.com");
+        user.setPassword("senha123");
+        user = userRepository.save(user);
+
+        address = new Address();
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        address = addressRepository.save(address);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartStore.flush();
+        cleanUp();
+    }
+
+    private List<CartItem> persistedItems() {
+        return cartRepository.findByUserIdWithItems(user.getId()).orElseThrow().getItems();
+    }
+
+    private void addToCart(int quantity) {
+        AddToCartRequestDTO request = new AddToCartRequestDTO();
+        request.setProductId(product.getId());
+        request.setQuantity(quantity);
+        cartService.addToCart(user.getId(), request);
+    }
+
+    @Test
+    @DisplayName("Alterações do carrinho só chegam ao banco no flush")
+    void testAddToCart_WrittenOnFlush() {
+
+        // Act
+        addToCart(2);
+        addToCart(1);
+
+        // Assert: memória já tem o estado novo, o banco ainda não
+        assertEquals(3, cartService.getCart(user.getId()).getTotalItems());
+        assertTrue(persistedItems().isEmpty());
+
+        cartStore.flush();
+
+        List<CartItem> items = persistedItems();
+        assertEquals(1, items.size());
+        assertEquals(3, items.get(0).getQuantity());
+        assertEquals(product.getId(), items.get(0).getProduct().getId());
+        assertEquals(cartService.getCart(user.getId()).getItems().get(0).getId(), items.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Pedido usa o estado em memória, mesmo antes do flush")
+    void testCreateOrder_ReadsUnflushedCart() {
+
+        // Arrange
+        addToCart(4);
+        assertTrue(persistedItems().isEmpty());
+
+        CreateOrderRequestDTO request = new CreateOrderRequestDTO();
+        request.setShippingAddressId(address.getId());
+
+        // Act
+        OrderResponseDTO order = orderService.createOrder(user.getId(), request);
+
+        // Assert
+        assertEquals(1, order.getItems().size());
+        assertEquals(4, order.getItems().get(0).getQuantity());
+        assertEquals(6, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        assertEquals(0, cartService.getCart(user.getId()).getTotalItems());
+    }
+
+    @Test
+    @DisplayName("Desligamento grava os carrinhos pendentes")
+    void testShutdown_FlushesPending() {
+
+        // Arrange
+        addToCart(2);
+        cartStore.flush();
+        cartService.clearCart(user.getId());
+        assertEquals(1, persistedItems().size());
+
+        // Act
+        cartStore.shutdown();
+
+        // Assert
+        assertTrue(persistedItems().isEmpty());
+    }
+
+    private void cleanUp() {
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        addressRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,160 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.loadtest.DatasetSeeder;
+import com.hammer.ecommerce.model.Address;
+import com.hammer.ecommerce.model.Order;
+import com.hammer.ecommerce.model.OrderStatus;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.model.User;
+import com.hammer.ecommerce.repositories.AddressRepository;
+import com.hammer.ecommerce.repositories.OrderRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Massa do teste de carga (src/jmh/java/.../loadtest) em volume pequeno: as linhas gravadas por
+// JDBC precisam ser válidas para a aplicação e não podem colidir com os IDs gerados depois dela.
+// Sem @Transactional: o seeder faz commit por lote.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DatasetSeederIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        for (String table : new String[]{"stock_reservations", "payments", "order_items", "orders", "cart_items", "carts", "reviews",
+                "products", "categories", "addresses", "users"}) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve gravar a massa em lotes com agregados de avaliação e IDs livres para a aplicação")
+    void testSeed() throws Exception {
+
+        // Arrange: lote de 7 para passar por vários commits
+        DatasetSeeder seeder = new DatasetSeeder(jdbcTemplate, transactionManager, entityManagerFactory, 7);
+        DatasetSeeder.Volumes volumes = new DatasetSeeder.Volumes(20, 3, 15, 40, 5, 2, 30, 3);
+
+        // Act
+        DatasetSeeder.Dataset dataset = seeder.seed(volumes, passwordEncoder.encode("senha123"));
+
+        // Assert
+        assertEquals(20, count("users"));
+        assertEquals(20, count("addresses"));
+        assertEquals(3, count("categories"));
+        assertEquals(15, count("products"));
+        assertEquals(40, count("reviews"));
+        assertEquals(5, count("carts"));
+        assertEquals(10, count("cart_items"));
+        assertEquals(30, count("orders"));
+        assertEquals(90, count("order_items"));
+        assertEquals(count("orders") - countWhere("orders", "status IN ('PENDING', 'CANCELLED')"), count("payments"));
+
+        // Soma e contagem de notas gravadas no produto batem com as avaliações
+        assertEquals(0, countWhere("products p", "p.rating_count <> (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id) " +
+                "OR p.rating_sum <> (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.product_id = p.id)"));
+        // Total do pedido = soma dos itens
+        assertEquals(0, countWhere("orders o", "o.total_amount <> (SELECT SUM(i.subtotal) FROM order_items i WHERE i.order_id = o.id)"));
+
+        // Usuário da massa consegue logar com a senha informada
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"%s\", \"password\": \"senha123\"}".formatted(dataset.userEmail(3))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+
+        // Identity e sequences continuam depois dos blocos reservados
+        User user = userRepository.findById(dataset.userId(0)).orElseThrow();
+        User created = new User();
+        created.setName("Cliente Novo");
+        created.setEmail("novo@email.com");
+        created.setPassword("senha123");
+        assertTrue(userRepository.save(created).getId() > dataset.userId(19));
+
+        Address address = new Address();
+        address.setStreet("Rua Nova");
+        address.setNumber("1");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        address = addressRepository.save(address);
+        assertTrue(address.getId() > dataset.addressId(19));
+
+        Product product = productRepository.findById(dataset.productId(0)).orElseThrow();
+        Order order = new Order();
+        order.setUser(user);
+        order.setShippingAddress(address);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(new BigDecimal("10.00"));
+        assertTrue(orderRepository.save(order).getId() > dataset.orderId(29));
+        assertTrue(product.getActive());
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private long countWhere(String table, String condition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + condition, Long.class);
+    }
+}
@@ -0,0 +1,143 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.repositories.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Conta os statements JDBC preparados pelo Hibernate ao gravar um pedido grande.
+// Com IDENTITY cada linha de order_items era um INSERT separado (31 statements para 30 itens);
+// com sequence pooled-lo + hibernate.jdbc.batch_size os INSERTs saem agrupados.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class InsertBatchingIntegrationTest {
+
+    private static final int ITEMS = 30;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+    private Address address;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Category category = new Category();
+        category.setName("Batch");
+        category = categoryRepository.save(category);
+
+        user = new User();
+        user.setName("Cliente Batch");
+        user.setEmail("batch@email.com");
+        user.setPassword("senha123");
+        user = userRepository.save(user);
+
+        address = new Address();
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        address = addressRepository.save(address);
+
+        products = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Product product = new Product();
+            product.setName("Produto " + i);
+            product.setPrice(new BigDecimal("10.00"));
+            product.setStockQuantity(100);
+            product.setSku("BATCH-" + i);
+            product.setActive(true);
+            product.setCategory(category);
+            products.add(productRepository.save(product));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @DisplayName("Deve gravar pedido com 30 itens em poucos statements JDBC")
+    void testSaveOrder_BatchedInserts() {
+
+        // Arrange
+        Order order = new Order();
+        order.setUser(entityManager.getReference(User.class, user.getId()));
+        order.setShippingAddress(entityManager.getReference(Address.class, address.getId()));
+        order.setStatus(OrderStatus.PENDING);
+        for (Product product : products) {
+            OrderItem item = new OrderItem();
+            item.setProduct(entityManager.getReference(Product.class, product.getId()));
+            item.setQuantity(1);
+            item.setPrice(product.getPrice());
+            item.calculateSubtotal();
+            order.addOrderItem(item);
+        }
+        order.setTotalAmount(order.calculateTotal());
+
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+
+        // Act
+        orderRepository.save(order);
+        entityManager.flush();
+
+        // Assert: 1 INSERT em orders + 1 batch em order_items + chamadas às sequences
+        // (uma por bloco de 50 IDs; o bloco de order_items pode virar durante o pedido)
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(ITEMS + 1, statistics.getEntityInsertCount());
+        assertTrue(statements <= 5, "statements preparados: " + statements);
+
+        entityManager.clear();
+        assertEquals(ITEMS, orderRepository.findByIdWithItems(order.getId()).orElseThrow().getOrderItems().size());
+    }
+}
@@ -0,0 +1,56 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.config.MethodTimingAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class MethodTimingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Deve registrar o tempo de controllers e services em timers por método")
+    void testTimersPerMethod() throws Exception {
+
+        // Arrange
+        long controllerBefore = count("controller", "CategoryController", "findAll", "success");
+        long serviceBefore = count("service", "CategoryService", "findAll", "success");
+        long errorBefore = count("controller", "CategoryController", "findById", "error");
+
+        // Act
+        mockMvc.perform(get("/api/categories")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/categories/{id}", 999999)).andExpect(status().isNotFound());
+
+        // Assert
+        assertEquals(controllerBefore + 1, count("controller", "CategoryController", "findAll", "success"));
+        assertEquals(serviceBefore + 1, count("service", "CategoryService", "findAll", "success"));
+        assertEquals(errorBefore + 1, count("controller", "CategoryController", "findById", "error"));
+    }
+
+    private long count(String layer, String type, String method, String outcome) {
+        Timer timer = meterRegistry.find(MethodTimingAspect.LATENCY_METRIC)
+                .tags("layer", layer, "class", type, "method", method, "outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -4,16 +4,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hammer.ecommerce.dto.cart.AddToCartRequestDTO;
 import com.hammer.ecommerce.dto.address.AddressRequestDTO;
 import com.hammer.ecommerce.dto.login.LoginRequestDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderItemDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.BulkOrderSpecDTO;
 import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.OrderExportRowDTO;
 import com.hammer.ecommerce.dto.login.RegisterRequestDTO;
 import com.hammer.ecommerce.model.*;
 import com.hammer.ecommerce.repositories.*;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -23,8 +29,14 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -61,6 +73,9 @@ class OrderControllerIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private String adminToken;
     private String authToken;
     private Product product;
@@ -187,7 +202,9 @@ class OrderControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.items", hasSize(0)));
 
-        // Verificar que o estoque foi reduzido
+        // Verificar que o estoque foi reduzido (UPDATE direto no banco: limpa o contexto
+        // de persistência compartilhado pelo teste, como em uma nova requisição)
+        entityManager.clear();
         mockMvc.perform(get("/api/products/" + product.getId()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.stockQuantity").value(18)); // 20 - 2
@@ -354,6 +371,7 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("CANCELLED"));
 
         // Verificar que o estoque foi devolvido
+        entityManager.clear();
         mockMvc.perform(get("/api/products/" + product.getId()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.stockQuantity").value(20)); // Estoque restaurado
@@ -390,6 +408,37 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.content", hasSize(greaterThanOrEqualTo(2))));
     }
 
+    @Test
+    @DisplayName("Admin deve listar todos os pedidos por cursor")
+    void testListAllOrdersWithCursor_Admin() throws Exception {
+
+        Long first = createOrder();
+        Long second = createOrder();
+        Long third = createOrder();
+
+        MvcResult result = mockMvc.perform(get("/api/orders/admin/cursor")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].id").value(third))
+                .andExpect(jsonPath("$.content[1].id").value(second))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn();
+
+        String nextCursor = objectMapper.readTree(result.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/orders/admin/cursor")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("size", "2")
+                        .param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(first))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
     @Test
     @DisplayName("Admin deve atualizar status do pedido")
     void testUpdateOrderStatus_Admin() throws Exception {
@@ -410,6 +459,87 @@ class OrderControllerIntegrationTest {
         mockMvc.perform(get("/api/orders/admin/all")
                         .header("Authorization", "Bearer " + authToken))
                 .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/orders/admin/cursor")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/orders/admin/export")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Admin deve exportar pedidos em CSV com filtro de status")
+    void testExportOrders_Csv() throws Exception {
+
+        Long first = createOrder();
+        Long second = createOrder();
+        mockMvc.perform(put("/api/orders/" + second + "/status")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("status", "PAID"))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/api/orders/admin/export")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", containsString("orders.csv")))
+                .andReturn();
+
+        // Cabeçalho + um pedido por linha, mais antigos primeiro
+        String[] lines = result.getResponse().getContentAsString().split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals(String.join(",", OrderExportRowDTO.COLUMNS), lines[0]);
+        assertEquals(first.toString(), lines[1].split(",")[0]);
+        assertEquals(second.toString(), lines[2].split(",")[0]);
+
+        MvcResult paid = mockMvc.perform(get("/api/orders/admin/export")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("status", "PAID")
+                        .param("from", LocalDate.now().minusDays(1).toString())
+                        .param("to", LocalDate.now().toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] paidLines = paid.getResponse().getContentAsString().split("\r\n");
+        assertEquals(2, paidLines.length);
+        assertEquals(second.toString(), paidLines[1].split(",")[0]);
+    }
+
+    @Test
+    @DisplayName("Admin deve exportar pedidos em NDJSON")
+    void testExportOrders_Ndjson() throws Exception {
+
+        Long orderId = createOrder();
+
+        MvcResult result = mockMvc.perform(get("/api/orders/admin/export")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("format", "NDJSON"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(1, lines.length);
+        var row = objectMapper.readTree(lines[0]);
+        assertEquals(orderId, row.get("id").asLong());
+        assertEquals("PENDING", row.get("status").asText());
+        assertEquals("joao@email.com", row.get("customerEmail").asText());
+        assertEquals("São Paulo", row.get("shippingCity").asText());
+        assertEquals(150.00, row.get("totalAmount").asDouble());
+    }
+
+    @Test
+    @DisplayName("Deve recusar exportação com período invertido")
+    void testExportOrders_InvalidPeriod() throws Exception {
+        mockMvc.perform(get("/api/orders/admin/export")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("from", "2024-02-01")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Data inicial deve ser anterior ou igual à data final"));
     }
 
     @Test
@@ -430,6 +560,104 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.totalElements").value(greaterThanOrEqualTo(5)));
     }
 
+    @Test
+    @DisplayName("Deve criar pedidos em lote e reportar as falhas de cada pedido")
+    void testCreateOrdersBulk() throws Exception {
+
+        BulkOrderRequestDTO request = new BulkOrderRequestDTO(List.of(
+                new BulkOrderSpecDTO("MKT-1", testUser.getId(), addressId,
+                        List.of(new BulkOrderItemDTO(product.getId(), 5))),
+                new BulkOrderSpecDTO("MKT-2", testUser.getId(), addressId,
+                        List.of(new BulkOrderItemDTO(product.getId(), 30))),
+                new BulkOrderSpecDTO("MKT-3", testUser.getId(), 999L,
+                        List.of(new BulkOrderItemDTO(product.getId(), 1))),
+                new BulkOrderSpecDTO("MKT-4", testUser.getId(), addressId,
+                        List.of(new BulkOrderItemDTO(product.getId(), 10), new BulkOrderItemDTO(product.getId(), 5)))
+        ));
+
+        mockMvc.perform(post("/api/orders/admin/bulk")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].reference").value("MKT-1"))
+                .andExpect(jsonPath("$.results[0].orderNumber").exists())
+                .andExpect(jsonPath("$.results[0].totalAmount").value(750.00))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].error").value(containsString("Estoque insuficiente")))
+                .andExpect(jsonPath("$.results[2].error").value("Endereço de entrega não encontrado"))
+                .andExpect(jsonPath("$.results[3].success").value(true));
+
+        // Estoque: 20 - 5 - 15
+        entityManager.clear();
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        assertEquals(2, orderRepository.findByUserId(testUser.getId(), PageRequest.of(0, 10)).getTotalElements());
+
+        mockMvc.perform(get("/api/orders")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("Deve gerar IDs dos pedidos em lote sem colidir com os gerados pelo Hibernate")
+    void testCreateOrdersBulk_IdsDoNotCollideWithHibernate() {
+
+        // Arrange: mais de um bloco de 50 IDs, entre dois pedidos gravados pelo Hibernate
+        Order first = orderRepository.saveAndFlush(newOrder());
+        List<Order> bulk = IntStream.range(0, 60).mapToObj(i -> newOrder()).toList();
+
+        // Act
+        orderRepository.insertAll(bulk);
+        Order last = orderRepository.saveAndFlush(newOrder());
+
+        // Assert
+        Set<Long> orderIds = new HashSet<>(List.of(first.getId(), last.getId()));
+        Set<Long> itemIds = new HashSet<>(List.of(first.getOrderItems().get(0).getId(), last.getOrderItems().get(0).getId()));
+        for (Order order : bulk) {
+            orderIds.add(order.getId());
+            itemIds.add(order.getOrderItems().get(0).getId());
+        }
+        assertEquals(62, orderIds.size());
+        assertEquals(62, itemIds.size());
+
+        entityManager.clear();
+        assertEquals(62, orderRepository.findAllById(orderIds).size());
+    }
+
+    @Test
+    @DisplayName("Deve retornar 403 ao criar pedidos em lote sem ser ADMIN")
+    void testCreateOrdersBulk_Forbidden() throws Exception {
+
+        BulkOrderRequestDTO request = new BulkOrderRequestDTO(List.of(
+                new BulkOrderSpecDTO(null, testUser.getId(), addressId,
+                        List.of(new BulkOrderItemDTO(product.getId(), 1)))));
+
+        mockMvc.perform(post("/api/orders/admin/bulk")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setUser(testUser);
+        order.setShippingAddress(addressRepository.getReferenceById(addressId));
+
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setPrice(product.getPrice());
+        item.calculateSubtotal();
+        order.addOrderItem(item);
+        order.setTotalAmount(order.calculateTotal());
+        return order;
+    }
+
     private Long createOrder() throws Exception {
 
         // Adicionar produto ao carrinho
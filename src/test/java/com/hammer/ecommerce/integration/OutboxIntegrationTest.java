@@ -0,0 +1,227 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.OrderResponseDTO;
+import com.hammer.ecommerce.dto.payment.PaymentResponseDTO;
+import com.hammer.ecommerce.dto.payment.ProcessPaymentRequestDTO;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.outbox.DomainEvent;
+import com.hammer.ecommerce.outbox.DomainEventSink;
+import com.hammer.ecommerce.outbox.OutboxRelay;
+import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.service.OrderService;
+import com.hammer.ecommerce.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem @Transactional: o outbox só é gravado no commit
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OutboxIntegrationTest {
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    // Guarda os eventos recebidos; com failNext a próxima entrega falha
+    static class RecordingSink implements DomainEventSink {
+
+        private final List<DomainEvent> received = new CopyOnWriteArrayList<>();
+        private volatile boolean failNext;
+
+        @Override
+        public void handle(List<DomainEvent> events) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("Sink fora do ar");
+            }
+            received.addAll(events);
+        }
+    }
+
+    @Autowired
+    private RecordingSink sink;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Product product;
+    private CreateOrderRequestDTO orderRequest;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        sink.received.clear();
+
+        Category category = new Category();
+        category.setName("Eventos");
+        category = categoryRepository.save(category);
+
+        product = new Product();
+        product.setName("Fone Bluetooth");
+        product.setPrice(new BigDecimal("199.90"));
+        product.setStockQuantity(10);
+        product.setSku("EVT-001");
+        product.setActive(true);
+        product.setCategory(category);
+        product = productRepository.save(product);
+
+        user = new User();
+        user.setName("Cliente Eventos");
+        user.setEmail("eventos@email.com");
+        user.setPassword("senha123");
+        user = userRepository.save(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        CartItem item = new CartItem();
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setQuantity(3);
+        cart.getItems().add(item);
+        cartRepository.save(cart);
+
+        Address address = new Address();
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        address = addressRepository.save(address);
+
+        orderRequest = new CreateOrderRequestDTO();
+        orderRequest.setShippingAddressId(address.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    private List<DomainEventType> typesOf(String aggregateType, Long aggregateId) {
+        return sink.received.stream()
+                .filter(event -> event.getAggregateType().equals(aggregateType)
+                        && event.getAggregateId().equals(aggregateId))
+                .map(DomainEvent::getType)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Eventos de pedido, pagamento e estoque são entregues em ordem por agregado")
+    void testRelay_DeliversInAggregateOrder() {
+
+        // Arrange: pedido criado, pago (gateway síncrono e aprovado no perfil de testes) e reembolsado
+        OrderResponseDTO order = orderService.createOrder(user.getId(), orderRequest);
+
+        ProcessPaymentRequestDTO paymentRequest = new ProcessPaymentRequestDTO();
+        paymentRequest.setOrderId(order.getId());
+        paymentRequest.setPaymentMethod(PaymentMethod.PIX);
+        PaymentResponseDTO payment = paymentService.processPayment(user.getId(), paymentRequest);
+
+        paymentService.refundPayment(order.getId(), user.getId());
+        assertFalse(outboxEventRepository.findAll().isEmpty());
+
+        // Act
+        int delivered = relay.relay();
+
+        // Assert
+        assertEquals(delivered, sink.received.size());
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+        assertEquals(List.of(DomainEventType.ORDER_CREATED, DomainEventType.ORDER_STATUS_CHANGED,
+                DomainEventType.ORDER_STATUS_CHANGED), typesOf("ORDER", order.getId()));
+        assertEquals(List.of(DomainEventType.PAYMENT_REQUESTED, DomainEventType.PAYMENT_APPROVED,
+                DomainEventType.PAYMENT_REFUNDED), typesOf("PAYMENT", payment.getId()));
+        assertEquals(List.of(DomainEventType.STOCK_CHANGED), typesOf("PRODUCT", product.getId()));
+
+        DomainEvent cancelled = sink.received.stream()
+                .filter(event -> event.getAggregateType().equals("ORDER"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        assertTrue(cancelled.getPayload().contains("\"to\":\"CANCELLED\""));
+    }
+
+    @Test
+    @DisplayName("Lote com falha no sink fica no outbox e é reentregue")
+    void testRelay_RedeliversAfterSinkFailure() {
+
+        // Arrange
+        OrderResponseDTO order = orderService.createOrder(user.getId(), orderRequest);
+        sink.failNext = true;
+
+        // Act
+        int firstAttempt = relay.relay();
+        int secondAttempt = relay.relay();
+
+        // Assert
+        assertEquals(0, firstAttempt);
+        assertEquals(2, secondAttempt);
+        assertEquals(List.of(DomainEventType.ORDER_CREATED), typesOf("ORDER", order.getId()));
+        assertTrue(sink.received.stream().anyMatch(event -> event.getType() == DomainEventType.STOCK_CHANGED
+                && event.getPayload().contains("\"delta\":-3")));
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        addressRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,178 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
+import com.hammer.ecommerce.dto.payment.PaymentResponseDTO;
+import com.hammer.ecommerce.dto.payment.ProcessPaymentRequestDTO;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.payment.PaymentProcessor;
+import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.service.OrderService;
+import com.hammer.ecommerce.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Sem @Transactional: o pipeline só despacha o pagamento depois do commit da requisição.
+// O modo assíncrono é ligado só nesta classe para reaproveitar o contexto Spring dos demais testes.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentPipelineIntegrationTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentProcessor paymentProcessor;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        ReflectionTestUtils.setField(paymentProcessor, "async", true);
+
+        Category category = new Category();
+        category.setName("Pagamentos");
+        category = categoryRepository.save(category);
+
+        Product product = new Product();
+        product.setName("Teclado Mecânico");
+        product.setPrice(new BigDecimal("350.00"));
+        product.setStockQuantity(10);
+        product.setSku("KEY-ASYNC-001");
+        product.setActive(true);
+        product.setCategory(category);
+        product = productRepository.save(product);
+
+        User user = new User();
+        user.setName("Cliente Assíncrono");
+        user.setEmail("assincrono@email.com");
+        user.setPassword("senha123");
+        user = userRepository.save(user);
+        userId = user.getId();
+
+        Address address = new Address();
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        address = addressRepository.save(address);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        CartItem item = new CartItem();
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setQuantity(1);
+        cart.getItems().add(item);
+        cartRepository.save(cart);
+
+        CreateOrderRequestDTO orderRequest = new CreateOrderRequestDTO();
+        orderRequest.setShippingAddressId(address.getId());
+        orderId = orderService.createOrder(userId, orderRequest).getId();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        // Espera o pipeline terminar antes de apagar os dados
+        waitUntilIdle();
+        ReflectionTestUtils.setField(paymentProcessor, "async", false);
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Deve responder com pagamento pendente e aprová-lo em segundo plano")
+    void testProcessPayment_Async() throws InterruptedException {
+
+        ProcessPaymentRequestDTO request = new ProcessPaymentRequestDTO();
+        request.setOrderId(orderId);
+        request.setPaymentMethod(PaymentMethod.PIX);
+
+        PaymentResponseDTO response = paymentService.processPayment(userId, request);
+        assertEquals("PENDING", response.getStatus());
+
+        waitUntilIdle();
+
+        assertEquals("APPROVED", paymentService.findByOrderId(orderId, userId).getStatus());
+        assertEquals(OrderStatus.PAID, orderRepository.findById(orderId).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Deve recusar em segundo plano pagamento com cartão inválido")
+    void testProcessPayment_Async_Rejected() throws InterruptedException {
+
+        ProcessPaymentRequestDTO request = new ProcessPaymentRequestDTO();
+        request.setOrderId(orderId);
+        request.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        request.setCardNumber("123"); // Número inválido para forçar rejeição
+
+        PaymentResponseDTO response = paymentService.processPayment(userId, request);
+        assertEquals("PENDING", response.getStatus());
+
+        waitUntilIdle();
+
+        assertEquals("REJECTED", paymentService.findByOrderId(orderId, userId).getStatus());
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(orderId).orElseThrow().getStatus());
+    }
+
+    private void waitUntilIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            boolean finalized = paymentRepository.findAll().stream()
+                    .noneMatch(payment -> payment.getStatus() == PaymentStatus.PENDING);
+            if (finalized && paymentProcessor.getQueueDepth() == 0 && paymentProcessor.getInFlight() == 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private void cleanUp() {
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        addressRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
@@ -1,11 +1,16 @@
 package com.hammer.ecommerce.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hammer.ecommerce.dto.product.ProductRequestDTO;
 import com.hammer.ecommerce.model.Category;
 import com.hammer.ecommerce.model.Product;
 import com.hammer.ecommerce.repositories.CategoryRepository;
 import com.hammer.ecommerce.repositories.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,13 +21,20 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -44,6 +56,12 @@ class ProductControllerIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Category category;
 
     @BeforeEach
@@ -91,6 +109,7 @@ class ProductControllerIntegrationTest {
 
         createProduct("Mouse Gamer", new BigDecimal("50.00"), 10);
         createProduct("Teclado Mecânico", new BigDecimal("100.00"), 5);
+        commitSearchIndex();
 
         mockMvc.perform(get("/api/products")
                         .param("search", "mouse"))
@@ -98,6 +117,55 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[0].name").value("Mouse Gamer"));
     }
 
+    @Test
+    @DisplayName("Deve buscar produtos ignorando acentos")
+    void testSearchProducts_AccentInsensitive() throws Exception {
+
+        createProduct("Açúcar Mascavo", new BigDecimal("15.00"), 10);
+        createProduct("Café Torrado", new BigDecimal("30.00"), 10);
+        commitSearchIndex();
+
+        mockMvc.perform(get("/api/products")
+                        .param("search", "acucar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value("Açúcar Mascavo"));
+    }
+
+    @Test
+    @DisplayName("Deve ordenar busca por relevância e refletir atualizações do produto")
+    void testSearchProducts_RelevanceAndIncrementalIndex() throws Exception {
+
+        Product mug = createProduct("Caneca", new BigDecimal("20.00"), 10);
+        createProduct("Café Especial", new BigDecimal("30.00"), 10);
+
+        // "Caneca" só cita café na descrição; o nome pesa mais
+        mug.setDescription("Caneca para café");
+        productRepository.saveAndFlush(mug);
+        commitSearchIndex();
+
+        mockMvc.perform(get("/api/products")
+                        .param("search", "cafe"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].name").value("Café Especial"))
+                .andExpect(jsonPath("$.content[1].name").value("Caneca"));
+    }
+
+    @Test
+    @DisplayName("Não deve indexar produto de transação sem commit")
+    void testSearchProducts_NotIndexedBeforeCommit() throws Exception {
+
+        createProduct("Chaleira Elétrica", new BigDecimal("80.00"), 10);
+        entityManager.flush();
+
+        // Sem o afterCommit (transação que terminaria em rollback) o produto não entra no índice
+        mockMvc.perform(get("/api/products")
+                        .param("search", "chaleira"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
     @Test
     @DisplayName("Deve filtrar produtos por faixa de preço")
     void testFilterProductsByPriceRange() throws Exception {
@@ -280,6 +348,141 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.totalElements").value(greaterThanOrEqualTo(15)));
     }
 
+    @Test
+    @DisplayName("Deve percorrer produtos por cursor sem repetir itens")
+    void testCursorPagination() throws Exception {
+
+        for (int i = 1; i <= 5; i++) {
+            createProduct("Produto " + i, new BigDecimal("10.00"), 10);
+        }
+
+        Set<Long> ids = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            MockHttpServletRequestBuilder request = get("/api/products/cursor")
+                    .param("sortBy", "price")
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn();
+
+            JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+            body.get("content").forEach(product -> assertTrue(ids.add(product.get("id").asLong())));
+            cursor = body.get("hasNext").asBoolean() ? body.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(5, ids.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    @DisplayName("Deve ordenar produtos por preço decrescente no modo cursor")
+    void testCursorPagination_SortByPriceDesc() throws Exception {
+
+        createProduct("Barato", new BigDecimal("10.00"), 10);
+        createProduct("Médio", new BigDecimal("50.00"), 10);
+        createProduct("Caro", new BigDecimal("100.00"), 10);
+
+        mockMvc.perform(get("/api/products/cursor")
+                        .param("sortBy", "price")
+                        .param("direction", "DESC")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].name").value("Caro"))
+                .andExpect(jsonPath("$.content[1].name").value("Médio"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 para cursor inválido")
+    void testCursorPagination_InvalidCursor() throws Exception {
+
+        mockMvc.perform(get("/api/products/cursor")
+                        .param("cursor", "invalido"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Deve listar uma página de produtos com número fixo de SQLs (sem N+1)")
+    void testListProducts_StatementCountPerPage() throws Exception {
+
+        // Cada produto em uma categoria diferente: com N+1 seriam 10 SELECTs extras de categoria
+        createProductsInDistinctCategories(12);
+        Statistics statistics = startStatementCount();
+
+        mockMvc.perform(get("/api/products")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(10)))
+                .andExpect(jsonPath("$.content[0].category.name").value("Categoria 1"));
+
+        // SELECT da página + COUNT
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/products")
+                        .param("minPrice", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(10)));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Deve buscar por texto com número fixo de SQLs (sem N+1)")
+    void testSearchProducts_StatementCountPerPage() throws Exception {
+
+        createProductsInDistinctCategories(12);
+        commitSearchIndex();
+        Statistics statistics = startStatementCount();
+
+        mockMvc.perform(get("/api/products")
+                        .param("search", "produto")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(10)))
+                .andExpect(jsonPath("$.totalElements").value(12));
+
+        // IDs que passam nos filtros + SELECT projetado da página
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private void createProductsInDistinctCategories(int count) {
+        for (int i = 1; i <= count; i++) {
+            Category productCategory = new Category();
+            productCategory.setName("Categoria " + i);
+            category = categoryRepository.save(productCategory);
+            createProduct("Produto " + i, new BigDecimal("10.00"), 10);
+        }
+    }
+
+    // Os testes não fazem commit: dispara o afterCommit com que o listener atualiza o índice de busca
+    private void commitSearchIndex() {
+        entityManager.flush();
+        TransactionSynchronizationUtils.triggerAfterCommit();
+    }
+
+    private Statistics startStatementCount() {
+        // Sessão limpa, como em uma requisição nova (nada em cache no contexto de persistência)
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
     private Product createProduct(String name, BigDecimal price, int stock) {
 
         Product product = new Product();
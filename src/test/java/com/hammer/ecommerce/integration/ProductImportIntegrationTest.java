@@ -0,0 +1,243 @@
+package com.hammer.ecommerce.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.model.Category;
+import com.hammer.ecommerce.model.DomainEventType;
+import com.hammer.ecommerce.model.OutboxEvent;
+import com.hammer.ecommerce.model.Product;
+import com.hammer.ecommerce.repositories.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Sem @Transactional: cada lote da importação faz commit próprio (checkpoint).
+// O perfil de testes usa lotes de 2 registros.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImportIntegrationTest {
+
+    private static final String HEADER = "sku,name,description,price,stockQuantity,imageUrl,categoryId,category,active\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductImportJobRepository productImportJobRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        category = new Category();
+        category.setName("Periféricos");
+        category = categoryRepository.save(category);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Deve criar e atualizar produtos pelo SKU e gravar os registros inválidos no arquivo de erros")
+    void testImportCsv_UpsertsBySkuAndReportsErrors() throws Exception {
+
+        // Arrange: SKU-1 já existe; SKU-2 usa a categoria pelo nome; SKU-3 tem preço inválido
+        Product existing = new Product();
+        existing.setName("Mouse antigo");
+        existing.setPrice(new BigDecimal("10.00"));
+        existing.setStockQuantity(5);
+        existing.setSku("SKU-1");
+        existing.setCategory(category);
+        existing = productRepository.save(existing);
+
+        String csv = HEADER +
+                "SKU-1,Mouse sem fio,\"Mouse, 3 botões\",59.90,20,,%d,,true\n".formatted(category.getId()) +
+                "SKU-2,Teclado mecânico,,199.00,7,,,periféricos,\n" +
+                "SKU-3,Monitor,,abc,1,,%d,,true\n".formatted(category.getId()) +
+                "SKU-4,Headset,,120.00,3,,,Inexistente,true\n" +
+                "SKU-5,Webcam,,89.00,0,,%d,,false\n".formatted(category.getId());
+
+        // Act
+        JsonNode job = importFile("CSV", null, csv);
+
+        // Assert
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(5, job.get("rowsProcessed").asLong());
+        assertEquals(2, job.get("productsCreated").asLong());
+        assertEquals(1, job.get("productsUpdated").asLong());
+        assertEquals(2, job.get("rowsFailed").asLong());
+
+        Product updated = productRepository.findById(existing.getId()).orElseThrow();
+        assertEquals("Mouse sem fio", updated.getName());
+        assertEquals("Mouse, 3 botões", updated.getDescription());
+        assertEquals(0, new BigDecimal("59.90").compareTo(updated.getPrice()));
+        assertEquals(20, updated.getStockQuantity());
+
+        Product created = productRepository.findBySku("SKU-2").orElseThrow();
+        assertEquals(category.getId(), created.getCategory().getId());
+        assertTrue(created.getActive());
+        assertFalse(productRepository.findBySku("SKU-5").orElseThrow().getActive());
+        assertTrue(productRepository.findBySku("SKU-3").isEmpty());
+
+        // Estoque alterado vai para o outbox (+15 no SKU-1, +7 no SKU-2; SKU-5 sem estoque)
+        assertEquals(2, outboxEventRepository.findAll().stream()
+                .map(OutboxEvent::getEventType)
+                .filter(DomainEventType.STOCK_CHANGED::equals)
+                .count());
+
+        // Produtos gravados por JDBC também entram no índice de busca
+        mockMvc.perform(get("/api/products").param("search", "teclado"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].sku").value("SKU-2"));
+
+        mockMvc.perform(get("/api/products/import/{jobId}/errors", job.get("id").asLong()))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "row,sku,error\r\n" +
+                        "3,SKU-3,Preço inválido: abc\r\n" +
+                        "4,SKU-4,Categoria não encontrada: Inexistente\r\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Deve retomar a importação interrompida a partir do último lote gravado")
+    void testImportCsv_ResumesFromCheckpoint() throws Exception {
+
+        // Arrange: o registro 4 tem aspas não fechadas; o lote 1 (registros 1 e 2) já foi gravado
+        // quando a leitura falha, o registro 3 ainda não
+        String rows = "SKU-1,Produto um,,10.00,1,,%1$d,,true\n" +
+                "SKU-2,Produto dois,,20.00,2,,%1$d,,true\n" +
+                "SKU-3,Produto três,,30.00,3,,%1$d,,true\n";
+        String broken = HEADER + rows.formatted(category.getId()) + "SKU-4,\"Produto quatro,,40.00,4,,,,true\n";
+        String fixed = HEADER + rows.formatted(category.getId()) + "SKU-4,Produto quatro,,40.00,4,,,periféricos,true\n";
+
+        JsonNode failed = importFile("CSV", null, broken);
+        assertEquals("FAILED", failed.get("status").asText());
+        assertEquals(2, failed.get("rowsProcessed").asLong());
+        assertEquals("CSV inválido: aspas não fechadas no registro 4", failed.get("errorMessage").asText());
+        assertTrue(productRepository.findBySku("SKU-3").isEmpty());
+
+        // Act: o mesmo arquivo, corrigido, reenviado com o jobId
+        JsonNode resumed = importFile("CSV", failed.get("id").asLong(), fixed);
+
+        // Assert: registros 1 e 2 não foram reaplicados
+        assertEquals("COMPLETED", resumed.get("status").asText());
+        assertEquals(4, resumed.get("rowsProcessed").asLong());
+        assertEquals(4, resumed.get("productsCreated").asLong());
+        assertEquals(0, resumed.get("productsUpdated").asLong());
+        assertEquals(4, productRepository.count());
+
+        mockMvc.perform(post("/api/products/import")
+                        .param("jobId", failed.get("id").asText())
+                        .content(fixed))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Deve importar produtos de um array JSON")
+    void testImportJson() throws Exception {
+
+        // Arrange: SKU repetido no mesmo lote vale o último registro
+        String json = """
+                [
+                  {"sku": "SKU-J1", "name": "Cabo HDMI", "price": 25.5, "stockQuantity": 10, "categoryId": %1$d},
+                  {"sku": "SKU-J1", "name": "Cabo HDMI 2m", "price": 29.9, "stockQuantity": 8, "categoryId": %1$d},
+                  {"sku": "SKU-J2", "name": "X", "price": 10, "stockQuantity": 1, "categoryId": %1$d}
+                ]
+                """.formatted(category.getId());
+
+        // Act
+        JsonNode job = importFile("JSON", null, json);
+
+        // Assert
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(1, job.get("productsCreated").asLong());
+        assertEquals(1, job.get("productsUpdated").asLong());
+        assertEquals(1, job.get("rowsFailed").asLong());
+
+        Product product = productRepository.findBySku("SKU-J1").orElseThrow();
+        assertEquals("Cabo HDMI 2m", product.getName());
+        assertEquals(8, product.getStockQuantity());
+
+        mockMvc.perform(get("/api/products/import/{jobId}", job.get("id").asLong()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsProcessed").value(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    @DisplayName("Não deve permitir importação sem permissão de administrador")
+    void testImport_Forbidden() throws Exception {
+
+        mockMvc.perform(post("/api/products/import").content(HEADER))
+                .andExpect(status().isForbidden());
+
+        assertEquals(0, productImportJobRepository.count());
+    }
+
+    private JsonNode importFile(String format, Long jobId, String content) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/products/import")
+                        .param("format", format)
+                        .param("jobId", jobId == null ? null : jobId.toString())
+                        .contentType(format.equals("CSV") ? MediaType.TEXT_PLAIN : MediaType.APPLICATION_JSON)
+                        .content(content.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private void cleanUp() {
+        outboxEventRepository.deleteAll();
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        productImportJobRepository.deleteAll();
+    }
+}
@@ -0,0 +1,86 @@
+package com.hammer.ecommerce.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Servidor HTTP de verdade: o actuator roda na porta de gerenciamento, num contexto à parte
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "management.endpoint.health.enabled=true",
+        "management.endpoint.metrics.enabled=true",
+        "management.endpoint.prometheus.enabled=true"
+})
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusScrapeIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    @DisplayName("Deve responder ao scrape do Prometheus sem token na porta de gerenciamento")
+    void testScrapeWithoutToken() {
+
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("# TYPE jvm_memory_used_bytes gauge"));
+    }
+
+    @Test
+    @DisplayName("Deve responder à probe de health sem token na porta de gerenciamento")
+    void testHealthWithoutToken() {
+
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/health", String.class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Deve exigir autenticação nos demais endpoints do actuator")
+    void testOtherEndpointsRequireToken() {
+
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/metrics", String.class);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Não deve expor o actuator na porta pública da API")
+    void testActuatorNotOnApiPort() {
+
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/actuator/prometheus", String.class);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+}
@@ -0,0 +1,391 @@
+package com.hammer.ecommerce.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.model.Order;
+import com.hammer.ecommerce.model.OrderStatus;
+import com.hammer.ecommerce.model.PaymentStatus;
+import com.hammer.ecommerce.repositories.AddressRepository;
+import com.hammer.ecommerce.repositories.CartItemRepository;
+import com.hammer.ecommerce.repositories.CartRepository;
+import com.hammer.ecommerce.repositories.OrderItemRepository;
+import com.hammer.ecommerce.repositories.OrderRepository;
+import com.hammer.ecommerce.repositories.PaymentRepository;
+import com.hammer.ecommerce.repositories.ProductRepository;
+import com.hammer.ecommerce.repositories.ReviewRepository;
+import com.hammer.ecommerce.search.ProductSearchEngine;
+import com.hammer.ecommerce.search.ProductSearchFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.postgresql.PGStatement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Confere com EXPLAIN, num PostgreSQL de verdade com as migrations do Flyway e volume de dados
+// parecido com produção, que as consultas dos repositórios não fazem Seq Scan na tabela principal.
+// O SQL é o que o Hibernate gerou: cada método do repositório é chamado e os comandos executados
+// são capturados no JDBC com os valores já no lugar dos parâmetros (o plano depende deles).
+// Usa QUERY_PLAN_DB_URL (banco vazio, usuário postgres) quando definida; senão sobe um container
+// com Testcontainers. Sem nenhum dos dois o teste é pulado com aviso no log e no relatório;
+// com QUERY_PLAN_REQUIRED=true (CI) ele falha em vez de pular.
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.database=postgresql",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "spring.flyway.enabled=true",
+        "catalog.search.engine=postgres"
+})
+@ActiveProfiles("test")
+@Transactional
+@DirtiesContext
+@EnabledIf(value = "databaseAvailable",
+        disabledReason = "Sem QUERY_PLAN_DB_URL e sem Docker: planos de consulta NÃO verificados")
+class QueryPlanIntegrationTest {
+
+    private static final String DB_URL_ENV = "QUERY_PLAN_DB_URL";
+    private static final String REQUIRED_ENV = "QUERY_PLAN_REQUIRED";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Comandos executados pela thread do teste enquanto captured(...) roda
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    // Mesmas páginas que os controllers montam
+    private static final Pageable ORDERS_PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+    private static final Pageable PRODUCTS_BY_ID = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+    private static final Pageable PRODUCTS_BY_PRICE = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "price"));
+    private static final Pageable REVIEWS_PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+    // Removido pelo Testcontainers ao fim da JVM, depois do contexto do Spring fechar
+    private static PostgreSQLContainer<?> container;
+    private static DriverManagerDataSource database;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ProductSearchEngine productSearchEngine;
+
+    static boolean databaseAvailable() {
+        if (System.getenv(DB_URL_ENV) != null || DockerClientFactory.instance().isDockerAvailable()) {
+            return true;
+        }
+        if (Boolean.parseBoolean(System.getenv(REQUIRED_ENV))) {
+            throw new IllegalStateException(REQUIRED_ENV + "=true, mas não há " + DB_URL_ENV + " nem Docker");
+        }
+        log.warn("QueryPlanIntegrationTest PULADO: defina {} ou disponibilize Docker para verificar os planos de consulta",
+                DB_URL_ENV);
+        return false;
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        DriverManagerDataSource dataSource = database();
+        registry.add("spring.datasource.url", dataSource::getUrl);
+        registry.add("spring.datasource.username", dataSource::getUsername);
+        registry.add("spring.datasource.password", dataSource::getPassword);
+    }
+
+    @Test
+    @DisplayName("Consultas de pedidos devem usar índice")
+    void testOrderQueries() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertNoSeqScan("orders", captured(() -> orderRepository.findByUserId(42L, ORDERS_PAGE)));
+        assertNoSeqScan("orders", captured(() ->
+                orderRepository.findByUserIdAndStatus(42L, OrderStatus.PAID, ORDERS_PAGE)));
+        assertNoSeqScan("orders", captured(() ->
+                orderRepository.seekByCreatedAtDesc(now.minusDays(30), 5000L, PageRequest.ofSize(21))));
+        assertNoSeqScan("orders", captured(() -> orderRepository.findByOrderNumber("ORD-004242")));
+        assertNoSeqScan("orders", captured(() -> orderRepository.findByIdForUpdate(4242L)));
+        assertNoSeqScan("orders", captured(() -> {
+            try (Stream<Order> orders = orderRepository.streamForExport(
+                    now.minusDays(2), now.minusDays(1), EnumSet.allOf(OrderStatus.class))) {
+                orders.findFirst();
+            }
+        }));
+    }
+
+    @Test
+    @DisplayName("Consultas de itens de pedido devem usar índice")
+    void testOrderItemQueries() {
+        assertNoSeqScan("order_items", captured(() -> orderRepository.findByIdWithItems(4242L)));
+        assertNoSeqScan("order_items", captured(() -> orderRepository.findByIdAndUserId(4242L, 4242L)));
+        assertNoSeqScan("order_items", captured(() -> orderItemRepository.findByOrderId(4243L)));
+        assertNoSeqScan("order_items", captured(() -> orderItemRepository.countItems(List.of(4244L, 4245L))));
+        assertNoSeqScan("order_items", captured(() ->
+                orderRepository.existsPurchase(42L, 4242L, Set.of(OrderStatus.DELIVERED))));
+    }
+
+    @Test
+    @DisplayName("Listagens de produtos devem usar índice")
+    void testProductQueries() {
+        BigDecimal hundred = new BigDecimal("100");
+
+        assertNoSeqScan("products", captured(() -> productRepository.findWithFilters(7L, null, null, PRODUCTS_BY_ID)));
+        assertNoSeqScan("products", captured(() ->
+                productRepository.findWithFilters(7L, hundred, new BigDecimal("150"), PRODUCTS_BY_PRICE)));
+        assertNoSeqScan("products", captured(() ->
+                productRepository.findWithFilters(null, hundred, new BigDecimal("110"), PRODUCTS_BY_PRICE)));
+        assertNoSeqScan("products", captured(() -> productRepository.seekByPriceAsc(
+                null, null, null, null, new BigDecimal("500"), 100L, PageRequest.ofSize(11))));
+        assertNoSeqScan("products", captured(() -> productRepository.seekByIdAsc(
+                7L, null, null, null, 25000L, PageRequest.ofSize(11))));
+        assertNoSeqScan("products", captured(() -> productRepository.findBySku("SKU-4242")));
+    }
+
+    @Test
+    @DisplayName("Busca full-text de produtos deve usar o índice GIN")
+    void testProductSearch() {
+        assertNoSeqScan("products", captured(() -> productSearchEngine.search("produto 4242", ProductSearchFilter.NONE)));
+        assertNoSeqScan("products", captured(() ->
+                productSearchEngine.search("produto 4242", new ProductSearchFilter(7L, null, null))));
+    }
+
+    @Test
+    @DisplayName("Consultas de carrinho devem usar índice")
+    void testCartQueries() {
+        assertNoSeqScan("cart_items", captured(() -> cartRepository.findByUserIdWithItems(42L)));
+        assertNoSeqScan("cart_items", captured(() -> cartItemRepository.findByCartIdAndProductId(42L, 4242L)));
+    }
+
+    @Test
+    @DisplayName("Consultas de avaliações devem usar índice")
+    void testReviewQueries() {
+        assertNoSeqScan("reviews", captured(() -> reviewRepository.findByProductId(4242L, REVIEWS_PAGE)));
+        assertNoSeqScan("reviews", captured(() -> reviewRepository.findAverageRatingByProductId(4242L)));
+        assertNoSeqScan("reviews", captured(() -> reviewRepository.findByProductIdAndUserId(4242L, 42L)));
+        assertNoSeqScan("reviews", captured(() -> productRepository.reconcileProductRatings(1000L, 1500L)));
+    }
+
+    @Test
+    @DisplayName("Consultas de endereços e pagamentos devem usar índice")
+    void testAddressAndPaymentQueries() {
+        assertNoSeqScan("addresses", captured(() -> addressRepository.findByUserId(42L)));
+        assertNoSeqScan("addresses", captured(() -> addressRepository.findByUserIdAndIsDefaultTrue(42L)));
+        assertNoSeqScan("addresses", captured(() -> addressRepository.findByIdAndUserId(77L, 42L)));
+        assertNoSeqScan("payments", captured(() -> paymentRepository.findByOrderId(4242L)));
+        assertNoSeqScan("payments", captured(() -> paymentRepository.findByStatusCreatedBefore(
+                PaymentStatus.PENDING, LocalDateTime.now().minusMinutes(10), PageRequest.ofSize(100))));
+    }
+
+    private List<String> captured(Runnable call) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            call.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        assertFalse(statements.isEmpty(), "Nenhum comando SQL executado");
+        return statements;
+    }
+
+    private void assertNoSeqScan(String table, List<String> statements) {
+        for (String sql : statements) {
+            String json = jdbc.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+            JsonNode plan;
+            try {
+                plan = MAPPER.readTree(json).get(0).get("Plan");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+
+            List<String> seqScans = new ArrayList<>();
+            collectSeqScans(plan, seqScans);
+            assertTrue(!seqScans.contains(table), "Seq Scan em " + table + ":\n" + sql + "\n" + plan.toPrettyString());
+        }
+    }
+
+    private void collectSeqScans(JsonNode node, List<String> relations) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        node.path("Plans").forEach(child -> collectSeqScans(child, relations));
+    }
+
+    // Banco migrado e populado uma vez, antes do contexto do Spring subir
+    private static synchronized DriverManagerDataSource database() {
+        if (database != null) {
+            return database;
+        }
+
+        String url = System.getenv(DB_URL_ENV);
+        if (url != null) {
+            database = new DriverManagerDataSource(url, "postgres", "");
+        } else {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+            database = new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+        }
+
+        // Mesmo lock da aplicação (spring.flyway.postgresql.transactional-lock=false), senão a V9 trava
+        Flyway.configure().dataSource(database).locations("classpath:db/migration")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load().migrate();
+        seed(new JdbcTemplate(database));
+        return database;
+    }
+
+    // Volume suficiente para o planejador preferir os índices: 5 mil usuários, 50 mil produtos,
+    // 100 mil pedidos com 200 mil itens e 50 mil avaliações
+    private static void seed(JdbcTemplate jdbc) {
+        jdbc.execute("TRUNCATE reviews, payments, order_items, orders, cart_items, carts, addresses, " +
+                "products, categories, users RESTART IDENTITY CASCADE");
+
+        jdbc.execute("INSERT INTO users (name, email, password, role, created_at) " +
+                "SELECT 'Usuário ' || g, 'user' || g || '@email.com', 'x', 'CUSTOMER', now() " +
+                "FROM generate_series(1, 5000) g");
+        jdbc.execute("INSERT INTO categories (name) SELECT 'Categoria ' || g FROM generate_series(1, 50) g");
+        jdbc.execute("INSERT INTO products (name, price, stock_quantity, sku, active, category_id, created_at) " +
+                "SELECT 'Produto ' || g, (g % 1000) + 0.99, 100, 'SKU-' || g, g % 20 <> 0, g % 50 + 1, now() " +
+                "FROM generate_series(1, 50000) g");
+        jdbc.execute("INSERT INTO addresses (id, street, number, neighborhood, city, state, zip_code, is_default, user_id) " +
+                "SELECT g, 'Rua ' || g, '1', 'Centro', 'São Paulo', 'SP', '01234-567', g <= 5000, (g - 1) % 5000 + 1 " +
+                "FROM generate_series(1, 10000) g");
+        jdbc.execute("INSERT INTO orders (id, order_number, user_id, total_amount, status, shipping_address_id, created_at) " +
+                "SELECT g, 'ORD-' || lpad(g::text, 6, '0'), (g - 1) % 5000 + 1, 100, " +
+                "(ARRAY['PENDING','PAID','PROCESSING','SHIPPED','DELIVERED','CANCELLED'])[g % 6 + 1], " +
+                "(g - 1) % 5000 + 1, now() - (g || ' minutes')::interval " +
+                "FROM generate_series(1, 100000) g");
+        jdbc.execute("INSERT INTO order_items (id, order_id, product_id, quantity, price, subtotal) " +
+                "SELECT g, (g - 1) / 2 + 1, g % 50000 + 1, 1, 50, 50 FROM generate_series(1, 200000) g");
+        jdbc.execute("INSERT INTO carts (user_id, created_at) SELECT g, now() FROM generate_series(1, 5000) g");
+        jdbc.execute("INSERT INTO cart_items (id, cart_id, product_id, quantity) " +
+                "SELECT g, (g - 1) % 5000 + 1, g * 7 % 50000 + 1, 1 FROM generate_series(1, 20000) g");
+        jdbc.execute("INSERT INTO reviews (id, product_id, user_id, rating, created_at) " +
+                "SELECT g, g, g % 5000 + 1, g % 5 + 1, now() FROM generate_series(1, 50000) g");
+        jdbc.execute("INSERT INTO payments (id, order_id, payment_method, status, created_at) " +
+                "SELECT g, g, 'PIX', CASE WHEN g % 100 = 0 THEN 'PENDING' ELSE 'APPROVED' END, " +
+                "now() - (g || ' minutes')::interval FROM generate_series(1, 100000) g");
+
+        jdbc.execute("ANALYZE");
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        // Envolve o DataSource da aplicação: cada PreparedStatement executado pela thread que está
+        // capturando é guardado com os parâmetros já renderizados pelo driver (PGStatement.toString)
+        @Bean
+        static BeanPostProcessor statementCapturePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return capturing(super.getConnection());
+                        }
+
+                        @Override
+                        public Connection getConnection(String username, String password) throws SQLException {
+                            return capturing(super.getConnection(username, password));
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection capturing(Connection connection) {
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                return result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                        ? capturing(statement) : result;
+            });
+        }
+
+        private static PreparedStatement capturing(PreparedStatement statement) {
+            return proxy(PreparedStatement.class, (proxy, method, args) -> {
+                List<String> captured = CAPTURED.get();
+                if (captured != null && method.getName().startsWith("execute") && args == null) {
+                    captured.add(statement.unwrap(PGStatement.class).toString());
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.datasource.ReplicaRoutingDataSource;
+import com.hammer.ecommerce.dto.category.CategoryRequestDTO;
+import com.hammer.ecommerce.dto.category.CategoryResponseDTO;
+import com.hammer.ecommerce.service.CategoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Serviços JPA com o roteador ligado. A "réplica" é outro pool apontando para o mesmo
+// banco H2 do perfil de teste (o esquema é criado pelo Hibernate só no primário);
+// o contador por rota mostra qual pool atendeu cada transação.
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.urls=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "datasource.replicas.lag-query=SELECT 0",
+        "datasource.replicas.lag-check-interval=PT1H"
+})
+class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource.checkReplicas();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (categoryId != null) {
+            categoryService.delete(categoryId);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve gravar pelo primário e ler pela réplica nos métodos readOnly dos serviços")
+    void testServices_RouteByReadOnly() {
+
+        // Arrange
+        double primaryBefore = connections("primary");
+        double replicaBefore = connections("replica-1");
+
+        // Act
+        CategoryResponseDTO created = categoryService.create(new CategoryRequestDTO("Réplicas", null));
+        categoryId = created.getId();
+        double primaryAfterWrite = connections("primary");
+
+        boolean found = categoryService.findAll().stream()
+                .anyMatch(category -> category.getId().equals(categoryId));
+        CategoryResponseDTO byId = categoryService.findById(categoryId);
+
+        // Assert
+        assertTrue(primaryAfterWrite > primaryBefore);
+        assertTrue(found);
+        assertEquals("Réplicas", byId.getName());
+        assertEquals(replicaBefore + 2, connections("replica-1"));
+    }
+
+    private double connections(String route) {
+        return meterRegistry.get("datasource.routing.connections").tag("route", route).counter().count();
+    }
+}
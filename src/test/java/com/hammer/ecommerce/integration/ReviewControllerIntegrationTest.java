@@ -6,7 +6,9 @@ import com.hammer.ecommerce.dto.review.CreateReviewRequestDTO;
 import com.hammer.ecommerce.dto.review.UpdateReviewRequestDTO;
 import com.hammer.ecommerce.model.*;
 import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.service.ProductRatingReconciliationService;
 import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -66,6 +69,12 @@ class ReviewControllerIntegrationTest {
     @Autowired
     private CartItemRepository cartItemRepository;
 
+    @Autowired
+    private ProductRatingReconciliationService ratingReconciliationService;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private String authToken;
     private String authTokenUser2;
     private Long productId;
@@ -601,6 +610,52 @@ class ReviewControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Deve manter média e total de avaliações no produto")
+    void testProductRatingAggregates() throws Exception {
+
+        createReview(productId, 5, "Excelente", authToken);
+        createReview(productId, 4, "Muito bom", authTokenUser2);
+
+        // Simula uma nova requisição (contexto de persistência limpo)
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/products/" + productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reviewCount").value(2))
+                .andExpect(jsonPath("$.averageRating").value(4.5));
+
+        mockMvc.perform(delete("/api/products/" + productId + "/reviews")
+                        .header("Authorization", "Bearer " + authTokenUser2))
+                .andExpect(status().isNoContent());
+
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/products/" + productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reviewCount").value(1))
+                .andExpect(jsonPath("$.averageRating").value(5.0));
+    }
+
+    @Test
+    @DisplayName("Deve reconciliar agregados de avaliação divergentes")
+    void testReconcileProductRatings() throws Exception {
+
+        createReview(productId, 3, "Regular", authToken);
+
+        // Corromper os agregados
+        productRepository.adjustRating(productId, 40, 9);
+
+        int fixed = ratingReconciliationService.reconcileAll();
+        entityManager.clear();
+
+        assertEquals(1, fixed);
+        mockMvc.perform(get("/api/products/" + productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reviewCount").value(1))
+                .andExpect(jsonPath("$.averageRating").value(3.0));
+    }
+
     // Método auxiliar para criar avaliação
     private Long createReview(Long productId, int rating, String comment, String token) throws Exception {
 
@@ -0,0 +1,278 @@
+package com.hammer.ecommerce.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hammer.ecommerce.dto.login.LoginRequestDTO;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.sql.RequestStatements;
+import com.hammer.ecommerce.sql.StatementBudgetFilter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Listagens com várias linhas e o contexto de persistência limpo antes das requisições: coleção
+// lazy ou to-one carregado por linha aparece como o mesmo comando repetido. O orçamento declarado
+// em @StatementBudget é conferido pelo StatementBudgetFilter (no perfil de teste, estourar é erro).
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class StatementBudgetIntegrationTest {
+
+    private static final int CATEGORIES = 3;
+    private static final int PRODUCTS_PER_CATEGORY = 4;
+    private static final int ORDERS = 6;
+    private static final int REVIEWS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private String customerToken;
+    private String adminToken;
+    private Long categoryId;
+    private Long reviewedProductId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        User customer = user("cliente@email.com", Role.CUSTOMER);
+        User admin = user("admin@email.com", Role.ADMIN);
+
+        List<Product> products = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES; c++) {
+            Category category = new Category();
+            category.setName("Categoria " + c);
+            category = categoryRepository.save(category);
+            categoryId = category.getId();
+
+            for (int p = 0; p < PRODUCTS_PER_CATEGORY; p++) {
+                Product product = new Product();
+                product.setName("Produto " + c + "-" + p);
+                product.setPrice(new BigDecimal("10.00"));
+                product.setStockQuantity(100);
+                product.setSku("SKU-" + c + "-" + p);
+                product.setActive(true);
+                product.setCategory(category);
+                products.add(productRepository.save(product));
+            }
+        }
+
+        // Um endereço e um pagamento diferentes por pedido: carga por linha não cai no cache da sessão
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUser(customer);
+            order.setShippingAddress(address(customer, i));
+            order.setStatus(OrderStatus.PAID);
+            for (int j = 0; j < 2; j++) {
+                OrderItem item = new OrderItem();
+                item.setProduct(products.get((i + j) % products.size()));
+                item.setQuantity(1);
+                item.setPrice(new BigDecimal("10.00"));
+                item.calculateSubtotal();
+                order.addOrderItem(item);
+            }
+            order.setTotalAmount(order.calculateTotal());
+
+            Payment payment = new Payment();
+            payment.setOrder(order);
+            payment.setPaymentMethod(PaymentMethod.PIX);
+            payment.setStatus(PaymentStatus.APPROVED);
+            order.setPayment(payment);
+            orderRepository.save(order);
+        }
+
+        // Uma avaliação por autor: o autor de cada linha é um usuário diferente
+        reviewedProductId = products.get(0).getId();
+        for (int i = 0; i < REVIEWS; i++) {
+            Review review = new Review();
+            review.setProduct(products.get(0));
+            review.setUser(user("avaliador" + i + "@email.com", Role.CUSTOMER));
+            review.setRating(5);
+            review.setComment("Muito bom");
+            reviewRepository.save(review);
+        }
+
+        customerToken = login("cliente@email.com");
+        adminToken = login("admin@email.com");
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Deve listar categorias com a contagem de produtos sem consulta por categoria")
+    void testCategoriesWithoutNPlusOne() throws Exception {
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(CATEGORIES)))
+                .andExpect(jsonPath("$[*].productCount", everyItem(is(PRODUCTS_PER_CATEGORY))))
+                .andReturn();
+
+        // Assert
+        assertEquals(Map.of(), statements(result).repeated(2));
+
+        mockMvc.perform(get("/api/categories/{id}", categoryId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productCount").value(PRODUCTS_PER_CATEGORY));
+    }
+
+    @Test
+    @DisplayName("Deve listar pedidos do cliente com a quantidade de itens sem consulta por pedido")
+    void testCustomerOrdersWithoutNPlusOne() throws Exception {
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/orders")
+                        .header("Authorization", "Bearer " + customerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(ORDERS)))
+                .andExpect(jsonPath("$.content[*].itemCount", everyItem(is(2))))
+                .andReturn();
+
+        // Assert
+        assertEquals(Map.of(), statements(result).repeated(2));
+    }
+
+    @Test
+    @DisplayName("Deve listar pedidos no admin (página e cursor) sem consulta por pedido")
+    void testAdminOrdersWithoutNPlusOne() throws Exception {
+
+        // Act
+        MvcResult page = mockMvc.perform(get("/api/orders/admin/all")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(ORDERS)))
+                .andExpect(jsonPath("$.content[*].itemCount", everyItem(is(2))))
+                .andReturn();
+        entityManager.clear();
+
+        MvcResult cursor = mockMvc.perform(get("/api/orders/admin/cursor")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(ORDERS)))
+                .andExpect(jsonPath("$.content[*].itemCount", everyItem(is(2))))
+                .andReturn();
+
+        // Assert
+        assertEquals(Map.of(), statements(page).repeated(2));
+        assertEquals(Map.of(), statements(cursor).repeated(2));
+    }
+
+    @Test
+    @DisplayName("Deve listar produtos sem consulta por produto")
+    void testProductsWithoutNPlusOne() throws Exception {
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/products").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(CATEGORIES * PRODUCTS_PER_CATEGORY)))
+                .andReturn();
+
+        // Assert
+        assertEquals(Map.of(), statements(result).repeated(2));
+    }
+
+    @Test
+    @DisplayName("Deve listar avaliações com autor e produto sem consulta por avaliação")
+    void testReviewsWithoutNPlusOne() throws Exception {
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/products/{productId}/reviews", reviewedProductId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(REVIEWS)))
+                .andExpect(jsonPath("$.content[*].userName").exists())
+                .andReturn();
+
+        // Assert
+        assertEquals(Map.of(), statements(result).repeated(2));
+    }
+
+    private RequestStatements statements(MvcResult result) {
+        return (RequestStatements) result.getRequest().getAttribute(StatementBudgetFilter.STATEMENTS_ATTRIBUTE);
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setName("Usuário " + role);
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode("senha123"));
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private Address address(User user, int index) {
+        Address address = new Address();
+        address.setStreet("Rua " + index);
+        address.setNumber(String.valueOf(index));
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        return addressRepository.save(address);
+    }
+
+    private String login(String email) throws Exception {
+        LoginRequestDTO login = new LoginRequestDTO();
+        login.setEmail(email);
+        login.setPassword("senha123");
+
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+}
@@ -0,0 +1,167 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Sem @Transactional: cada checkout precisa da sua própria transação, concorrendo de verdade no banco.
+// @AutoConfigureMockMvc só para reaproveitar o mesmo contexto Spring dos demais testes de integração.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StockConcurrencyIntegrationTest {
+
+    private static final int STOCK = 5;
+    private static final int BUYERS = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Product product;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> addressIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        Category category = new Category();
+        category.setName("Concorrência");
+        category = categoryRepository.save(category);
+
+        // SKU "quente": pouco estoque para muitos compradores
+        product = new Product();
+        product.setName("Console Edição Limitada");
+        product.setPrice(new BigDecimal("2500.00"));
+        product.setStockQuantity(STOCK);
+        product.setSku("HOT-SKU-001");
+        product.setActive(true);
+        product.setCategory(category);
+        product = productRepository.save(product);
+
+        for (int i = 0; i < BUYERS; i++) {
+            User user = new User();
+            user.setName("Comprador " + i);
+            user.setEmail("comprador" + i + "@email.com");
+            user.setPassword("senha123");
+            user = userRepository.save(user);
+
+            Address address = new Address();
+            address.setStreet("Rua " + i);
+            address.setNumber("1");
+            address.setNeighborhood("Centro");
+            address.setCity("São Paulo");
+            address.setState("SP");
+            address.setZipCode("01234-567");
+            address.setUser(user);
+            address = addressRepository.save(address);
+
+            Cart cart = new Cart();
+            cart.setUser(user);
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setQuantity(1);
+            cart.getItems().add(item);
+            cartRepository.save(cart);
+
+            userIds.add(user.getId());
+            addressIds.add(address.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    @DisplayName("Checkouts concorrentes no mesmo SKU não devem vender além do estoque")
+    void testConcurrentCheckout_NoOversell() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < BUYERS; i++) {
+            Long userId = userIds.get(i);
+            CreateOrderRequestDTO request = new CreateOrderRequestDTO();
+            request.setShippingAddressId(addressIds.get(i));
+
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(userId, request);
+                    succeeded.incrementAndGet();
+                } catch (BusinessException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS); // propaga qualquer erro inesperado (deadlock, timeout)
+        }
+        executor.shutdown();
+
+        assertEquals(STOCK, succeeded.get());
+        assertEquals(BUYERS - STOCK, rejected.get());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        assertEquals(STOCK, orderRepository.count());
+    }
+
+    private void cleanUp() {
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        addressRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+        userIds.clear();
+        addressIds.clear();
+    }
+}
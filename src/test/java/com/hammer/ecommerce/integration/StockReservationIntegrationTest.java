@@ -0,0 +1,189 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.dto.order.CreateOrderRequestDTO;
+import com.hammer.ecommerce.dto.order.StockReservationResponseDTO;
+import com.hammer.ecommerce.exceptions.BusinessException;
+import com.hammer.ecommerce.inventory.ReservationLedger;
+import com.hammer.ecommerce.model.*;
+import com.hammer.ecommerce.repositories.*;
+import com.hammer.ecommerce.service.InventoryReservationService;
+import com.hammer.ecommerce.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem @Transactional: reservas são consumidas/liberadas no commit
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StockReservationIntegrationTest {
+
+    @Autowired
+    private InventoryReservationService reservationService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReservationLedger ledger;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Product product;
+    private User holder;
+    private User other;
+    private CreateOrderRequestDTO holderOrder;
+    private CreateOrderRequestDTO otherOrder;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        Category category = new Category();
+        category.setName("Reservas");
+        category = categoryRepository.save(category);
+
+        product = new Product();
+        product.setName("Tênis Lançamento");
+        product.setPrice(new BigDecimal("899.90"));
+        product.setStockQuantity(3);
+        product.setSku("DROP-001");
+        product.setActive(true);
+        product.setCategory(category);
+        product = productRepository.save(product);
+
+        holder = buyer("primeiro");
+        holderOrder = orderRequest(holder);
+        other = buyer("segundo");
+        otherOrder = orderRequest(other);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationService.release(holder.getId());
+        reservationService.release(other.getId());
+        cleanUp();
+    }
+
+    private User buyer(String name) {
+        User user = new User();
+        user.setName("Comprador " + name);
+        user.setEmail(name + "@email.com");
+        user.setPassword("senha123");
+        user = userRepository.save(user);
+
+        // Cada comprador quer 2 das 3 unidades
+        Cart cart = new Cart();
+        cart.setUser(user);
+        CartItem item = new CartItem();
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setQuantity(2);
+        cart.getItems().add(item);
+        cartRepository.save(cart);
+        return user;
+    }
+
+    private CreateOrderRequestDTO orderRequest(User user) {
+        Address address = new Address();
+        address.setStreet("Rua das Flores");
+        address.setNumber("123");
+        address.setNeighborhood("Centro");
+        address.setCity("São Paulo");
+        address.setState("SP");
+        address.setZipCode("01234-567");
+        address.setUser(user);
+        address = addressRepository.save(address);
+
+        CreateOrderRequestDTO request = new CreateOrderRequestDTO();
+        request.setShippingAddressId(address.getId());
+        return request;
+    }
+
+    private int stock() {
+        return productRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
+
+    @Test
+    @DisplayName("Reserva do checkout segura o estoque contra outros pedidos")
+    void testReservation_BlocksOtherCheckout() {
+
+        // Act
+        StockReservationResponseDTO reservation = reservationService.reserveCart(holder.getId());
+
+        // Assert: reservado em memória e persistido, estoque no banco intacto
+        assertEquals(2, reservation.getItems().get(0).getQuantity());
+        assertEquals(2, ledger.heldUnits(product.getId()));
+        assertEquals(1, stockReservationRepository.findByUserId(holder.getId()).size());
+        assertEquals(3, stock());
+
+        // Outro cliente é recusado na reserva, antes do débito no banco
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> orderService.createOrder(other.getId(), otherOrder));
+        assertTrue(exception.getMessage().endsWith("Disponível: 1"));
+        assertEquals(3, stock());
+        assertEquals(2, ledger.heldUnits(product.getId()));
+
+        // Quem reservou fecha o pedido e a reserva é consumida
+        orderService.createOrder(holder.getId(), holderOrder);
+        assertEquals(1, stock());
+        assertEquals(0, ledger.heldUnits(product.getId()));
+        assertTrue(stockReservationRepository.findByUserId(holder.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Liberar a reserva devolve o estoque para os outros clientes")
+    void testRelease_FreesStock() {
+
+        // Arrange
+        reservationService.reserveCart(holder.getId());
+
+        // Act
+        reservationService.release(holder.getId());
+
+        // Assert
+        assertEquals(0, ledger.heldUnits(product.getId()));
+        assertTrue(stockReservationRepository.findByUserId(holder.getId()).isEmpty());
+
+        orderService.createOrder(other.getId(), otherOrder);
+        assertEquals(1, stock());
+    }
+
+    private void cleanUp() {
+        stockReservationRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        addressRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
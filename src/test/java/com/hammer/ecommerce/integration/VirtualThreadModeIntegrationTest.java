@@ -0,0 +1,77 @@
+package com.hammer.ecommerce.integration;
+
+import com.hammer.ecommerce.config.VirtualThreadPinningMonitor;
+import com.hammer.ecommerce.datasource.JdbcAdmissionDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "virtual-threads.pinning.threshold=5ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VirtualThreadModeIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Deve passar as conexões JDBC pela porta de entrada do pool no modo virtual")
+    void testDataSource_WrappedByAdmission() throws Exception {
+
+        assertInstanceOf(JdbcAdmissionDataSource.class, dataSource);
+
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk());
+        assertEquals(0, ((JdbcAdmissionDataSource) dataSource).getWaiting());
+    }
+
+    @Test
+    @DisplayName("Deve registrar thread virtual presa ao carrier dentro de synchronized")
+    void testPinning_Recorded() throws Exception {
+
+        // Arrange: dormir segurando um monitor prende a thread virtual ao carrier
+        Object monitor = new Object();
+        Thread pinned = Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        pinned.join();
+
+        // Act: o stream do JFR entrega os eventos em blocos (cerca de 1 s)
+        Timer timer = null;
+        for (int i = 0; i < 100 && timer == null; i++) {
+            timer = meterRegistry.find(VirtualThreadPinningMonitor.PINNED_METRIC).timer();
+            Thread.sleep(100);
+        }
+
+        // Assert: o site é o primeiro método da aplicação na pilha (esta classe de teste)
+        assertNotNull(timer);
+        assertTrue(timer.getId().getTag("site").startsWith("VirtualThreadModeIntegrationTest."));
+    }
+}